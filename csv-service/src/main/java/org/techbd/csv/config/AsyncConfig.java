@@ -29,4 +29,24 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Runs the screenings of a CSV group (FHIR conversion, status save and bundle validation). Kept apart from
+     * {@code asyncTaskExecutor}, which runs the uploads that wait on these tasks.
+     */
+    @Bean(name = "screeningTaskExecutor")
+    public TaskExecutor screeningTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        int poolSize = Integer.parseInt(
+                System.getenv().getOrDefault("TECHBD_CSV_SCREENING_EXECUTOR_POOL_SIZE", "16"));
+        int awaitTermination = Integer.parseInt(
+                System.getenv().getOrDefault("TECHBD_CSV_ASYNC_EXECUTOR_AWAIT_TERMINATION_SECONDS", "30"));
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setAwaitTerminationSeconds(awaitTermination);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setThreadNamePrefix("csv-screening-");
+        executor.initialize();
+        return executor;
+    }
 }
\ No newline at end of file
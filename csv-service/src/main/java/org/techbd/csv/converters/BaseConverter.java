@@ -1,6 +1,6 @@
 package org.techbd.csv.converters;
 
-import java.util.Map;
+import java.util.Objects;
 
 import org.apache.commons.lang3.StringUtils;
 import org.hl7.fhir.r4.model.CanonicalType;
@@ -12,13 +12,11 @@ import org.hl7.fhir.r4.model.StringType;
 import org.jooq.DSLContext;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.techbd.csv.service.CodeLookupService;
+import org.techbd.csv.service.CodeLookupSnapshot;
 import org.techbd.corelib.util.CoreFHIRUtil;
 
 public abstract class BaseConverter implements IConverter {
 
-    public static Map<String, Map<String, String>> CODE_LOOKUP;
-    public static Map<String, Map<String, String>> SYSTEM_LOOKUP;
-    public static Map<String, Map<String, String>> DISPLAY_LOOKUP;
     private final CodeLookupService codeLookupService;
     private final DSLContext primaryDslContext;
 
@@ -27,87 +25,50 @@ public abstract class BaseConverter implements IConverter {
         this.primaryDslContext = primaryDslContext;
     }
 
-    public String fetchCode(String valueFromCsv, String category, String interactionId) {
-        if (CODE_LOOKUP == null) {
-            BaseConverter.CODE_LOOKUP = codeLookupService.fetchCode(primaryDslContext, interactionId);
-        }
+    /**
+     * The code lookup snapshot shared by all converters; it is read without locking and replaced whole on refresh.
+     */
+    protected CodeLookupSnapshot codeLookup(String interactionId) {
+        return Objects.requireNonNullElse(codeLookupService.snapshot(primaryDslContext, interactionId),
+                CodeLookupSnapshot.EMPTY);
+    }
 
+    public String fetchCode(String valueFromCsv, String category, String interactionId) {
         if (valueFromCsv == null || category == null) {
             return valueFromCsv;
         }
-        Map<String, String> innerMap = CODE_LOOKUP.get(category);
-        if (innerMap == null) {
-            return valueFromCsv;
-        }
-
-        return innerMap.getOrDefault(valueFromCsv.toLowerCase(), valueFromCsv);
+        final String code = codeLookup(interactionId).code(category, valueFromCsv);
+        return code != null ? code : valueFromCsv;
     }
 
     public String fetchCodeIfPresent(String valueFromCsv, String category, String interactionId) {
         if (valueFromCsv == null || category == null) {
             return null;
         }
-        if (CODE_LOOKUP == null) {
-            BaseConverter.CODE_LOOKUP = codeLookupService.fetchCode(primaryDslContext, interactionId);
-        }
-        Map<String, String> innerMap = CODE_LOOKUP.get(category);
-        if (innerMap == null) {
-            return null;
-        }        
-        return innerMap.get(valueFromCsv.toLowerCase());
+        return codeLookup(interactionId).code(category, valueFromCsv);
     }
 
     public String fetchSystem(String code, String valueFromCsv, String category, String interactionId) {
-        if (SYSTEM_LOOKUP == null) {
-            BaseConverter.SYSTEM_LOOKUP = codeLookupService.fetchSystem(primaryDslContext, interactionId);
-        }
-
         if (code == null || category == null) {
             return valueFromCsv;
         }
-        Map<String, String> innerMap = SYSTEM_LOOKUP.get(category);
-        if (innerMap == null) {
-            return valueFromCsv;
-        }
-
-        return innerMap.getOrDefault(code, valueFromCsv);
+        final String system = codeLookup(interactionId).system(category, code);
+        return system != null ? system : valueFromCsv;
     }
 
     public String fetchDisplay(String code, String valueFromCsv, String category, String interactionId) {
-        if (DISPLAY_LOOKUP == null) {
-            BaseConverter.DISPLAY_LOOKUP = codeLookupService.fetchDisplay(primaryDslContext, interactionId);
-        }
-
         if (code == null || category == null) {
             return valueFromCsv;
         }
-        Map<String, String> innerMap = DISPLAY_LOOKUP.get(category);
-        if (innerMap == null) {
-            return valueFromCsv;
-        }
-
-        return innerMap.getOrDefault(code, valueFromCsv);
+        final String display = codeLookup(interactionId).display(category, code);
+        return display != null ? display : valueFromCsv;
     }
 
     public String fetchCodeFromDisplay(String display, String category, String interactionId) {
-        if (DISPLAY_LOOKUP == null) {
-            BaseConverter.DISPLAY_LOOKUP = codeLookupService.fetchDisplay(primaryDslContext, interactionId);
-        }
-
         if (display == null || category == null) {
             return null;
         }
-        Map<String, String> innerMap = DISPLAY_LOOKUP.get(category);
-        if (innerMap == null) {
-            return null;
-        }
-
-        // Reverse lookup: find code for a given display
-        return innerMap.entrySet().stream()
-                .filter(e -> e.getValue().equalsIgnoreCase(display))
-                .map(Map.Entry::getKey)
-                .findFirst()
-                .orElse(null);
+        return codeLookup(interactionId).codeForDisplay(category, display);
     }
 
 
@@ -120,12 +81,7 @@ public abstract class BaseConverter implements IConverter {
     }
 
     private String getCategoryType(String categoryType, String code, String interactionId) {
-        if (CODE_LOOKUP == null) {
-            CODE_LOOKUP = codeLookupService.fetchCode(primaryDslContext, interactionId);
-        }
-
-        Map<String, String> categoryMap = CODE_LOOKUP.get(categoryType);
-        if (categoryMap != null && categoryMap.containsKey(code.toLowerCase())) {
+        if (codeLookup(interactionId).code(categoryType, code) != null) {
             return "ombCategory";
         }
 
@@ -16,17 +16,22 @@ import org.techbd.csv.model.ScreeningObservationData;
 import org.techbd.csv.model.ScreeningProfileData;
 
 import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
 
 @Component
 public class CsvToFhirConverter {
     private final List<IConverter> converters; // todo move other converters inside bundle converter after hl7 changes
     private final BundleConverter bundleConverter;
     private final TemplateLogger LOG;
+    // parsers are not thread safe; screenings are converted in parallel, so each thread keeps its own
+    private final ThreadLocal<IParser> jsonParser;
 
-    public CsvToFhirConverter(BundleConverter bundleConverter, List<IConverter> converters,AppLogger appLogger) {
+    public CsvToFhirConverter(BundleConverter bundleConverter, List<IConverter> converters,AppLogger appLogger,
+            FhirContext fhirContext) {
         this.converters = converters;
         this.bundleConverter = bundleConverter;
         this.LOG = appLogger.getLogger(CsvToFhirConverter.class);
+        this.jsonParser = ThreadLocal.withInitial(fhirContext::newJsonParser);
     }
 
     public String convert(DemographicData demographicData,
@@ -44,7 +49,7 @@ public class CsvToFhirConverter {
         } catch (Exception ex) {
             LOG.error("Exception in Csv conversion for interaction id : {}", interactionId, ex);
         }
-        return FhirContext.forR4().newJsonParser().encodeResourceToString(bundle);
+        return jsonParser.get().encodeResourceToString(bundle);
     }
 
     private void addEntries(Bundle bundle, DemographicData demographicData,
@@ -2,13 +2,20 @@ package org.techbd.csv.service;
 
 import static org.techbd.udi.auto.jooq.ingress.Tables.REF_CODE_LOOKUP_CODE_VIEW;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.jooq.DSLContext;
 import org.jooq.Record2;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.techbd.corelib.util.AppLogger;
 import org.techbd.corelib.util.TemplateLogger;
@@ -17,111 +24,129 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+/**
+ * Holds the {@link CodeLookupSnapshot} shared by every CSV converter. The first lookup loads it; after that, a lookup
+ * made once the refresh interval has passed starts a background check of the {@code ref_code_lookup} fingerprint and
+ * a changed table is loaded into a new snapshot that replaces the old one atomically. Lookups never wait on a refresh.
+ */
 @Service
 public class CodeLookupService {
 
     private final TemplateLogger LOG;
     private final ObjectMapper objectMapper;
+    private final Duration refreshInterval;
+    private final AtomicReference<CodeLookupSnapshot> current = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile long lastCheckedNanos;
 
-    public CodeLookupService(AppLogger appLogger) {
+    public CodeLookupService(AppLogger appLogger,
+            @Value("${org.techbd.csv.code-lookup.refresh-interval-seconds:300}") long refreshIntervalSeconds) {
         this.objectMapper = new ObjectMapper();
         this.LOG = appLogger.getLogger(CodeLookupService.class);
+        this.refreshInterval = Duration.ofSeconds(refreshIntervalSeconds);
     }
 
-    public Map<String, Map<String, String>> fetchCode(DSLContext dsl, String interactionId) {
-        LOG.info("CodeLookupService::fetchCode fetching values from database - BEGIN - interaction Id: {}", interactionId);
-        try {
-            List<Record2<String, String>> records = dsl
-                    .select(REF_CODE_LOOKUP_CODE_VIEW.CODE_TYPE, REF_CODE_LOOKUP_CODE_VIEW.CODES.cast(String.class))
-                    .from(REF_CODE_LOOKUP_CODE_VIEW)
-                    .fetch();
-    
-            Map<String, Map<String, String>> result = records.stream()
-                    .collect(Collectors.toMap(
-                            Record2::component1,
-                            record -> {
-                                List<Map<String, String>> codesList = parseJsonCodes(record.component2());
-                                return codesList.stream()
-                                    .filter(map -> map != null && map.get("code") != null)
-                                    .collect(Collectors.toMap(
-                                        map -> map.get("code").toLowerCase(),
-                                        map -> map.get("code"),
-                                        (existing, replacement) -> existing
-                                    ));
-                            },
-                            (existing, replacement) -> existing
-                    ));
-    
-            return result;
-        } catch (Exception ex) {
-            LOG.error("Exception during fetching values from database", ex);
+    /**
+     * @return the current snapshot, loading it on first use; never null. A refresh interval of zero keeps the first
+     *         snapshot until {@link #refresh} is called.
+     */
+    public CodeLookupSnapshot snapshot(DSLContext dsl, String interactionId) {
+        CodeLookupSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = current.get();
+                if (snapshot == null) {
+                    snapshot = load(dsl, interactionId, 1);
+                    current.set(snapshot);
+                    lastCheckedNanos = System.nanoTime();
+                }
+            }
+            return snapshot;
+        }
+        if (isRefreshDue() && refreshing.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("code-lookup-refresh").start(() -> {
+                try {
+                    refresh(dsl, interactionId);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
         }
-        LOG.info("CodeLookupService::fetchCode fetching values from database - END - interaction Id: {}", interactionId);
-        return Collections.emptyMap();
+        return snapshot;
     }
 
-    public Map<String, Map<String, String>> fetchSystem(DSLContext dsl, String interactionId) {
-        LOG.info("CodeLookupService::fetchSystem fetching values from database - BEGIN - interaction Id: {}", interactionId);
+    /**
+     * Compares the fingerprint of {@code ref_code_lookup} with the current snapshot and swaps in a new snapshot when
+     * the table changed.
+     *
+     * @return true when a new snapshot was swapped in
+     */
+    public boolean refresh(DSLContext dsl, String interactionId) {
+        lastCheckedNanos = System.nanoTime();
+        final CodeLookupSnapshot snapshot = current.get();
         try {
-            List<Record2<String, String>> records = dsl
-                    .select(REF_CODE_LOOKUP_CODE_VIEW.CODE_TYPE, REF_CODE_LOOKUP_CODE_VIEW.CODES.cast(String.class))
-                    .from(REF_CODE_LOOKUP_CODE_VIEW)
-                    .fetch();
-    
-            Map<String, Map<String, String>> result = records.stream()
-                    .collect(Collectors.toMap(
-                            Record2::component1,
-                            record -> {
-                                List<Map<String, String>> codesList = parseJsonCodes(record.component2());
-                                return codesList.stream()
-                                    .filter(map -> map != null && map.get("code") != null && map.get("system") != null)
-                                    .collect(Collectors.toMap(
-                                        map -> map.get("code"),
-                                        map -> map.get("system"),
-                                        (existing, replacement) -> existing
-                                    ));
-                            },
-                            (existing, replacement) -> existing
-                    ));
-    
-            return result;
+            final String fingerprint = fetchFingerprint(dsl);
+            if (snapshot != null && fingerprint != null && fingerprint.equals(snapshot.fingerprint())) {
+                LOG.debug("CodeLookupService::refresh ref_code_lookup unchanged since version {} - interaction Id: {}",
+                        snapshot.version(), interactionId);
+                return false;
+            }
         } catch (Exception ex) {
-            LOG.error("Exception during fetching values from database", ex);
+            LOG.error("CodeLookupService::refresh failed to read the ref_code_lookup fingerprint - interaction Id: {}",
+                    interactionId, ex);
+            return false;
+        }
+        final CodeLookupSnapshot refreshed = load(dsl, interactionId, snapshot == null ? 1 : snapshot.version() + 1);
+        if (refreshed == CodeLookupSnapshot.EMPTY) {
+            return false;
         }
-        LOG.info("CodeLookupService::fetchSystem fetching values from database - END - interaction Id: {}", interactionId);
-        return Collections.emptyMap();
+        current.set(refreshed);
+        LOG.info("CodeLookupService::refresh swapped in code lookup version {} with {} categories - interaction Id: {}",
+                refreshed.version(), refreshed.categoryCount(), interactionId);
+        return true;
     }
 
-    public Map<String, Map<String, String>> fetchDisplay(DSLContext dsl, String interactionId) {
-        LOG.info("CodeLookupService::fetchDisplay fetching values from database - BEGIN - interaction Id: {}", interactionId);
+    private boolean isRefreshDue() {
+        return !refreshInterval.isZero() && System.nanoTime() - lastCheckedNanos >= refreshInterval.toNanos();
+    }
+
+    /**
+     * Digest of the view computed in the database, so checking for a change does not transfer the table.
+     */
+    private String fetchFingerprint(DSLContext dsl) {
+        return dsl.select(DSL.field("md5(string_agg({0} || ':' || {1}::text, '|' ORDER BY {0}))",
+                SQLDataType.VARCHAR, REF_CODE_LOOKUP_CODE_VIEW.CODE_TYPE, REF_CODE_LOOKUP_CODE_VIEW.CODES))
+                .from(REF_CODE_LOOKUP_CODE_VIEW)
+                .fetchOne(0, String.class);
+    }
+
+    /**
+     * @return the loaded snapshot, or {@link CodeLookupSnapshot#EMPTY} when the table could not be read; lookups then
+     *         fall back to the values in the CSV until the next refresh succeeds
+     */
+    private CodeLookupSnapshot load(DSLContext dsl, String interactionId, long version) {
+        LOG.info("CodeLookupService::load fetching values from database - BEGIN - interaction Id: {}", interactionId);
+        final Instant start = Instant.now();
         try {
+            final String fingerprint = fetchFingerprint(dsl);
             List<Record2<String, String>> records = dsl
                     .select(REF_CODE_LOOKUP_CODE_VIEW.CODE_TYPE, REF_CODE_LOOKUP_CODE_VIEW.CODES.cast(String.class))
                     .from(REF_CODE_LOOKUP_CODE_VIEW)
                     .fetch();
 
-            Map<String, Map<String, String>> result = records.stream()
-                    .collect(Collectors.toMap(
-                            Record2::component1,
-                            record -> {
-                                List<Map<String, String>> codesList = parseJsonCodes(record.component2());
-                                return codesList.stream()
-                                    .filter(map -> map != null && map.get("code") != null && map.get("display") != null)
-                                    .collect(Collectors.toMap(
-                                        map -> map.get("code"),
-                                        map -> map.get("display"),
-                                        (existing, replacement) -> existing
-                                    ));
-                            },
-                            (existing, replacement) -> existing
-                    ));
-
-            return result;
+            final Map<String, List<Map<String, String>>> codesByCategory = new LinkedHashMap<>();
+            for (final Record2<String, String> record : records) {
+                codesByCategory.putIfAbsent(record.component1(), parseJsonCodes(record.component2()));
+            }
+            final CodeLookupSnapshot snapshot = CodeLookupSnapshot.build(codesByCategory, version,
+                    fingerprint == null ? "" : fingerprint);
+            LOG.info("CodeLookupService::load fetching values from database - END - interaction Id: {}, version: {}, categories: {}, timeTaken: {} ms",
+                    interactionId, version, snapshot.categoryCount(), Duration.between(start, Instant.now()).toMillis());
+            return snapshot;
         } catch (Exception ex) {
-            LOG.error("Exception during fetching display values from database", ex);
+            LOG.error("Exception during fetching values from database", ex);
         }
-        LOG.info("CodeLookupService::fetchDisplay fetching values from database - END - interaction Id: {}", interactionId);
-        return Collections.emptyMap();
+        return CodeLookupSnapshot.EMPTY;
     }
 
     private List<Map<String, String>> parseJsonCodes(String jsonString) {
@@ -0,0 +1,145 @@
+package org.techbd.csv.service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An immutable copy of {@code ref_code_lookup} with every index the CSV converters look values up in, built once per
+ * load. Converters running at the same time share one snapshot; a refresh builds a new snapshot and swaps it in
+ * whole, so a conversion never sees a half-updated table.
+ */
+public final class CodeLookupSnapshot {
+
+    public static final CodeLookupSnapshot EMPTY = new CodeLookupSnapshot(Map.of(), 0, "", Instant.EPOCH);
+
+    private final Map<String, Category> categories;
+    private final long version;
+    private final String fingerprint;
+    private final Instant loadedAt;
+
+    private CodeLookupSnapshot(final Map<String, Category> categories, final long version, final String fingerprint,
+            final Instant loadedAt) {
+        this.categories = categories;
+        this.version = version;
+        this.fingerprint = fingerprint;
+        this.loadedAt = loadedAt;
+    }
+
+    /**
+     * @param codesByCategory the {@code codes} entries ({@code code}, {@code system}, {@code display}) of each
+     *                        {@code code_type}; when a code or display repeats within a category the first one wins
+     * @param version         increases with every snapshot the service swaps in
+     * @param fingerprint     identifies the table content the snapshot was built from
+     */
+    public static CodeLookupSnapshot build(final Map<String, List<Map<String, String>>> codesByCategory,
+            final long version, final String fingerprint) {
+        final Map<String, Category> categories = new HashMap<>();
+        codesByCategory.forEach((category, codes) -> {
+            if (category != null && codes != null) {
+                categories.put(category, Category.of(codes));
+            }
+        });
+        return new CodeLookupSnapshot(Map.copyOf(categories), version, fingerprint, Instant.now());
+    }
+
+    /**
+     * @return the code as spelled in the lookup for a value matched ignoring case, or null when the category does not
+     *         have it
+     */
+    public String code(final String category, final String value) {
+        final Category index = index(category);
+        return index == null || value == null ? null : index.codeByLowerCode.get(lowerCase(value));
+    }
+
+    public String system(final String category, final String code) {
+        final Category index = index(category);
+        return index == null ? null : index.lookup(index.systemByCode, code);
+    }
+
+    public String display(final String category, final String code) {
+        final Category index = index(category);
+        return index == null ? null : index.lookup(index.displayByCode, code);
+    }
+
+    /**
+     * @return the code whose display matches {@code display} ignoring case, or null
+     */
+    public String codeForDisplay(final String category, final String display) {
+        final Category index = index(category);
+        return index == null || display == null ? null : index.codeByLowerDisplay.get(lowerCase(display));
+    }
+
+    public boolean hasCategory(final String category) {
+        return index(category) != null;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    public Instant loadedAt() {
+        return loadedAt;
+    }
+
+    public int categoryCount() {
+        return categories.size();
+    }
+
+    // the maps are immutable copies, which reject null keys on lookup
+    private Category index(final String category) {
+        return category == null ? null : categories.get(category);
+    }
+
+    private static String lowerCase(final String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private record Category(Map<String, String> codeByLowerCode, Map<String, String> systemByCode,
+            Map<String, String> displayByCode, Map<String, String> codeByLowerDisplay) {
+
+        static Category of(final List<Map<String, String>> codes) {
+            final Map<String, String> codeByLowerCode = new HashMap<>();
+            final Map<String, String> systemByCode = new HashMap<>();
+            final Map<String, String> displayByCode = new HashMap<>();
+            final Map<String, String> codeByLowerDisplay = new HashMap<>();
+            for (final Map<String, String> entry : codes) {
+                final String code = entry == null ? null : entry.get("code");
+                if (code == null) {
+                    continue;
+                }
+                codeByLowerCode.putIfAbsent(lowerCase(code), code);
+                final String system = entry.get("system");
+                if (system != null) {
+                    systemByCode.putIfAbsent(code, system);
+                }
+                final String display = entry.get("display");
+                if (display != null) {
+                    displayByCode.putIfAbsent(code, display);
+                    codeByLowerDisplay.putIfAbsent(lowerCase(display), code);
+                }
+            }
+            return new Category(Map.copyOf(codeByLowerCode), Map.copyOf(systemByCode), Map.copyOf(displayByCode),
+                    Map.copyOf(codeByLowerDisplay));
+        }
+
+        /** Exact code first, then the code spelled as in the lookup when it only differs in case. */
+        String lookup(final Map<String, String> byCode, final String code) {
+            if (code == null) {
+                return null;
+            }
+            final String value = byCode.get(code);
+            if (value != null) {
+                return value;
+            }
+            final String canonical = codeByLowerCode.get(lowerCase(code));
+            return canonical == null ? null : byCode.get(canonical);
+        }
+    }
+}
@@ -14,12 +14,23 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.jooq.DSLContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.MimeTypeUtils;
@@ -54,10 +65,15 @@ import org.techbd.udi.auto.jooq.ingress.routines.SatInteractionCsvRequestUpserte
 import com.fasterxml.jackson.databind.JsonNode;
 
 import io.micrometer.common.util.StringUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.http.Cookie;
 
 @Service
 public class CsvBundleProcessorService {
+    static final String METRIC_SCREENING_GROUP_DURATION = "techbd.csv.screening_group.duration";
+
     private final TemplateLogger LOG;
     private final CsvToFhirConverter csvToFhirConverter;
     // private final FHIRService fhirService;
@@ -65,16 +81,38 @@ public class CsvBundleProcessorService {
     private final AppConfig appConfig;
     private final DSLContext primaryDslContext;
     private final FhirValidationServiceClient fhirValidationServiceClient;
+    private final TaskExecutor screeningTaskExecutor;
+    private final int maxConcurrentScreeningsPerTenant;
+    private final MeterRegistry meterRegistry;
+    // shared by every upload of a tenant so one large submission cannot take all of the screening threads
+    private final ConcurrentMap<String, Semaphore> tenantScreeningPermits = new ConcurrentHashMap<>();
 
+    @Autowired
     public CsvBundleProcessorService(final CsvToFhirConverter csvToFhirConverter,
     DataLedgerApiClient coreDataLedgerApiClient,AppConfig appConfig, @Qualifier("primaryDslContext") DSLContext primaryDslContext,
-    AppLogger appLogger, FhirValidationServiceClient fhirValidationServiceClient) {
+    AppLogger appLogger, FhirValidationServiceClient fhirValidationServiceClient,
+    @Qualifier("screeningTaskExecutor") TaskExecutor screeningTaskExecutor,
+    @Value("${org.techbd.csv.processing.max-concurrent-screenings-per-tenant:8}") int maxConcurrentScreeningsPerTenant,
+    ObjectProvider<MeterRegistry> meterRegistry) {
+        this(csvToFhirConverter, coreDataLedgerApiClient, appConfig, primaryDslContext, appLogger,
+                fhirValidationServiceClient, screeningTaskExecutor, maxConcurrentScreeningsPerTenant,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    CsvBundleProcessorService(final CsvToFhirConverter csvToFhirConverter,
+            final DataLedgerApiClient coreDataLedgerApiClient, final AppConfig appConfig,
+            final DSLContext primaryDslContext, final AppLogger appLogger,
+            final FhirValidationServiceClient fhirValidationServiceClient, final TaskExecutor screeningTaskExecutor,
+            final int maxConcurrentScreeningsPerTenant, final MeterRegistry meterRegistry) {
         this.csvToFhirConverter = csvToFhirConverter;
         // this.fhirService = fhirService;
         this.coreDataLedgerApiClient = coreDataLedgerApiClient;
         this.appConfig = appConfig;
         this.primaryDslContext = primaryDslContext;
         this.fhirValidationServiceClient = fhirValidationServiceClient;
+        this.screeningTaskExecutor = screeningTaskExecutor;
+        this.maxConcurrentScreeningsPerTenant = maxConcurrentScreeningsPerTenant;
+        this.meterRegistry = meterRegistry;
         this.LOG = appLogger.getLogger(CsvBundleProcessorService.class);
     }
 
@@ -407,142 +445,236 @@ private List<Object> processScreening(final String groupKey,
             boolean isAllCsvConvertedToFhir,String baseFHIRUrl,AtomicInteger totalNumberOfBundlesGenerated,CsvProcessingMetricsBuilder metricsBuilder)
             throws IOException {
         LOG.info("CsvBundleProcessorService processScreening: BEGIN for zipFileInteractionId: {}, groupInteractionId :{}, tenantId: {}, baseFHIRURL: {}", masterInteractionId, groupInteractionId, tenantId, baseFHIRUrl);
-        final List<Object> results = new ArrayList<>();
-        final AtomicInteger errorCount = new AtomicInteger();
-        screeningProfileData.forEach((encounterId, profileList) -> {
-            for (final ScreeningProfileData profile : profileList) {
-                final String interactionId = UuidUtil.generateUuid();
-                String bundle = null;
-                try {
-                    final List<DemographicData> demographicList = demographicData.getOrDefault(
-                            profile.getPatientMrIdValue(),
-                            List.of());
-                    final List<QeAdminData> qeAdminList = qeAdminData.getOrDefault(profile.getPatientMrIdValue(),
-                            List.of());
-                    final List<ScreeningObservationData> screeningObservationList = screeningObservationData
-                            .getOrDefault(profile.getEncounterId(), List.of());
+        final Instant groupStart = Instant.now();
+        final ScreeningGroupContext context = new ScreeningGroupContext(groupKey, demographicData, qeAdminData,
+                screeningObservationData, Collections.unmodifiableMap(new HashMap<>(requestParameters)),
+                groupInteractionId, masterInteractionId, tenantId, isValid, payloadAndValidationOutcome, baseFHIRUrl,
+                totalNumberOfBundlesGenerated);
+        final List<ScreeningProfileData> profiles = screeningProfileData.values().stream()
+                .flatMap(List::stream)
+                .toList();
+        // one future per screening, kept in file order so the summary reads the same as a serial run
+        final List<CompletableFuture<ScreeningOutcome>> pending = new ArrayList<>(profiles.size());
+        final boolean parallel = maxConcurrentScreeningsPerTenant > 1 && profiles.size() > 1;
+        final Semaphore permits = parallel
+                ? tenantScreeningPermits.computeIfAbsent(String.valueOf(tenantId),
+                        key -> new Semaphore(maxConcurrentScreeningsPerTenant))
+                : null;
+        for (final ScreeningProfileData profile : profiles) {
+            if (!parallel) {
+                pending.add(CompletableFuture.completedFuture(processScreeningProfile(context, profile).join()));
+                continue;
+            }
+            permits.acquireUninterruptibly();
+            CompletableFuture<ScreeningOutcome> outcome;
+            try {
+                outcome = CompletableFuture.supplyAsync(() -> processScreeningProfile(context, profile),
+                        screeningTaskExecutor).thenCompose(Function.identity());
+            } catch (final RejectedExecutionException e) {
+                LOG.warn("Screening executor rejected encounterId: {} for groupInteractionId: {}, processing it on the calling thread",
+                        profile.getEncounterId(), groupInteractionId);
+                outcome = processScreeningProfile(context, profile);
+            }
+            // the permit is held until the validation response arrives, but no thread waits for it
+            pending.add(outcome.whenComplete((ignored, error) -> permits.release()));
+        }
+        final List<Object> results = new ArrayList<>(profiles.size());
+        int errorCount = 0;
+        long screeningMillis = 0;
+        long slowestScreeningMillis = 0;
+        for (final CompletableFuture<ScreeningOutcome> future : pending) {
+            final ScreeningOutcome outcome = future.join();
+            results.add(outcome.result());
+            screeningMillis += outcome.elapsedMillis();
+            slowestScreeningMillis = Math.max(slowestScreeningMillis, outcome.elapsedMillis());
+            if (outcome.failed()) {
+                errorCount++;
+                metricsBuilder.dataValidationStatus(CsvDataValidationStatus.FAILED.getDescription());
+            }
+        }
+        if (errorCount > 0) {
+            isAllCsvConvertedToFhir = false;
+        }
+        final Duration wallTime = Duration.between(groupStart, Instant.now());
+        Timer.builder(METRIC_SCREENING_GROUP_DURATION)
+                .tag("tenant", String.valueOf(tenantId))
+                .tag("outcome", errorCount == 0 ? "success" : errorCount == profiles.size() ? "failed" : "partial")
+                .register(meterRegistry)
+                .record(wallTime);
+        LOG.info("CsvBundleProcessorService processScreening: END for zipFileInteractionId: {}, groupInteractionId :{}, tenantId: {}, baseFHIRURL: {}, screenings: {}, failed: {}, concurrency: {}, wallTime: {} ms, screeningTime: {} ms, slowestScreening: {} ms",
+                masterInteractionId, groupInteractionId, tenantId, baseFHIRUrl, profiles.size(), errorCount,
+                parallel ? maxConcurrentScreeningsPerTenant : 1, wallTime.toMillis(),
+                screeningMillis, slowestScreeningMillis);
+        return results;
+    }
 
-                    if (demographicList.isEmpty() || qeAdminList.isEmpty() || screeningObservationList.isEmpty()) {
-                        final String errorMessage = String.format(
-                                "Foreign Key Error : Data missing in one or more files for patientMrIdValue: %s",
-                                profile.getPatientMrIdValue());
-                        LOG.error(errorMessage);
-                        throw new IllegalArgumentException(errorMessage);
-                    }
-                    final Instant initiatedAt = Instant.now();
-                    bundle = csvToFhirConverter.convert(
-                            demographicList.get(0),
-                            qeAdminList.get(0),
-                            profile,
-                            screeningObservationList,
-                            interactionId,baseFHIRUrl);
-                    final Instant completedAt = Instant.now();
-                    if (bundle != null) {
-                        totalNumberOfBundlesGenerated.getAndIncrement();
-                        final String updatedProvenance = addBundleProvenance(payloadAndValidationOutcome.provenance(),
-                                getFileNames(payloadAndValidationOutcome.fileDetails()),
-                                profile.getPatientMrIdValue(), profile.getEncounterId(), initiatedAt, completedAt);
-                        saveFhirConversionStatus(isValid, masterInteractionId, groupKey, groupInteractionId,
-                                interactionId, requestParameters,
-                                bundle, null, tenantId);
-                        
-                              Map<String, Object> headers = CoreFHIRUtil.buildHeaderParametersMap(
-                                tenantId,
-                                null,
-                                
-                                null,
-                                (String) requestParameters.get(Constants.VALIDATION_SEVERITY_LEVEL), // Cast to String, // Pass severity level
-                                null,
-                                null,
-                                updatedProvenance, null);
-                       CoreFHIRUtil.buildRequestParametersMap(requestParameters,
-                            false, null, SourceType.CSV.name(),  groupInteractionId, masterInteractionId,(String) requestParameters.get(Constants.REQUEST_URI));
-                        requestParameters.put(Constants.INTERACTION_ID, interactionId);
-                        requestParameters.put(Constants.GROUP_INTERACTION_ID, groupInteractionId);
-                        requestParameters.put(Constants.MASTER_INTERACTION_ID, masterInteractionId);
-                        // Add sourceType with the correct key for FHIR validation service client
-                        requestParameters.put("sourceType", SourceType.CSV.name());
-                        requestParameters.put("groupInteractionId", groupInteractionId);
-                        requestParameters.put("masterInteractionId", masterInteractionId);
-                        requestParameters.put("validationSeverityLevel", (String) requestParameters.get(Constants.VALIDATION_SEVERITY_LEVEL));
-                        requestParameters.putAll(headers);
-                        // Call FHIR validation service
-                        try {
+    /**
+     * Everything a screening of a CSV group needs, fixed before the screenings are handed out so that tasks running
+     * at the same time never share a mutable map. {@code requestParameters} is a read-only copy; each screening adds
+     * its own interaction ids to a copy of it.
+     */
+    private record ScreeningGroupContext(String groupKey,
+            Map<String, List<DemographicData>> demographicData,
+            Map<String, List<QeAdminData>> qeAdminData,
+            Map<String, List<ScreeningObservationData>> screeningObservationData,
+            Map<String, Object> requestParameters,
+            String groupInteractionId,
+            String masterInteractionId,
+            String tenantId,
+            boolean isValid,
+            PayloadAndValidationOutcome payloadAndValidationOutcome,
+            String baseFHIRUrl,
+            AtomicInteger totalNumberOfBundlesGenerated) {
+    }
 
-                            Object validationResult = fhirValidationServiceClient.validateBundle(
-                                    bundle, // FHIR bundle JSON string
-                                    interactionId, // Current interaction ID
-                                    tenantId, // Tenant ID
-                                    requestParameters // Map containing ALL headers and parameters
-                            );
+    /**
+     * The validation result or operation outcome of one screening, whether it failed to convert, and how long it took.
+     */
+    private record ScreeningOutcome(Object result, boolean failed, long elapsedMillis) {
+    }
 
-                            results.add(validationResult);
-                            LOG.info(
-                                    "Bundle validated and result saved to database for patient MrId: {}, interactionId: {}, masterInteractionId: {}, groupInteractionId: {}",
-                                    profile.getPatientMrIdValue(), interactionId, masterInteractionId,
-                                    groupInteractionId);
-                        } catch (Exception validationException) {
-                            LOG.error(
-                                    "FHIR validation failed for patient MrId: {}, interactionId: {}, masterInteractionId: {}, groupInteractionId: {}, error: {}",
-                                    profile.getPatientMrIdValue(), interactionId, masterInteractionId,
-                                    groupInteractionId, validationException.getMessage(), validationException);
-                            final Map<String, Object> validationError = CsvConversionUtil.createOperationOutcomeForError(appConfig,
-                                    masterInteractionId, interactionId,
-                                    profile.getPatientMrIdValue(), profile.getEncounterId(), validationException,
-                                    payloadAndValidationOutcome.provenance(), payloadAndValidationOutcome.fileDetails(),
-                                    requestParameters);
-                            results.add(validationError);
+    /**
+     * Converts the screening on the calling thread and hands the bundle to fhir-validation-service without waiting
+     * for the response, so the thread can convert the next screening while the validation is in flight. The returned
+     * future completes once the validation result (or the operation outcome of a failure) is known.
+     */
+    private CompletableFuture<ScreeningOutcome> processScreeningProfile(final ScreeningGroupContext context,
+            final ScreeningProfileData profile) {
+        final Instant screeningStart = Instant.now();
+        final String interactionId = UuidUtil.generateUuid();
+        final String groupKey = context.groupKey();
+        final String groupInteractionId = context.groupInteractionId();
+        final String masterInteractionId = context.masterInteractionId();
+        final String tenantId = context.tenantId();
+        final boolean isValid = context.isValid();
+        final PayloadAndValidationOutcome payloadAndValidationOutcome = context.payloadAndValidationOutcome();
+        final Map<String, Object> requestParameters = new HashMap<>(context.requestParameters());
+        String bundle = null;
+        try {
+            final List<DemographicData> demographicList = context.demographicData().getOrDefault(
+                    profile.getPatientMrIdValue(),
+                    List.of());
+            final List<QeAdminData> qeAdminList = context.qeAdminData().getOrDefault(profile.getPatientMrIdValue(),
+                    List.of());
+            final List<ScreeningObservationData> screeningObservationList = context.screeningObservationData()
+                    .getOrDefault(profile.getEncounterId(), List.of());
 
-                        }
+            if (demographicList.isEmpty() || qeAdminList.isEmpty() || screeningObservationList.isEmpty()) {
+                final String errorMessage = String.format(
+                        "Foreign Key Error : Data missing in one or more files for patientMrIdValue: %s",
+                        profile.getPatientMrIdValue());
+                LOG.error(errorMessage);
+                throw new IllegalArgumentException(errorMessage);
+            }
+            final Instant initiatedAt = Instant.now();
+            bundle = csvToFhirConverter.convert(
+                    demographicList.get(0),
+                    qeAdminList.get(0),
+                    profile,
+                    screeningObservationList,
+                    interactionId,context.baseFHIRUrl());
+            final Instant completedAt = Instant.now();
+            if (bundle != null) {
+                context.totalNumberOfBundlesGenerated().getAndIncrement();
+                final String updatedProvenance = addBundleProvenance(payloadAndValidationOutcome.provenance(),
+                        getFileNames(payloadAndValidationOutcome.fileDetails()),
+                        profile.getPatientMrIdValue(), profile.getEncounterId(), initiatedAt, completedAt);
+                saveFhirConversionStatus(isValid, masterInteractionId, groupKey, groupInteractionId,
+                        interactionId, requestParameters,
+                        bundle, null, tenantId);
+                
+                      Map<String, Object> headers = CoreFHIRUtil.buildHeaderParametersMap(
+                        tenantId,
+                        null,
+                        
+                        null,
+                        (String) requestParameters.get(Constants.VALIDATION_SEVERITY_LEVEL), // Cast to String, // Pass severity level
+                        null,
+                        null,
+                        updatedProvenance, null);
+               CoreFHIRUtil.buildRequestParametersMap(requestParameters,
+                    false, null, SourceType.CSV.name(),  groupInteractionId, masterInteractionId,(String) requestParameters.get(Constants.REQUEST_URI));
+                requestParameters.put(Constants.INTERACTION_ID, interactionId);
+                requestParameters.put(Constants.GROUP_INTERACTION_ID, groupInteractionId);
+                requestParameters.put(Constants.MASTER_INTERACTION_ID, masterInteractionId);
+                // Add sourceType with the correct key for FHIR validation service client
+                requestParameters.put("sourceType", SourceType.CSV.name());
+                requestParameters.put("groupInteractionId", groupInteractionId);
+                requestParameters.put("masterInteractionId", masterInteractionId);
+                requestParameters.put("validationSeverityLevel", (String) requestParameters.get(Constants.VALIDATION_SEVERITY_LEVEL));
+                requestParameters.putAll(headers);
+                // Call FHIR validation service
+                return fhirValidationServiceClient.validateBundleAsync(
+                        bundle, // FHIR bundle JSON string
+                        interactionId, // Current interaction ID
+                        tenantId, // Tenant ID
+                        requestParameters // Map containing ALL headers and parameters
+                ).toFuture().handle((validationResult, failure) -> {
+                    Object result;
+                    if (failure == null) {
+                        result = validationResult;
                         LOG.info(
-                                "Bundle generated for  patient  MrId: {}, interactionId: {}, masterInteractionId: {}, groupInteractionId :{}",
-                                profile.getPatientMrIdValue(), interactionId, masterInteractionId, groupInteractionId);
+                                "Bundle validated and result saved to database for patient MrId: {}, interactionId: {}, masterInteractionId: {}, groupInteractionId: {}",
+                                profile.getPatientMrIdValue(), interactionId, masterInteractionId,
+                                groupInteractionId);
                     } else {
-                        metricsBuilder.dataValidationStatus(CsvDataValidationStatus.FAILED.getDescription());
-                        LOG.error("Bundle not generated for  patient  MrId: {}, interactionId: {}, masterInteractionId: {}, groupInteractionId :{}",
-                                profile.getPatientMrIdValue(), interactionId, masterInteractionId,groupInteractionId);
-                        errorCount.incrementAndGet();
-                        final Map<String, Object> result = CsvConversionUtil.createOperationOutcomeForError(appConfig,masterInteractionId, interactionId,
+                        final Throwable validationException = failure instanceof CompletionException
+                                && failure.getCause() != null ? failure.getCause() : failure;
+                        LOG.error(
+                                "FHIR validation failed for patient MrId: {}, interactionId: {}, masterInteractionId: {}, groupInteractionId: {}, error: {}",
+                                profile.getPatientMrIdValue(), interactionId, masterInteractionId,
+                                groupInteractionId, validationException.getMessage(), validationException);
+                        result = CsvConversionUtil.createOperationOutcomeForError(appConfig,
+                                masterInteractionId, interactionId,
                                 profile.getPatientMrIdValue(), profile.getEncounterId(),
-                                new Exception("Bundle not created"),
-                                payloadAndValidationOutcome.provenance(),payloadAndValidationOutcome.fileDetails(),requestParameters);
-                        String bundleId =CoreFHIRUtil.extractBundleId(bundle, tenantId);                                
-                        DataLedgerPayload dataLedgerPayload = DataLedgerPayload.create(
-                        DataLedgerApiClient.Actor.TECHBD.getValue(), DataLedgerApiClient.Action.SENT.getValue(), 
-                        DataLedgerApiClient.Actor.INVALID_CSV.getValue(), bundleId != null ? bundleId : masterInteractionId);
-                        final var dataLedgerProvenance = "%s.processScreening".formatted(CsvBundleProcessorService.class.getName());
-                        coreDataLedgerApiClient.processRequest(dataLedgerPayload,interactionId,masterInteractionId,groupInteractionId,dataLedgerProvenance,SourceType.CSV.name(),result,(boolean) requestParameters.get(Constants.DATA_LEDGER_TRACKING),(boolean) requestParameters.get(Constants.DATA_LEDGER_DIAGNOSTICS));
-                        results.add(result);
-                        saveFhirConversionStatus(isValid, masterInteractionId, groupKey, groupInteractionId,
-                                interactionId, requestParameters,
-                                bundle, result, tenantId);
+                                validationException instanceof Exception exception ? exception
+                                        : new Exception(validationException),
+                                payloadAndValidationOutcome.provenance(), payloadAndValidationOutcome.fileDetails(),
+                                requestParameters);
                     }
-                } catch (final Exception e) {
-                    errorCount.incrementAndGet();
-                    metricsBuilder.dataValidationStatus(CsvDataValidationStatus.FAILED.getDescription());
-                    final Map<String, Object> result = CsvConversionUtil.createOperationOutcomeForError(appConfig,masterInteractionId, interactionId,
-                            profile.getPatientMrIdValue(), profile.getEncounterId(), e,
-                            payloadAndValidationOutcome.provenance(),payloadAndValidationOutcome.fileDetails(),requestParameters);
-                    String bundleId =CoreFHIRUtil.extractBundleId(bundle, tenantId);                                
-                    DataLedgerPayload dataLedgerPayload = DataLedgerPayload.create(
-                    DataLedgerApiClient.Actor.TECHBD.getValue(), DataLedgerApiClient.Action.SENT.getValue(), 
-                    DataLedgerApiClient.Actor.INVALID_CSV.getValue(), bundleId != null ? bundleId : masterInteractionId);
-                    final var dataLedgerProvenance = "%s.processScreening".formatted(CsvBundleProcessorService.class.getName());
-                    coreDataLedgerApiClient.processRequest(dataLedgerPayload,interactionId,masterInteractionId,groupInteractionId,dataLedgerProvenance,SourceType.CSV.name(),result,(boolean) requestParameters.get(Constants.DATA_LEDGER_TRACKING),(boolean) requestParameters.get(Constants.DATA_LEDGER_DIAGNOSTICS));
-                    LOG.error("Error processing patient data for MrId:{}, interactionId: {}, masterInteractionId:{} , groupInteractionId:{}, Error:{}",
-                            profile.getPatientMrIdValue(), interactionId,masterInteractionId,groupInteractionId, e.getMessage(), e);
-                    results.add(result);
-                    saveFhirConversionStatus(isValid, masterInteractionId, groupKey, groupInteractionId, interactionId,
-                            requestParameters,
-                            bundle, result, tenantId);
-                }
+                    final long elapsedMillis = Duration.between(screeningStart, Instant.now()).toMillis();
+                    LOG.info(
+                            "Bundle generated for  patient  MrId: {}, interactionId: {}, masterInteractionId: {}, groupInteractionId :{}, timeTaken: {} ms",
+                            profile.getPatientMrIdValue(), interactionId, masterInteractionId, groupInteractionId, elapsedMillis);
+                    return new ScreeningOutcome(result, false, elapsedMillis);
+                });
+            } else {
+                LOG.error("Bundle not generated for  patient  MrId: {}, interactionId: {}, masterInteractionId: {}, groupInteractionId :{}",
+                        profile.getPatientMrIdValue(), interactionId, masterInteractionId,groupInteractionId);
+                final Map<String, Object> result = CsvConversionUtil.createOperationOutcomeForError(appConfig,masterInteractionId, interactionId,
+                        profile.getPatientMrIdValue(), profile.getEncounterId(),
+                        new Exception("Bundle not created"),
+                        payloadAndValidationOutcome.provenance(),payloadAndValidationOutcome.fileDetails(),requestParameters);
+                String bundleId =CoreFHIRUtil.extractBundleId(bundle, tenantId);                                
+                DataLedgerPayload dataLedgerPayload = DataLedgerPayload.create(
+                DataLedgerApiClient.Actor.TECHBD.getValue(), DataLedgerApiClient.Action.SENT.getValue(), 
+                DataLedgerApiClient.Actor.INVALID_CSV.getValue(), bundleId != null ? bundleId : masterInteractionId);
+                final var dataLedgerProvenance = "%s.processScreening".formatted(CsvBundleProcessorService.class.getName());
+                coreDataLedgerApiClient.processRequest(dataLedgerPayload,interactionId,masterInteractionId,groupInteractionId,dataLedgerProvenance,SourceType.CSV.name(),result,(boolean) requestParameters.get(Constants.DATA_LEDGER_TRACKING),(boolean) requestParameters.get(Constants.DATA_LEDGER_DIAGNOSTICS));
+                saveFhirConversionStatus(isValid, masterInteractionId, groupKey, groupInteractionId,
+                        interactionId, requestParameters,
+                        bundle, result, tenantId);
+                return CompletableFuture.completedFuture(
+                        new ScreeningOutcome(result, true, Duration.between(screeningStart, Instant.now()).toMillis()));
             }
-        });
-        if (errorCount.get() > 0) {
-            isAllCsvConvertedToFhir = false;
+        } catch (final Exception e) {
+            final Map<String, Object> result = CsvConversionUtil.createOperationOutcomeForError(appConfig,masterInteractionId, interactionId,
+                    profile.getPatientMrIdValue(), profile.getEncounterId(), e,
+                    payloadAndValidationOutcome.provenance(),payloadAndValidationOutcome.fileDetails(),requestParameters);
+            String bundleId =CoreFHIRUtil.extractBundleId(bundle, tenantId);                                
+            DataLedgerPayload dataLedgerPayload = DataLedgerPayload.create(
+            DataLedgerApiClient.Actor.TECHBD.getValue(), DataLedgerApiClient.Action.SENT.getValue(), 
+            DataLedgerApiClient.Actor.INVALID_CSV.getValue(), bundleId != null ? bundleId : masterInteractionId);
+            final var dataLedgerProvenance = "%s.processScreening".formatted(CsvBundleProcessorService.class.getName());
+            coreDataLedgerApiClient.processRequest(dataLedgerPayload,interactionId,masterInteractionId,groupInteractionId,dataLedgerProvenance,SourceType.CSV.name(),result,(boolean) requestParameters.get(Constants.DATA_LEDGER_TRACKING),(boolean) requestParameters.get(Constants.DATA_LEDGER_DIAGNOSTICS));
+            LOG.error("Error processing patient data for MrId:{}, interactionId: {}, masterInteractionId:{} , groupInteractionId:{}, Error:{}",
+                    profile.getPatientMrIdValue(), interactionId,masterInteractionId,groupInteractionId, e.getMessage(), e);
+            saveFhirConversionStatus(isValid, masterInteractionId, groupKey, groupInteractionId, interactionId,
+                    requestParameters,
+                    bundle, result, tenantId);
+            return CompletableFuture.completedFuture(
+                    new ScreeningOutcome(result, true, Duration.between(screeningStart, Instant.now()).toMillis()));
         }
-        LOG.info("CsvBundleProcessorService processScreening: END for zipFileInteractionId: {}, groupInteractionId :{}, tenantId: {}, baseFHIRURL: {}", masterInteractionId, groupInteractionId, tenantId, baseFHIRUrl);
-        return results;
     }
 
     public static List<String> getFileNames(final List<FileDetail> fileDetails) {
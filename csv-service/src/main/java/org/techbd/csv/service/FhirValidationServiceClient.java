@@ -3,6 +3,8 @@ package org.techbd.csv.service;
 import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -21,7 +23,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.Http2AllocationStrategy;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 /**
  * Optimized client for interacting with the FHIR validation service.
@@ -32,12 +40,23 @@ import reactor.netty.http.client.HttpClient;
  * - Proper timeout configuration
  * - More efficient parameter handling
  * - Better error messages
+ * - One Reactor Netty {@link HttpClient} and connection pool shared by every
+ *   call, so connections to fhir-validation-service are kept alive and reused
+ * - At most FHIR_CLIENT_MAX_IN_FLIGHT requests in flight; further requests wait
+ *   in the pool's pending queue without holding a thread
+ * - Optional cleartext HTTP/2 (h2c, prior knowledge) multiplexing the requests
+ *   over a few connections
+ * - {@link #validateBundleAsync} for callers that pipeline validation with
+ *   conversion; pool usage is published as reactor.netty.connection.provider.*
+ *   metrics under the name "fhir-validation-service"
  */
 @Service
 public class FhirValidationServiceClient {
 
     private static final Logger LOG = LoggerFactory.getLogger(FhirValidationServiceClient.class);
 
+    static final String CONNECTION_POOL_NAME = "fhir-validation-service";
+
     private final ObjectMapper objectMapper;
     private final String defaultBaseUrl;
     
@@ -57,13 +76,26 @@ public class FhirValidationServiceClient {
     @Value("${FHIR_CLIENT_BLOCK_TIMEOUT_SECONDS:90}") // 90 seconds default
     private final int blockTimeout;
 
+    private final ConnectionProvider connectionProvider;
+    private final ReactorClientHttpConnector connector;
+    private final ExchangeStrategies strategies;
+    // one WebClient per base URL (the default or an X-TechBD-BL-BaseURL override), all on the shared connector
+    private final Map<String, WebClient> webClients = new ConcurrentHashMap<>();
+
     public FhirValidationServiceClient(
             @Value("${TECHBD_BL_BASEURL}") String baseUrl,
             @Value("${FHIR_CLIENT_MAX_BUFFER_SIZE:10485760}") int maxBufferSize,
             @Value("${FHIR_CLIENT_CONNECT_TIMEOUT_MS:30000}") int connectTimeoutMs,
             @Value("${FHIR_CLIENT_READ_TIMEOUT_SECONDS:60}") int readTimeoutSeconds,
             @Value("${FHIR_CLIENT_WRITE_TIMEOUT_SECONDS:60}") int writeTimeoutSeconds,
-            @Value("${FHIR_CLIENT_BLOCK_TIMEOUT_SECONDS:90}") int blockTimeoutSeconds) {
+            @Value("${FHIR_CLIENT_BLOCK_TIMEOUT_SECONDS:90}") int blockTimeoutSeconds,
+            @Value("${FHIR_CLIENT_MAX_IN_FLIGHT:64}") int maxInFlight,
+            @Value("${FHIR_CLIENT_MAX_PENDING:1000}") int maxPending,
+            @Value("${FHIR_CLIENT_PENDING_ACQUIRE_TIMEOUT_SECONDS:60}") int pendingAcquireTimeoutSeconds,
+            @Value("${FHIR_CLIENT_MAX_IDLE_TIME_SECONDS:60}") int maxIdleTimeSeconds,
+            @Value("${FHIR_CLIENT_MAX_LIFE_TIME_SECONDS:600}") int maxLifeTimeSeconds,
+            @Value("${FHIR_CLIENT_H2C_ENABLED:false}") boolean h2cEnabled,
+            @Value("${FHIR_CLIENT_H2C_MAX_CONNECTIONS:2}") int h2cMaxConnections) {
         
         this.defaultBaseUrl = baseUrl;
         this.maxBufferSize = maxBufferSize;
@@ -72,34 +104,64 @@ public class FhirValidationServiceClient {
         this.writeTimeoutSeconds = writeTimeoutSeconds;
         this.blockTimeout = blockTimeoutSeconds;
         this.objectMapper = new ObjectMapper();
-        
-        LOG.info("FhirValidationServiceClient initialized - defaultBaseUrl: {}, maxBufferSize: {}MB, " +
-                 "connectTimeout: {}ms, readTimeout: {}s, writeTimeout: {}s, blockTimeout: {}s", 
-                 baseUrl, maxBufferSize / (1024 * 1024), connectTimeoutMs, 
-                 readTimeoutSeconds, writeTimeoutSeconds, blockTimeoutSeconds);
-    }
 
-    /**
-     * Creates a WebClient with optimized configuration for handling large responses
-     */
-    private WebClient createConfiguredWebClient(String baseUrl) {
-        HttpClient httpClient = HttpClient.create()
+        final ConnectionProvider.Builder pool = ConnectionProvider.builder(CONNECTION_POOL_NAME)
+            .maxConnections(maxInFlight)
+            .pendingAcquireMaxCount(maxPending)
+            .pendingAcquireTimeout(Duration.ofSeconds(pendingAcquireTimeoutSeconds))
+            .maxIdleTime(Duration.ofSeconds(maxIdleTimeSeconds))
+            .maxLifeTime(Duration.ofSeconds(maxLifeTimeSeconds))
+            .evictInBackground(Duration.ofSeconds(maxIdleTimeSeconds))
+            .metrics(true);
+        if (h2cEnabled) {
+            // every connection carries up to its share of the in-flight limit as concurrent streams
+            final int connections = Math.max(1, Math.min(h2cMaxConnections, maxInFlight));
+            pool.allocationStrategy(Http2AllocationStrategy.builder()
+                .maxConnections(connections)
+                .maxConcurrentStreams((maxInFlight + connections - 1) / connections)
+                .build());
+        }
+        this.connectionProvider = pool.build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .protocol(h2cEnabled ? HttpProtocol.H2C : HttpProtocol.HTTP11)
             .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+            // a fixed uri tag keeps the request metrics to one series per remote address
+            .metrics(true, uri -> "/Bundle/")
             .doOnConnected(conn -> conn
                 .addHandlerLast(new ReadTimeoutHandler(readTimeoutSeconds, TimeUnit.SECONDS))
                 .addHandlerLast(new WriteTimeoutHandler(writeTimeoutSeconds, TimeUnit.SECONDS)));
+        this.connector = new ReactorClientHttpConnector(httpClient);
 
-        ExchangeStrategies strategies = ExchangeStrategies.builder()
+        this.strategies = ExchangeStrategies.builder()
             .codecs(configurer -> configurer
                 .defaultCodecs()
                 .maxInMemorySize(maxBufferSize))
             .build();
+        
+        LOG.info("FhirValidationServiceClient initialized - defaultBaseUrl: {}, maxBufferSize: {}MB, " +
+                 "connectTimeout: {}ms, readTimeout: {}s, writeTimeout: {}s, blockTimeout: {}s, " +
+                 "maxInFlight: {}, maxPending: {}, protocol: {}", 
+                 baseUrl, maxBufferSize / (1024 * 1024), connectTimeoutMs, 
+                 readTimeoutSeconds, writeTimeoutSeconds, blockTimeoutSeconds,
+                 maxInFlight, maxPending, h2cEnabled ? "h2c" : "HTTP/1.1");
+    }
 
-        return WebClient.builder()
-            .baseUrl(baseUrl)
-            .clientConnector(new ReactorClientHttpConnector(httpClient))
+    /**
+     * Returns the WebClient for the base URL; clients share the connection pool
+     */
+    private WebClient webClient(String baseUrl) {
+        return webClients.computeIfAbsent(baseUrl, url -> WebClient.builder()
+            .baseUrl(url)
+            .clientConnector(connector)
             .exchangeStrategies(strategies)
-            .build();
+            .build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        webClients.clear();
+        connectionProvider.dispose();
     }
 
     /**
@@ -195,56 +257,99 @@ public class FhirValidationServiceClient {
      * Primary validation method using builder pattern
      */
     public Object validateBundle(ValidationRequest request) {
+        try {
+            return validateBundleAsync(request).block(Duration.ofSeconds(blockTimeout + 30));
+        } catch (FhirValidationException | IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw toValidationException(e, request);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #validateBundle(String, String, String, Map)}
+     */
+    public Mono<Object> validateBundleAsync(String bundle, String interactionId, String tenantId,
+                                            Map<String, Object> requestParameters) {
+        ValidationRequest.Builder builder = ValidationRequest.builder()
+            .bundle(bundle)
+            .interactionId(interactionId)
+            .tenantId(tenantId);
+
+        applyParametersFromMap(builder, requestParameters);
+        return validateBundleAsync(builder.build());
+    }
+
+    /**
+     * Sends the bundle without blocking the caller. The request waits for a
+     * free slot in the shared pool when FHIR_CLIENT_MAX_IN_FLIGHT requests
+     * are already in flight. Errors are signalled as
+     * {@link FhirValidationException}; the response is parsed off the event loop.
+     */
+    public Mono<Object> validateBundleAsync(ValidationRequest request) {
         LOG.info("Calling FHIR validation service - interactionId: {}, tenantId: {}", 
                  request.interactionId, request.tenantId);
 
-        validateRequest(request);
+        try {
+            validateRequest(request);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
         
         String baseUrl = resolveBaseUrl(request);
-        WebClient webClient = createConfiguredWebClient(baseUrl);
 
-        try {
-            String response = webClient.post()
-                .uri("/Bundle/")
-                .contentType(MediaType.APPLICATION_JSON)
-                .headers(headers -> addHeaders(headers, request))
-                .body(BodyInserters.fromValue(request.bundle))
-                .retrieve()
-                .onStatus(status -> status.isError(),
-                    clientResponse -> clientResponse.bodyToMono(String.class)
-                        .defaultIfEmpty("Unknown error from FHIR validation service")
-                        .flatMap(errorBody -> {
-                            LOG.error("FHIR validation service error - status: {}, interactionId: {}, error: {}", 
-                                     clientResponse.statusCode(), request.interactionId, errorBody);
-                            return reactor.core.publisher.Mono.error(
-                                new FhirValidationException(
-                                    String.format("FHIR validation failed with status %s: %s", 
-                                                clientResponse.statusCode(), errorBody),
-                                    request.interactionId));
-                        }))
-                .bodyToMono(String.class)
-                .timeout(Duration.ofSeconds(blockTimeout))
-                .block(Duration.ofSeconds(blockTimeout + 30));
-
-            LOG.info("Successfully received response from FHIR validation service - interactionId: {}", 
-                     request.interactionId);
-
-            return objectMapper.readValue(response, Object.class);
-
-        } catch (WebClientResponseException e) {
-            String errorMsg = String.format(
+        return webClient(baseUrl).post()
+            .uri("/Bundle/")
+            .contentType(MediaType.APPLICATION_JSON)
+            .headers(headers -> addHeaders(headers, request))
+            .body(BodyInserters.fromValue(request.bundle))
+            .retrieve()
+            .onStatus(status -> status.isError(),
+                clientResponse -> clientResponse.bodyToMono(String.class)
+                    .defaultIfEmpty("Unknown error from FHIR validation service")
+                    .flatMap(errorBody -> {
+                        LOG.error("FHIR validation service error - status: {}, interactionId: {}, error: {}", 
+                                 clientResponse.statusCode(), request.interactionId, errorBody);
+                        return Mono.error(
+                            new FhirValidationException(
+                                String.format("FHIR validation failed with status %s: %s", 
+                                            clientResponse.statusCode(), errorBody),
+                                request.interactionId));
+                    }))
+            .bodyToMono(String.class)
+            .timeout(Duration.ofSeconds(blockTimeout))
+            .publishOn(Schedulers.parallel())
+            .<Object>handle((response, sink) -> {
+                LOG.info("Successfully received response from FHIR validation service - interactionId: {}", 
+                         request.interactionId);
+                try {
+                    sink.next(objectMapper.readValue(response, Object.class));
+                } catch (Exception e) {
+                    sink.error(e);
+                }
+            })
+            .onErrorMap(e -> !(e instanceof FhirValidationException), e -> toValidationException(e, request));
+    }
+
+    private FhirValidationException toValidationException(Throwable e, ValidationRequest request) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        if (e instanceof FhirValidationException validationException) {
+            return validationException;
+        }
+        String errorMsg;
+        if (e instanceof WebClientResponseException responseException) {
+            errorMsg = String.format(
                 "FHIR validation WebClient error - status: %s, interactionId: %s, response: %s",
-                e.getStatusCode(), request.interactionId, e.getResponseBodyAsString());
-            LOG.error(errorMsg, e);
-            throw new FhirValidationException(errorMsg, request.interactionId, e);
-            
-        } catch (Exception e) {
-            String errorMsg = String.format(
+                responseException.getStatusCode(), request.interactionId, responseException.getResponseBodyAsString());
+        } else {
+            errorMsg = String.format(
                 "Unexpected FHIR validation error - interactionId: %s, message: %s",
                 request.interactionId, e.getMessage());
-            LOG.error(errorMsg, e);
-            throw new FhirValidationException(errorMsg, request.interactionId, e);
         }
+        LOG.error(errorMsg, e);
+        return new FhirValidationException(errorMsg, request.interactionId, e);
     }
 
     private void validateRequest(ValidationRequest request) {
@@ -18,20 +18,20 @@ import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.apache.commons.vfs2.FileObject;
 import org.jooq.DSLContext;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.MimeTypeUtils;
@@ -53,7 +53,6 @@ import org.techbd.csv.model.PayloadAndValidationOutcome;
 import org.techbd.csv.service.CsvBundleProcessorService;
 import org.techbd.csv.service.CsvService;
 import org.techbd.csv.service.vfs.VfsCoreService;
-import org.techbd.csv.service.vfs.VfsIngressConsumer;
 import org.techbd.udi.auto.jooq.ingress.routines.RegisterInteractionCsvRequest;
 import org.techbd.udi.auto.jooq.ingress.routines.SatInteractionCsvRequestUpserted;
 
@@ -73,18 +72,48 @@ public class CsvOrchestrationEngine {
     private final VfsCoreService vfsCoreService;
     private final DSLContext primaryDslContext;
     private final CsvBundleProcessorService csvBundleProcessorService;
+    private final boolean pythonValidation;
+    private final PythonValidationWorkerPool pythonValidationWorkerPool;
+    private final ZipIntake zipIntake;
+    private volatile CsvPackageValidator csvPackageValidator;
     private static TemplateLogger log;
-    private static final Pattern FILE_PATTERN = Pattern.compile(
-          "(SDOH_PtInfo|SDOH_QEadmin|SDOH_ScreeningProf|SDOH_ScreeningObs)_(.+)");
 
-    public CsvOrchestrationEngine(final CoreAppConfig appConfig, final VfsCoreService vfsCoreService, @Qualifier("primaryDslContext") DSLContext primaryDslContext, AppLogger appLogger, CsvBundleProcessorService csvBundleProcessorService) {
+    public CsvOrchestrationEngine(final CoreAppConfig appConfig, final VfsCoreService vfsCoreService, @Qualifier("primaryDslContext") DSLContext primaryDslContext, AppLogger appLogger, CsvBundleProcessorService csvBundleProcessorService,
+            @Value("${org.techbd.csv.validation.engine:python}") final String validationEngine,
+            final PythonValidationWorkerPool pythonValidationWorkerPool, final ZipIntake zipIntake) {
         this.sessions = new ConcurrentHashMap<>();
         this.appConfig = appConfig;
         this.vfsCoreService = vfsCoreService;
         this.primaryDslContext = primaryDslContext;
         log = appLogger.getLogger(CsvOrchestrationEngine.class);
         this.csvBundleProcessorService = csvBundleProcessorService;
+        this.pythonValidation = "python".equalsIgnoreCase(validationEngine);
+        this.pythonValidationWorkerPool = pythonValidationWorkerPool;
+        this.zipIntake = zipIntake;
+        if (pythonValidation && pythonValidationWorkerPool.isEnabled()) {
+            pythonValidationWorkerPool.start();
+        }
+
+    }
 
+    /**
+     * The in-process validator, created from the configured data package on first use so that a missing package
+     * only fails CSV validation and not application startup, as with the Python script.
+     */
+    private CsvPackageValidator csvPackageValidator() throws IOException {
+        CsvPackageValidator validator = csvPackageValidator;
+        if (validator == null) {
+            synchronized (this) {
+                validator = csvPackageValidator;
+                if (validator == null) {
+                    final var packagePath = Path.of(appConfig.getCsv().validation().packagePath());
+                    log.info("Loading CSV validation data package from {}", packagePath);
+                    validator = new CsvPackageValidator(packagePath);
+                    csvPackageValidator = validator;
+                }
+            }
+        }
+        return validator;
     }
 
     public List<OrchestrationSession> getSessions() {
@@ -480,7 +509,7 @@ public class CsvOrchestrationEngine {
 
         private  Map<String, Object> createOperationOutcome(final String masterInteractionId,
                 final String groupInteractionId,
-                final String validationResults,
+                final JsonNode validationResults,
                 final List<FileDetail> fileDetails, final Map<String,Object> requestParameters, final long zipFileSize,
                 final Instant initiatedAt, final Instant completedAt, final String originalFileName) throws Exception {
             final Map<String, Object> provenance = populateProvenance(masterInteractionId,groupInteractionId, fileDetails, initiatedAt,
@@ -490,7 +519,7 @@ public class CsvOrchestrationEngine {
                     "zipFileInteractionId",masterInteractionId,
                     Constants.TECHBD_VERSION, appConfig.getVersion(),
                     "groupInteractionId", groupInteractionId,
-                    "validationResults", Configuration.objectMapper.readTree(validationResults),
+                    "validationResults", validationResults,
                     "provenance", provenance);
         }
 
@@ -538,7 +567,8 @@ public class CsvOrchestrationEngine {
                             "who", Map.of(
                                     "coding", List.of(Map.of(
                                             "system", "Validator",
-                                            "display", "frictionless version 5.18.0"))))),
+                                            "display", pythonValidation ? "frictionless version 5.18.0"
+                                                    : CsvPackageValidator.VALIDATOR_NAME))))),
                     "initiatedAt", initiatedAt,
                     "completedAt", completedAt,
                     "description", "Validation of  files in " + originalFileName,
@@ -553,32 +583,20 @@ public class CsvOrchestrationEngine {
                         appConfig.getCsv().validation().inboundPath(), masterInteractionId);
                 log.info("Ingress Home Path: {} for zipFileInteractionId : {}",
                         appConfig.getCsv().validation().ingressHomePath(), masterInteractionId);
-                // Process ZIP files and get the session ID
-                final UUID processId = processZipFilesFromInbound(masterInteractionId);
-                log.info("ZIP files processed with session ID: {} for zipFileInteractionId :{} ", processId,
+                // Move the uploaded zip into the processed directory and unpack it in one pass
+                final Path processedDir = Paths.get(appConfig.getCsv().validation().ingressHomePath(),
+                        masterInteractionId, "ingress").toAbsolutePath();
+                final Path zipFile = moveZipFromInbound(masterInteractionId, processedDir);
+                final ZipIntake.ZipContents zipContents = zipIntake.extract(zipFile, processedDir,
                         masterInteractionId);
-
-                // Construct processed directory path
-                final String processedDirPath = appConfig.getCsv().validation().ingressHomePath() + "/" + processId
-                        + "/ingress";
-
-                copyFilesToProcessedDir(processedDirPath);
-                createOutputFileInProcessedDir(processedDirPath);
-                log.info("Attempting to resolve processed directory: {} for zipFileInteractionId : {}", processedDirPath,
-                        masterInteractionId);
-
-                // Get processed files for validation
-                final FileObject processedDir = vfsCoreService
-                        .resolveFile(Paths.get(processedDirPath).toAbsolutePath().toString());
-
-                if (!vfsCoreService.fileExists(processedDir)) {
-                    log.error("Processed directory does not exist: {} for zipFileInteractionId : {}", processedDirPath,
-                            masterInteractionId);
-                    throw new FileSystemException("Processed directory not found: " + processedDirPath);
+                metricsBuilder.totalNumberOfFilesInZipFile(zipContents.totalNumberOfFiles());
+                if (pythonValidation && !pythonValidationWorkerPool.isEnabled()) {
+                    // the forked script is run from the processed directory
+                    copyFilesToProcessedDir(processedDir.toString());
+                    createOutputFileInProcessedDir(processedDir.toString());
                 }
-                final List<String> csvFiles = scanForCsvFiles(processedDir, masterInteractionId);
 
-                final Map<String, List<FileDetail>> groupedFiles = FileProcessor.processAndGroupFiles(csvFiles);
+                final Map<String, List<FileDetail>> groupedFiles = zipContents.groupedFiles();
                 List<Map<String, Object>> combinedValidationResults = new ArrayList<>();
                 int noOfValidGroups = 0;
                 for (Map.Entry<String, List<FileDetail>> entry : groupedFiles.entrySet()) {
@@ -746,7 +764,9 @@ public class CsvOrchestrationEngine {
             saveScreeningGroup(groupInteractionId, requestParameters, file, fileDetails, tenantId);
 
             // Validate CSV files inside the group
-            String validationResults = validateCsvUsingPython(fileDetails, masterInteractionId);
+            JsonNode validationResults = pythonValidation
+                    ? Configuration.objectMapper.readTree(validateCsvUsingPython(fileDetails, masterInteractionId))
+                    : validateCsvNatively(fileDetails, masterInteractionId);
             Instant completedAtForThisGroup = Instant.now();
 
             Map<String, Object> operationOutomeForThisGroup = createOperationOutcome(masterInteractionId,
@@ -779,98 +799,32 @@ public class CsvOrchestrationEngine {
                     StandardCopyOption.REPLACE_EXISTING);
         }
 
-        private UUID processZipFilesFromInbound(final String masterInteractionId)
-                throws FileSystemException, org.apache.commons.vfs2.FileSystemException {
-            log.info("CsvService : processZipFilesFromInbound - BEGIN for zipFileInteractionId :{}" + masterInteractionId);
-            final FileObject inboundFO = vfsCoreService
-                    .resolveFile(Paths.get(appConfig.getCsv().validation().inboundPath()).toAbsolutePath().toString());
-            final FileObject ingresshomeFO = vfsCoreService
-                    .resolveFile(
-                            Paths.get(appConfig.getCsv().validation().ingressHomePath()).toAbsolutePath().toString());
-            if (!vfsCoreService.fileExists(inboundFO)) {
-                log.error("Inbound folder does not exist: {} for zipFileInteractionId :{} ", inboundFO.getName().getPath(),
-                        masterInteractionId);
-                log.error("Inbound folder does not exist: {} for zipFileInteractionId :{} ", inboundFO.getName().getPath(),
+        private Path moveZipFromInbound(final String masterInteractionId, final Path processedDir)
+                throws IOException {
+            final Path inboundDir = Paths.get(appConfig.getCsv().validation().inboundPath()).toAbsolutePath();
+            if (Files.notExists(inboundDir)) {
+                log.error("Inbound folder does not exist: {} for zipFileInteractionId :{} ", inboundDir,
                         masterInteractionId);
-                throw new FileSystemException("Inbound folder does not exist: " + inboundFO.getName().getPath());
+                throw new FileSystemException("Inbound folder does not exist: " + inboundDir);
             }
-            vfsCoreService.validateAndCreateDirectories(ingresshomeFO);
-            final VfsIngressConsumer consumer = vfsCoreService.createConsumer(
-                    inboundFO,
-                    this::extractGroupId,
-                    this::isGroupComplete,
-                    masterInteractionId);
-
-            // Important: Capture the returned session UUID and processed file paths
-            final UUID processId = vfsCoreService.processFiles(consumer, ingresshomeFO,masterInteractionId);
-            log.info("CsvService : processZipFilesFromInbound - END for zipFileInteractionId :{}" + masterInteractionId);
-            return processId;
-        }
-
-        private List<String> scanForCsvFiles(final FileObject processedDir, String zipFileInteractionId)
-                throws FileSystemException {
-
-            final List<String> csvFiles = new ArrayList<>();
-            int totalNumberOfFiles = 0;
-
-            try {
-                final FileObject[] children = processedDir.getChildren();
-
-                if (children == null) {
-                    log.warn("No children found in processed directory: {} for zipFileInteractionId: {}",
-                            processedDir.getName().getPath(), zipFileInteractionId);
-                    return csvFiles;
-                }
-
-                for (final FileObject child : children) {
-                    if (child == null || child.getName() == null) {
-                        continue;
-                    }
-
-                    final String fileName = child.getName().getBaseName();
-                    // Skip directories
-                    if (child.getType().hasChildren()) {
-                        log.debug("Skipping directory: {} for zipFileInteractionId: {}", fileName,
-                                zipFileInteractionId);
-                        continue;
-                    }
-                    // Skip hidden/system files
-                    if (fileName.startsWith(".") || fileName.endsWith(".lock") || fileName.startsWith("~")) {
-                        log.debug("Skipping hidden/system file: {} for zipFileInteractionId: {}", fileName,
-                                zipFileInteractionId);
-                        continue;
-                    }
-                    // Skip explicitly excluded files
-                    if ("validate-nyher-fhir-ig-equivalent.py".equals(fileName)
-                            || "datapackage-nyher-fhir-ig-equivalent.json".equals(fileName)
-                            || "output.json".equals(fileName)
-                            || (fileName.startsWith(zipFileInteractionId) && fileName.endsWith(".zip"))) {
-                        log.debug("Skipping excluded file: {} for zipFileInteractionId: {}", fileName,
-                                zipFileInteractionId);
-                        continue;
-                    }
-                    // Count all valid files
-                    totalNumberOfFiles++;
-
-                    // Collect only CSV file paths
-                    if ("csv".equalsIgnoreCase(child.getName().getExtension())) {
-                        csvFiles.add(child.getName().getPath());
-                    }
-                }
-
-                if (csvFiles.isEmpty()) {
-                    log.warn("No CSV files found in directory: {} for zipFileInteractionId: {}",
-                            processedDir.getName().getPath(), zipFileInteractionId);
-                }
-
-            } catch (final org.apache.commons.vfs2.FileSystemException e) {
-                log.error("Error collecting files from directory {} for zipFileInteractionId: {} -> {}",
-                        processedDir.getName().getPath(), zipFileInteractionId, e.getMessage(), e);
+            final Path inboundZip;
+            try (var files = Files.list(inboundDir)) {
+                // only THIS request's zip
+                inboundZip = files
+                        .filter(path -> {
+                            final String fileName = path.getFileName().toString();
+                            return fileName.startsWith(masterInteractionId) && fileName.endsWith(".zip");
+                        })
+                        .findFirst()
+                        .orElseThrow(() -> new FileSystemException(
+                                "Zip file not found in inbound folder for zipFileInteractionId: "
+                                        + masterInteractionId));
             }
-            log.info("Summary for zipFileInteractionId: {} -> Total files: {}, Total CSV files: {}",
-                    zipFileInteractionId, totalNumberOfFiles, csvFiles.size());
-            metricsBuilder.totalNumberOfFilesInZipFile(totalNumberOfFiles);
-            return csvFiles;
+            Files.createDirectories(processedDir);
+            final Path zipFile = processedDir.resolve(inboundZip.getFileName());
+            Files.move(inboundZip, zipFile, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Moved {} to {} for zipFileInteractionId :{}", inboundZip, zipFile, masterInteractionId);
+            return zipFile;
         }
 
         // private Map<String, Object> validateFiles(List<String> csvFiles) {
@@ -923,6 +877,24 @@ public class CsvOrchestrationEngine {
         // return validationResults;
         // }
 
+        public JsonNode validateCsvNatively(final List<FileDetail> fileDetails, final String zipFileInteractionId)
+                throws IOException {
+            log.info("CsvService : validateCsvNatively BEGIN for zipFileInteractionId :{} ", zipFileInteractionId);
+            if (fileDetails == null || fileDetails.isEmpty()) {
+                log.error("No files provided for validation");
+                throw new IllegalArgumentException("No files provided for validation");
+            }
+            final Map<FileType, Path> paths = new EnumMap<>(FileType.class);
+            for (final FileDetail fileDetail : fileDetails) {
+                paths.put(fileDetail.fileType(), Path.of(fileDetail.filePath()));
+            }
+            final JsonNode results = csvPackageValidator().validate(paths.get(FileType.SDOH_QEadmin),
+                    paths.get(FileType.SDOH_ScreeningProf), paths.get(FileType.SDOH_ScreeningObs),
+                    paths.get(FileType.SDOH_PtInfo));
+            log.info("CsvService : validateCsvNatively END for zipFileInteractionId :{} ", zipFileInteractionId);
+            return results;
+        }
+
         public String validateCsvUsingPython(final List<FileDetail> fileDetails, final String zipFileInteractionId)
                 throws Exception {
             log.info("CsvService : validateCsvUsingPython BEGIN for zipFileInteractionId :{} " + zipFileInteractionId);
@@ -956,6 +928,13 @@ public class CsvOrchestrationEngine {
                 // Validate and create directories
                 vfsCoreService.validateAndCreateDirectories(fileObjects.toArray(new FileObject[0]));
 
+                if (pythonValidationWorkerPool.isEnabled()) {
+                    final String output = pythonValidationWorkerPool.validate(orderedFilePaths(fileDetails),
+                            zipFileInteractionId);
+                    log.info("CsvService : validateCsvUsingPython END for zipFileInteractionId :{} " + zipFileInteractionId);
+                    return output;
+                }
+
                 // Build command to run Python script
                 final List<String> command = buildValidationCommand(config, fileDetails);
 
@@ -1021,6 +1000,17 @@ public class CsvOrchestrationEngine {
             }
         }
 
+        private List<String> orderedFilePaths(final List<FileDetail> fileDetails) {
+            final Map<FileType, String> fileTypeToFilePathMap = new HashMap<>();
+            for (FileDetail fileDetail : fileDetails) {
+                fileTypeToFilePathMap.put(fileDetail.fileType(), fileDetail.filePath());
+            }
+            return List.of(FileType.SDOH_QEadmin, FileType.SDOH_ScreeningProf, FileType.SDOH_ScreeningObs,
+                    FileType.SDOH_PtInfo).stream()
+                    .map(fileType -> Optional.ofNullable(fileTypeToFilePathMap.get(fileType)).orElse(""))
+                    .toList();
+        }
+
         private List<String> buildValidationCommand(CoreAppConfig.CsvValidation.Validation config,
                 final List<FileDetail> fileDetails) {
             final List<String> command = new ArrayList<>();
@@ -1045,36 +1035,6 @@ public class CsvOrchestrationEngine {
 
             return command;
         }
-
-        private String extractGroupId(final FileObject file) {
-            final String fileName = file.getName().getBaseName();
-            final var matcher = FILE_PATTERN.matcher(fileName);
-            return matcher.matches() ? matcher.group(2) : null;
-        }
-
-        private boolean isGroupComplete(final VfsIngressConsumer.IngressGroup group) {
-            if (group == null || group.groupedEntries().isEmpty()) {
-                return false;
-            }
-
-            boolean hasDemographic = false;
-            boolean hasQeAdmin = false;
-            boolean hasScreening = false;
-            // please add other files also according to command
-
-            for (final VfsIngressConsumer.IngressIndividual entry : group.groupedEntries()) {
-                final String fileName = entry.entry().getName().getBaseName();
-                if (fileName.startsWith("DEMOGRAPHIC_DATA")) {
-                    hasDemographic = true;
-                } else if (fileName.startsWith("QE_ADMIN_DATA")) {
-                    hasQeAdmin = true;
-                } else if (fileName.startsWith("SCREENING")) {
-                    hasScreening = true;
-                }
-            }
-
-            return hasDemographic && hasQeAdmin && hasScreening;
-        }
     }
 
     // public static Map<FileType, FileDetail> processFiles(final List<String>
@@ -0,0 +1,988 @@
+package org.techbd.csv.service.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * In-process equivalent of {@code validate-nyher-fhir-ig-equivalent.py}. Validates the four CSV files of a
+ * screening group against the frictionless data package descriptor and returns the same results document the
+ * script prints ({@code errorsSummary}, {@code report}, {@code originalData}), without starting a Python
+ * interpreter for every group.
+ * <p>
+ * The frictionless 5 rules the descriptor relies on are reproduced: header label checks, missing and extra
+ * cells, blank rows, the {@code required}, {@code pattern}, {@code enum} and {@code minLength}/{@code maxLength}
+ * constraints, unique fields, primary keys and foreign keys across resources, the 1000 errors per file limit, and
+ * the script's custom row checks and optional visit flag handling. Every field in the descriptor is a string, so
+ * other field types are rejected when the descriptor is loaded. The descriptor is parsed and its patterns compiled
+ * once; instances are immutable and safe to share between threads.
+ */
+public class CsvPackageValidator {
+
+    public static final String VALIDATOR_NAME = "TechByDesign CSV package validator (frictionless 5.18.0 equivalent)";
+
+    static final String QE_ADMIN_DATA = "qe_admin_data";
+    static final String SCREENING_PROFILE_DATA = "screening_profile_data";
+    static final String SCREENING_OBSERVATION_DATA = "screening_observation_data";
+    static final String PT_INFO_DATA = "pt_info_data";
+
+    static final int ORIGINAL_DATA_ROW_LIMIT = 100;
+    static final int ERROR_LIMIT = 1000;
+
+    private static final List<String> OPTIONAL_FLAG_FIELDS = List.of("VISIT_PART_2_FLAG", "VISIT_OMH_FLAG",
+            "VISIT_OPWDD_FLAG");
+
+    private static final List<String> DATETIME_FIELDS = List.of("FACILITY_LAST_UPDATED", "SCREENING_LAST_UPDATED",
+            "CONSENT_LAST_UPDATED", "ENCOUNTER_LAST_UPDATED", "PATIENT_LAST_UPDATED",
+            "SEXUAL_ORIENTATION_LAST_UPDATED", "ENCOUNTER_START_DATETIME", "ENCOUNTER_END_DATETIME",
+            "CONSENT_DATE_TIME", "SCREENING_START_DATETIME", "SCREENING_END_DATETIME");
+
+    private static final Set<String> POSITIVE_ANSWER_CODES = Set.of("la31994-9", "la31995-6", "la31996-4",
+            "la28580-1", "la31997-2", "la31998-0", "la31999-8", "la32000-4", "la32001-2", "la33-6", "la32002-0",
+            "la28397-0", "la6729-3", "la31981-6", "la31982-4");
+
+    private static final Set<String> NEGATIVE_ANSWER_CODES = Set.of("la32-8", "la31993-1", "la9-3", "la28398-8",
+            "la31983-2");
+
+    private static final Map<String, List<String>> QUESTION_ANSWER_MAP = Map.ofEntries(
+            Map.entry("44250-9", List.of("la6568-5", "la6569-3", "la6570-1", "la6571-9")),
+            Map.entry("44255-8", List.of("la6568-5", "la6569-3", "la6570-1", "la6571-9")),
+            Map.entry("68516-4", List.of("la6111-4", "la13942-0", "la19282-5", "la28855-7", "la28858-1",
+                    "la28854-0", "la28853-2", "la28891-2", "la32059-0", "la32060-8")),
+            Map.entry("68517-2", List.of("la6270-8", "la26460-8", "la18876-5", "la18891-4", "la18934-2")),
+            Map.entry("68524-8", List.of("la6270-8", "la26460-8", "la18876-5", "la18891-4", "la18934-2")),
+            Map.entry("69858-9", List.of("la33-6", "la32-8")),
+            Map.entry("69861-3", List.of("la33-6", "la32-8")),
+            Map.entry("71802-3", List.of("la31993-1", "la31994-9", "la31995-6")),
+            Map.entry("76513-1", List.of("la15832-1", "la22683-9", "la31980-8")),
+            Map.entry("88122-7", List.of("la28397-0", "la6729-3", "la28398-8")),
+            Map.entry("88123-5", List.of("la28397-0", "la6729-3", "la28398-8")),
+            Map.entry("89555-7", List.of("la6111-4", "la6112-2", "la6113-0", "la6114-8", "la6115-5", "la10137-0",
+                    "la10138-8", "la10139-6")),
+            Map.entry("93030-5", List.of("la33-6", "la32-8")),
+            Map.entry("93038-8", List.of("la6568-5", "la13863-8", "la13909-9", "la13902-4", "la13914-9",
+                    "la30122-8")),
+            Map.entry("93159-2", List.of("la6270-8", "la10066-1", "la10082-8", "la10044-8", "la9933-8")),
+            Map.entry("95530-2", List.of("la6270-8", "la26460-8", "la18876-5", "la18891-4", "la18934-2")),
+            Map.entry("95615-1", List.of("la6270-8", "la10066-1", "la10082-8", "la16644-9", "la6482-9")),
+            Map.entry("95616-9", List.of("la6270-8", "la10066-1", "la10082-8", "la16644-9", "la6482-9")),
+            Map.entry("95617-7", List.of("la6270-8", "la10066-1", "la10082-8", "la16644-9", "la6482-9")),
+            Map.entry("95618-5", List.of("la6270-8", "la10066-1", "la10082-8", "la16644-9", "la6482-9")),
+            Map.entry("96779-4", List.of("la33-6", "la32-8", "la32002-0")),
+            Map.entry("96780-2", List.of("la31981-6", "la31982-4", "la31983-2")),
+            Map.entry("96781-0", List.of("la31976-6", "la31977-4", "la31978-2", "la31979-0")),
+            Map.entry("96782-8", List.of("la33-6", "la32-8")),
+            Map.entry("96842-0", List.of("la6270-8", "la26460-8", "la18876-5", "la18891-4", "la18934-2")),
+            Map.entry("97027-7", List.of("la33-6", "la32-8")));
+
+    private static final Pattern PYTHON_INT = Pattern.compile("[+-]?\\d+(?:_\\d+)*", Pattern.UNICODE_CHARACTER_CLASS);
+    private static final Pattern ISO_DATE = Pattern.compile("(\\d{4})-?(\\d{2})-?(\\d{2})");
+
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+    private final List<ResourceSchema> resources;
+
+    public CsvPackageValidator(final Path packagePath) throws IOException {
+        this(new ObjectMapper().readTree(packagePath.toFile()));
+    }
+
+    public CsvPackageValidator(final JsonNode descriptor) {
+        final var parsed = new ArrayList<ResourceSchema>();
+        for (final JsonNode resource : descriptor.path("resources")) {
+            parsed.add(ResourceSchema.from(resource));
+        }
+        this.resources = List.copyOf(parsed);
+    }
+
+    /**
+     * Validates one screening group. The arguments follow the order of the Python script's arguments.
+     *
+     * @return the results document, with {@code errorsSummary} left out when it is empty
+     */
+    public ObjectNode validate(final Path qeAdminData, final Path screeningProfileData,
+            final Path screeningObservationData, final Path ptInfoData) {
+        final var files = new LinkedHashMap<String, Path>();
+        files.put(QE_ADMIN_DATA, qeAdminData);
+        files.put(SCREENING_PROFILE_DATA, screeningProfileData);
+        files.put(SCREENING_OBSERVATION_DATA, screeningObservationData);
+        files.put(PT_INFO_DATA, ptInfoData);
+
+        final ObjectNode results = JSON.objectNode();
+        final ArrayNode errorsSummary = results.putArray("errorsSummary");
+        results.putNull("report");
+        final ObjectNode originalData = results.putObject("originalData");
+
+        boolean missing = false;
+        for (final var file : files.entrySet()) {
+            if (file.getValue() == null || !Files.isRegularFile(file.getValue())) {
+                missing = true;
+                errorsSummary.addObject()
+                        .put("fieldName", file.getKey())
+                        .put("message", "File for resource '%s' not found: %s".formatted(file.getKey(),
+                                file.getValue() == null ? "None" : file.getValue()))
+                        .put("type", "file-missing-error");
+            }
+        }
+        if (missing) {
+            return clean(results);
+        }
+
+        for (final var file : files.entrySet()) {
+            originalData.set(file.getKey(), originalData(file.getValue()));
+        }
+
+        final var tasks = new ArrayList<Task>();
+        for (final ResourceSchema resource : resources) {
+            final Path path = files.get(resource.name());
+            if (path == null) {
+                errorsSummary.addObject()
+                        .putNull("fieldName")
+                        .put("message", "File for resource '%s' not found.".formatted(resource.name()))
+                        .put("type", "file-missing-error");
+                return clean(results);
+            }
+            final List<FieldSchema> fields = SCREENING_PROFILE_DATA.equals(resource.name())
+                    ? withoutAbsentFlagFields(resource.fields(), path)
+                    : resource.fields();
+            tasks.add(new Task(resource, fields, path));
+        }
+        results.set("report", report(tasks));
+        return clean(results);
+    }
+
+    private static ObjectNode clean(final ObjectNode results) {
+        if (results.path("errorsSummary").isEmpty()) {
+            results.remove("errorsSummary");
+        }
+        return results;
+    }
+
+    /**
+     * The first lines of a file as the script reads them: universal newlines, each line keeping its
+     * {@code \n}, undecodable bytes replaced.
+     */
+    private static ArrayNode originalData(final Path path) {
+        final ArrayNode lines = JSON.arrayNode();
+        try (Reader reader = reader(Files.newInputStream(path))) {
+            final var line = new StringBuilder();
+            int c = reader.read();
+            while (c != -1 && lines.size() < ORIGINAL_DATA_ROW_LIMIT) {
+                if (c == '\r' || c == '\n') {
+                    line.append('\n');
+                    lines.add(line.toString());
+                    line.setLength(0);
+                    final int next = reader.read();
+                    c = c == '\r' && next == '\n' ? reader.read() : next;
+                    continue;
+                }
+                line.append((char) c);
+                c = reader.read();
+            }
+            if (line.length() > 0 && lines.size() < ORIGINAL_DATA_ROW_LIMIT) {
+                lines.add(line.toString());
+            }
+        } catch (IOException e) {
+            // the script records an empty list and lets validation report the problem
+            lines.removeAll();
+        }
+        return lines;
+    }
+
+    /**
+     * Drops the optional visit flag fields that the screening profile file does not have, the same way the script
+     * edits the schema before validating: a flag stays when its header is present, or when the header at the
+     * flag's position is blank so that frictionless reports the blank label.
+     */
+    private static List<FieldSchema> withoutAbsentFlagFields(final List<FieldSchema> fields, final Path path) {
+        final List<String> headers = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(reader(Files.newInputStream(path)))) {
+            final String headerLine = reader.readLine();
+            for (final String header : (headerLine == null ? "" : headerLine.strip()).split(",", -1)) {
+                headers.add(header.strip());
+            }
+        } catch (IOException e) {
+            return fields;
+        }
+        final List<String> fieldNames = fields.stream().map(FieldSchema::name).toList();
+        final Set<String> absent = new HashSet<>();
+        for (final String flag : OPTIONAL_FLAG_FIELDS) {
+            if (headers.contains(flag)) {
+                continue;
+            }
+            final int index = fieldNames.indexOf(flag);
+            if (index >= 0 && index < headers.size() && headers.get(index).isBlank()) {
+                continue;
+            }
+            absent.add(flag);
+        }
+        return absent.isEmpty() ? fields : fields.stream().filter(f -> !absent.contains(f.name())).toList();
+    }
+
+    private ObjectNode report(final List<Task> tasks) {
+        final long start = System.nanoTime();
+        final var lookups = new HashMap<LookupKey, Set<List<String>>>();
+        final ArrayNode taskNodes = JSON.arrayNode();
+        int errorCount = 0;
+        int warningCount = 0;
+        boolean valid = true;
+        for (final Task task : tasks) {
+            final ObjectNode taskNode = validateTask(task, tasks, lookups);
+            taskNodes.add(taskNode);
+            errorCount += taskNode.path("errors").size();
+            warningCount += taskNode.path("warnings").size();
+            valid &= taskNode.path("valid").asBoolean();
+        }
+        final ObjectNode report = JSON.objectNode();
+        report.put("valid", valid);
+        report.putObject("stats")
+                .put("tasks", tasks.size())
+                .put("errors", errorCount)
+                .put("warnings", warningCount)
+                .put("seconds", seconds(start));
+        report.putArray("warnings");
+        report.putArray("errors");
+        report.set("tasks", taskNodes);
+        return report;
+    }
+
+    private ObjectNode validateTask(final Task task, final List<Task> tasks,
+            final Map<LookupKey, Set<List<String>>> lookups) {
+        final long start = System.nanoTime();
+        final List<FieldSchema> fields = task.fields();
+        final Map<String, Integer> fieldIndex = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            fieldIndex.put(fields.get(i).name(), i);
+        }
+        final var errors = new ArrayList<ObjectNode>();
+        final ArrayNode warnings = JSON.arrayNode();
+        final List<String> labels = new ArrayList<>();
+        int rows = 0;
+
+        final MessageDigest md5 = digest("MD5");
+        final MessageDigest sha256 = digest("SHA-256");
+        long bytes = 0;
+        try (InputStream in = new DigestInputStream(new DigestInputStream(Files.newInputStream(task.path()), md5),
+                sha256)) {
+            final var records = new CsvRecords(reader(in));
+            final List<String> header = records.next();
+            if (header != null) {
+                labels.addAll(header);
+            }
+            labelErrors(fields, labels, errors);
+
+            final Map<String, Map<String, Integer>> seenUnique = new HashMap<>();
+            final Map<List<String>, Integer> seenPrimaryKeys = new HashMap<>();
+            int rowNumber = 1;
+            boolean limited = reachedLimit(errors, warnings);
+            List<String> cells;
+            while (!limited && (cells = records.next()) != null) {
+                rowNumber++;
+                rows++;
+                final Row row = new Row(rowNumber, cells, fields, fieldIndex);
+                cellErrors(row, fields, errors);
+                integrityErrors(row, task, tasks, lookups, seenUnique, seenPrimaryKeys, errors);
+                checkAnswerCode(row, errors);
+                checkPotentialNeedIndicated(row, errors);
+                checkLeapYearDates(row, errors);
+                limited = reachedLimit(errors, warnings);
+            }
+            // hash the whole file even when the error limit stopped the rows early
+            final byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // drain
+            }
+            bytes = Files.size(task.path());
+        } catch (IOException e) {
+            errors.add(error("source-error", "Source Error",
+                    "Data reading error because of not supported or inconsistent contents.",
+                    "The data source has not supported or has inconsistent contents: " + e.getMessage(),
+                    List.of(), e.getMessage()));
+        }
+
+        final ObjectNode node = JSON.objectNode();
+        node.put("name", task.resource().name());
+        node.put("type", "table");
+        node.put("valid", errors.isEmpty());
+        node.put("place", task.path().toString());
+        final ArrayNode labelNodes = node.putArray("labels");
+        labels.forEach(labelNodes::add);
+        node.putObject("stats")
+                .put("errors", errors.size())
+                .put("warnings", warnings.size())
+                .put("seconds", seconds(start))
+                .put("md5", HexFormat.of().formatHex(md5.digest()))
+                .put("sha256", HexFormat.of().formatHex(sha256.digest()))
+                .put("bytes", bytes)
+                .put("fields", fields.size())
+                .put("rows", rows);
+        node.set("warnings", warnings);
+        node.putArray("errors").addAll(errors);
+        return node;
+    }
+
+    private static boolean reachedLimit(final List<ObjectNode> errors, final ArrayNode warnings) {
+        if (errors.size() < ERROR_LIMIT) {
+            return false;
+        }
+        errors.subList(ERROR_LIMIT, errors.size()).clear();
+        warnings.add("reached error limit: " + ERROR_LIMIT);
+        return true;
+    }
+
+    private static void labelErrors(final List<FieldSchema> fields, final List<String> labels,
+            final List<ObjectNode> errors) {
+        for (int i = fields.size(); i < labels.size(); i++) {
+            errors.add(labelError("extra-label", "Extra Label",
+                    "The header of the data source contains label that does not exist in the provided schema.",
+                    "There is an extra label \"%s\" in header at position \"%d\"".formatted(labels.get(i), i + 1),
+                    "", labels, labels.get(i), "", i + 1));
+        }
+        for (int i = labels.size(); i < fields.size(); i++) {
+            errors.add(labelError("missing-label", "Missing Label",
+                    "Based on the schema there should be a label that is missing in the data's header.",
+                    "There is a missing label in the header's field \"%s\" at position \"%d\""
+                            .formatted(fields.get(i).name(), i + 1),
+                    "", labels, "", fields.get(i).name(), i + 1));
+        }
+        for (int i = 0; i < Math.min(fields.size(), labels.size()); i++) {
+            final String fieldName = fields.get(i).name();
+            String label = labels.get(i);
+            if (label.isEmpty()) {
+                errors.add(labelError("blank-label", "Blank Label",
+                        "A label in the header row is missing a value. Label should be provided and not be blank.",
+                        "Label in the header in field at position \"%d\" is blank".formatted(i + 1),
+                        "", labels, "", fieldName, i + 1));
+                continue;
+            }
+            final var duplicates = new ArrayList<String>();
+            for (int j = 0; j < i; j++) {
+                if (label.equals(labels.get(j))) {
+                    duplicates.add(String.valueOf(j + 1));
+                }
+            }
+            if (!duplicates.isEmpty()) {
+                final String note = "at position \"%s\"".formatted(String.join(", ", duplicates));
+                errors.add(labelError("duplicate-label", "Duplicate Label",
+                        "Two columns in the header row have the same value. Column names should be unique.",
+                        "Label \"%s\" in the header at position \"%d\" is duplicated to a label: %s"
+                                .formatted(label, i + 1, note),
+                        note, labels, label, fieldName, i + 1));
+                label = null;
+            }
+            if (label != null && !fieldName.equals(label)) {
+                errors.add(labelError("incorrect-label", "Incorrect Label",
+                        "One of the data source header does not match the field name defined in the schema.",
+                        "Label \"%s\" in field %s at position \"%d\" does not match the field name in the schema"
+                                .formatted(label, fieldName, i + 1),
+                        "", labels, label, fieldName, i + 1));
+            }
+        }
+    }
+
+    private static void cellErrors(final Row row, final List<FieldSchema> fields, final List<ObjectNode> errors) {
+        final int before = errors.size();
+        int blankCells = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            final FieldSchema field = fields.get(i);
+            final String source = i < row.cells().size() ? row.cells().get(i) : null;
+            final String value = row.value(i);
+            if (value == null) {
+                blankCells++;
+                if (field.required()) {
+                    errors.add(constraintError(row, field, i, source, "constraint \"required\" is \"True\""));
+                }
+                continue;
+            }
+            for (final Constraint constraint : field.constraints()) {
+                if (!constraint.check().test(value)) {
+                    errors.add(constraintError(row, field, i, source,
+                            "constraint \"%s\" is \"%s\"".formatted(constraint.name(), constraint.display())));
+                }
+            }
+        }
+        for (int i = fields.size(); i < row.cells().size(); i++) {
+            errors.add(cellError("extra-cell", "Extra Cell",
+                    "This row has more values compared to the header row (the first row in the data source). A key "
+                            + "concept is that all the rows in tabular data must have the same number of columns.",
+                    "Row at position \"%d\" has an extra value in field at position \"%d\"".formatted(row.number(),
+                            i + 1),
+                    "", row, row.cells().get(i), "", i + 1));
+        }
+        for (int i = row.cells().size(); i < fields.size(); i++) {
+            errors.add(cellError("missing-cell", "Missing Cell",
+                    "This row has less values compared to the header row (the first row in the data source). A key "
+                            + "concept is that all the rows in tabular data must have the same number of columns.",
+                    "Row at position \"%d\" has a missing cell in field \"%s\" at position \"%d\""
+                            .formatted(row.number(), fields.get(i).name(), i + 1),
+                    "", row, "", fields.get(i).name(), i + 1));
+        }
+        if (blankCells == fields.size()) {
+            errors.subList(before, errors.size()).clear();
+            errors.add(rowError("blank-row", "Blank Row", "This row is empty. A row should contain at least one value.",
+                    "Row at position \"%d\" is completely blank".formatted(row.number()), "", row));
+        }
+    }
+
+    private void integrityErrors(final Row row, final Task task, final List<Task> tasks,
+            final Map<LookupKey, Set<List<String>>> lookups, final Map<String, Map<String, Integer>> seenUnique,
+            final Map<List<String>, Integer> seenPrimaryKeys, final List<ObjectNode> errors) {
+        for (final FieldSchema field : task.fields()) {
+            if (!field.unique()) {
+                continue;
+            }
+            final String value = row.get(field.name());
+            if (value == null) {
+                continue;
+            }
+            // like frictionless, point at the most recent earlier row with the same value
+            final Integer match = seenUnique.computeIfAbsent(field.name(), k -> new HashMap<>()).put(value,
+                    row.number());
+            if (match != null) {
+                final int index = row.index(field.name());
+                final String note = "the same as in the row at position " + match;
+                errors.add(cellError("unique-error", "Unique Error",
+                        "This field is a unique field but it contains a value that has been used in another row.",
+                        "Row at position \"%d\" has unique constraint violation in field \"%s\" at position \"%d\": %s"
+                                .formatted(row.number(), field.name(), index + 1, note),
+                        note, row, index < row.cells().size() ? row.cells().get(index) : "", field.name(),
+                        index + 1));
+            }
+        }
+
+        final List<String> primaryKey = task.resource().primaryKey();
+        if (!primaryKey.isEmpty()) {
+            final List<String> values = row.values(primaryKey);
+            if (values.stream().allMatch(v -> v == null)) {
+                errors.add(primaryKeyError(row, "cells composing the primary keys are all \"None\""));
+            } else {
+                final Integer match = seenPrimaryKeys.put(values, row.number());
+                if (match != null) {
+                    errors.add(primaryKeyError(row, "the same as in the row at position " + match));
+                }
+            }
+        }
+
+        for (final ForeignKey foreignKey : task.resource().foreignKeys()) {
+            final List<String> values = row.values(foreignKey.fields());
+            if (values.stream().allMatch(v -> v == null)) {
+                continue;
+            }
+            final Set<List<String>> lookup = lookups.computeIfAbsent(
+                    new LookupKey(foreignKey.resource(), foreignKey.referenceFields()),
+                    key -> lookup(key, tasks));
+            if (!lookup.contains(values)) {
+                final String note = "for \"%s\": values \"%s\" not found in the lookup table \"%s\" as \"%s\""
+                        .formatted(String.join(", ", foreignKey.fields()),
+                                String.join(", ", values.stream().map(CsvPackageValidator::pythonStr).toList()),
+                                foreignKey.resource(), String.join(", ", foreignKey.referenceFields()));
+                final ObjectNode error = rowError("foreign-key", "ForeignKey Error",
+                        "Values in the foreign key fields should reference a record that exists in the foreign table.",
+                        "Row at position \"%d\" violates the foreign key: %s".formatted(row.number(), note), note, row);
+                final ArrayNode fieldNames = error.putArray("fieldNames");
+                foreignKey.fields().forEach(fieldNames::add);
+                final ArrayNode fieldCells = error.putArray("fieldCells");
+                values.forEach(v -> fieldCells.add(v == null ? "" : v));
+                error.put("referenceName", foreignKey.resource());
+                final ArrayNode referenceFieldNames = error.putArray("referenceFieldNames");
+                foreignKey.referenceFields().forEach(referenceFieldNames::add);
+                errors.add(error);
+            }
+        }
+    }
+
+    /**
+     * Key values of every row of the referenced file, valid or not, as frictionless collects them.
+     */
+    private static Set<List<String>> lookup(final LookupKey key, final List<Task> tasks) {
+        final Set<List<String>> values = new HashSet<>();
+        final Task referenced = tasks.stream().filter(t -> t.resource().name().equals(key.resource())).findFirst()
+                .orElse(null);
+        if (referenced == null) {
+            return values;
+        }
+        final Map<String, Integer> fieldIndex = new HashMap<>();
+        for (int i = 0; i < referenced.fields().size(); i++) {
+            fieldIndex.put(referenced.fields().get(i).name(), i);
+        }
+        try (Reader reader = reader(Files.newInputStream(referenced.path()))) {
+            final var records = new CsvRecords(reader);
+            records.next();
+            List<String> cells;
+            while ((cells = records.next()) != null) {
+                final List<String> keyValues = new Row(0, cells, referenced.fields(), fieldIndex)
+                        .values(key.fields());
+                if (!keyValues.stream().allMatch(v -> v == null)) {
+                    values.add(keyValues);
+                }
+            }
+        } catch (IOException e) {
+            // the referenced file reports its own source error
+        }
+        return values;
+    }
+
+    private static void checkAnswerCode(final Row row, final List<ObjectNode> errors) {
+        final String questionCode = row.get("QUESTION_CODE");
+        final String answerCode = row.get("ANSWER_CODE");
+        if (questionCode == null || answerCode == null) {
+            return;
+        }
+        final List<String> validAnswers = QUESTION_ANSWER_MAP.get(questionCode.toLowerCase(Locale.ROOT));
+        if (validAnswers != null && !validAnswers.contains(answerCode.toLowerCase(Locale.ROOT))) {
+            errors.add(customRowError(row,
+                    "Invalid ANSWER_CODE '%s' for QUESTION_CODE '%s'".formatted(answerCode, questionCode)));
+        }
+    }
+
+    private static void checkPotentialNeedIndicated(final Row row, final List<ObjectNode> errors) {
+        if (!row.has("ANSWER_CODE") || !row.has("POTENTIAL_NEED_INDICATED")) {
+            return;
+        }
+        final String answerCode = pythonStrip(row.get("ANSWER_CODE")).toLowerCase(Locale.ROOT);
+        final String potentialNeed = pythonStrip(row.get("POTENTIAL_NEED_INDICATED")).toLowerCase(Locale.ROOT);
+        if (answerCode.isEmpty() || potentialNeed.isEmpty()) {
+            return;
+        }
+        if (POSITIVE_ANSWER_CODES.contains(answerCode) && !potentialNeed.contains("pos")) {
+            errors.add(customRowError(row, ("When ANSWER_CODE is '%s', POTENTIAL_NEED_INDICATED field must be set "
+                    + "to 'POS', Received value: '%s'").formatted(answerCode.toUpperCase(Locale.ROOT),
+                            potentialNeed.toUpperCase(Locale.ROOT))));
+        }
+        if (NEGATIVE_ANSWER_CODES.contains(answerCode) && !potentialNeed.contains("neg")) {
+            errors.add(customRowError(row, ("When ANSWER_CODE is '%s', POTENTIAL_NEED_INDICATED field must be set "
+                    + "to 'NEG', Received value: '%s'").formatted(answerCode.toUpperCase(Locale.ROOT),
+                            potentialNeed.toUpperCase(Locale.ROOT))));
+        }
+    }
+
+    private static void checkLeapYearDates(final Row row, final List<ObjectNode> errors) {
+        for (final String field : DATETIME_FIELDS) {
+            final String value = row.get(field);
+            if (value != null && !isValidDateTime(value)) {
+                errors.add(customRowError(row, ("Invalid date in '%s': '%s'. The date is not valid. Please verify "
+                        + "the day, month, and year (including leap year rules).").formatted(field, value)));
+            }
+        }
+    }
+
+    private static boolean isValidDateTime(final String value) {
+        final int t = value.indexOf('T');
+        return t >= 0 && isValidDate(value.substring(0, t));
+    }
+
+    /**
+     * Mirrors the script's {@code _is_valid_date}: days over 31 are left to the pattern constraint, anything else
+     * must be a real calendar date between 1900 and 2100.
+     */
+    private static boolean isValidDate(final String value) {
+        final String[] parts = value.split("-", -1);
+        if (parts.length == 3) {
+            final String day = pythonStrip(parts[2]);
+            if (PYTHON_INT.matcher(day).matches()
+                    && new BigInteger(day.replace("_", "")).compareTo(BigInteger.valueOf(31)) > 0) {
+                return true;
+            }
+        }
+        final var matcher = ISO_DATE.matcher(value);
+        if (!matcher.matches() || (value.length() != 8 && value.length() != 10)) {
+            return false;
+        }
+        try {
+            final LocalDate date = LocalDate.of(Integer.parseInt(matcher.group(1)),
+                    Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)));
+            return date.getYear() >= 1900 && date.getYear() <= 2100;
+        } catch (DateTimeException | NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static ObjectNode constraintError(final Row row, final FieldSchema field, final int index,
+            final String source, final String note) {
+        final String cell = source == null ? "None" : source;
+        return cellError("constraint-error", "Constraint Error", "A field value does not conform to a constraint.",
+                ("The cell \"%s\" in row at position \"%d\" and field \"%s\" at position \"%d\" does not conform to a "
+                        + "constraint: %s").formatted(cell, row.number(), field.name(), index + 1, note),
+                note, row, cell, field.name(), index + 1);
+    }
+
+    private static ObjectNode primaryKeyError(final Row row, final String note) {
+        return rowError("primary-key", "PrimaryKey Error",
+                "Values in the primary key fields should be unique for every row",
+                "Row at position \"%d\" violates the primary key: %s".formatted(row.number(), note), note, row);
+    }
+
+    private static ObjectNode customRowError(final Row row, final String note) {
+        return rowError("row-error", "Row Error", "Row Error", "Row Error", note, row);
+    }
+
+    private static ObjectNode error(final String type, final String title, final String description,
+            final String message, final List<String> tags, final String note) {
+        final ObjectNode error = JSON.objectNode();
+        error.put("type", type);
+        error.put("title", title);
+        error.put("description", description);
+        error.put("message", message);
+        final ArrayNode tagNodes = error.putArray("tags");
+        tags.forEach(tagNodes::add);
+        error.put("note", note);
+        return error;
+    }
+
+    private static ObjectNode labelError(final String type, final String title, final String description,
+            final String message, final String note, final List<String> labels, final String label,
+            final String fieldName, final int fieldNumber) {
+        final ObjectNode error = error(type, title, description, message, List.of("#table", "#header", "#label"),
+                note);
+        final ArrayNode labelNodes = error.putArray("labels");
+        labels.forEach(labelNodes::add);
+        error.putArray("rowNumbers").add(1);
+        error.put("label", label);
+        error.put("fieldName", fieldName);
+        error.put("fieldNumber", fieldNumber);
+        return error;
+    }
+
+    private static ObjectNode rowError(final String type, final String title, final String description,
+            final String message, final String note, final Row row) {
+        final ObjectNode error = error(type, title, description, message, List.of("#table", "#row"), note);
+        final ArrayNode cells = error.putArray("cells");
+        row.cells().forEach(cells::add);
+        error.put("rowNumber", row.number());
+        return error;
+    }
+
+    private static ObjectNode cellError(final String type, final String title, final String description,
+            final String message, final String note, final Row row, final String cell, final String fieldName,
+            final int fieldNumber) {
+        final ObjectNode error = error(type, title, description, message, List.of("#table", "#row", "#cell"),
+                note);
+        final ArrayNode cells = error.putArray("cells");
+        row.cells().forEach(cells::add);
+        error.put("rowNumber", row.number());
+        error.put("cell", cell);
+        error.put("fieldName", fieldName);
+        error.put("fieldNumber", fieldNumber);
+        return error;
+    }
+
+    private static Reader reader(final InputStream in) {
+        // frictionless detects UTF-8 with or without a BOM; undecodable bytes are replaced like the script does
+        final var decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        return new BomSkippingReader(new InputStreamReader(in, decoder));
+    }
+
+    private static MessageDigest digest(final String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double seconds(final long startNanos) {
+        return Math.round((System.nanoTime() - startNanos) / 1_000_000.0) / 1000.0;
+    }
+
+    private static String pythonStrip(final String value) {
+        return value == null ? "" : value.strip();
+    }
+
+    private static String pythonStr(final String value) {
+        return value == null ? "None" : value;
+    }
+
+    /**
+     * Python {@code repr} of a list of strings, as frictionless prints the {@code enum} constraint.
+     */
+    private static String pythonRepr(final List<String> values) {
+        final var repr = new StringBuilder("[");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                repr.append(", ");
+            }
+            final String value = values.get(i);
+            final char quote = value.contains("'") && !value.contains("\"") ? '"' : '\'';
+            repr.append(quote);
+            for (final char c : value.toCharArray()) {
+                if (c == '\\' || c == quote) {
+                    repr.append('\\');
+                }
+                repr.append(c);
+            }
+            repr.append(quote);
+        }
+        return repr.append(']').toString();
+    }
+
+    private record Task(ResourceSchema resource, List<FieldSchema> fields, Path path) {
+    }
+
+    private record LookupKey(String resource, List<String> fields) {
+    }
+
+    private record ForeignKey(List<String> fields, String resource, List<String> referenceFields) {
+    }
+
+    private record Constraint(String name, String display, Predicate<String> check) {
+    }
+
+    private record FieldSchema(String name, boolean required, boolean unique, List<Constraint> constraints) {
+
+        static FieldSchema from(final JsonNode field) {
+            final String name = field.path("name").asText();
+            final String type = field.path("type").asText("string");
+            if (!"string".equals(type)) {
+                throw new IllegalArgumentException(
+                        "Unsupported type '%s' for field '%s'; only string fields are supported".formatted(type,
+                                name));
+            }
+            final var constraints = new ArrayList<Constraint>();
+            boolean required = false;
+            boolean unique = false;
+            final var iterator = field.path("constraints").fields();
+            while (iterator.hasNext()) {
+                final var entry = iterator.next();
+                final JsonNode value = entry.getValue();
+                switch (entry.getKey()) {
+                    case "required" -> required = value.asBoolean();
+                    case "unique" -> unique = value.asBoolean();
+                    case "pattern" -> {
+                        // frictionless matches "^pattern$" from the start of the cell, with Python's regex semantics
+                        final Pattern pattern = Pattern.compile("^" + value.asText() + "$",
+                                Pattern.UNIX_LINES | Pattern.UNICODE_CASE | Pattern.UNICODE_CHARACTER_CLASS);
+                        constraints.add(new Constraint("pattern", value.asText(),
+                                cell -> pattern.matcher(cell).lookingAt()));
+                    }
+                    case "enum" -> {
+                        final var values = new ArrayList<String>();
+                        value.forEach(v -> values.add(v.asText()));
+                        final Set<String> allowed = Set.copyOf(values);
+                        constraints.add(new Constraint("enum", pythonRepr(values), allowed::contains));
+                    }
+                    case "minLength" -> constraints.add(new Constraint("minLength", value.asText(),
+                            cell -> cell.codePointCount(0, cell.length()) >= value.asInt()));
+                    case "maxLength" -> constraints.add(new Constraint("maxLength", value.asText(),
+                            cell -> cell.codePointCount(0, cell.length()) <= value.asInt()));
+                    default -> throw new IllegalArgumentException(
+                            "Unsupported constraint '%s' for field '%s'".formatted(entry.getKey(), name));
+                }
+            }
+            return new FieldSchema(name, required, unique, List.copyOf(constraints));
+        }
+    }
+
+    private record ResourceSchema(String name, List<FieldSchema> fields, List<String> primaryKey,
+            List<ForeignKey> foreignKeys) {
+
+        static ResourceSchema from(final JsonNode resource) {
+            final JsonNode schema = resource.path("schema");
+            final var fields = new ArrayList<FieldSchema>();
+            schema.path("fields").forEach(field -> fields.add(FieldSchema.from(field)));
+            final var foreignKeys = new ArrayList<ForeignKey>();
+            schema.path("foreignKeys").forEach(fk -> foreignKeys.add(new ForeignKey(names(fk.path("fields")),
+                    fk.path("reference").path("resource").asText(), names(fk.path("reference").path("fields")))));
+            return new ResourceSchema(resource.path("name").asText(), List.copyOf(fields),
+                    names(schema.path("primaryKey")), List.copyOf(foreignKeys));
+        }
+
+        private static List<String> names(final JsonNode node) {
+            if (node.isTextual()) {
+                return List.of(node.asText());
+            }
+            final var names = new ArrayList<String>();
+            node.forEach(n -> names.add(n.asText()));
+            return List.copyOf(names);
+        }
+    }
+
+    /**
+     * A data row: the raw cells plus the value of each schema field by position, where an empty or missing cell
+     * has no value.
+     */
+    private record Row(int number, List<String> cells, List<FieldSchema> fields, Map<String, Integer> fieldIndex) {
+
+        String value(final int index) {
+            if (index >= fields.size() || index >= cells.size()) {
+                return null;
+            }
+            final String cell = cells.get(index);
+            return cell.isEmpty() ? null : cell;
+        }
+
+        boolean has(final String fieldName) {
+            return fieldIndex.containsKey(fieldName);
+        }
+
+        int index(final String fieldName) {
+            return fieldIndex.get(fieldName);
+        }
+
+        String get(final String fieldName) {
+            final Integer index = fieldIndex.get(fieldName);
+            return index == null ? null : value(index);
+        }
+
+        List<String> values(final List<String> fieldNames) {
+            final var values = new ArrayList<String>(fieldNames.size());
+            fieldNames.forEach(name -> values.add(get(name)));
+            return values;
+        }
+    }
+
+    /**
+     * Splits CSV text into records the way Python's {@code csv} reader does with the default dialect and
+     * {@code skipinitialspace}: an empty line is a record without cells, a quote only opens a quoted cell at the
+     * start of a cell, and text after a closing quote is kept.
+     */
+    static final class CsvRecords {
+
+        private final Reader in;
+        private int pushedBack = -2;
+
+        CsvRecords(final Reader in) {
+            this.in = in;
+        }
+
+        private int read() throws IOException {
+            if (pushedBack != -2) {
+                final int c = pushedBack;
+                pushedBack = -2;
+                return c;
+            }
+            return in.read();
+        }
+
+        private void endOfLine(final int c) throws IOException {
+            if (c == '\r') {
+                final int next = read();
+                if (next != '\n') {
+                    pushedBack = next;
+                }
+            }
+        }
+
+        List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            final List<String> cells = new ArrayList<>();
+            if (c == '\n' || c == '\r') {
+                endOfLine(c);
+                return cells;
+            }
+            final var cell = new StringBuilder();
+            boolean startOfCell = true;
+            boolean inQuotes = false;
+            while (true) {
+                if (inQuotes) {
+                    if (c == -1) {
+                        cells.add(cell.toString());
+                        return cells;
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c == '"') {
+                            cell.append('"');
+                            c = read();
+                        } else {
+                            inQuotes = false;
+                        }
+                        continue;
+                    }
+                    cell.append((char) c);
+                    c = read();
+                    continue;
+                }
+                if (startOfCell) {
+                    if (c == ' ') {
+                        c = read();
+                        continue;
+                    }
+                    startOfCell = false;
+                    if (c == '"') {
+                        inQuotes = true;
+                        c = read();
+                        continue;
+                    }
+                }
+                if (c == ',') {
+                    cells.add(cell.toString());
+                    cell.setLength(0);
+                    startOfCell = true;
+                    c = read();
+                    continue;
+                }
+                if (c == '\n' || c == '\r' || c == -1) {
+                    cells.add(cell.toString());
+                    endOfLine(c);
+                    return cells;
+                }
+                cell.append((char) c);
+                c = read();
+            }
+        }
+    }
+
+    private static final class BomSkippingReader extends Reader {
+
+        private final Reader delegate;
+        private boolean first = true;
+
+        BomSkippingReader(final Reader delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read(final char[] buffer, final int offset, final int length) throws IOException {
+            int read = delegate.read(buffer, offset, length);
+            if (first && read > 0) {
+                first = false;
+                if (buffer[offset] == '\uFEFF') {
+                    System.arraycopy(buffer, offset + 1, buffer, offset, read - 1);
+                    read--;
+                    if (read == 0) {
+                        return read(buffer, offset, length);
+                    }
+                }
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
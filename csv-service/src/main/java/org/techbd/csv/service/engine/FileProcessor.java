@@ -8,13 +8,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.nio.charset.CharsetDecoder;
-import java.nio.charset.CodingErrorAction;
 import org.techbd.csv.model.FileDetail;
 import org.techbd.csv.model.FileType;
 import java.util.LinkedHashMap;
-import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
 public class FileProcessor {
     
     /**
@@ -43,9 +39,7 @@ public class FileProcessor {
             final List<String> filePaths, 
             final ValidationConfig config) throws IOException {
         
-        final Map<String, List<FileDetail>> groupedFiles = new HashMap<>();
-        final List<FileDetail> filesNotProcessed = new ArrayList<>();
-        final Map<String, String> groupHasInvalidContent = new HashMap<>();
+        final FileGrouping grouping = new FileGrouping();
         
         for (final String filePath : filePaths) {
             final Path path = Path.of(filePath);
@@ -53,88 +47,107 @@ public class FileProcessor {
             
             try {
                 final FileType fileType = FileType.fromFilename(fileName);
-                String groupKey = fileName.substring(fileType.name().length(), fileName.lastIndexOf(".csv"));
-                String content = null;
-                Boolean isValid = true;
-                String reason = null;
-                
-                // Step 1: Read file bytes
-                byte[] fileBytes = Files.readAllBytes(path);
                 
-                // Step 2: Check for BOM at start and strip it if present
-                boolean hasBOMAtStart = hasBOMAtStart(fileBytes);
-                if (hasBOMAtStart) {
-                    // Strip BOM from the beginning for content reading
-                    byte[] contentBytes = new byte[fileBytes.length - 3];
-                    System.arraycopy(fileBytes, 3, contentBytes, 0, contentBytes.length);
-                    fileBytes = contentBytes;
-                }
-                
-                // Step 3: Try to read as UTF-8
-                try {
-                   content = decodeUtf8Strict(fileBytes);
-                } catch (Exception e) {
-                    isValid = false;
-                    reason = "File is not valid UTF-8 encoded: " + e.getMessage();
-                    groupHasInvalidContent.put(groupKey, "utf8");
-                }
+                // Step 1: Check UTF-8 and content on the mapped bytes, without decoding the file
+                final Utf8ContentScanner.Result scan = Utf8ContentScanner.scan(path, config);
                 
-                // Step 4: Validate content using Unicode character properties
-                // This will detect BOM in the middle of content (U+FEFF)
-                if (isValid && content != null) {
-                    ContentValidationResult validation = validateContentDynamic(content, config);
-                    if (!validation.isValid) {
-                        isValid = false;
-                        reason = validation.reason;
-                        groupHasInvalidContent.put(groupKey, "content");
-                    }
+                // Step 2: Read only a file that passed, stripping a BOM at start
+                String content = null;
+                if (scan.isValid()) {
+                    final byte[] fileBytes = Files.readAllBytes(path);
+                    final int offset = hasBOMAtStart(fileBytes) ? 3 : 0;
+                    content = new String(fileBytes, offset, fileBytes.length - offset, StandardCharsets.UTF_8);
                 }
                 
-                FileDetail fileDetail = new FileDetail(fileName, fileType, content, filePath, isValid, reason);
-                groupedFiles.computeIfAbsent(groupKey, k -> new ArrayList<>()).add(fileDetail);
+                grouping.add(fileName, fileType, filePath, content, scan);
                 
             } catch (IllegalArgumentException e) {
-                String reason = "Invalid file prefix: " + e.getMessage();
-                filesNotProcessed.add(new FileDetail(fileName, null, null, filePath, false, reason));
+                grouping.notProcessed(fileName, filePath, "Invalid file prefix: " + e.getMessage());
             } catch (IOException e) {
-                String reason = "IOException during processing: " + e.getMessage();
-                filesNotProcessed.add(new FileDetail(fileName, null, null, filePath, false, reason));
+                grouping.notProcessed(fileName, filePath, "IOException during processing: " + e.getMessage());
             }
         }
         
-        // Remove entire groups that have any invalid files
-        for (String invalidGroupKey : groupHasInvalidContent.keySet()) {
-            List<FileDetail> group = groupedFiles.remove(invalidGroupKey);
-            if (group != null) {
-                List<String> invalidFiles = group.stream()
-                        .filter(fd -> !fd.utf8Encoded())
-                        .map(fd -> fd.filename() + " (" + fd.reason() + ")")
-                        .toList();
-                        String failureType = groupHasInvalidContent.get(invalidGroupKey);
-                        String blockReason;
-                    if ("utf8".equals(failureType)) {
-                        blockReason = "Not processed as other files in the group were not UTF-8 encoded. Group blocked by: "
-                                + String.join("; ", invalidFiles);
-                    } else {
-                        blockReason = "Not processed as other files in the group have content validation errors. Group blocked by: "
-                                + String.join("; ", invalidFiles);
+        return grouping.finish();
+    }
+    
+    /**
+     * Groups CSV files by the part of their name after the file type prefix, records the result of scanning each file
+     * as it is added and, on {@link #finish()}, moves every group with an invalid file to the files not processed.
+     * Used for files already on disk and for files streamed out of an uploaded zip.
+     */
+    static final class FileGrouping {
+        private final Map<String, List<FileDetail>> groupedFiles = new HashMap<>();
+        private final List<FileDetail> filesNotProcessed = new ArrayList<>();
+        private final Map<String, String> groupHasInvalidContent = new HashMap<>();
+        
+        static String groupKey(final String fileName, final FileType fileType) {
+            return fileName.substring(fileType.name().length(), fileName.lastIndexOf(".csv"));
+        }
+        
+        /**
+         * @param content the decoded content without a leading BOM, or null when the scan found it invalid
+         * @param scan    the result of scanning the file's bytes
+         */
+        void add(final String fileName, final FileType fileType, final String filePath, final String content,
+                final Utf8ContentScanner.Result scan) {
+            final String groupKey = groupKey(fileName, fileType);
+            boolean isValid = true;
+            String reason = null;
+            if (!scan.utf8Encoded()) {
+                isValid = false;
+                reason = "File is not valid UTF-8 encoded: " + scan.encodingError();
+                groupHasInvalidContent.put(groupKey, "utf8");
+            } else if (scan.contentReason() != null) {
+                // Unicode character property checks, including a BOM in the middle of content (U+FEFF)
+                isValid = false;
+                reason = scan.contentReason();
+                groupHasInvalidContent.put(groupKey, "content");
+            }
+            
+            FileDetail fileDetail = new FileDetail(fileName, fileType, content, filePath, isValid, reason);
+            groupedFiles.computeIfAbsent(groupKey, k -> new ArrayList<>()).add(fileDetail);
+        }
+        
+        void notProcessed(final String fileName, final String filePath, final String reason) {
+            filesNotProcessed.add(new FileDetail(fileName, null, null, filePath, false, reason));
+        }
+        
+        Map<String, List<FileDetail>> finish() {
+            // Remove entire groups that have any invalid files
+            for (String invalidGroupKey : groupHasInvalidContent.keySet()) {
+                List<FileDetail> group = groupedFiles.remove(invalidGroupKey);
+                if (group != null) {
+                    List<String> invalidFiles = group.stream()
+                            .filter(fd -> !fd.utf8Encoded())
+                            .map(fd -> fd.filename() + " (" + fd.reason() + ")")
+                            .toList();
+                            String failureType = groupHasInvalidContent.get(invalidGroupKey);
+                            String blockReason;
+                        if ("utf8".equals(failureType)) {
+                            blockReason = "Not processed as other files in the group were not UTF-8 encoded. Group blocked by: "
+                                    + String.join("; ", invalidFiles);
+                        } else {
+                            blockReason = "Not processed as other files in the group have content validation errors. Group blocked by: "
+                                    + String.join("; ", invalidFiles);
+                        }
+                    
+                        for (FileDetail fd : group) {
+                          FileDetail failed = new FileDetail(
+                                fd.filename(),
+                                fd.fileType(),
+                                null,
+                                fd.filePath(),
+                                fd.utf8Encoded(),
+                                !fd.utf8Encoded() ? fd.reason() : blockReason);
+                        filesNotProcessed.add(failed);
                     }
-                
-                    for (FileDetail fd : group) {
-                      FileDetail failed = new FileDetail(
-                            fd.filename(),
-                            fd.fileType(),
-                            null,
-                            fd.filePath(),
-                            fd.utf8Encoded(),
-                            !fd.utf8Encoded() ? fd.reason() : blockReason);
-                    filesNotProcessed.add(failed);
                 }
             }
+            
+            groupedFiles.put("filesNotProcessed", filesNotProcessed);
+            return groupedFiles;
         }
-        
-        groupedFiles.put("filesNotProcessed", filesNotProcessed);
-        return groupedFiles;
     }
     
     /**
@@ -149,106 +162,127 @@ public class FileProcessor {
     
     /**
      * Dynamic content validation using Java's Character class properties
-     * This automatically detects all problematic Unicode characters without hardcoding
+     * This automatically detects all problematic Unicode characters without hardcoding.
+     * {@link Utf8ContentScanner} gives the same result from the file's bytes; this is kept as its reference.
+     *
+     * @return why the content is invalid, or null when it is valid
      */
-    private static ContentValidationResult validateContentDynamic(String content, ValidationConfig config) {
-        Map<String, List<CharacterInfo>> issues = new LinkedHashMap<>();
-        int maxSamples = 5; // Limit samples per issue type
+    static String validateContentDynamic(String content, ValidationConfig config) {
+        ContentIssues issues = new ContentIssues();
         
         for (int i = 0; i < content.length(); i++) {
             char ch = content.charAt(i);
-            int codePoint = content.codePointAt(i);
             
             // Skip high surrogates, we'll check them separately
             if (Character.isHighSurrogate(ch)) {
                 continue;
             }
             
-            // 1. Check for null bytes (0x00) - Critical for databases
-            if (config.checkNullBytes && ch == '\u0000') {
-                addIssue(issues, "Null bytes (0x00)", ch, codePoint, i, maxSamples);
-                continue;
-            }
-            
-            // 2. Check control characters using Character.isISOControl()
-            if (config.checkControlCharacters && Character.isISOControl(ch)) {
-                // Allow common whitespace if configured
-                if (config.allowTabsAndNewlines && (ch == '\t' || ch == '\n' || ch == '\r')) {
-                    continue;
-                }
-                addIssue(issues, "Control characters", ch, codePoint, i, maxSamples);
-                continue;
+            issues.check(ch, content.codePointAt(i), i, config);
+        }
+        
+        return issues.reason();
+    }
+    
+    /**
+     * @return the kind of problem the character is, or null when it is allowed
+     */
+    static String classify(char ch, int codePoint, ValidationConfig config) {
+        // 1. Check for null bytes (0x00) - Critical for databases
+        if (config.checkNullBytes && ch == '\u0000') {
+            return "Null bytes (0x00)";
+        }
+        
+        // 2. Check control characters using Character.isISOControl()
+        if (config.checkControlCharacters && Character.isISOControl(ch)) {
+            // Allow common whitespace if configured
+            if (config.allowTabsAndNewlines && (ch == '\t' || ch == '\n' || ch == '\r')) {
+                return null;
             }
-            
-            // 3. Check for Unicode surrogates (U+D800 to U+DFFF)
-            if (config.checkSurrogates && Character.isSurrogate(ch)) {
-                addIssue(issues, "Invalid surrogate characters", ch, codePoint, i, maxSamples);
-                continue;
+            return "Control characters";
+        }
+        
+        // 3. Check for Unicode surrogates (U+D800 to U+DFFF)
+        if (config.checkSurrogates && Character.isSurrogate(ch)) {
+            return "Invalid surrogate characters";
+        }
+        
+        // 4. Check for non-characters (U+FDD0..U+FDEF and U+FFFE, U+FFFF, etc.)
+        if (config.checkNonCharacters && isNonCharacter(codePoint)) {
+            return "Unicode non-characters";
+        }
+        
+        // 5. Check for problematic whitespace using Character.getType()
+        if (config.checkProblematicWhitespace) {
+            int type = Character.getType(ch);
+            // SPACE_SEPARATOR includes non-breaking spaces and other problematic whitespace
+            if (type == Character.SPACE_SEPARATOR && ch != ' ') {
+                return "Problematic whitespace";
             }
             
-            // 4. Check for non-characters (U+FDD0..U+FDEF and U+FFFE, U+FFFF, etc.)
-            if (config.checkNonCharacters && isNonCharacter(codePoint)) {
-                addIssue(issues, "Unicode non-characters", ch, codePoint, i, maxSamples);
-                continue;
+            // Check for format characters (invisible formatting)
+            if (type == Character.FORMAT) {
+                return "Invisible format characters";
             }
             
-            // 5. Check for problematic whitespace using Character.getType()
-            if (config.checkProblematicWhitespace) {
-                int type = Character.getType(ch);
-                // SPACE_SEPARATOR includes non-breaking spaces and other problematic whitespace
-                if (type == Character.SPACE_SEPARATOR && ch != ' ') {
-                    addIssue(issues, "Problematic whitespace", ch, codePoint, i, maxSamples);
-                    continue;
-                }
-                
-                // Check for format characters (invisible formatting)
-                if (type == Character.FORMAT) {
-                    addIssue(issues, "Invisible format characters", ch, codePoint, i, maxSamples);
-                    continue;
-                }
-                
-                // Check for zero-width characters (including BOM/ZWNBSP when in content)
-                if (isZeroWidthCharacter(codePoint)) {
-                    // U+FEFF in the middle of content is a zero-width no-break space (BOM misplaced)
-                    if (codePoint == 0xFEFF && config.checkBOM) {
-                        addIssue(issues, "BOM character in middle of content", ch, codePoint, i, maxSamples);
-                    } else {
-                        addIssue(issues, "Zero-width characters", ch, codePoint, i, maxSamples);
-                    }
-                    continue;
+            // Check for zero-width characters (including BOM/ZWNBSP when in content)
+            if (isZeroWidthCharacter(codePoint)) {
+                // U+FEFF in the middle of content is a zero-width no-break space (BOM misplaced)
+                if (codePoint == 0xFEFF && config.checkBOM) {
+                    return "BOM character in middle of content";
                 }
+                return "Zero-width characters";
             }
-            
-            // 6. Check for private use area characters (optional)
-            if (config.checkPrivateUseArea) {
-                int type = Character.getType(ch);
-                if (type == Character.PRIVATE_USE) {
-                    addIssue(issues, "Private use area characters", ch, codePoint, i, maxSamples);
-                    continue;
-                }
+        }
+        
+        // 6. Check for private use area characters (optional)
+        if (config.checkPrivateUseArea && Character.getType(ch) == Character.PRIVATE_USE) {
+            return "Private use area characters";
+        }
+        return null;
+    }
+    
+    /**
+     * Problem characters found in one file, by kind in the order first seen
+     */
+    static final class ContentIssues {
+        private static final int MAX_SAMPLES = 5; // Limit samples per issue type
+        private final Map<String, List<CharacterInfo>> issues = new LinkedHashMap<>();
+        
+        void check(char ch, int codePoint, long position, ValidationConfig config) {
+            final String category = classify(ch, codePoint, config);
+            if (category == null) {
+                return;
+            }
+            List<CharacterInfo> list = issues.computeIfAbsent(category, k -> new ArrayList<>());
+            if (list.size() < MAX_SAMPLES * 2) { // Keep more samples than we display
+                list.add(new CharacterInfo(ch, codePoint, position));
             }
         }
         
-        // Build error message if issues found
-        if (!issues.isEmpty()) {
+        /**
+         * @return the error message, or null when no issue was found
+         */
+        String reason() {
+            if (issues.isEmpty()) {
+                return null;
+            }
             StringBuilder reason = new StringBuilder("File contains invalid characters:\n");
             for (Map.Entry<String, List<CharacterInfo>> entry : issues.entrySet()) {
                 reason.append("  - ").append(entry.getKey()).append(": ");
                 List<CharacterInfo> samples = entry.getValue();
                 reason.append(samples.stream()
                     .map(CharacterInfo::toString)
-                    .limit(maxSamples)
+                    .limit(MAX_SAMPLES)
                     .reduce((a, b) -> a + ", " + b)
                     .orElse(""));
-                if (samples.size() > maxSamples) {
-                    reason.append(" (and ").append(samples.size() - maxSamples).append(" more)");
+                if (samples.size() > MAX_SAMPLES) {
+                    reason.append(" (and ").append(samples.size() - MAX_SAMPLES).append(" more)");
                 }
                 reason.append("\n");
             }
-            return new ContentValidationResult(false, reason.toString().trim());
+            return reason.toString().trim();
         }
-        
-        return new ContentValidationResult(true, null);
     }
     
     /**
@@ -276,27 +310,15 @@ public class FileProcessor {
                codePoint == 0xFEFF;   // ZERO WIDTH NO-BREAK SPACE (BOM when in content)
     }
     
-    /**
-     * Add an issue to the map with character information
-     */
-    private static void addIssue(Map<String, List<CharacterInfo>> issues, String category, 
-                                  char ch, int codePoint, int position, int maxSamples) {
-        issues.computeIfAbsent(category, k -> new ArrayList<>());
-        List<CharacterInfo> list = issues.get(category);
-        if (list.size() < maxSamples * 2) { // Keep more samples than we display
-            list.add(new CharacterInfo(ch, codePoint, position));
-        }
-    }
-    
     /**
      * Information about a problematic character
      */
     private static class CharacterInfo {
         final char ch;
         final int codePoint;
-        final int position;
+        final long position;
         
-        CharacterInfo(char ch, int codePoint, int position) {
+        CharacterInfo(char ch, int codePoint, long position) {
             this.ch = ch;
             this.codePoint = codePoint;
             this.position = position;
@@ -332,30 +354,4 @@ public class FileProcessor {
             };
         }
     }
-    
-    /**
-     * Result object for content validation
-     */
-    private static class ContentValidationResult {
-        final boolean isValid;
-        final String reason;
-        
-        ContentValidationResult(boolean isValid, String reason) {
-            this.isValid = isValid;
-            this.reason = reason;
-        }
-    }
-    private static String decodeUtf8Strict(byte[] bytes) throws IOException {
-    CharsetDecoder decoder = StandardCharsets.UTF_8
-            .newDecoder()
-            .onMalformedInput(CodingErrorAction.REPORT)
-            .onUnmappableCharacter(CodingErrorAction.REPORT);
-
-    try {
-        CharBuffer buffer = decoder.decode(ByteBuffer.wrap(bytes));
-        return buffer.toString();
-    } catch (Exception e) {
-        throw new IOException("Invalid UTF-8 encoding: " + e.getMessage(), e);
-    }
 }
-}
\ No newline at end of file
@@ -0,0 +1,387 @@
+package org.techbd.csv.service.engine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.techbd.corelib.config.CoreAppConfig;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps Python processes running {@value #WORKER_SCRIPT} so that validating a CSV group with the frictionless
+ * script no longer starts an interpreter and imports frictionless for every group.
+ * <p>
+ * Workers read one JSON request per line on stdin and answer with one JSON line on stdout (see the worker script).
+ * At most {@code maxWorkers} groups are validated at once, by default as many as the async executor runs in
+ * parallel; further callers wait for a free worker. A worker that exits, times out on a job, fails a health check
+ * or has served {@code maxJobsPerWorker} jobs is destroyed and replaced, and {@code warmWorkers} are kept started
+ * between bursts.
+ */
+@Component
+public class PythonValidationWorkerPool {
+
+    public static final String WORKER_SCRIPT = "validate-nyher-fhir-ig-equivalent-worker.py";
+
+    private static final Logger LOG = LoggerFactory.getLogger(PythonValidationWorkerPool.class.getName());
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration PING_TIMEOUT = Duration.ofSeconds(10);
+
+    private final List<String> command;
+    private final boolean enabled;
+    private final int maxWorkers;
+    private final int warmWorkers;
+    private final Duration jobTimeout;
+    private final int maxJobsPerWorker;
+    private final Duration healthCheckInterval;
+
+    private final Semaphore permits;
+    private final BlockingDeque<Worker> idle = new LinkedBlockingDeque<>();
+    private final Set<Worker> workers = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService housekeeping;
+    private volatile boolean closed;
+
+    @Autowired
+    public PythonValidationWorkerPool(final CoreAppConfig appConfig,
+            @Qualifier("asyncTaskExecutor") final TaskExecutor asyncTaskExecutor,
+            @Value("${org.techbd.csv.validation.python-workers.enabled:true}") final boolean enabled,
+            @Value("${org.techbd.csv.validation.python-workers.max:0}") final int maxWorkers,
+            @Value("${org.techbd.csv.validation.python-workers.warm:2}") final int warmWorkers,
+            @Value("${org.techbd.csv.validation.python-workers.job-timeout-seconds:300}") final long jobTimeoutSeconds,
+            @Value("${org.techbd.csv.validation.python-workers.max-jobs-per-worker:500}") final int maxJobsPerWorker,
+            @Value("${org.techbd.csv.validation.python-workers.health-check-interval-seconds:60}") final long healthCheckIntervalSeconds) {
+        this(workerCommand(appConfig.getCsv().validation()), enabled,
+                maxWorkers > 0 ? maxWorkers : executorParallelism(asyncTaskExecutor), warmWorkers,
+                Duration.ofSeconds(jobTimeoutSeconds), maxJobsPerWorker, Duration.ofSeconds(healthCheckIntervalSeconds));
+    }
+
+    PythonValidationWorkerPool(final List<String> command, final boolean enabled, final int maxWorkers,
+            final int warmWorkers, final Duration jobTimeout, final int maxJobsPerWorker,
+            final Duration healthCheckInterval) {
+        this.command = List.copyOf(command);
+        this.enabled = enabled;
+        this.maxWorkers = Math.max(1, maxWorkers);
+        this.warmWorkers = Math.min(Math.max(0, warmWorkers), this.maxWorkers);
+        this.jobTimeout = jobTimeout;
+        this.maxJobsPerWorker = maxJobsPerWorker;
+        this.healthCheckInterval = healthCheckInterval;
+        this.permits = new Semaphore(this.maxWorkers, true);
+    }
+
+    private static List<String> workerCommand(final CoreAppConfig.CsvValidation.Validation config) {
+        final Path script = Path.of(config.pythonScriptPath());
+        return List.of(config.pythonExecutable(), script.resolveSibling(WORKER_SCRIPT).toString(), script.toString(),
+                config.packagePath());
+    }
+
+    private static int executorParallelism(final TaskExecutor executor) {
+        return executor instanceof ThreadPoolTaskExecutor pool ? pool.getMaxPoolSize() : 1;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    int workerCount() {
+        return workers.size();
+    }
+
+    /**
+     * Starts the warm workers and the health checks in the background; validation calls this itself, so calling it
+     * early only saves the first groups the startup time.
+     */
+    public synchronized void start() {
+        if (housekeeping != null || closed) {
+            return;
+        }
+        housekeeping = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "python-validation-housekeeping");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeping.execute(this::warmUp);
+        housekeeping.scheduleWithFixedDelay(this::checkHealth, healthCheckInterval.toMillis(),
+                healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+        LOG.info("PythonValidationWorkerPool:: started with up to {} workers ({} warm), command {}", maxWorkers,
+                warmWorkers, command);
+    }
+
+    /**
+     * Validates one group with a pooled worker.
+     *
+     * @param files the QE admin, screening profile, screening observation and patient info files, in that order
+     * @return what {@code validate-nyher-fhir-ig-equivalent.py} prints for the same files
+     */
+    public String validate(final List<String> files, final String interactionId)
+            throws IOException, InterruptedException {
+        start();
+        final ObjectNode request = OBJECT_MAPPER.createObjectNode().put("op", "validate");
+        files.forEach(request.putArray("files")::add);
+        permits.acquire();
+        try {
+            for (int attempt = 1;; attempt++) {
+                final Worker worker = borrow();
+                final JsonNode response;
+                try {
+                    response = worker.call(request, jobTimeout);
+                } catch (TimeoutException e) {
+                    retire(worker, "timed out after " + jobTimeout.toSeconds() + "s validating " + interactionId);
+                    throw new IOException("Python validation timed out after " + jobTimeout.toSeconds()
+                            + "s for interactionId " + interactionId, e);
+                } catch (IOException e) {
+                    retire(worker, e.getMessage());
+                    if (attempt == 1) {
+                        LOG.warn("PythonValidationWorkerPool:: retrying interactionId {} on a new worker: {}",
+                                interactionId, e.getMessage());
+                        continue;
+                    }
+                    throw e;
+                }
+                giveBack(worker);
+                if (!response.path("ok").asBoolean()) {
+                    throw new IOException("Python validation failed for interactionId " + interactionId + ": "
+                            + response.path("error").asText());
+                }
+                return response.path("output").asText();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Worker borrow() throws IOException, InterruptedException {
+        Worker worker;
+        while ((worker = idle.pollFirst()) != null) {
+            if (worker.isAlive()) {
+                return worker;
+            }
+            retire(worker, "exited while idle");
+        }
+        return spawn();
+    }
+
+    private void giveBack(final Worker worker) {
+        if (closed || !worker.isAlive()) {
+            retire(worker, "not reusable");
+        } else if (worker.jobs >= maxJobsPerWorker) {
+            retire(worker, "served " + worker.jobs + " jobs");
+        } else {
+            idle.offerFirst(worker);
+        }
+    }
+
+    private Worker spawn() throws IOException, InterruptedException {
+        final long start = System.nanoTime();
+        final Worker worker = new Worker(new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start());
+        workers.add(worker);
+        try {
+            worker.awaitReady();
+        } catch (IOException | TimeoutException e) {
+            retire(worker, "did not start");
+            throw new IOException("Python validation worker did not start: " + e.getMessage(), e);
+        }
+        LOG.info("PythonValidationWorkerPool:: worker {} ready in {} ms", worker.pid,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return worker;
+    }
+
+    private void retire(final Worker worker, final String reason) {
+        if (workers.remove(worker)) {
+            LOG.info("PythonValidationWorkerPool:: retiring worker {}: {}", worker.pid, reason);
+        }
+        idle.remove(worker);
+        worker.destroy();
+    }
+
+    private void warmUp() {
+        while (!closed && workers.size() < warmWorkers && permits.tryAcquire()) {
+            try {
+                idle.offerLast(spawn());
+            } catch (IOException e) {
+                LOG.warn("PythonValidationWorkerPool:: could not start a warm worker", e);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Pings the idle workers, least recently used first, replacing the ones that do not answer. Each check holds a
+     * permit so that the worker being checked still counts against {@code maxWorkers}.
+     */
+    private void checkHealth() {
+        try {
+            for (int remaining = idle.size(); remaining > 0 && !closed; remaining--) {
+                if (!permits.tryAcquire()) {
+                    break;
+                }
+                try {
+                    final Worker worker = idle.pollLast();
+                    if (worker == null) {
+                        break;
+                    }
+                    try {
+                        if (worker.call(OBJECT_MAPPER.createObjectNode().put("op", "ping"), PING_TIMEOUT)
+                                .path("ok").asBoolean()) {
+                            idle.offerFirst(worker);
+                        } else {
+                            retire(worker, "failed health check");
+                        }
+                    } catch (IOException | TimeoutException e) {
+                        retire(worker, "failed health check: " + e.getMessage());
+                    }
+                } finally {
+                    permits.release();
+                }
+            }
+            warmUp();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOG.error("PythonValidationWorkerPool:: health check failed", e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        closed = true;
+        if (housekeeping != null) {
+            housekeeping.shutdownNow();
+        }
+        workers.forEach(worker -> retire(worker, "shutdown"));
+    }
+
+    /**
+     * One Python process. Its stdout is read by a daemon thread into {@code responses}, so that waiting for a
+     * response can time out; {@link MissingNode} marks the end of the stream.
+     */
+    private static final class Worker {
+
+        private final Process process;
+        private final long pid;
+        private final BufferedWriter stdin;
+        private final BlockingQueue<JsonNode> responses = new LinkedBlockingQueue<>();
+        private long nextId = 1;
+        private int jobs;
+
+        Worker(final Process process) {
+            this.process = process;
+            this.pid = process.pid();
+            this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            final Thread reader = new Thread(this::readResponses, "python-validation-worker-" + pid);
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        private void readResponses() {
+            try (BufferedReader out = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = out.readLine()) != null) {
+                    try {
+                        responses.add(OBJECT_MAPPER.readTree(line));
+                    } catch (IOException e) {
+                        LOG.warn("PythonValidationWorkerPool:: worker {} wrote a line that is not a response: {}",
+                                pid, line);
+                    }
+                }
+            } catch (IOException e) {
+                // the process is gone; waiters see the end of the stream below
+            } finally {
+                responses.add(MissingNode.getInstance());
+            }
+        }
+
+        void awaitReady() throws IOException, TimeoutException, InterruptedException {
+            await(0, STARTUP_TIMEOUT);
+        }
+
+        JsonNode call(final ObjectNode request, final Duration timeout)
+                throws IOException, TimeoutException, InterruptedException {
+            final long id = nextId++;
+            request.put("id", id);
+            try {
+                stdin.write(OBJECT_MAPPER.writeValueAsString(request));
+                stdin.newLine();
+                stdin.flush();
+            } catch (IOException e) {
+                throw new IOException("worker " + pid + " is not accepting requests: " + e.getMessage(), e);
+            }
+            final JsonNode response = await(id, timeout);
+            if ("validate".equals(request.path("op").asText())) {
+                jobs++;
+            }
+            return response;
+        }
+
+        private JsonNode await(final long id, final Duration timeout)
+                throws IOException, TimeoutException, InterruptedException {
+            final long deadline = System.nanoTime() + timeout.toNanos();
+            while (true) {
+                final JsonNode response = responses.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (response == null) {
+                    throw new TimeoutException("worker " + pid + " did not answer request " + id + " within "
+                            + timeout.toSeconds() + "s");
+                }
+                if (response.isMissingNode()) {
+                    responses.add(response);
+                    throw new IOException("worker " + pid + " exited"
+                            + (process.isAlive() ? "" : " with code " + process.exitValue()));
+                }
+                if (response.path("id").asLong(-1) == id) {
+                    return response;
+                }
+            }
+        }
+
+        boolean isAlive() {
+            return process.isAlive();
+        }
+
+        void destroy() {
+            try {
+                stdin.close();
+            } catch (IOException e) {
+                // already closed by the process exiting
+            }
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package org.techbd.csv.service.engine;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Checks that a CSV file is well-formed UTF-8 and free of the characters {@link FileProcessor.ValidationConfig}
+ * disallows, working on the bytes instead of a decoded String. Files are memory-mapped and read through a fixed
+ * buffer; runs of printable ASCII, which is most of a CSV, are skipped eight bytes at a time. Only the bytes that
+ * stop a run are decoded and checked one character at a time.
+ *
+ * <p>
+ * The result is the one {@link FileProcessor#validateContentDynamic} gives for the decoded content: the same kinds of
+ * issue in the same order, with positions counted in UTF-16 characters after a leading BOM, and the same
+ * {@code Input length = n} message the strict decoder gives for malformed UTF-8.
+ * </p>
+ */
+public final class Utf8ContentScanner {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    // bytes of an incomplete sequence carried from one chunk to the next
+    private static final int MAX_CARRY = 3;
+    private static final long MAP_WINDOW = 256L * 1024 * 1024;
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class,
+            ByteOrder.LITTLE_ENDIAN);
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long SPACES = 0x2020202020202020L;
+    private static final long DELETES = 0x7F7F7F7F7F7F7F7FL;
+    private static final long ONES = 0x0101010101010101L;
+
+    /**
+     * @param encodingError why the bytes are not UTF-8, or null
+     * @param contentReason the disallowed characters found, or null; only checked when the bytes are UTF-8
+     */
+    public record Result(String encodingError, String contentReason) {
+        public boolean utf8Encoded() {
+            return encodingError == null;
+        }
+
+        public boolean isValid() {
+            return encodingError == null && contentReason == null;
+        }
+    }
+
+    private final FileProcessor.ValidationConfig config;
+    private final FileProcessor.ContentIssues issues = new FileProcessor.ContentIssues();
+    private final byte[] buffer = new byte[MAX_CARRY + CHUNK_SIZE];
+    private int carried;
+    private boolean started;
+    private long position;
+    private String encodingError;
+
+    public Utf8ContentScanner(final FileProcessor.ValidationConfig config) {
+        this.config = config;
+    }
+
+    public static Result scan(final Path file, final FileProcessor.ValidationConfig config) throws IOException {
+        return scan(file, new Utf8ContentScanner(config));
+    }
+
+    static Result scan(final Path file, final Utf8ContentScanner scanner) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            for (long offset = 0; offset < size && scanner.encodingError == null; offset += MAP_WINDOW) {
+                scanner.feed(channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(MAP_WINDOW, size - offset)));
+            }
+        }
+        return scanner.finish();
+    }
+
+    public void feed(final byte[] bytes, final int offset, final int length) {
+        feed(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    public void feed(final ByteBuffer bytes) {
+        while (bytes.hasRemaining() && encodingError == null) {
+            final int length = Math.min(bytes.remaining(), CHUNK_SIZE);
+            bytes.get(buffer, carried, length);
+            process(carried + length, false);
+        }
+    }
+
+    public Result finish() {
+        if (encodingError == null) {
+            process(carried, true);
+        }
+        return new Result(encodingError, encodingError == null ? issues.reason() : null);
+    }
+
+    private void process(final int length, final boolean endOfInput) {
+        int i = 0;
+        carried = 0;
+        if (!started) {
+            if (length < 3 && !endOfInput) {
+                carried = length;
+                return;
+            }
+            started = true;
+            if (length >= 3 && buffer[0] == (byte) 0xEF && buffer[1] == (byte) 0xBB && buffer[2] == (byte) 0xBF) {
+                i = 3;
+            }
+        }
+        while (i < length) {
+            final int run = skipPrintableAscii(i, length);
+            position += run - i;
+            i = run;
+            if (i == length) {
+                break;
+            }
+            final int lead = buffer[i] & 0xFF;
+            if (lead < 0x80) {
+                issues.check((char) lead, lead, position++, config);
+                i++;
+                continue;
+            }
+            if (length - i < 4 && !endOfInput) {
+                // a sequence that may continue in the next chunk
+                carried = length - i;
+                System.arraycopy(buffer, i, buffer, 0, carried);
+                return;
+            }
+            final int sequence = sequenceLength(i, length);
+            if (sequence < 0) {
+                encodingError = malformed(i, Math.min(i + 4, length), endOfInput);
+                return;
+            }
+            final int codePoint = decode(i, sequence);
+            if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                issues.check((char) codePoint, codePoint, position++, config);
+            } else {
+                // the String check skips the high surrogate and looks at the low one on its own
+                final char low = Character.lowSurrogate(codePoint);
+                issues.check(low, low, position + 1, config);
+                position += 2;
+            }
+            i += sequence;
+        }
+    }
+
+    private int skipPrintableAscii(int i, final int length) {
+        while (i + Long.BYTES <= length && isPrintableAscii((long) LONGS.get(buffer, i))) {
+            i += Long.BYTES;
+        }
+        while (i < length && buffer[i] >= 0x20 && buffer[i] != 0x7F) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * True when every byte of the word is in 0x20..0x7E.
+     */
+    private static boolean isPrintableAscii(final long word) {
+        final long nonAscii = word & HIGH_BITS;
+        final long belowSpace = (word - SPACES) & ~word & HIGH_BITS;
+        final long xorDelete = word ^ DELETES;
+        final long delete = (xorDelete - ONES) & ~xorDelete & HIGH_BITS;
+        return (nonAscii | belowSpace | delete) == 0;
+    }
+
+    /**
+     * @return the length of the well-formed multi-byte sequence at {@code i}, or -1
+     */
+    private int sequenceLength(final int i, final int length) {
+        final int lead = buffer[i] & 0xFF;
+        final int sequence;
+        int min = 0x80;
+        int max = 0xBF;
+        if (lead >= 0xC2 && lead <= 0xDF) {
+            sequence = 2;
+        } else if (lead >= 0xE0 && lead <= 0xEF) {
+            sequence = 3;
+            if (lead == 0xE0) {
+                min = 0xA0; // overlong
+            } else if (lead == 0xED) {
+                max = 0x9F; // surrogates
+            }
+        } else if (lead >= 0xF0 && lead <= 0xF4) {
+            sequence = 4;
+            if (lead == 0xF0) {
+                min = 0x90; // overlong
+            } else if (lead == 0xF4) {
+                max = 0x8F; // above U+10FFFF
+            }
+        } else {
+            return -1;
+        }
+        if (i + sequence > length) {
+            return -1;
+        }
+        final int second = buffer[i + 1] & 0xFF;
+        if (second < min || second > max) {
+            return -1;
+        }
+        for (int j = 2; j < sequence; j++) {
+            if ((buffer[i + j] & 0xC0) != 0x80) {
+                return -1;
+            }
+        }
+        return sequence;
+    }
+
+    private int decode(final int i, final int sequence) {
+        return switch (sequence) {
+            case 2 -> (buffer[i] & 0x1F) << 6 | buffer[i + 1] & 0x3F;
+            case 3 -> (buffer[i] & 0x0F) << 12 | (buffer[i + 1] & 0x3F) << 6 | buffer[i + 2] & 0x3F;
+            default -> (buffer[i] & 0x07) << 18 | (buffer[i + 1] & 0x3F) << 12 | (buffer[i + 2] & 0x3F) << 6
+                    | buffer[i + 3] & 0x3F;
+        };
+    }
+
+    /**
+     * Lets the strict decoder describe the malformed sequence, so the message is the one decoding the whole file
+     * gives. Decoding restarts at a sequence boundary and no sequence is longer than four bytes, so the window is
+     * enough.
+     */
+    private String malformed(final int from, final int to, final boolean endOfInput) {
+        final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        final CoderResult result = decoder.decode(ByteBuffer.wrap(buffer, from, to - from), CharBuffer.allocate(8),
+                endOfInput);
+        try {
+            if (result.isError()) {
+                result.throwException();
+            }
+        } catch (CharacterCodingException e) {
+            return "Invalid UTF-8 encoding: " + e.getMessage();
+        }
+        return "Invalid UTF-8 encoding: Input length = 1";
+    }
+}
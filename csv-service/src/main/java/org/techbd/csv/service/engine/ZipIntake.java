@@ -0,0 +1,339 @@
+package org.techbd.csv.service.engine;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.techbd.csv.model.FileDetail;
+import org.techbd.csv.model.FileType;
+
+/**
+ * Unpacks an uploaded zip in one pass. Each entry is written to the processed directory exactly once while CSV
+ * entries are checked by a {@link Utf8ContentScanner} and decoded through a fixed size buffer, so the files are never
+ * read back from disk before validation. The result is grouped the same way as {@link FileProcessor#processAndGroupFiles(List)}.
+ *
+ * <p>
+ * Limits on the number of entries, the size of an entry, the total size and the ratio of uncompressed to compressed
+ * bytes are enforced while the stream is read, so an upload that exceeds one fails with a
+ * {@link ZipLimitExceededException} before the rest of the archive is written out.
+ * </p>
+ */
+@Component
+public class ZipIntake {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ZipIntake.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_PRESIZE = 1024 * 1024;
+    // below this many uncompressed bytes any ratio is allowed, so small files that compress well are accepted
+    private static final long RATIO_CHECK_THRESHOLD = 1024 * 1024;
+
+    /**
+     * @param maxEntries          entries allowed in one zip, directories included
+     * @param maxEntryBytes       uncompressed bytes allowed in one entry
+     * @param maxTotalBytes       uncompressed bytes allowed across all entries
+     * @param maxCompressionRatio uncompressed bytes allowed per compressed byte read
+     */
+    public record Limits(int maxEntries, long maxEntryBytes, long maxTotalBytes, int maxCompressionRatio) {
+    }
+
+    /**
+     * @param groupedFiles       CSV files grouped by the part of their name after the file type prefix, plus the
+     *                           {@code filesNotProcessed} entry
+     * @param totalNumberOfFiles files in the zip other than directories and hidden or system files
+     */
+    public record ZipContents(Map<String, List<FileDetail>> groupedFiles, int totalNumberOfFiles) {
+    }
+
+    public static class ZipLimitExceededException extends IOException {
+        public ZipLimitExceededException(final String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * A CSV entry as read: its content when it has a known prefix and passed the scan.
+     */
+    private record CsvEntry(String fileName, FileType fileType, String filePath, String content,
+            Utf8ContentScanner.Result scan, String prefixError) {
+    }
+
+    private final Limits limits;
+    private final FileProcessor.ValidationConfig validationConfig;
+
+    public ZipIntake(@Value("${org.techbd.csv.intake.max-entries:1000}") final int maxEntries,
+            @Value("${org.techbd.csv.intake.max-entry-mb:1024}") final long maxEntryMb,
+            @Value("${org.techbd.csv.intake.max-total-mb:4096}") final long maxTotalMb,
+            @Value("${org.techbd.csv.intake.max-compression-ratio:200}") final int maxCompressionRatio) {
+        this(new Limits(maxEntries, maxEntryMb * 1024 * 1024, maxTotalMb * 1024 * 1024, maxCompressionRatio));
+    }
+
+    ZipIntake(final Limits limits) {
+        this.limits = limits;
+        this.validationConfig = new FileProcessor.ValidationConfig();
+    }
+
+    public ZipContents extract(final Path zipFile, final Path targetDir, final String interactionId)
+            throws IOException {
+        try (InputStream in = Files.newInputStream(zipFile)) {
+            return extract(in, targetDir, interactionId);
+        }
+    }
+
+    public ZipContents extract(final InputStream zip, final Path targetDir, final String interactionId)
+            throws IOException {
+        LOG.info("ZipIntake : extract BEGIN into {} for zipFileInteractionId : {}", targetDir, interactionId);
+        final Instant start = Instant.now();
+        Files.createDirectories(targetDir);
+        final CountingInputStream compressed = new CountingInputStream(zip);
+        // keyed by flattened name: a later entry with the same name overwrites the earlier one, as unzipping would
+        final Map<String, CsvEntry> csvEntries = new LinkedHashMap<>();
+        final Map<String, Boolean> files = new LinkedHashMap<>();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long totalBytes = 0;
+        int entries = 0;
+        try (ZipInputStream zipInputStream = new ZipInputStream(compressed)) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                if (++entries > limits.maxEntries()) {
+                    throw new ZipLimitExceededException(
+                            "Zip file has more than %d entries".formatted(limits.maxEntries()));
+                }
+                // Flattening directory structure
+                final String fileName = entry.getName().replaceAll(".*/", "");
+                if (fileName.isEmpty()) {
+                    continue;
+                }
+                final boolean hidden = isHiddenOrSystemFile(fileName);
+                final boolean csv = !hidden && fileName.toLowerCase().endsWith(".csv");
+                FileType fileType = null;
+                String prefixError = null;
+                if (csv) {
+                    try {
+                        fileType = FileType.fromFilename(fileName);
+                    } catch (IllegalArgumentException e) {
+                        prefixError = e.getMessage();
+                    }
+                }
+                // the declared size comes from the local header and can be forged; it only allows failing early
+                if (entry.getSize() > limits.maxEntryBytes()) {
+                    throw new ZipLimitExceededException("Zip entry %s declares more than %d bytes uncompressed"
+                            .formatted(fileName, limits.maxEntryBytes()));
+                }
+                final Utf8ContentScanner scanner = fileType != null ? new Utf8ContentScanner(validationConfig) : null;
+                final Utf8Content content = fileType != null ? new Utf8Content(entry.getSize()) : null;
+                final Path target = targetDir.resolve(fileName);
+                long entryBytes = 0;
+                try (OutputStream out = Files.newOutputStream(target)) {
+                    int read;
+                    while ((read = zipInputStream.read(buffer)) > 0) {
+                        entryBytes += read;
+                        totalBytes += read;
+                        checkLimits(fileName, entryBytes, totalBytes, compressed.count());
+                        out.write(buffer, 0, read);
+                        if (content != null) {
+                            scanner.feed(buffer, 0, read);
+                            content.feed(buffer, read);
+                        }
+                    }
+                }
+                zipInputStream.closeEntry();
+                files.put(fileName, !hidden);
+                if (!csv) {
+                    csvEntries.remove(fileName);
+                    continue;
+                }
+                final Utf8ContentScanner.Result scan = scanner != null ? scanner.finish() : null;
+                final String decoded = scan != null && scan.isValid() ? content.finish() : null;
+                csvEntries.put(fileName, new CsvEntry(fileName, fileType, target.toAbsolutePath().toString(), decoded,
+                        scan, prefixError));
+            }
+        }
+
+        final FileProcessor.FileGrouping grouping = new FileProcessor.FileGrouping();
+        for (final CsvEntry csvEntry : csvEntries.values()) {
+            if (csvEntry.fileType() == null) {
+                grouping.notProcessed(csvEntry.fileName(), csvEntry.filePath(),
+                        "Invalid file prefix: " + csvEntry.prefixError());
+            } else {
+                grouping.add(csvEntry.fileName(), csvEntry.fileType(), csvEntry.filePath(), csvEntry.content(),
+                        csvEntry.scan());
+            }
+        }
+        final int totalNumberOfFiles = (int) files.values().stream().filter(Boolean::booleanValue).count();
+        LOG.info("ZipIntake : extract END for zipFileInteractionId : {} -> Total files: {}, Total CSV files: {}, uncompressed bytes: {}, timeTaken: {} ms",
+                interactionId, totalNumberOfFiles, csvEntries.size(), totalBytes,
+                Duration.between(start, Instant.now()).toMillis());
+        return new ZipContents(grouping.finish(), totalNumberOfFiles);
+    }
+
+    private void checkLimits(final String fileName, final long entryBytes, final long totalBytes,
+            final long compressedBytes) throws ZipLimitExceededException {
+        if (entryBytes > limits.maxEntryBytes()) {
+            throw new ZipLimitExceededException("Zip entry %s is larger than %d bytes uncompressed"
+                    .formatted(fileName, limits.maxEntryBytes()));
+        }
+        if (totalBytes > limits.maxTotalBytes()) {
+            throw new ZipLimitExceededException(
+                    "Zip file is larger than %d bytes uncompressed".formatted(limits.maxTotalBytes()));
+        }
+        if (totalBytes > RATIO_CHECK_THRESHOLD
+                && totalBytes / Math.max(compressedBytes, 1) > limits.maxCompressionRatio()) {
+            throw new ZipLimitExceededException("Zip file expands to more than %d times its compressed size"
+                    .formatted(limits.maxCompressionRatio()));
+        }
+    }
+
+    private static boolean isHiddenOrSystemFile(final String fileName) {
+        return fileName.startsWith(".") || fileName.endsWith(".lock") || fileName.startsWith("~");
+    }
+
+    /**
+     * Strict UTF-8 decoding of an entry fed chunk by chunk. A leading BOM is dropped; a sequence split across chunks
+     * is carried over to the next one.
+     */
+    private static final class Utf8Content {
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        // room for one chunk plus the few bytes of a sequence left over from the previous chunk
+        private final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE + 8);
+        private final CharBuffer out = CharBuffer.allocate(BUFFER_SIZE);
+        private final StringBuilder content;
+        private boolean started;
+        private String error;
+
+        Utf8Content(final long declaredSize) {
+            // never trust the declared size for more than a small initial capacity; the builder grows as bytes arrive
+            this.content = new StringBuilder(declaredSize > 0 ? (int) Math.min(declaredSize, MAX_PRESIZE) : BUFFER_SIZE);
+        }
+
+        void feed(final byte[] bytes, final int length) {
+            if (error != null) {
+                return;
+            }
+            in.put(bytes, 0, length);
+            if (!started) {
+                if (in.position() < 3) {
+                    return;
+                }
+                skipBom();
+            }
+            decode(false);
+        }
+
+        /**
+         * @return the decoded content, or null when the entry is not valid UTF-8
+         */
+        String finish() {
+            if (error == null) {
+                if (!started) {
+                    skipBom();
+                }
+                decode(true);
+            }
+            if (error == null) {
+                CoderResult result;
+                do {
+                    result = decoder.flush(out);
+                    drain();
+                } while (result.isOverflow());
+            }
+            return error == null ? content.toString() : null;
+        }
+
+        private void skipBom() {
+            started = true;
+            if (in.position() >= 3 && in.get(0) == (byte) 0xEF && in.get(1) == (byte) 0xBB
+                    && in.get(2) == (byte) 0xBF) {
+                in.flip();
+                in.position(3);
+                in.compact();
+            }
+        }
+
+        private void decode(final boolean endOfInput) {
+            in.flip();
+            while (true) {
+                final CoderResult result = decoder.decode(in, out, endOfInput);
+                if (result.isOverflow()) {
+                    drain();
+                    continue;
+                }
+                if (result.isError()) {
+                    try {
+                        result.throwException();
+                    } catch (CharacterCodingException e) {
+                        error = "Invalid UTF-8 encoding: " + e.getMessage();
+                    }
+                }
+                break;
+            }
+            drain();
+            in.compact();
+        }
+
+        private void drain() {
+            out.flip();
+            content.append(out);
+            out.clear();
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        long count() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
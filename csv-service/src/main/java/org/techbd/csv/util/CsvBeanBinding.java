@@ -0,0 +1,104 @@
+package org.techbd.csv.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.opencsv.bean.CsvBindByName;
+
+/**
+ * Constructor and {@code String} field accessors of a CSV model class such as
+ * {@code ScreeningObservationData}, resolved once per class as method handles.
+ * Binding a row is then a direct call per column instead of reflective field
+ * lookups and {@code setAccessible} calls for every row.
+ */
+final class CsvBeanBinding<T> {
+
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, String.class);
+    private static final MethodType GETTER = MethodType.methodType(String.class, Object.class);
+
+    private static final ClassValue<CsvBeanBinding<?>> BINDINGS = new ClassValue<>() {
+        @Override
+        protected CsvBeanBinding<?> computeValue(final Class<?> type) {
+            return new CsvBeanBinding<>(type);
+        }
+    };
+
+    private final Class<T> type;
+    private final MethodHandle constructor;
+    private final Map<String, MethodHandle> settersByColumn = new HashMap<>();
+    private final Map<String, MethodHandle> gettersByField = new HashMap<>();
+
+    @SuppressWarnings("unchecked")
+    static <T> CsvBeanBinding<T> of(final Class<T> type) {
+        return (CsvBeanBinding<T>) BINDINGS.get(type);
+    }
+
+    private CsvBeanBinding(final Class<T> type) {
+        this.type = type;
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            this.constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            for (final Field field : type.getDeclaredFields()) {
+                if (field.getType() != String.class || Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                gettersByField.put(field.getName(), lookup.unreflectGetter(field).asType(GETTER));
+                final CsvBindByName bind = field.getAnnotation(CsvBindByName.class);
+                if (bind != null) {
+                    final String column = bind.column().isEmpty() ? field.getName() : bind.column();
+                    settersByColumn.put(column.toUpperCase(Locale.ROOT), lookup.unreflectSetter(field).asType(SETTER));
+                }
+            }
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("The class " + type.getName() + " cannot be bound to CSV rows: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the setter of the field bound to {@code column}, matched ignoring
+     *         case like opencsv does, or null for a column no field is bound to
+     */
+    MethodHandle setter(final String column) {
+        return settersByColumn.get(column.toUpperCase(Locale.ROOT));
+    }
+
+    MethodHandle getter(final String fieldName) {
+        final MethodHandle getter = gettersByField.get(fieldName);
+        if (getter == null) {
+            throw new IllegalArgumentException(
+                    "The class " + type.getName() + " does not have a field named '" + fieldName + "'.");
+        }
+        return getter;
+    }
+
+    T newInstance() {
+        try {
+            return type.cast((Object) constructor.invokeExact());
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to create " + type.getName(), e);
+        }
+    }
+
+    static void set(final MethodHandle setter, final Object target, final String value) {
+        try {
+            setter.invokeExact(target, value);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String get(final MethodHandle getter, final Object target) {
+        try {
+            return (String) getter.invokeExact(target);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,19 +1,21 @@
 package org.techbd.csv.util;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
+import java.lang.invoke.MethodHandle;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.apache.commons.io.input.BOMInputStream;
 import org.slf4j.Logger;
@@ -26,9 +28,10 @@ import org.techbd.csv.model.QeAdminData;
 import org.techbd.csv.model.ScreeningObservationData;
 import org.techbd.csv.model.ScreeningProfileData;
 
-import com.opencsv.bean.CsvToBean;
-import com.opencsv.bean.CsvToBeanBuilder;
-import com.opencsv.exceptions.CsvException;
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
 
 /**
  * Utility class for converting CSV data into domain-specific models grouped by
@@ -133,95 +136,86 @@ public class CsvConversionUtil {
      *         encounter ID) and the value is the list of objects with that value
      * @throws IOException if an error occurs during reading or parsing the CSV
      */
-   
-   public static <T> Map<String, List<T>> convertCsvStringToObjectMap(String csvData, Class<T> clazz, char separator, String fieldName,String interactionId,String techBDVersion) throws IOException {
-    List<String[]> errorRows = new ArrayList<>();
-
-    try (InputStreamReader reader = new InputStreamReader(new BOMInputStream(new ByteArrayInputStream(csvData.getBytes(StandardCharsets.UTF_8))), StandardCharsets.UTF_8);
-         BufferedReader bufferedReader = new BufferedReader(reader)) {
-
-        // Read the first line and remove BOM if present
-        String firstLine = bufferedReader.readLine();
-        if (firstLine != null && firstLine.startsWith("\uFEFF")) {
-            firstLine = firstLine.substring(1);
+    public static <T> Map<String, List<T>> convertCsvStringToObjectMap(String csvData, Class<T> clazz, char separator, String fieldName,String interactionId,String techBDVersion) throws IOException {
+        try (Reader reader = new StringReader(csvData)) {
+            return convertCsvToObjectMap(reader, clazz, separator, fieldName, interactionId, techBDVersion);
         }
+    }
 
-        // Reconstruct the CSV string without BOM
-        StringBuilder csvContent = new StringBuilder(firstLine);
-        String line;
-        while ((line = bufferedReader.readLine()) != null) {
-            csvContent.append("\n").append(line);
+    /**
+     * Same as {@link #convertCsvStringToObjectMap} but reads the file as it
+     * parses, so the file content is never held in memory as a whole.
+     */
+    public static <T> Map<String, List<T>> convertCsvFileToObjectMap(Path csvFile, Class<T> clazz, char separator, String fieldName,String interactionId,String techBDVersion) throws IOException {
+        try (InputStream in = Files.newInputStream(csvFile)) {
+            return convertCsvToObjectMap(in, clazz, separator, fieldName, interactionId, techBDVersion);
         }
+    }
 
-        // Convert to reader
-        try (Reader csvReader = new StringReader(csvContent.toString())) {
-            CsvToBean<T> csvToBean = new CsvToBeanBuilder<T>(csvReader)
-                    .withType(clazz)
-                    .withSeparator(separator)
-                    .withIgnoreLeadingWhiteSpace(true)
-                    .withThrowExceptions(false) // Do not fail on bad rows
-                    .build();
-
-            List<T> dataList = csvToBean.parse();
-            List<CsvException> errors = csvToBean.getCapturedExceptions();
+    /**
+     * Same as {@link #convertCsvStringToObjectMap} for UTF-8 data with or
+     * without a byte order mark. The stream is not closed.
+     */
+    public static <T> Map<String, List<T>> convertCsvToObjectMap(InputStream csvData, Class<T> clazz, char separator, String fieldName,String interactionId,String techBDVersion) throws IOException {
+        final Reader reader = new BufferedReader(new InputStreamReader(new BOMInputStream(csvData), StandardCharsets.UTF_8));
+        return convertCsvToObjectMap(reader, clazz, separator, fieldName, interactionId, techBDVersion);
+    }
 
-            // Trim all String fields of parsed objects
-            for (T obj : dataList) {
-                trimStringFields(obj);
+    /**
+     * Parses rows one at a time and files each one under its group as soon as
+     * it is read. Columns are matched to {@code @CsvBindByName} fields
+     * ignoring case, values are trimmed, and rows whose cell count differs
+     * from the header are logged and skipped. The reader is not closed.
+     */
+    public static <T> Map<String, List<T>> convertCsvToObjectMap(Reader csvData, Class<T> clazz, char separator, String fieldName,String interactionId,String techBDVersion) throws IOException {
+        final CsvBeanBinding<T> binding = CsvBeanBinding.of(clazz);
+        final MethodHandle groupKeyGetter = binding.getter(fieldName);
+        final CSVReader csvReader = new CSVReaderBuilder(csvData)
+                .withCSVParser(new CSVParserBuilder()
+                        .withSeparator(separator)
+                        .withIgnoreLeadingWhiteSpace(true)
+                        .build())
+                .build();
+        final Map<String, List<T>> grouped = new HashMap<>();
+        try {
+            final String[] header = csvReader.readNext();
+            if (header == null) {
+                return grouped;
             }
-
-            for (CsvException error : errors) {
-                LOG.error("Malformed CSV row skipped: {} for interactionId: {} TechBDVersion: {}", error.getLineNumber(), interactionId, techBDVersion, error);
-                errorRows.add(error.getLine()); // Store bad rows for debugging
+            if (header.length > 0 && header[0].startsWith("\uFEFF")) {
+                header[0] = header[0].substring(1);
+            }
+            final MethodHandle[] setters = new MethodHandle[header.length];
+            for (int i = 0; i < header.length; i++) {
+                setters[i] = binding.setter(header[i]);
             }
 
-            // Group valid rows by fieldName
-            return dataList.stream()
-                    .collect(Collectors.groupingBy(obj -> {
-                        String fieldValue = getFieldValue(obj, fieldName);
-                        if (fieldValue == null) {
-                            LOG.error("Null value encountered for field '{}' in object: {} for interactionId: {} TechBDVersion: {}", fieldName, obj, interactionId, techBDVersion);
-                            throw new IllegalArgumentException("Field '" + fieldName + "' has a null value in object: " + obj);
-                        }
-                        return fieldValue;
-                    }));
-        }
-    } 
-    
-}
-
-    private static void trimStringFields(Object obj) {
-        for (var field : obj.getClass().getDeclaredFields()) {
-            if (field.getType() == String.class) {
-                field.setAccessible(true);
-                try {
-                    String value = (String) field.get(obj);
-                    if (value != null) {
-                        field.set(obj, value.trim());
+            String[] row;
+            while ((row = csvReader.readNext()) != null) {
+                if (row.length == 1 && row[0].isBlank()) {
+                    continue;
+                }
+                if (row.length != header.length) {
+                    LOG.error("Malformed CSV row skipped: {} for interactionId: {} TechBDVersion: {} (expected {} columns but found {})",
+                            csvReader.getLinesRead(), interactionId, techBDVersion, header.length, row.length);
+                    continue;
+                }
+                final T obj = binding.newInstance();
+                for (int i = 0; i < row.length; i++) {
+                    if (setters[i] != null) {
+                        CsvBeanBinding.set(setters[i], obj, row[i].trim());
                     }
-                } catch (IllegalAccessException e) {
-                    // Skip inaccessible fields silently
                 }
+                final String fieldValue = CsvBeanBinding.get(groupKeyGetter, obj);
+                if (fieldValue == null) {
+                    LOG.error("Null value encountered for field '{}' in object: {} for interactionId: {} TechBDVersion: {}", fieldName, obj, interactionId, techBDVersion);
+                    throw new IllegalArgumentException("Field '" + fieldName + "' has a null value in object: " + obj);
+                }
+                grouped.computeIfAbsent(fieldValue, key -> new ArrayList<>()).add(obj);
             }
-        }
-    }
-
-    /**
-     * Extracts the value of a specified field from an object using reflection.
-     *
-     * @param obj       the object to extract the value from
-     * @param fieldName the name of the field to extract (e.g., "patientMrIdValue"
-     *                  or "encounterId")
-     * @return the field value as a string
-     */
-    private static String getFieldValue(Object obj, String fieldName) {
-        try {
-            var field = obj.getClass().getDeclaredField(fieldName);
-            field.setAccessible(true);
-            return (String) field.get(obj);
-        } catch (NoSuchFieldException | IllegalAccessException e) {
-            throw new IllegalArgumentException(
-                    "The class " + obj.getClass().getName() + " does not have a field named '" + fieldName + "'.", e);
+            return grouped;
+        } catch (CsvValidationException e) {
+            throw new IOException("Unable to parse CSV data at line " + csvReader.getLinesRead() + ": " + e.getMessage(), e);
         }
     }
 
@@ -2,11 +2,14 @@ package org.techbd.csv.converter;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -27,6 +30,7 @@ import org.techbd.csv.model.QeAdminData;
 import org.techbd.csv.model.ScreeningObservationData;
 import org.techbd.csv.model.ScreeningProfileData;
 import org.techbd.csv.service.CodeLookupService;
+import org.techbd.csv.service.CodeLookupSnapshot;
 
 class BaseConverterTest {
 
@@ -56,17 +60,17 @@ class BaseConverterTest {
         };
     }
 
+    private void givenCodeLookup(Map<String, List<Map<String, String>>> codesByCategory) {
+        when(mockCodeLookupService.snapshot(any(), anyString()))
+                .thenReturn(CodeLookupSnapshot.build(codesByCategory, 1, "test"));
+    }
+
     @Test
     void testFetchCode() {
-        Map<String, String> categoryMap = new HashMap<>();
-        categoryMap.put("example", "mappedValue");
-        Map<String, Map<String, String>> codeLookup = new HashMap<>();
-        codeLookup.put("category", categoryMap);
-
-        BaseConverter.CODE_LOOKUP = codeLookup;
+        givenCodeLookup(Map.of("category", List.of(Map.of("code", "Example"))));
 
         String result = baseConverter.fetchCode("example", "category", "interactionId");
-        assertEquals("mappedValue", result);
+        assertEquals("Example", result);
 
         result = baseConverter.fetchCode("unknown", "category", "interactionId");
         assertEquals("unknown", result);
@@ -74,20 +78,30 @@ class BaseConverterTest {
 
     @Test
     void testFetchSystem() {
-        Map<String, String> categoryMap = new HashMap<>();
-        categoryMap.put("example", "mappedSystem");
-        Map<String, Map<String, String>> systemLookup = new HashMap<>();
-        systemLookup.put("category", categoryMap);
-
-        BaseConverter.SYSTEM_LOOKUP = systemLookup;
+        givenCodeLookup(Map.of("category", List.of(Map.of("code", "example", "system", "mappedSystem"))));
 
         String result = baseConverter.fetchSystem("example", "defaultSystem", "category", "interactionId");
         assertEquals("mappedSystem", result);
 
+        result = baseConverter.fetchSystem("EXAMPLE", "defaultSystem", "category", "interactionId");
+        assertEquals("mappedSystem", result);
+
         result = baseConverter.fetchSystem("unknown", "unknown", "category", "interactionId");
         assertEquals("unknown", result);
     }
-    
+
+    @Test
+    void testFetchCodeFromDisplay() {
+        givenCodeLookup(Map.of("state", List.of(
+                Map.of("code", "NY", "display", "New York"),
+                Map.of("code", "NJ", "display", "New Jersey"))));
+
+        assertEquals("NY", baseConverter.fetchCodeFromDisplay("new york", "state", "interactionId"));
+        assertEquals("New Jersey", baseConverter.fetchDisplay("nj", "nj", "state", "interactionId"));
+        assertNull(baseConverter.fetchCodeFromDisplay("Ohio", "state", "interactionId"));
+        assertNull(baseConverter.fetchCodeFromDisplay("New York", "unknown", "interactionId"));
+    }
+
     @Test
     void testGetProfileUrl1() {
         try (MockedStatic<CoreFHIRUtil> mockedCoreUtil = mockStatic(CoreFHIRUtil.class)) {
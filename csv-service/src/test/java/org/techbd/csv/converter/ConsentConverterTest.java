@@ -31,6 +31,7 @@ import org.techbd.csv.model.QeAdminData;
 import org.techbd.csv.model.ScreeningObservationData;
 import org.techbd.csv.model.ScreeningProfileData;
 import org.techbd.csv.service.CodeLookupService;
+import org.techbd.csv.service.CodeLookupSnapshot;
 import org.techbd.corelib.util.CoreFHIRUtil;
 
 import ca.uhn.fhir.context.FhirContext;
@@ -54,9 +55,7 @@ class ConsentConverterTest {
     void setUp() throws Exception {
             // Initialize ConsentConverter with mocked CodeLookupService
             consentConverter = new ConsentConverter(mockCodeLookupService,mockDSLContext);
-            lenient().when(mockCodeLookupService.fetchCode(any(), anyString())).thenReturn(new HashMap<>());
-            lenient().when(mockCodeLookupService.fetchSystem(any(), anyString())).thenReturn(new HashMap<>());
-            lenient().when(mockCodeLookupService.fetchDisplay(any(), anyString())).thenReturn(new HashMap<>());
+            lenient().when(mockCodeLookupService.snapshot(any(), anyString())).thenReturn(CodeLookupSnapshot.EMPTY);
             Field profileMapField = CoreFHIRUtil.class.getDeclaredField("PROFILE_MAP");
             profileMapField.setAccessible(true);
             profileMapField.set(null, CsvTestHelper.getProfileMap());
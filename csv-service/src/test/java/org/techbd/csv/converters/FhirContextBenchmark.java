@@ -0,0 +1,124 @@
+package org.techbd.csv.converters;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.DateType;
+import org.hl7.fhir.r4.model.Enumerations.AdministrativeGender;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Reference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+
+/**
+ * Cost of encoding a converted screening bundle with a new {@link FhirContext}
+ * per bundle (what {@link CsvToFhirConverter} used to do), with a new parser
+ * from the shared context, and with the per-thread parser the converter now
+ * keeps; {@code contextStartup} is the one-off cost the shared context pays at
+ * startup. Not a unit test; run with
+ *
+ * <pre>
+ * mvn -pl csv-service test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.techbd.csv.converters.FhirContextBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(4)
+@Fork(1)
+public class FhirContextBenchmark {
+
+    private static final int OBSERVATIONS = 30;
+
+    private FhirContext sharedContext;
+    private ThreadLocal<IParser> threadParser;
+    private Bundle bundle;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sharedContext = FhirContext.forR4Cached();
+        threadParser = ThreadLocal.withInitial(sharedContext::newJsonParser);
+        bundle = screeningBundle();
+    }
+
+    @Benchmark
+    public String contextPerBundle() {
+        return FhirContext.forR4().newJsonParser().encodeResourceToString(bundle);
+    }
+
+    @Benchmark
+    public String sharedContextNewParser() {
+        return sharedContext.newJsonParser().encodeResourceToString(bundle);
+    }
+
+    @Benchmark
+    public String sharedContextThreadParser() {
+        return threadParser.get().encodeResourceToString(bundle);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 10)
+    @Threads(1)
+    @Fork(5)
+    public String contextStartup() {
+        return FhirContext.forR4().newJsonParser().encodeResourceToString(bundle);
+    }
+
+    private static Bundle screeningBundle() {
+        final Bundle bundle = new Bundle();
+        bundle.setType(Bundle.BundleType.TRANSACTION);
+        final Patient patient = new Patient();
+        patient.setId("Patient/benchmark");
+        patient.addName().setFamily("Doe").addGiven("Jane");
+        patient.setGender(AdministrativeGender.FEMALE);
+        patient.setBirthDateElement(new DateType("1980-01-01"));
+        bundle.addEntry().setFullUrl("http://shinny.org/us/ny/hrsn/Patient/benchmark").setResource(patient);
+        for (int i = 0; i < OBSERVATIONS; i++) {
+            final Observation observation = new Observation();
+            observation.setId("Observation/benchmark-" + i);
+            observation.setStatus(Observation.ObservationStatus.FINAL);
+            observation.setCode(new CodeableConcept(new Coding("http://loinc.org", "71802-3", "Housing status")));
+            observation.setValue(new CodeableConcept(new Coding("http://loinc.org", "LA31993-1",
+                    "I have a steady place to live")));
+            observation.setSubject(new Reference("Patient/benchmark"));
+            bundle.addEntry().setFullUrl("http://shinny.org/us/ny/hrsn/Observation/benchmark-" + i)
+                    .setResource(observation);
+        }
+        return bundle;
+    }
+
+    public static void main(String[] args) throws Exception {
+        final var options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(FhirContextBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
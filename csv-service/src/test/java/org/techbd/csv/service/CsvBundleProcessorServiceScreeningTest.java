@@ -0,0 +1,253 @@
+package org.techbd.csv.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.techbd.corelib.config.Configuration;
+import org.techbd.corelib.config.Constants;
+import org.techbd.corelib.service.dataledger.DataLedgerApiClient;
+import org.techbd.corelib.util.AppLogger;
+import org.techbd.corelib.util.TemplateLogger;
+import org.techbd.csv.config.AppConfig;
+import org.techbd.csv.converters.CsvToFhirConverter;
+import org.techbd.csv.model.CsvDataValidationStatus;
+import org.techbd.csv.model.CsvProcessingMetrics;
+import org.techbd.csv.model.CsvProcessingMetrics.CsvProcessingMetricsBuilder;
+import org.techbd.csv.model.FileDetail;
+import org.techbd.csv.model.FileType;
+import org.techbd.csv.model.PayloadAndValidationOutcome;
+import org.techbd.csv.model.ScreeningProfileData;
+import org.techbd.csv.util.CsvConversionUtil;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Screenings of a CSV group are converted and validated concurrently, up to
+ * {@code max-concurrent-screenings-per-tenant} per tenant. The converter and the
+ * validation client are mocked; a screening counts as in flight from the start of
+ * its conversion until its validation response arrives, and earlier screenings
+ * take longer to validate so that they finish after the ones behind them.
+ */
+class CsvBundleProcessorServiceScreeningTest {
+
+    private static final int SCREENINGS = 12;
+    private static final String TENANT = "tenant-a";
+    private static final String SCREENING_END = "CsvBundleProcessorService processScreening: END";
+
+    private final CsvToFhirConverter csvToFhirConverter = mock(CsvToFhirConverter.class);
+    private final FhirValidationServiceClient fhirValidationServiceClient = mock(FhirValidationServiceClient.class);
+    private final List<Object[]> screeningSummaries = new CopyOnWriteArrayList<>();
+    private final TemplateLogger log = mock(TemplateLogger.class, invocation -> {
+        if ("info".equals(invocation.getMethod().getName())
+                && String.valueOf(invocation.getArguments()[0]).startsWith(SCREENING_END)) {
+            screeningSummaries.add(invocation.getArguments());
+        }
+        return RETURNS_DEFAULTS.answer(invocation);
+    });
+    private final List<String> encounterOrder = encounterOrder();
+    private final List<String> validationOrder = new CopyOnWriteArrayList<>();
+    private final Set<Thread> convertingThreads = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger executorTasks = new AtomicInteger();
+    private final Set<String> conversionErrors = ConcurrentHashMap.newKeySet();
+    private final Set<String> bundlesNotCreated = ConcurrentHashMap.newKeySet();
+    private final Set<String> validationErrors = ConcurrentHashMap.newKeySet();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+        when(csvToFhirConverter.convert(any(), any(), any(), anyList(), anyString(), any())).thenAnswer(invocation -> {
+            final String encounterId = invocation.<ScreeningProfileData>getArgument(2).getEncounterId();
+            convertingThreads.add(Thread.currentThread());
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            if (conversionErrors.contains(encounterId)) {
+                inFlight.decrementAndGet();
+                throw new IllegalStateException("conversion failed for " + encounterId);
+            }
+            if (bundlesNotCreated.contains(encounterId)) {
+                inFlight.decrementAndGet();
+                return null;
+            }
+            return "{\"resourceType\":\"Bundle\",\"id\":\"" + encounterId + "\"}";
+        });
+        when(fhirValidationServiceClient.validateBundleAsync(anyString(), anyString(), anyString(), anyMap()))
+                .thenAnswer(invocation -> {
+                    final String encounterId = Configuration.objectMapper
+                            .readTree(invocation.<String>getArgument(0)).path("id").asText();
+                    final Mono<Object> response = validationErrors.contains(encounterId)
+                            ? Mono.error(new FhirValidationServiceClient.FhirValidationException(
+                                    "validation service returned 500", invocation.getArgument(1)))
+                            : Mono.just(Map.of("resourceType", "OperationOutcome", "encounterId", encounterId));
+                    return response
+                            .delaySubscription(Duration.ofMillis((SCREENINGS - encounterOrder.indexOf(encounterId)) * 15L))
+                            .doOnTerminate(() -> {
+                                validationOrder.add(encounterId);
+                                inFlight.decrementAndGet();
+                            });
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private CsvBundleProcessorService service(final int maxConcurrentScreeningsPerTenant) {
+        final AppConfig appConfig = new AppConfig();
+        appConfig.setVersion("test");
+        appConfig.setValidationSeverityLevel("error");
+        final AppLogger appLogger = mock(AppLogger.class);
+        when(appLogger.getLogger(any())).thenReturn(log);
+        return new CsvBundleProcessorService(csvToFhirConverter, mock(DataLedgerApiClient.class), appConfig,
+                mock(DSLContext.class), appLogger, fhirValidationServiceClient, task -> {
+                    executorTasks.incrementAndGet();
+                    executor.execute(task);
+                }, maxConcurrentScreeningsPerTenant, meterRegistry);
+    }
+
+    private static List<Object> upload(final CsvBundleProcessorService service, final String masterInteractionId,
+            final CsvProcessingMetricsBuilder metricsBuilder) {
+        final Map<String, Object> requestParameters = new HashMap<>();
+        requestParameters.put(Constants.DATA_LEDGER_TRACKING, false);
+        requestParameters.put(Constants.DATA_LEDGER_DIAGNOSTICS, false);
+        requestParameters.put(Constants.REQUEST_URI, "/flatfile/csv/Bundle");
+        final PayloadAndValidationOutcome outcome = new PayloadAndValidationOutcome(group(), true,
+                masterInteractionId + "-group", Map.of("resourceType", "Provenance"), Map.of());
+        return service.processPayload(masterInteractionId, Map.of("testcase1", outcome), List.of(), requestParameters,
+                new HashMap<>(), TENANT, "screenings.zip", "http://test.shinny.org", metricsBuilder);
+    }
+
+    /** One patient per screening; screening {@code i} is encounter {@code enc-i} of patient {@code mrn-i}. */
+    private static List<FileDetail> group() {
+        final StringBuilder patients = new StringBuilder("PATIENT_MR_ID_VALUE\n");
+        final StringBuilder encounters = new StringBuilder("PATIENT_MR_ID_VALUE,ENCOUNTER_ID\n");
+        for (int i = 0; i < SCREENINGS; i++) {
+            patients.append("mrn-").append(i).append('\n');
+            encounters.append("mrn-").append(i).append(",enc-").append(i).append('\n');
+        }
+        return List.of(file(FileType.SDOH_PtInfo, patients), file(FileType.SDOH_QEadmin, patients),
+                file(FileType.SDOH_ScreeningProf, encounters), file(FileType.SDOH_ScreeningObs, encounters));
+    }
+
+    private static FileDetail file(final FileType fileType, final CharSequence content) {
+        return new FileDetail(fileType.name() + "_testcase1.csv", fileType, content.toString(), null, true, null);
+    }
+
+    /** The order in which the service reads the screening profiles, which a serial run reports in. */
+    private static List<String> encounterOrder() {
+        return CsvConversionUtil.convertCsvStringToScreeningProfileData(group().get(2).content(), "order", "test")
+                .values().stream()
+                .flatMap(List::stream)
+                .map(ScreeningProfileData::getEncounterId)
+                .toList();
+    }
+
+    private static List<Object> encounterIds(final List<Object> results) {
+        return results.stream().map(result -> ((Map<?, ?>) result).get("encounterId")).toList();
+    }
+
+    private Object[] screeningSummary() {
+        assertEquals(1, screeningSummaries.size());
+        return screeningSummaries.get(0);
+    }
+
+    private Timer screeningGroupTimer(final String outcome) {
+        return meterRegistry.find(CsvBundleProcessorService.METRIC_SCREENING_GROUP_DURATION)
+                .tags("tenant", TENANT, "outcome", outcome)
+                .timer();
+    }
+
+    @Test
+    void testResultsKeepInputOrderWhenScreeningsFinishOutOfOrder() {
+        final List<Object> results = upload(service(4), "master-1", CsvProcessingMetrics.builder());
+
+        assertEquals(encounterOrder, encounterIds(results));
+        assertEquals(SCREENINGS, validationOrder.size());
+        assertNotEquals(encounterOrder, validationOrder, "validations should have finished out of order");
+        assertEquals(0, screeningSummary()[6], "failed");
+        assertEquals(4, screeningSummary()[7], "concurrency");
+        assertEquals(1, screeningGroupTimer("success").count());
+    }
+
+    @Test
+    void testUploadsOfOneTenantShareItsScreeningLimit() {
+        final CsvBundleProcessorService service = service(3);
+
+        final var first = CompletableFuture.supplyAsync(
+                () -> upload(service, "master-1", CsvProcessingMetrics.builder()), executor);
+        final var second = CompletableFuture.supplyAsync(
+                () -> upload(service, "master-2", CsvProcessingMetrics.builder()), executor);
+
+        assertEquals(encounterOrder, encounterIds(first.orTimeout(30, TimeUnit.SECONDS).join()));
+        assertEquals(encounterOrder, encounterIds(second.orTimeout(30, TimeUnit.SECONDS).join()));
+        assertTrue(maxInFlight.get() <= 3, "at most three screenings of the tenant in flight, saw " + maxInFlight.get());
+        assertEquals(3, maxInFlight.get());
+    }
+
+    @Test
+    void testFailedScreeningsAreReportedInPlaceAndCounted() {
+        conversionErrors.add(encounterOrder.get(1));
+        bundlesNotCreated.add(encounterOrder.get(4));
+        validationErrors.add(encounterOrder.get(7));
+        final CsvProcessingMetricsBuilder metricsBuilder = CsvProcessingMetrics.builder();
+
+        final List<Object> results = upload(service(4), "master-1", metricsBuilder);
+
+        assertEquals(encounterOrder, encounterIds(results));
+        for (int i = 0; i < SCREENINGS; i++) {
+            final boolean failed = i == 1 || i == 4 || i == 7;
+            assertEquals(failed, ((Map<?, ?>) results.get(i)).containsKey("validationResults"),
+                    "operation outcome expected only for failed screenings, screening " + i);
+        }
+        // a rejected bundle was still converted, so only the two conversions count as failed
+        assertEquals(2, screeningSummary()[6], "failed");
+        assertEquals(1, screeningGroupTimer("partial").count());
+        assertNull(screeningGroupTimer("success"));
+        final CsvProcessingMetrics metrics = metricsBuilder.build();
+        assertEquals(SCREENINGS - 2, metrics.getNumberOfFhirBundlesGeneratedFromZipFile());
+        assertEquals(CsvDataValidationStatus.PARTIAL_SUCCESS.getDescription(), metrics.getDataValidationStatus());
+    }
+
+    @Test
+    void testLimitOfOneRunsScreeningsSeriallyOnTheCallingThread() {
+        final List<Object> results = upload(service(1), "master-1", CsvProcessingMetrics.builder());
+
+        assertEquals(encounterOrder, encounterIds(results));
+        assertEquals(encounterOrder, validationOrder);
+        assertEquals(1, maxInFlight.get());
+        assertEquals(Set.of(Thread.currentThread()), convertingThreads);
+        assertEquals(0, executorTasks.get());
+        assertEquals(1, screeningSummary()[7], "concurrency");
+    }
+}
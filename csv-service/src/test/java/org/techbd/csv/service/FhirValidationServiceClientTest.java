@@ -0,0 +1,126 @@
+package org.techbd.csv.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import reactor.core.publisher.Flux;
+
+class FhirValidationServiceClientTest {
+
+    private static final String OPERATION_OUTCOME = "{\"resourceType\":\"OperationOutcome\"}";
+
+    private HttpServer server;
+    private FhirValidationServiceClient client;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile CountDownLatch release = new CountDownLatch(0);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/Bundle/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+        server.stop(0);
+    }
+
+    private FhirValidationServiceClient client(final int maxInFlight) {
+        return new FhirValidationServiceClient("http://127.0.0.1:" + server.getAddress().getPort(), 10485760, 5000,
+                60, 60, 90, maxInFlight, 1000, 60, 60, 600, false, 2);
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            exchange.getRequestBody().readAllBytes();
+            release.await(5, TimeUnit.SECONDS);
+            final byte[] body = (status == 200 ? OPERATION_OUTCOME : "boom").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    @Test
+    void testSequentialCallsReuseOneConnection() {
+        client = client(8);
+
+        for (int i = 0; i < 5; i++) {
+            final Object result = client.validateBundle("{}", "interaction-" + i, "tenant", Map.of());
+            assertEquals(Map.of("resourceType", "OperationOutcome"), result);
+        }
+
+        assertEquals(1, clientPorts.size(), "calls should share a kept-alive connection");
+    }
+
+    @Test
+    void testAsyncCallsAreLimitedToMaxInFlight() {
+        client = client(2);
+        release = new CountDownLatch(1);
+
+        final var results = Flux.range(0, 6)
+                .flatMap(i -> client.validateBundleAsync("{}", "interaction-" + i, "tenant", Map.of()))
+                .collectList()
+                .toFuture();
+        // every request has been handed to the pool without blocking the caller
+        CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS).execute(release::countDown);
+        final List<Object> outcomes = results.orTimeout(10, TimeUnit.SECONDS).join();
+
+        assertEquals(6, outcomes.size());
+        assertTrue(maxInFlight.get() <= 2, "at most two requests in flight, saw " + maxInFlight.get());
+        assertTrue(clientPorts.size() <= 2, "at most two connections, saw " + clientPorts.size());
+    }
+
+    @Test
+    void testErrorStatusIsReportedAsValidationException() {
+        client = client(2);
+        status = 500;
+
+        final var exception = assertThrows(FhirValidationServiceClient.FhirValidationException.class,
+                () -> client.validateBundle("{}", "interaction-1", "tenant", Map.of()));
+        assertEquals("interaction-1", exception.getInteractionId());
+        assertTrue(exception.getMessage().contains("500"), exception.getMessage());
+
+        final var asyncException = assertThrows(FhirValidationServiceClient.FhirValidationException.class,
+                () -> client.validateBundleAsync("{}", "interaction-2", "tenant", Map.of())
+                        .block(Duration.ofSeconds(10)));
+        assertEquals("interaction-2", asyncException.getInteractionId());
+    }
+}
@@ -0,0 +1,196 @@
+package org.techbd.csv.service.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+class CsvPackageValidatorTest {
+
+    private static final Path SPECIFICATIONS = Paths.get("..", "support", "specifications", "flat-file");
+    private static final Path PACKAGE = SPECIFICATIONS.resolve("datapackage-nyher-fhir-ig-equivalent.json");
+    private static final Path SCRIPT = SPECIFICATIONS.resolve("validate-nyher-fhir-ig-equivalent.py");
+    private static final String FIXTURES = "org/techbd/csv/data/latestResources/";
+    private static final String CONFORMANCE = "org/techbd/csv/data/conformance/";
+    private static final String GROUP = "_CareRidgeSCN_testcase1_20250312040214.csv";
+
+    @TempDir
+    Path tempDir;
+
+    private CsvPackageValidator validator;
+    private Path qeAdmin;
+    private Path screeningProfile;
+    private Path screeningObservation;
+    private Path ptInfo;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        validator = new CsvPackageValidator(PACKAGE);
+        qeAdmin = fixture("SDOH_QEadmin");
+        screeningProfile = fixture("SDOH_ScreeningProf");
+        screeningObservation = fixture("SDOH_ScreeningObs");
+        ptInfo = fixture("SDOH_PtInfo");
+    }
+
+    private Path fixture(final String prefix) throws Exception {
+        return Paths.get(getClass().getClassLoader().getResource(FIXTURES + prefix + GROUP).toURI());
+    }
+
+    @Test
+    void testReportStructureForFixtureGroup() {
+        final ObjectNode results = validator.validate(qeAdmin, screeningProfile, screeningObservation, ptInfo);
+
+        assertFalse(results.has("errorsSummary"));
+        final JsonNode report = results.get("report");
+        assertEquals(4, report.path("stats").path("tasks").asInt());
+        final List<String> names = new ArrayList<>();
+        report.path("tasks").forEach(task -> names.add(task.path("name").asText()));
+        assertEquals(List.of("qe_admin_data", "screening_profile_data", "screening_observation_data",
+                "pt_info_data"), names);
+        for (final JsonNode task : report.path("tasks")) {
+            assertEquals("table", task.path("type").asText());
+            assertEquals(task.path("errors").size(), task.path("stats").path("errors").asInt());
+            assertEquals(task.path("stats").path("fields").asInt(), task.path("labels").size());
+        }
+        final JsonNode qeAdminLines = results.path("originalData").path("qe_admin_data");
+        assertEquals(2, qeAdminLines.size());
+        assertTrue(qeAdminLines.get(0).asText().startsWith("PATIENT_MR_ID_VALUE,"));
+        assertTrue(qeAdminLines.get(0).asText().endsWith("\n"));
+    }
+
+    @Test
+    void testMissingFileIsReportedInErrorsSummary() {
+        final ObjectNode results = validator.validate(qeAdmin, screeningProfile, screeningObservation,
+                tempDir.resolve("SDOH_PtInfo_missing.csv"));
+
+        assertTrue(results.get("report").isNull());
+        final JsonNode summary = results.path("errorsSummary");
+        assertEquals(1, summary.size());
+        assertEquals("file-missing-error", summary.get(0).path("type").asText());
+        assertEquals("pt_info_data", summary.get(0).path("fieldName").asText());
+    }
+
+    @Test
+    void testRowAndIntegrityErrors() throws IOException {
+        final List<String> lines = Files.readAllLines(qeAdmin, StandardCharsets.UTF_8);
+        final Path invalidQeAdmin = tempDir.resolve("SDOH_QEadmin_invalid.csv");
+        Files.write(invalidQeAdmin, List.of(lines.get(0), lines.get(1), lines.get(1), "", "x,y"),
+                StandardCharsets.UTF_8);
+
+        final JsonNode task = validator.validate(invalidQeAdmin, screeningProfile, screeningObservation, ptInfo)
+                .path("report").path("tasks").get(0);
+
+        assertFalse(task.path("valid").asBoolean());
+        final List<String> types = new ArrayList<>();
+        task.path("errors").forEach(error -> types.add(error.path("type").asText()));
+        assertEquals(List.of("unique-error", "primary-key"), types.subList(0, 2));
+        assertTrue(types.contains("blank-row"));
+        assertTrue(types.contains("missing-cell"));
+        final JsonNode required = task.path("errors").get(types.indexOf("constraint-error"));
+        assertEquals(5, required.path("rowNumber").asInt());
+        assertEquals("constraint \"required\" is \"True\"", required.path("note").asText());
+    }
+
+    @Test
+    void testHeaderErrors() throws IOException {
+        final List<String> lines = Files.readAllLines(ptInfo, StandardCharsets.UTF_8);
+        final Path renamedHeader = tempDir.resolve("SDOH_PtInfo_header.csv");
+        Files.write(renamedHeader, List.of(lines.get(0).replaceFirst("^PATIENT_MR_ID_VALUE", "PATIENT_ID") + ",EXTRA",
+                lines.get(1)), StandardCharsets.UTF_8);
+
+        final JsonNode task = validator.validate(qeAdmin, screeningProfile, screeningObservation, renamedHeader)
+                .path("report").path("tasks").get(3);
+
+        final List<String> types = new ArrayList<>();
+        task.path("errors").forEach(error -> types.add(error.path("type").asText()));
+        assertEquals("extra-label", types.get(0));
+        assertTrue(types.contains("incorrect-label"));
+        assertEquals(1, task.path("errors").get(types.indexOf("incorrect-label")).path("fieldNumber").asInt());
+    }
+
+    /**
+     * Runs the Python script over a fixture group and compares everything but timings, places and hashes, including
+     * each error's description since the data ledger reads it. The valid group is the testcase1 upload; the invalid
+     * group breaks field constraints and a foreign key; the error group has wrong and extra labels, extra and missing
+     * cells and blank and duplicate rows. Skipped where Python with frictionless is not installed, except in CI.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = { "valid", "invalid", "error" })
+    void testConformsToPythonScript(final String group) throws Exception {
+        if ("true".equalsIgnoreCase(System.getenv("CI"))) {
+            assertTrue(frictionlessAvailable(), "python3 with frictionless is required in CI");
+        }
+        assumeTrue(frictionlessAvailable(), "python3 with frictionless is not available");
+        final List<Path> files = "valid".equals(group)
+                ? List.of(qeAdmin, screeningProfile, screeningObservation, ptInfo)
+                : List.of(conformanceFixture(group, "SDOH_QEadmin"), conformanceFixture(group, "SDOH_ScreeningProf"),
+                        conformanceFixture(group, "SDOH_ScreeningObs"), conformanceFixture(group, "SDOH_PtInfo"));
+
+        final Process process = new ProcessBuilder("python3", SCRIPT.toString(), PACKAGE.toString(),
+                files.get(0).toString(), files.get(1).toString(), files.get(2).toString(), files.get(3).toString())
+                .redirectErrorStream(true)
+                .start();
+        final String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(0, process.waitFor());
+        final JsonNode expected = new ObjectMapper().readTree(output.substring(output.indexOf('{')));
+
+        final JsonNode actual = validator.validate(files.get(0), files.get(1), files.get(2), files.get(3));
+
+        if (!"valid".equals(group)) {
+            assertFalse(actual.path("report").path("valid").asBoolean(), group + " group should not be valid");
+        }
+        assertEquals(normalize(expected), normalize(actual));
+    }
+
+    private Path conformanceFixture(final String group, final String prefix) throws Exception {
+        return Paths.get(getClass().getClassLoader()
+                .getResource(CONFORMANCE + group + "/" + prefix + "_CareRidgeSCN_" + group + "_20250312040214.csv")
+                .toURI());
+    }
+
+    private static boolean frictionlessAvailable() {
+        try {
+            final Process process = new ProcessBuilder("python3", "-c", "import frictionless")
+                    .redirectErrorStream(true)
+                    .start();
+            return process.waitFor(30, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static JsonNode normalize(final JsonNode results) {
+        final ObjectNode copy = results.deepCopy();
+        final JsonNode report = copy.path("report");
+        if (report instanceof ObjectNode reportNode) {
+            ((ObjectNode) reportNode.path("stats")).remove("seconds");
+            for (final JsonNode task : reportNode.path("tasks")) {
+                ((ObjectNode) task).remove("place");
+                ((ObjectNode) task.path("stats")).remove(List.of("seconds", "md5", "sha256", "bytes"));
+            }
+        }
+        return copy;
+    }
+}
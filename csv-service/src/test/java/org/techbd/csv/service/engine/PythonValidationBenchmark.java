@@ -0,0 +1,100 @@
+package org.techbd.csv.service.engine;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Groups per second through the frictionless validation script: one Python process per group, as before
+ * {@link PythonValidationWorkerPool}, against the pooled worker. Needs python3 with frictionless. Not a unit test;
+ * run from {@code csv-service} with
+ *
+ * <pre>
+ * mvn -pl csv-service test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.techbd.csv.service.engine.PythonValidationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(1)
+public class PythonValidationBenchmark {
+
+    private static final Path SPECIFICATIONS = Paths.get("..", "support", "specifications", "flat-file");
+    private static final String FIXTURES = "org/techbd/csv/data/latestResources/";
+    private static final String GROUP = "_CareRidgeSCN_testcase1_20250312040214.csv";
+
+    private List<String> forkedCommand;
+    private List<String> files;
+    private PythonValidationWorkerPool pool;
+    private int groups;
+
+    @Setup(Level.Trial)
+    public void setUp() throws URISyntaxException {
+        final Path script = SPECIFICATIONS.resolve("validate-nyher-fhir-ig-equivalent.py").toAbsolutePath();
+        final Path spec = SPECIFICATIONS.resolve("datapackage-nyher-fhir-ig-equivalent.json").toAbsolutePath();
+        files = new ArrayList<>();
+        for (final String prefix : List.of("SDOH_QEadmin", "SDOH_ScreeningProf", "SDOH_ScreeningObs",
+                "SDOH_PtInfo")) {
+            files.add(Paths.get(getClass().getClassLoader().getResource(FIXTURES + prefix + GROUP).toURI())
+                    .toString());
+        }
+        forkedCommand = new ArrayList<>(List.of("python3", script.toString(), spec.toString()));
+        forkedCommand.addAll(files);
+        pool = new PythonValidationWorkerPool(List.of("python3",
+                script.resolveSibling(PythonValidationWorkerPool.WORKER_SCRIPT).toString(), script.toString(),
+                spec.toString()), true, 1, 1, Duration.ofMinutes(5), Integer.MAX_VALUE, Duration.ofMinutes(1));
+    }
+
+    @Benchmark
+    public String forkedScript() throws IOException, InterruptedException {
+        final Process process = new ProcessBuilder(forkedCommand).redirectErrorStream(true).start();
+        final String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("validation script failed: " + output);
+        }
+        return output;
+    }
+
+    @Benchmark
+    public String pooledWorker() throws IOException, InterruptedException {
+        return pool.validate(files, "group-" + groups++);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    public static void main(String[] args) throws Exception {
+        final var options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(PythonValidationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,199 @@
+package org.techbd.csv.service.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class PythonValidationWorkerPoolTest {
+
+    private static final Path SPECIFICATIONS = Paths.get("..", "support", "specifications", "flat-file");
+    private static final String FIXTURES = "org/techbd/csv/data/latestResources/";
+    private static final String GROUP = "_CareRidgeSCN_testcase1_20250312040214.csv";
+
+    /**
+     * Speaks the worker protocol without frictionless: answers with its pid, exits on a "crash" file and hangs on a
+     * "hang" file.
+     */
+    private static final String FAKE_WORKER = """
+            import json, os, sys, time
+            print(json.dumps({"id": 0, "ok": True, "ready": True}), flush=True)
+            for line in sys.stdin:
+                request = json.loads(line)
+                files = request.get("files", [])
+                if "crash" in files:
+                    os._exit(3)
+                if "hang" in files:
+                    time.sleep(60)
+                output = json.dumps({"pid": os.getpid(), "files": files})
+                print(json.dumps({"id": request["id"], "ok": True, "output": output}), flush=True)
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private PythonValidationWorkerPool pool;
+    private List<String> fakeWorkerCommand;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        assumeTrue(python("import json"), "python3 is not available");
+        final Path script = tempDir.resolve("fake-worker.py");
+        Files.writeString(script, FAKE_WORKER, StandardCharsets.UTF_8);
+        fakeWorkerCommand = List.of("python3", script.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private PythonValidationWorkerPool pool(final int maxWorkers, final Duration jobTimeout,
+            final int maxJobsPerWorker) {
+        pool = new PythonValidationWorkerPool(fakeWorkerCommand, true, maxWorkers, 1, jobTimeout, maxJobsPerWorker,
+                Duration.ofMinutes(1));
+        return pool;
+    }
+
+    private static long pid(final String output) throws IOException {
+        return new ObjectMapper().readTree(output).path("pid").asLong();
+    }
+
+    @Test
+    void testWorkerIsReusedAcrossGroups() throws Exception {
+        pool(2, Duration.ofSeconds(30), 100);
+
+        final String first = pool.validate(List.of("a", "b", "c", "d"), "group-1");
+        final String second = pool.validate(List.of("e", "f", "g", "h"), "group-2");
+
+        assertEquals(pid(first), pid(second));
+        assertEquals(List.of("e", "f", "g", "h"),
+                new ObjectMapper().convertValue(new ObjectMapper().readTree(second).path("files"), List.class));
+    }
+
+    @Test
+    void testWorkerIsRecycledAfterMaxJobs() throws Exception {
+        pool(1, Duration.ofSeconds(30), 1);
+
+        final long first = pid(pool.validate(List.of("a", "b", "c", "d"), "group-1"));
+        final long second = pid(pool.validate(List.of("a", "b", "c", "d"), "group-2"));
+
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void testCrashedWorkerIsReplaced() throws Exception {
+        pool(1, Duration.ofSeconds(30), 100);
+        final long before = pid(pool.validate(List.of("a", "b", "c", "d"), "group-1"));
+
+        assertThrows(IOException.class, () -> pool.validate(List.of("crash", "b", "c", "d"), "group-2"));
+        final long after = pid(pool.validate(List.of("a", "b", "c", "d"), "group-3"));
+
+        assertNotEquals(before, after);
+        assertEquals(1, pool.workerCount());
+    }
+
+    @Test
+    void testJobTimeoutDestroysWorker() throws Exception {
+        pool(1, Duration.ofSeconds(2), 100);
+
+        final IOException error = assertThrows(IOException.class,
+                () -> pool.validate(List.of("hang", "b", "c", "d"), "group-1"));
+
+        assertTrue(error.getMessage().contains("timed out"));
+        assertEquals(0, pool.workerCount());
+        pool.validate(List.of("a", "b", "c", "d"), "group-2");
+    }
+
+    @Test
+    void testConcurrencyIsBoundedByMaxWorkers() throws Exception {
+        pool(2, Duration.ofSeconds(30), 100);
+        final AtomicInteger maxSeen = new AtomicInteger();
+        final ExecutorService callers = Executors.newFixedThreadPool(6);
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                final String groupId = "group-" + i;
+                results.add(callers.submit(() -> {
+                    maxSeen.accumulateAndGet(pool.workerCount(), Math::max);
+                    return pool.validate(List.of("a", "b", "c", "d"), groupId);
+                }));
+            }
+            for (final Future<String> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+                maxSeen.accumulateAndGet(pool.workerCount(), Math::max);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertTrue(maxSeen.get() <= 2, "started " + maxSeen.get() + " workers");
+    }
+
+    /**
+     * The pooled worker reports the same result as running the script once per group. Only runs where Python with
+     * frictionless is installed; groups per second of both are measured by {@link PythonValidationBenchmark}.
+     */
+    @Test
+    void testPooledWorkerMatchesForkedScript() throws Exception {
+        assumeTrue(python("import frictionless"), "python3 with frictionless is not available");
+        final Path script = SPECIFICATIONS.resolve("validate-nyher-fhir-ig-equivalent.py").toAbsolutePath();
+        final Path spec = SPECIFICATIONS.resolve("datapackage-nyher-fhir-ig-equivalent.json").toAbsolutePath();
+        final List<String> files = new ArrayList<>();
+        for (final String prefix : List.of("SDOH_QEadmin", "SDOH_ScreeningProf", "SDOH_ScreeningObs",
+                "SDOH_PtInfo")) {
+            files.add(Paths.get(getClass().getClassLoader().getResource(FIXTURES + prefix + GROUP).toURI())
+                    .toString());
+        }
+
+        final List<String> command = new ArrayList<>(List.of("python3", script.toString(), spec.toString()));
+        command.addAll(files);
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        final String forkedOutput = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(0, process.waitFor());
+
+        pool = new PythonValidationWorkerPool(List.of("python3",
+                script.resolveSibling(PythonValidationWorkerPool.WORKER_SCRIPT).toString(), script.toString(),
+                spec.toString()), true, 1, 1, Duration.ofMinutes(5), 1000, Duration.ofMinutes(1));
+        final String pooledOutput = pool.validate(files, "group-1");
+
+        final ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.readTree(forkedOutput).path("report").path("valid"),
+                mapper.readTree(pooledOutput).path("report").path("valid"));
+    }
+
+    private static boolean python(final String code) {
+        try {
+            final Process process = new ProcessBuilder("python3", "-c", code).redirectErrorStream(true).start();
+            return process.waitFor(30, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
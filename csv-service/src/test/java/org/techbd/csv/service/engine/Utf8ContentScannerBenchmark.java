@@ -0,0 +1,108 @@
+package org.techbd.csv.service.engine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Time and allocation of checking a screening observation file for malformed UTF-8 and disallowed characters:
+ * decoding it to a String and checking every char, against {@link Utf8ContentScanner} on the mapped file. Not a unit
+ * test; run with
+ *
+ * <pre>
+ * mvn -pl csv-service test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.techbd.csv.service.engine.Utf8ContentScannerBenchmark [-Dexec.args="-p megabytes=20"]
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+public class Utf8ContentScannerBenchmark {
+
+    private static final FileProcessor.ValidationConfig CONFIG = new FileProcessor.ValidationConfig();
+    private static final String HEADER = "PATIENT_MR_ID_VALUE,FACILITY_ID,ENCOUNTER_ID,SCREENING_CODE,QUESTION_CODE,"
+            + "QUESTION_CODE_DESCRIPTION,ANSWER_CODE,ANSWER_CODE_DESCRIPTION";
+    private static final String ASCII_ROW = "11223344,CUMC,Encounter%d,96777-8,71802-3,"
+            + "\"Housing status\",LA31993-1,\"I have housing\"";
+    private static final String MIXED_ROW = "11223344,CUMC,Encounter%d,96777-8,71802-3,"
+            + "\"Situación de vivienda\",LA31993-1,\"Tengo vivienda — José Núñez\"";
+
+    @Param({ "20", "200" })
+    public int megabytes;
+
+    @Param({ "ascii", "mixed" })
+    public String content;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final String row = "ascii".equals(content) ? ASCII_ROW : MIXED_ROW;
+        file = Files.createTempFile("SDOH_ScreeningObs_benchmark", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.write("\r\n");
+            long written = 0;
+            for (int i = 0; written < megabytes * 1024L * 1024; i++) {
+                final String line = row.formatted(i) + "\r\n";
+                writer.write(line);
+                written += line.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public String decodeAndCheckChars() throws IOException {
+        final String decoded = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)
+                .decode(ByteBuffer.wrap(Files.readAllBytes(file)))
+                .toString();
+        return FileProcessor.validateContentDynamic(decoded, CONFIG);
+    }
+
+    @Benchmark
+    public Utf8ContentScanner.Result scanBytes() throws IOException {
+        return Utf8ContentScanner.scan(file, CONFIG);
+    }
+
+    public static void main(String[] args) throws Exception {
+        final var options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(Utf8ContentScannerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,131 @@
+package org.techbd.csv.service.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class Utf8ContentScannerTest {
+
+    private static final FileProcessor.ValidationConfig CONFIG = new FileProcessor.ValidationConfig();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCleanContentIsValid() throws IOException {
+        final Utf8ContentScanner.Result result = scanFile(utf8("PATIENT_MR_ID_VALUE,NAME\r\n11223344,José\t\"Zoë\"\n"));
+
+        assertTrue(result.isValid());
+        assertNull(result.encodingError());
+        assertNull(result.contentReason());
+    }
+
+    @Test
+    void testIssuesMatchTheStringCheck() throws IOException {
+        final List<String> contents = List.of(
+                "a,b\nc\u0000d,e\u0007\n",
+                "name\u00A0with nbsp,zero\u200Bwidth,bom\uFEFFinside\n",
+                "emoji 😀 and nonchar \uFFFE and \uFDD0\n",
+                "del\u007F".repeat(12) + "\u0085 next line\n",
+                "\uFEFFleading bom then vertical\u000Btab\n");
+        for (final String content : contents) {
+            final String expected = FileProcessor.validateContentDynamic(content.replaceFirst("^\uFEFF", ""), CONFIG);
+            for (final int chunk : new int[] { 1, 2, 3, 5, Integer.MAX_VALUE }) {
+                final Utf8ContentScanner.Result result = scanInChunks(utf8(content), chunk);
+                assertTrue(result.utf8Encoded());
+                assertEquals(expected, result.contentReason(), content);
+            }
+            assertEquals(expected, scanFile(utf8(content)).contentReason());
+        }
+    }
+
+    @Test
+    void testMalformedUtf8MatchesTheStrictDecoder() throws IOException {
+        final List<byte[]> inputs = List.of(
+                bytes(0x61, 0x80, 0x62),
+                bytes(0x61, 0xC0, 0xAF),
+                bytes(0x61, 0xE0, 0x80, 0x80),
+                bytes(0x61, 0xED, 0xA0, 0x80, 0x61),
+                bytes(0x61, 0xE2, 0x82),
+                bytes(0x61, 0xF0, 0x9F, 0x98),
+                bytes(0x61, 0xF4, 0x90, 0x80, 0x80),
+                bytes(0x61, 0xF5, 0x80, 0x80, 0x80),
+                bytes(0x61, 0xFF),
+                "PatientMRN,FirstName\n123,José".getBytes(StandardCharsets.ISO_8859_1));
+        for (final byte[] input : inputs) {
+            final String expected = strictDecodeError(input);
+            for (final int chunk : new int[] { 1, 2, 3, Integer.MAX_VALUE }) {
+                final Utf8ContentScanner.Result result = scanInChunks(input, chunk);
+                assertEquals(expected, result.encodingError());
+                assertNull(result.contentReason());
+            }
+            assertEquals(expected, scanFile(input).encodingError());
+        }
+    }
+
+    @Test
+    void testLargeMixedContentAcrossChunks() throws IOException {
+        final String[] pieces = { "11223344", ",", "\n", "\r\n", "\t", "José", "日本語", "😀", "\u00A0", "\u0001",
+                "\"quoted, value\"", "Encounter" };
+        final Random random = new Random(42);
+        final StringBuilder content = new StringBuilder();
+        while (content.length() < 300_000) {
+            content.append(pieces[random.nextInt(pieces.length)]);
+        }
+        final String expected = FileProcessor.validateContentDynamic(content.toString(), CONFIG);
+
+        assertEquals(expected, scanFile(utf8(content.toString())).contentReason());
+        assertEquals(expected, scanInChunks(utf8(content.toString()), 4093).contentReason());
+        assertTrue(expected.contains("(and 5 more)"));
+    }
+
+    private Utf8ContentScanner.Result scanFile(final byte[] bytes) throws IOException {
+        final Path file = Files.write(tempDir.resolve("SDOH_PtInfo_test.csv"), bytes);
+        return Utf8ContentScanner.scan(file, CONFIG);
+    }
+
+    private static Utf8ContentScanner.Result scanInChunks(final byte[] bytes, final int chunk) {
+        final Utf8ContentScanner scanner = new Utf8ContentScanner(CONFIG);
+        for (int offset = 0; offset < bytes.length; offset += chunk) {
+            scanner.feed(bytes, offset, Math.min(chunk, bytes.length - offset));
+        }
+        return scanner.finish();
+    }
+
+    private static String strictDecodeError(final byte[] bytes) {
+        try {
+            StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(bytes));
+            return null;
+        } catch (CharacterCodingException e) {
+            return "Invalid UTF-8 encoding: " + e.getMessage();
+        }
+    }
+
+    private static byte[] bytes(final int... values) {
+        final byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    private static byte[] utf8(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
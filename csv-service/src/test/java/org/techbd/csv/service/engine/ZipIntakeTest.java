@@ -0,0 +1,179 @@
+package org.techbd.csv.service.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.techbd.csv.model.FileDetail;
+import org.techbd.csv.model.FileType;
+
+class ZipIntakeTest {
+
+    private static final ZipIntake.Limits LIMITS = new ZipIntake.Limits(100, 16 * 1024 * 1024, 64 * 1024 * 1024,
+            100);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEntriesAreWrittenAndGrouped() throws IOException {
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("upload/SDOH_PtInfo_group1.csv", utf8("PATIENT_MR_ID_VALUE\n11223344\n"));
+        entries.put("upload/SDOH_QEadmin_group1.csv", utf8("PATIENT_MR_ID_VALUE\n11223344\n"));
+        entries.put("upload/SDOH_ScreeningProf_group1.csv", utf8("ENCOUNTER_ID\nEncounterExample\n"));
+        entries.put("upload/SDOH_ScreeningObs_group1.csv", utf8("ENCOUNTER_ID\nEncounterExample\n"));
+        entries.put("upload/README.txt", utf8("not a csv"));
+        entries.put("upload/.DS_Store", utf8("hidden"));
+        entries.put("upload/INVALID_FILE_group1.csv", utf8("invalid data"));
+
+        final ZipIntake.ZipContents contents = extract(entries, LIMITS);
+
+        assertEquals(6, contents.totalNumberOfFiles());
+        final List<FileDetail> group = contents.groupedFiles().get("_group1");
+        assertEquals(4, group.size());
+        final FileDetail patient = group.stream().filter(fd -> fd.fileType() == FileType.SDOH_PtInfo).findFirst()
+                .orElseThrow();
+        assertEquals("PATIENT_MR_ID_VALUE\n11223344\n", patient.content());
+        assertEquals(tempDir.resolve("SDOH_PtInfo_group1.csv").toAbsolutePath().toString(), patient.filePath());
+        assertEquals("not a csv", Files.readString(tempDir.resolve("README.txt")));
+
+        final List<FileDetail> notProcessed = contents.groupedFiles().get("filesNotProcessed");
+        assertEquals(1, notProcessed.size());
+        assertTrue(notProcessed.get(0).reason().startsWith("Invalid file prefix: "));
+    }
+
+    @Test
+    void testByteOrderMarkIsDroppedAndInvalidUtf8IsReported() throws IOException {
+        final byte[] latin1 = "PatientMRN,FirstName\n123,José".getBytes(StandardCharsets.ISO_8859_1);
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("SDOH_PtInfo_group1.csv", utf8("\uFEFFPATIENT_MR_ID_VALUE\n11223344\n"));
+        entries.put("SDOH_PtInfo_group2.csv", latin1);
+
+        final ZipIntake.ZipContents contents = extract(entries, LIMITS);
+
+        assertEquals("PATIENT_MR_ID_VALUE\n11223344\n", contents.groupedFiles().get("_group1").get(0).content());
+        final FileDetail invalid = contents.groupedFiles().get("filesNotProcessed").get(0);
+        assertEquals("SDOH_PtInfo_group2.csv", invalid.filename());
+        assertNull(invalid.content());
+        assertTrue(invalid.reason().contains("UTF-8"), invalid.reason());
+        // the file is still written as uploaded
+        assertTrue(Arrays.equals(latin1, Files.readAllBytes(tempDir.resolve("SDOH_PtInfo_group2.csv"))));
+    }
+
+    @Test
+    void testMultiByteCharactersAcrossBufferBoundaries() throws IOException {
+        final String row = "11223344,Zoë,Núñez,日本語\n";
+        final String content = "PATIENT_MR_ID_VALUE,FIRST,LAST,NOTE\n" + row.repeat(20_000);
+
+        final ZipIntake.ZipContents contents = extract(Map.of("SDOH_PtInfo_group1.csv", utf8(content)), LIMITS);
+
+        assertEquals(content, contents.groupedFiles().get("_group1").get(0).content());
+    }
+
+    @Test
+    void testLaterEntryWithTheSameNameWins() throws IOException {
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("first/SDOH_PtInfo_group1.csv", utf8("first"));
+        entries.put("second/SDOH_PtInfo_group1.csv", utf8("second"));
+
+        final ZipIntake.ZipContents contents = extract(entries, LIMITS);
+
+        assertEquals(1, contents.totalNumberOfFiles());
+        assertEquals("second", contents.groupedFiles().get("_group1").get(0).content());
+        assertEquals("second", Files.readString(tempDir.resolve("SDOH_PtInfo_group1.csv")));
+    }
+
+    @Test
+    void testHighlyCompressedEntryIsRejected() {
+        final Map<String, byte[]> entries = Map.of("SDOH_PtInfo_group1.csv", new byte[8 * 1024 * 1024]);
+
+        assertThrows(ZipIntake.ZipLimitExceededException.class, () -> extract(entries, LIMITS));
+    }
+
+    @Test
+    void testEntrySizeTotalSizeAndEntryCountAreLimited() {
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("SDOH_PtInfo_group1.csv", utf8("a".repeat(4096)));
+        entries.put("SDOH_QEadmin_group1.csv", utf8("b".repeat(4096)));
+        entries.put("SDOH_ScreeningProf_group1.csv", utf8("c".repeat(4096)));
+
+        assertThrows(ZipIntake.ZipLimitExceededException.class,
+                () -> extract(entries, new ZipIntake.Limits(100, 1024, 1024 * 1024, 100)));
+        assertThrows(ZipIntake.ZipLimitExceededException.class,
+                () -> extract(entries, new ZipIntake.Limits(100, 1024 * 1024, 10_000, 100)));
+        assertThrows(ZipIntake.ZipLimitExceededException.class,
+                () -> extract(entries, new ZipIntake.Limits(2, 1024 * 1024, 1024 * 1024, 100)));
+    }
+
+    @Test
+    void testForgedDeclaredSizeIsRejectedBeforeReading() throws IOException {
+        // a small deflated entry whose local header claims almost 2 GB uncompressed
+        final byte[] name = utf8("SDOH_PtInfo_group1.csv");
+        final byte[] data = utf8("PATIENT_MR_ID_VALUE\n11223344\n");
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(data);
+        deflater.finish();
+        final byte[] deflated = new byte[256];
+        final int deflatedLength = deflater.deflate(deflated);
+        deflater.end();
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        final ByteBuffer header = ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(0x04034b50)
+                .putShort((short) 20)
+                .putShort((short) 0)
+                .putShort((short) ZipEntry.DEFLATED)
+                .putInt(0)
+                .putInt((int) crc.getValue())
+                .putInt(deflatedLength)
+                .putInt(Integer.MAX_VALUE - 16)
+                .putShort((short) name.length)
+                .putShort((short) 0);
+        final ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        zip.write(header.array());
+        zip.write(name);
+        zip.write(deflated, 0, deflatedLength);
+
+        final ZipIntake.ZipLimitExceededException exception = assertThrows(
+                ZipIntake.ZipLimitExceededException.class,
+                () -> new ZipIntake(LIMITS).extract(new ByteArrayInputStream(zip.toByteArray()), tempDir, "test"));
+        assertTrue(exception.getMessage().contains("declares"), exception.getMessage());
+    }
+
+    private ZipIntake.ZipContents extract(final Map<String, byte[]> entries, final ZipIntake.Limits limits)
+            throws IOException {
+        final ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(zip)) {
+            for (final Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                out.putNextEntry(new ZipEntry(entry.getKey()));
+                out.write(entry.getValue());
+                out.closeEntry();
+            }
+        }
+        return new ZipIntake(limits).extract(new ByteArrayInputStream(zip.toByteArray()), tempDir, "test");
+    }
+
+    private static byte[] utf8(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
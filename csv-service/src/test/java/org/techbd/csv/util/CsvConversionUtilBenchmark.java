@@ -0,0 +1,105 @@
+package org.techbd.csv.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.techbd.csv.model.ScreeningObservationData;
+
+/**
+ * Time and allocation of parsing a screening observation file of 10k to 1M
+ * rows into rows grouped by encounter, from a file and from content already in
+ * memory. Not a unit test; run with
+ *
+ * <pre>
+ * mvn -pl csv-service test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.techbd.csv.util.CsvConversionUtilBenchmark [-Dexec.args="-p rows=10000"]
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+public class CsvConversionUtilBenchmark {
+
+    private static final String FIXTURE = "org/techbd/csv/data/latestResources/SDOH_ScreeningObs_CareRidgeSCN_testcase1_20250312040214.csv";
+    private static final int ROWS_PER_ENCOUNTER = 10;
+
+    @Param({ "10000", "100000", "1000000" })
+    public int rows;
+
+    private Path file;
+    private String content;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final List<String> lines;
+        try (InputStream in = CsvConversionUtilBenchmark.class.getClassLoader().getResourceAsStream(FIXTURE)) {
+            lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+        final String header = lines.get(0);
+        final List<String> samples = lines.subList(1, lines.size());
+        file = Files.createTempFile("SDOH_ScreeningObs_benchmark", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(header);
+            writer.newLine();
+            for (int i = 0; i < rows; i++) {
+                // give every ROWS_PER_ENCOUNTER rows their own encounter so the grouping has work to do
+                writer.write(samples.get(i % samples.size()).replace("EncounterExample",
+                        "Encounter" + (i / ROWS_PER_ENCOUNTER)));
+                writer.newLine();
+            }
+        }
+        content = Files.readString(file, StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Map<String, List<ScreeningObservationData>> fromFile() throws IOException {
+        return CsvConversionUtil.convertCsvFileToObjectMap(file, ScreeningObservationData.class, ',', "encounterId",
+                "benchmark", "benchmark");
+    }
+
+    @Benchmark
+    public Map<String, List<ScreeningObservationData>> fromString() {
+        return CsvConversionUtil.convertCsvStringToScreeningObservationData(content, "benchmark", "benchmark");
+    }
+
+    public static void main(String[] args) throws Exception {
+        final var options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(CsvConversionUtilBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
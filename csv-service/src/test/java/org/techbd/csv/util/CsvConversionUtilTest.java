@@ -0,0 +1,89 @@
+package org.techbd.csv.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.techbd.csv.model.QeAdminData;
+import org.techbd.csv.model.ScreeningObservationData;
+
+class CsvConversionUtilTest {
+
+    private static final String OBSERVATIONS = """
+            PATIENT_MR_ID_VALUE,ENCOUNTER_ID,QUESTION_CODE,ANSWER_CODE_DESCRIPTION
+            11223344,  EncounterExample ,71802-3,"Yes, I am worried"
+            11223344,EncounterExample,96778-6,Never true
+            55667788,OtherEncounter,88122-7,"Often
+            true"
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRowsAreGroupedAndTrimmed() throws Exception {
+        final Map<String, List<ScreeningObservationData>> grouped = CsvConversionUtil.convertCsvStringToObjectMap(
+                OBSERVATIONS, ScreeningObservationData.class, ',', "encounterId", "test", "0.0.0");
+
+        assertEquals(2, grouped.size());
+        final List<ScreeningObservationData> encounter = grouped.get("EncounterExample");
+        assertEquals(2, encounter.size());
+        assertEquals("71802-3", encounter.get(0).getQuestionCode());
+        assertEquals("Yes, I am worried", encounter.get(0).getAnswerCodeDescription());
+        assertEquals("96778-6", encounter.get(1).getQuestionCode());
+        assertEquals("Often\ntrue", grouped.get("OtherEncounter").get(0).getAnswerCodeDescription());
+        assertNull(encounter.get(0).getFacilityId());
+    }
+
+    @Test
+    void testFileWithByteOrderMarkIsStreamed() throws Exception {
+        final Path file = tempDir.resolve("SDOH_ScreeningObs_test.csv");
+        Files.write(file, ("\uFEFF" + OBSERVATIONS.replace("\n", "\r\n")).getBytes(StandardCharsets.UTF_8));
+
+        final Map<String, List<ScreeningObservationData>> fromFile = CsvConversionUtil.convertCsvFileToObjectMap(
+                file, ScreeningObservationData.class, ',', "encounterId", "test", "0.0.0");
+
+        assertEquals(2, fromFile.get("EncounterExample").size());
+        assertEquals("11223344", fromFile.get("EncounterExample").get(0).getPatientMrIdValue());
+        assertEquals("Often\ntrue", fromFile.get("OtherEncounter").get(0).getAnswerCodeDescription());
+    }
+
+    @Test
+    void testMalformedAndBlankRowsAreSkipped() throws Exception {
+        final String csv = """
+                PATIENT_MR_ID_VALUE,FACILITY_ID,facility_name
+                11223344,CUMC,Care Ridge SCN
+
+                11223344,too,many,cells
+                55667788,CUMC,Other
+                """;
+
+        final Map<String, List<QeAdminData>> grouped = CsvConversionUtil.convertCsvStringToQeAdminData(csv, "test",
+                "0.0.0");
+
+        assertEquals(List.of("11223344", "55667788"), grouped.keySet().stream().sorted().toList());
+        assertEquals(1, grouped.get("11223344").size());
+        assertEquals("Care Ridge SCN", grouped.get("11223344").get(0).getFacilityName());
+    }
+
+    @Test
+    void testMissingGroupValueIsRejected() {
+        final String csv = """
+                FACILITY_ID,FACILITY_NAME
+                CUMC,Care Ridge SCN
+                """;
+
+        final IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> CsvConversionUtil.convertCsvStringToQeAdminData(csv, "test", "0.0.0"));
+        assertTrue(error.getMessage().contains("patientMrIdValue"));
+    }
+}
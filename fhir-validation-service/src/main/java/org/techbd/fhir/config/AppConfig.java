@@ -32,6 +32,8 @@ public class AppConfig {
     public static class FhirV4Config {
         private Map<String, Map<String, String>> shinnyPackages;
         private Map<String, String> basePackages;
+        private String snapshotCachePath;
+        private boolean snapshotCacheEnabled = true;
     }
 
     public record CsvValidation(Validation validation) {
@@ -0,0 +1,28 @@
+package org.techbd.fhir.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.LenientErrorHandler;
+
+@Configuration
+public class FhirContextConfig {
+
+    /**
+     * The one R4 {@link FhirContext} of the application. Creating a context
+     * scans the R4 model classes, so it is built once and injected wherever
+     * bundles are parsed, encoded or validated. The context is thread safe once
+     * configured; parsers created from it are cheap but not thread safe, so
+     * callers create one per use or keep one per thread. It is a context of
+     * its own rather than {@link FhirContext#forR4Cached()}, the JVM-wide one,
+     * so that the lenient error handler does not change how libraries using
+     * the cached context parse.
+     */
+    @Bean
+    public FhirContext fhirContext() {
+        final FhirContext fhirContext = FhirContext.forR4();
+        fhirContext.setParserErrorHandler(new LenientErrorHandler());
+        return fhirContext;
+    }
+}
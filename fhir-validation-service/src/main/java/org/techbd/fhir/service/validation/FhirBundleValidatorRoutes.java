@@ -0,0 +1,105 @@
+package org.techbd.fhir.service.validation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable routing table from bundle profile base URL (and IG version) to the
+ * {@link FhirBundleValidator} that should validate it.
+ * <p>
+ * Instances are never mutated; {@link #withValidator(FhirBundleValidator)}
+ * returns a new table so that callers can publish it atomically (for example
+ * through an {@code AtomicReference}) and request threads always read a
+ * consistent snapshot without locking.
+ */
+public final class FhirBundleValidatorRoutes {
+
+    private static final String STRUCTURE_DEFINITION_SEGMENT = "/StructureDefinition/";
+    private static final FhirBundleValidatorRoutes EMPTY = new FhirBundleValidatorRoutes(List.of());
+
+    private final List<FhirBundleValidator> validators;
+    private final Map<String, List<FhirBundleValidator>> byBaseUrl;
+    private final Map<String, FhirBundleValidator> byBaseUrlAndIgVersion;
+
+    private FhirBundleValidatorRoutes(final List<FhirBundleValidator> validators) {
+        final Map<String, List<FhirBundleValidator>> baseUrlIndex = new LinkedHashMap<>();
+        final Map<String, FhirBundleValidator> versionIndex = new LinkedHashMap<>();
+        for (FhirBundleValidator validator : validators) {
+            baseUrlIndex.computeIfAbsent(validator.getBaseFHIRUrl(), k -> new ArrayList<>()).add(validator);
+            versionIndex.putIfAbsent(key(validator.getBaseFHIRUrl(), validator.getIgVersion()), validator);
+        }
+        baseUrlIndex.replaceAll((k, v) -> List.copyOf(v));
+        this.validators = List.copyOf(validators);
+        this.byBaseUrl = Collections.unmodifiableMap(baseUrlIndex);
+        this.byBaseUrlAndIgVersion = Collections.unmodifiableMap(versionIndex);
+    }
+
+    public static FhirBundleValidatorRoutes empty() {
+        return EMPTY;
+    }
+
+    public static FhirBundleValidatorRoutes of(final Collection<FhirBundleValidator> validators) {
+        return new FhirBundleValidatorRoutes(new ArrayList<>(validators));
+    }
+
+    /**
+     * Returns a new table that also routes to {@code validator}. If a validator
+     * for the same base URL and IG version is already registered this table is
+     * returned unchanged, so concurrent registrations of the same version are
+     * idempotent.
+     */
+    public FhirBundleValidatorRoutes withValidator(final FhirBundleValidator validator) {
+        if (byBaseUrlAndIgVersion.containsKey(key(validator.getBaseFHIRUrl(), validator.getIgVersion()))) {
+            return this;
+        }
+        final List<FhirBundleValidator> updated = new ArrayList<>(validators);
+        updated.add(validator);
+        return new FhirBundleValidatorRoutes(updated);
+    }
+
+    /**
+     * Finds the validator whose bundle profile URL equals {@code profileUrl}.
+     */
+    public FhirBundleValidator find(final String profileUrl) {
+        if (profileUrl == null) {
+            return null;
+        }
+        final var candidates = byBaseUrl.get(baseUrlOf(profileUrl));
+        if (candidates == null) {
+            return null;
+        }
+        for (FhirBundleValidator validator : candidates) {
+            if (profileUrl.equals(validator.getFhirProfileUrl())) {
+                return validator;
+            }
+        }
+        return null;
+    }
+
+    public FhirBundleValidator find(final String profileBaseUrl, final String igVersion) {
+        return byBaseUrlAndIgVersion.get(key(profileBaseUrl, igVersion));
+    }
+
+    public List<FhirBundleValidator> validators() {
+        return validators;
+    }
+
+    /**
+     * Strips the {@code /StructureDefinition/...} suffix from a profile URL.
+     */
+    public static String baseUrlOf(final String profileUrl) {
+        if (profileUrl == null) {
+            return null;
+        }
+        final int idx = profileUrl.indexOf(STRUCTURE_DEFINITION_SEGMENT);
+        return idx == -1 ? profileUrl : profileUrl.substring(0, idx);
+    }
+
+    private static String key(final String profileBaseUrl, final String igVersion) {
+        return profileBaseUrl + "|" + igVersion;
+    }
+}
@@ -12,12 +12,15 @@ import org.junit.jupiter.api.BeforeAll;
 import org.techbd.fhir.config.AppConfig;
 import org.techbd.fhir.config.AppConfig.FhirV4Config;
 import org.techbd.fhir.service.engine.OrchestrationEngine;
+import org.techbd.fhir.service.validation.IgSnapshotCache;
 import org.techbd.fhir.service.validation.PostPopulateSupport;
 import org.techbd.fhir.service.validation.PrePopulateSupport;
 import org.techbd.corelib.util.AppLogger;
 import org.techbd.corelib.util.TemplateLogger;
 import org.techbd.fhir.util.FHIRUtil;
 
+import ca.uhn.fhir.context.FhirContext;
+
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanBuilder;
 import io.opentelemetry.api.trace.Tracer;
@@ -33,7 +36,7 @@ public abstract class BaseIgValidationTest {
 
     protected static Span span;
     
-    private static AppLogger appLogger;
+    protected static AppLogger appLogger;
     
     private static TemplateLogger templateLogger;
 
@@ -50,17 +53,18 @@ public abstract class BaseIgValidationTest {
         when(appLogger.getLogger(OrchestrationEngine.class)).thenReturn(templateLogger);
         when(appLogger.getLogger(PrePopulateSupport.class)).thenReturn(templateLogger);
         when(appLogger.getLogger(PostPopulateSupport.class)).thenReturn(templateLogger);
+        when(appLogger.getLogger(IgSnapshotCache.class)).thenReturn(templateLogger);
         when(tracer.spanBuilder(anyString())).thenReturn(spanBuilder);
         when(spanBuilder.startSpan()).thenReturn(span);
         when(appConfig.getIgPackages()).thenReturn(getIgPackages());
        // when(appConfig.getIgVersion()).thenReturn("1.3.0");
 
-        engine = new OrchestrationEngine(appConfig,appLogger);
+        engine = new OrchestrationEngine(appConfig,appLogger, FhirContext.forR4Cached());
         Field profileMapField = FHIRUtil.class.getDeclaredField("PROFILE_MAP");
         profileMapField.setAccessible(true);
         profileMapField.set(null, getProfileMap());
     }
-    private static Map<String, FhirV4Config> getIgPackages() {
+    protected static Map<String, FhirV4Config> getIgPackages() {
         final Map<String, FhirV4Config> igPackages = new HashMap<>();
         FhirV4Config fhirV4Config = new FhirV4Config();
 
@@ -31,6 +31,7 @@ public interface Constants {
     public static final String OBSERVABILITY_METRIC_INTERACTION_DURATION_NANOSECS = "X-Observability-Metric-Interaction-Duration-Nanosecs";
     public static final String OBSERVABILITY_METRIC_INTERACTION_DURATION_MILLISECS = "X-Observability-Metric-Interaction-Duration-Millisecs";
     public static final String FHIR_CONTENT_TYPE_HEADER_VALUE = "application/fhir+json";
+    public static final String FHIR_NDJSON_CONTENT_TYPE_HEADER_VALUE = "application/fhir+ndjson";
     public static final String USER_NAME = "USER_NAME";
     public static final String USER_ID = "USER_ID";
     public static final String USER_SESSION = "USER_SESSION";
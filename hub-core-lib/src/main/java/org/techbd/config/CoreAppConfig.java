@@ -31,6 +31,13 @@ public class CoreAppConfig {
     private String dataLedgerApiKeySecretName;
 
     private ProcessingAgentConfig processingAgent;
+    private FhirBundleJobConfig fhirBundleJobs = new FhirBundleJobConfig();
+    private FhirReplayConfig fhirReplay = new FhirReplayConfig();
+    private FhirBulkConfig fhirBulk = new FhirBulkConfig();
+    private ScoringEngineClientConfig scoringEngineClient = new ScoringEngineClientConfig();
+    private ScoringEngineForwardConfig scoringEngineForward = new ScoringEngineForwardConfig();
+    private DataLedgerClientConfig dataLedgerClient = new DataLedgerClientConfig();
+    private InteractionRegistrationConfig interactionRegistration = new InteractionRegistrationConfig();
 
     @Getter
     @Setter
@@ -40,11 +47,121 @@ public class CoreAppConfig {
         private List<String> tenantIds;
     }
 
+    /**
+     * Worker settings for asynchronous /Bundle submissions persisted in
+     * techbd_udi_ingress.fhir_bundle_job.
+     */
+    @Getter
+    @Setter
+    public static class FhirBundleJobConfig {
+        private boolean workerEnabled = true;
+        private int workerThreads = 4;
+        private long pollIntervalMs = 1000;
+        private int maxAttempts = 3;
+        private int claimTimeoutSeconds = 900;
+    }
+
+    /**
+     * Worker settings for replaying failed forwards recorded in
+     * techbd_udi_ingress.fhir_replay_details.
+     */
+    @Getter
+    @Setter
+    public static class FhirReplayConfig {
+        private boolean workerEnabled = true;
+        private int maxConcurrency = 4;
+        private long pollIntervalMs = 5000;
+        private double ratePerSecond = 10;
+        private int burst = 10;
+        private int claimTimeoutSeconds = 900;
+        private int maxAgeHours = 72;
+    }
+
+    /**
+     * Settings for NDJSON bulk bundle ingestion.
+     */
+    @Getter
+    @Setter
+    public static class FhirBulkConfig {
+        private int parallelism = 4;
+        private int batchSize = 100;
+    }
+
+    /**
+     * Pooled WebClients and cached key material used to forward bundles to the
+     * scoring engine.
+     */
+    @Getter
+    @Setter
+    public static class ScoringEngineClientConfig {
+        private long secretTtlSeconds = 300;
+        private String secretsManagerRegion = "us-east-1";
+        private String secretsManagerEndpoint;
+        private int maxConnections = 50;
+        private long pendingAcquireTimeoutSeconds = 45;
+        private long maxIdleTimeSeconds = 60;
+        private long maxLifeTimeSeconds = 600;
+        private long responseTimeoutSeconds = 120;
+    }
+
+    /**
+     * In-flight limit, retry and circuit breaker settings for forwards to the
+     * scoring engine.
+     */
+    @Getter
+    @Setter
+    public static class ScoringEngineForwardConfig {
+        private int maxInFlightPerTenant = 64;
+        private int maxQueuedPerTenant = 1000;
+        private long queueTimeoutMs = 60000;
+        private int maxRetries = 5;
+        private long initialBackoffMs = 200;
+        private long maxBackoffMs = 10000;
+        private double jitter = 0.5;
+        private List<Integer> retryableStatusCodes = List.of(429, 502, 503);
+        private int circuitFailureThreshold = 20;
+        private long circuitOpenSeconds = 30;
+    }
+
+    /**
+     * Queueing, batching and connection settings for DataLedger event
+     * submission.
+     */
+    @Getter
+    @Setter
+    public static class DataLedgerClientConfig {
+        private int queueCapacity = 10000;
+        private int batchSize = 50;
+        private long lingerMs = 50;
+        private int maxConcurrentRequests = 16;
+        private String batchApiUrl;
+        private long requestTimeoutSeconds = 30;
+        private long apiKeyTtlSeconds = 300;
+        private long shutdownTimeoutSeconds = 10;
+    }
+
+    /**
+     * Write-behind settings for register_interaction_* state transitions.
+     */
+    @Getter
+    @Setter
+    public static class InteractionRegistrationConfig {
+        private boolean writeBehind = false;
+        private boolean durableBeforeAck = false;
+        private int partitions = 4;
+        private int batchSize = 50;
+        private long lingerMs = 20;
+        private int queueCapacity = 1000;
+        private long durableTimeoutSeconds = 30;
+    }
+
     @Getter
     @Setter
     public static class FhirV4Config {
         private Map<String, Map<String, String>> shinnyPackages;
         private Map<String, String> basePackages;
+        private String snapshotCachePath;
+        private boolean snapshotCacheEnabled = true;
     }
 
     public record DefaultDataLakeApiAuthn(String mTlsStrategy,
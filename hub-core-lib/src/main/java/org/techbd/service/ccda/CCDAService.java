@@ -5,8 +5,6 @@ import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.Map;
 
-import org.jooq.DSLContext;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.techbd.config.Configuration;
@@ -15,6 +13,7 @@ import org.techbd.config.CoreAppConfig;
 import org.techbd.config.Nature;
 import org.techbd.config.SourceType;
 import org.techbd.config.State;
+import org.techbd.service.interaction.InteractionRegistrationWriter;
 import org.techbd.udi.auto.jooq.ingress.routines.RegisterInteractionCcdaRequest;
 import org.techbd.util.AppLogger;
 import org.techbd.util.TemplateLogger;
@@ -34,12 +33,12 @@ import com.fasterxml.jackson.databind.JsonNode;
 
  @Service
 public class CCDAService {
-    private final DSLContext primaryDslContext;
+    private final InteractionRegistrationWriter interactionRegistrationWriter;
     private final TemplateLogger logger;
     private final CoreAppConfig coreAppConfig;
 
-    public CCDAService(@Qualifier("primaryDslContext") final DSLContext primaryDslContext, AppLogger appLogger, CoreAppConfig coreAppConfig) {
-        this.primaryDslContext = primaryDslContext;
+    public CCDAService(InteractionRegistrationWriter interactionRegistrationWriter, AppLogger appLogger, CoreAppConfig coreAppConfig) {
+        this.interactionRegistrationWriter = interactionRegistrationWriter;
         this.logger = appLogger.getLogger(CCDAService.class);
         this.coreAppConfig = coreAppConfig;
     }
@@ -55,7 +54,6 @@ public class CCDAService {
                     "tenant_id", tenantId);
             JsonNode natureNode = Configuration.objectMapper.valueToTree(natureMap);
             JsonNode payloadNode = Configuration.objectMapper.valueToTree(operationOutcome);
-            var jooqCfg = primaryDslContext.configuration();
             var rihr = new RegisterInteractionCcdaRequest();
             rihr.setPInteractionId(interactionId);
             rihr.setPInteractionKey(requestUri);
@@ -75,18 +73,16 @@ public class CCDAService {
             rihr.setPClientIpAddress(clientIpAddress);
             rihr.setPCcdaAuthoringDevice(sourceSystem);
             final Instant start = Instant.now();
-            final int result = rihr.execute(jooqCfg);
+            final JsonNode responseFromDB = interactionRegistrationWriter.registerDurably(interactionId, rihr);
             final Instant end = Instant.now();
-            final JsonNode responseFromDB = rihr.getReturnValue();
             final Map<String, Object> responseAttributes = CoreFHIRUtil.extractFields(responseFromDB);
             logger.info(
-                    "CCDAService -saveOriginalCcdaPayload : END  result: {}, timeTaken: {} ms, error: {}, interaction_id : {} hub_nexus_interaction_id: {}",
-                    result,
+                    "CCDAService -saveOriginalCcdaPayload : END  timeTaken: {} ms, error: {}, interaction_id : {} hub_nexus_interaction_id: {}",
                     Duration.between(start, end).toMillis(),
                     responseAttributes.getOrDefault(Constants.KEY_ERROR, "N/A"),
                     interactionId,
                     responseAttributes.getOrDefault(Constants.KEY_HUB_NEXUS_INTERACTION_ID, "N/A"));
-            return result >= 0;
+            return true;
         } catch (Exception e) {
             logger.error("Error saving original CCDA payload for interactionId: {}", interactionId, e);
             return false;
@@ -115,7 +111,6 @@ public class CCDAService {
                     "tenant_id", tenantId);
             JsonNode natureNode = Configuration.objectMapper.valueToTree(natureMap);
             JsonNode payloadNode = Configuration.objectMapper.valueToTree(operationOutcome);
-            var jooqCfg = primaryDslContext.dsl().configuration();
             var rihr = new RegisterInteractionCcdaRequest();
             rihr.setPInteractionId(interactionId);
             rihr.setPInteractionKey(requestUri);
@@ -135,19 +130,17 @@ public class CCDAService {
             rihr.setPClientIpAddress(clientIpAddress);
             rihr.setPCcdaAuthoringDevice(sourceSystem);
             final Instant start = Instant.now();
-            final int result = rihr.execute(jooqCfg);
+            final JsonNode responseFromDB = interactionRegistrationWriter.registerDurably(interactionId, rihr);
             final Instant end = Instant.now();
-            final JsonNode responseFromDB = rihr.getReturnValue();
             final Map<String, Object> responseAttributes = CoreFHIRUtil.extractFields(responseFromDB);
 
             logger.info(
-                    "CCDAService -saveValidation END | result: {}, timeTaken: {} ms, error: {}, hub_nexus_interaction_id: {}",
-                    result,
+                    "CCDAService -saveValidation END | timeTaken: {} ms, error: {}, hub_nexus_interaction_id: {}",
                     Duration.between(start, end).toMillis(),
                     responseAttributes.getOrDefault(Constants.KEY_ERROR, "N/A"),
                     responseAttributes.getOrDefault(Constants.KEY_HUB_NEXUS_INTERACTION_ID, "N/A"));
 
-            return result >= 0;
+            return true;
         } catch (Exception e) {
             logger.error("Error saving CCDA validation for interactionId: {}", interactionId, e);
             return false;
@@ -177,7 +170,6 @@ public class CCDAService {
                     "tenant_id", tenantId);
             JsonNode natureNode = Configuration.objectMapper.valueToTree(natureMap);
             JsonNode bundleNode = Configuration.objectMapper.valueToTree(bundle);
-            var jooqCfg = primaryDslContext.configuration();
             var rihr = new RegisterInteractionCcdaRequest();
             rihr.setPInteractionId(interactionId);
             rihr.setPInteractionKey(requestUri);
@@ -197,17 +189,15 @@ public class CCDAService {
             rihr.setPClientIpAddress(clientIpAddress);
             rihr.setPCcdaAuthoringDevice(sourceSystem);
             final Instant start = Instant.now();
-            final int result = rihr.execute(jooqCfg);
+            final JsonNode responseFromDB = interactionRegistrationWriter.registerDurably(interactionId, rihr);
             final Instant end = Instant.now();
-            final JsonNode responseFromDB = rihr.getReturnValue();
             final Map<String, Object> responseAttributes = CoreFHIRUtil.extractFields(responseFromDB);
             logger.info(
-                    "CCDAService - saveFhirConversionResult : END | result: {}, timeTaken: {} ms, error: {}, hub_nexus_interaction_id: {}",
-                    result,
+                    "CCDAService - saveFhirConversionResult : END | timeTaken: {} ms, error: {}, hub_nexus_interaction_id: {}",
                     Duration.between(start, end).toMillis(),
                     responseAttributes.getOrDefault(Constants.KEY_ERROR, "N/A"),
                     responseAttributes.getOrDefault(Constants.KEY_HUB_NEXUS_INTERACTION_ID, "N/A"));
-            return result >= 0;
+            return true;
         } catch (Exception e) {
             logger.error("Error saving FHIR conversion result for interactionId: {}", interactionId, e);
             return false;
@@ -238,7 +228,6 @@ public class CCDAService {
                     "tenant_id", tenantId);
             JsonNode natureNode = Configuration.objectMapper.valueToTree(natureMap);
             JsonNode payloadNode = Configuration.objectMapper.valueToTree(operationOutcome);
-            var jooqCfg = primaryDslContext.configuration();
             var rihr = new RegisterInteractionCcdaRequest();
             rihr.setPInteractionId(interactionId);
             rihr.setPInteractionKey(requestUri);
@@ -257,19 +246,16 @@ public class CCDAService {
             rihr.setPClientIpAddress(clientIpAddress);
             rihr.setPCcdaAuthoringDevice(sourceSystem);
             final Instant start = Instant.now();
-            final int result = rihr.execute(jooqCfg);
+            final JsonNode responseFromDB = interactionRegistrationWriter.registerDurably(interactionId, rihr);
             final Instant end = Instant.now();
-
-            final JsonNode responseFromDB = rihr.getReturnValue();
             final Map<String, Object> responseAttributes = CoreFHIRUtil.extractFields(responseFromDB);
 
             logger.info(
-                    "CCDAService -saveCcdaValidation : END | result: {}, timeTaken: {} ms, error: {}, hub_nexus_interaction_id: {}",
-                    result,
+                    "CCDAService -saveCcdaValidation : END | timeTaken: {} ms, error: {}, hub_nexus_interaction_id: {}",
                     Duration.between(start, end).toMillis(),
                     responseAttributes.getOrDefault(Constants.KEY_ERROR, "N/A"),
                     responseAttributes.getOrDefault(Constants.KEY_HUB_NEXUS_INTERACTION_ID, "N/A"));
-            return result >= 0;
+            return true;
         } catch (Exception e) {
             logger.error("Error saving CCDA validation for interactionId: {}", interactionId, e);
             return false;
@@ -4,14 +4,24 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jooq.DSLContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,22 +34,80 @@ import org.techbd.util.TemplateLogger;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.RawValue;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.Getter;
 import lombok.Setter;
 
+/**
+ * Sends DataLedger events through one shared {@link HttpClient}, so that
+ * connections are kept alive and reused, from a bounded queue drained by a
+ * single dispatcher thread. {@link #processRequest} and {@link #sendRequestAsync}
+ * only enqueue, so callers never wait on the ledger API or on diagnostic writes.
+ * <p>
+ * When {@code org.techbd.data-ledger-client.batch-api-url} is set, queued
+ * events are coalesced into JSON array submissions of up to
+ * {@code batch-size} events; otherwise each event is posted individually with
+ * at most {@code max-concurrent-requests} requests in flight. When the queue
+ * is full new events are dropped and counted rather than blocking the caller.
+ */
 @Getter
 @Setter
 @Component
 public class CoreDataLedgerApiClient {
+    static final String METRIC_EVENTS = "techbd.dataledger.events";
+    static final String METRIC_QUEUE_SIZE = "techbd.dataledger.queue.size";
+    static final String METRIC_BATCH_SIZE = "techbd.dataledger.batch.size";
+
     private final HttpClient client = HttpClient.newHttpClient();
     private final org.techbd.config.CoreAppConfig appConfig;
     private final TemplateLogger LOG;
     private final DSLContext primaryDslContext;
-    public CoreDataLedgerApiClient(CoreAppConfig appConfig, @Qualifier("primaryDslContext") DSLContext primaryDslContext,AppLogger appLogger) {
+    private final CoreAppConfig.DataLedgerClientConfig clientConfig;
+    private final BlockingQueue<LedgerEvent> queue;
+    private final Semaphore inFlight;
+    private final Thread dispatcher;
+    private final MeterRegistry meterRegistry;
+    private volatile boolean running = true;
+    private volatile String apiKey;
+    private volatile long apiKeyExpiresAtNanos;
+
+    record LedgerEvent(String apiUrl, String jsonPayload, DataLedgerPayload payload, String interactionId,
+            String sourceHubInteractionId, String groupHubInteractionId, String action, String provenance,
+            String source, Map<String, Object> additionalDetails) {
+        /** Events sent through {@code sendRequestAsync} arrive as JSON and are embedded as is. */
+        Object body() {
+            return null != payload ? payload : new RawValue(jsonPayload);
+        }
+    }
+
+    @Autowired
+    public CoreDataLedgerApiClient(CoreAppConfig appConfig, @Qualifier("primaryDslContext") DSLContext primaryDslContext,
+            ObjectProvider<MeterRegistry> meterRegistry, AppLogger appLogger) {
+        this(appConfig, primaryDslContext, meterRegistry.getIfAvailable(SimpleMeterRegistry::new), appLogger);
+    }
+
+    CoreDataLedgerApiClient(CoreAppConfig appConfig, DSLContext primaryDslContext, MeterRegistry meterRegistry,
+            AppLogger appLogger) {
         this.appConfig = appConfig;
         this.primaryDslContext = primaryDslContext;
+        this.meterRegistry = meterRegistry;
         LOG = appLogger.getLogger(CoreDataLedgerApiClient.class);
+        this.clientConfig = Optional.ofNullable(appConfig.getDataLedgerClient())
+                .orElseGet(CoreAppConfig.DataLedgerClientConfig::new);
+        this.queue = new ArrayBlockingQueue<>(clientConfig.getQueueCapacity());
+        this.inFlight = new Semaphore(clientConfig.getMaxConcurrentRequests());
+        Gauge.builder(METRIC_QUEUE_SIZE, queue, BlockingQueue::size)
+                .description("DataLedger events waiting to be sent")
+                .register(meterRegistry);
+        this.dispatcher = new Thread(this::dispatch, "dataledger-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
     }
 
     public void processRequest(DataLedgerPayload dataLedgerPayload, String interactionId, String provenance,
@@ -63,23 +131,10 @@ public class CoreDataLedgerApiClient {
                             additionalDetails);
                 }
             }
-            try {
-                LOG.info("DataLedgerApiClient:: Sending to DataLedger BEGIN for interactionId: {}", interactionId);
-                sendRequestAsync(apiUrl, jsonPayload, interactionId, sourceHubInteractionId, groupHubInteractionId,
-                        dataLedgerPayload.action, provenance, source, additionalDetails);
-            } catch (Exception ex) {
-                LOG.error("DataLedgerApiClient:: Request failed for interactionId :{}  ", interactionId,
-                        ex.getMessage());
-                if (appConfig.isDataLedgerDiagnostics()) {
-                    processActionDiagnosticData(interactionId, apiUrl, jsonPayload, null,
-                            ex.getMessage() + "\n" + java.util.Arrays.stream(ex.getStackTrace())
-                                    .map(StackTraceElement::toString)
-                                    .collect(Collectors.joining("\n")),
-                            groupHubInteractionId, sourceHubInteractionId, dataLedgerPayload.action, provenance, source,
-                            additionalDetails);
-                }
-            }
-            LOG.info("DataLedgerApiClient:: Sending to DataLedger END for interactionId: {}", interactionId);
+            final var event = new LedgerEvent(apiUrl, jsonPayload, dataLedgerPayload, interactionId,
+                    sourceHubInteractionId, groupHubInteractionId, dataLedgerPayload.action, provenance, source,
+                    additionalDetails);
+            enqueue(event);
         } else {
             LOG.info(
                     "DataLedgerApiClient:: Sending to DataLedger is disabled via feature flag for interactionId: {}",
@@ -90,53 +145,175 @@ public class CoreDataLedgerApiClient {
     public void sendRequestAsync(String apiUrl, String jsonPayload, String interactionId, String sourceHubInteractionId,
             String groupHubInteractionId, String action, String provenance, String source,
             Map<String, Object> additionalDetails) {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(apiUrl))
-                .header("Content-Type", "application/json")
-                .header("Accept", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                .build();
-        String dataLedgerApiKey = AWSUtil.getValue(appConfig.getDataLedgerApiKeySecretName());
-        LOG.info("DataLedger Api Key fetched from Secret Manager:" +dataLedgerApiKey == null ? "null" : "not null");        
-        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(request.uri())
-                .headers(request.headers().map().entrySet().stream()
-                        .flatMap(e -> e.getValue().stream().map(v -> new String[] { e.getKey(), v }))
-                        .flatMap(arr -> java.util.stream.Stream.of(arr))
-                        .toArray(String[]::new))
-                .method(request.method(), request.bodyPublisher().orElse(HttpRequest.BodyPublishers.noBody())); // safer
-                                                                                                                // get()
+        enqueue(new LedgerEvent(apiUrl, jsonPayload, null, interactionId, sourceHubInteractionId, groupHubInteractionId,
+                action, provenance, source, additionalDetails));
+    }
 
-        if (dataLedgerApiKey != null) {
-            requestBuilder.header("x-api-key", dataLedgerApiKey);
+    private void enqueue(final LedgerEvent event) {
+        if (queue.offer(event)) {
+            count("queued");
+            LOG.info("DataLedgerApiClient:: Queued for DataLedger interactionId: {}", event.interactionId());
+        } else {
+            count("dropped");
+            LOG.warn("DataLedgerApiClient:: Queue full ({} events), dropping DataLedger event for interactionId: {}",
+                    clientConfig.getQueueCapacity(), event.interactionId());
+        }
+    }
+
+    private void dispatch() {
+        final List<LedgerEvent> batch = new ArrayList<>(clientConfig.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                final var first = queue.poll(clientConfig.getLingerMs(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                if (StringUtils.isNotEmpty(clientConfig.getBatchApiUrl())) {
+                    // linger briefly so that events emitted together are submitted together
+                    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(clientConfig.getLingerMs());
+                    while (batch.size() < clientConfig.getBatchSize()) {
+                        final var next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    final var events = List.copyOf(batch);
+                    submit(() -> sendBatch(events));
+                } else {
+                    submit(() -> send(first));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOG.error("DataLedgerApiClient:: dispatcher failed to send {} events", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
         }
+    }
 
-        request = requestBuilder.build();
+    /**
+     * Backpressure: the dispatcher waits for a free request slot rather than
+     * opening an unbounded number of requests.
+     */
+    private void submit(final Callable<CompletableFuture<Void>> request) throws Exception {
+        inFlight.acquire();
+        try {
+            request.call().whenComplete((result, ex) -> inFlight.release());
+        } catch (Exception e) {
+            inFlight.release();
+            throw e;
+        }
+    }
 
-        CompletableFuture<Void> future = HttpClient.newHttpClient().sendAsync(request, HttpResponse.BodyHandlers.ofString())
-            .thenAccept(response -> {
-                    boolean isSuccess = response.statusCode() >= 200 && response.statusCode() < 300;
+    private CompletableFuture<Void> send(final LedgerEvent event) {
+        return client.sendAsync(newRequest(event.apiUrl(), event.jsonPayload()), HttpResponse.BodyHandlers.ofString())
+                .thenAccept(response -> {
                     LOG.info("Data Ledger API response code : " + response.statusCode() + " for interactionId : "
-                            + interactionId);
-                    // LOG.info("Data Ledger API response body : " + response.body() + " for interactionId : "
-                    //         + interactionId);
+                            + event.interactionId());
+                    count(response.statusCode() >= 200 && response.statusCode() < 300 ? "sent" : "failed");
                     if (appConfig.isDataLedgerDiagnostics()) {
-                        processActionDiagnosticData(interactionId, apiUrl, jsonPayload, response, null,
-                                groupHubInteractionId, sourceHubInteractionId, action, provenance, source,
-                                additionalDetails);
+                        processActionDiagnosticData(event.interactionId(), event.apiUrl(), event.jsonPayload(),
+                                response, null, event.groupHubInteractionId(), event.sourceHubInteractionId(),
+                                event.action(), event.provenance(), event.source(), event.additionalDetails());
                     }
                 })
                 .exceptionally(ex -> {
-                    LOG.error("DataLedgerApiClient:: Request failed for interactionId :{}  ", interactionId,
+                    LOG.error("DataLedgerApiClient:: Request failed for interactionId :{}  ", event.interactionId(),
                             ex.getMessage());
+                    count("failed");
                     if (appConfig.isDataLedgerDiagnostics()) {
-                        processActionDiagnosticData(interactionId, apiUrl, jsonPayload, null, ex.getMessage(),
-                                groupHubInteractionId, sourceHubInteractionId, action, provenance, source,
-                                additionalDetails);
+                        processActionDiagnosticData(event.interactionId(), event.apiUrl(), event.jsonPayload(), null,
+                                ex.getMessage(), event.groupHubInteractionId(), event.sourceHubInteractionId(),
+                                event.action(), event.provenance(), event.source(), event.additionalDetails());
                     }
                     return null;
                 });
     }
 
+    private CompletableFuture<Void> sendBatch(final List<LedgerEvent> batch) throws JsonProcessingException {
+        final var apiUrl = clientConfig.getBatchApiUrl();
+        final var jsonPayload = Configuration.objectMapper.writeValueAsString(
+                batch.stream().map(LedgerEvent::body).toList());
+        DistributionSummary.builder(METRIC_BATCH_SIZE).register(meterRegistry).record(batch.size());
+        return client.sendAsync(newRequest(apiUrl, jsonPayload), HttpResponse.BodyHandlers.ofString())
+                .handle((response, ex) -> {
+                    final var succeeded = ex == null && response.statusCode() >= 200 && response.statusCode() < 300;
+                    LOG.info("Data Ledger batch API response code : {} for {} events",
+                            response == null ? "none" : response.statusCode(), batch.size());
+                    for (LedgerEvent event : batch) {
+                        count(succeeded ? "sent" : "failed");
+                        if (appConfig.isDataLedgerDiagnostics()) {
+                            processActionDiagnosticData(event.interactionId(), apiUrl, event.jsonPayload(), response,
+                                    ex == null ? null : ex.getMessage(), event.groupHubInteractionId(),
+                                    event.sourceHubInteractionId(), event.action(), event.provenance(),
+                                    event.source(), event.additionalDetails());
+                        }
+                    }
+                    return null;
+                });
+    }
+
+    private HttpRequest newRequest(final String apiUrl, final String jsonPayload) {
+        final HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
+                .uri(URI.create(apiUrl))
+                .timeout(Duration.ofSeconds(clientConfig.getRequestTimeoutSeconds()))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload));
+        final String dataLedgerApiKey = getApiKey();
+        if (dataLedgerApiKey != null) {
+            requestBuilder.header("x-api-key", dataLedgerApiKey);
+        }
+        return requestBuilder.build();
+    }
+
+    /**
+     * The API key is read from Secrets Manager at most once per
+     * {@code api-key-ttl-seconds} instead of once per event.
+     */
+    private String getApiKey() {
+        if (StringUtils.isEmpty(appConfig.getDataLedgerApiKeySecretName())) {
+            return null;
+        }
+        if (apiKey == null || System.nanoTime() - apiKeyExpiresAtNanos >= 0) {
+            final var value = AWSUtil.getValue(appConfig.getDataLedgerApiKeySecretName());
+            LOG.info("DataLedger Api Key fetched from Secret Manager: {}", value == null ? "null" : "not null");
+            if (value != null || apiKey == null) {
+                apiKey = value;
+            }
+            apiKeyExpiresAtNanos = System.nanoTime()
+                    + TimeUnit.SECONDS.toNanos(clientConfig.getApiKeyTtlSeconds());
+        }
+        return apiKey;
+    }
+
+    private void count(final String outcome) {
+        meterRegistry.counter(METRIC_EVENTS, "outcome", outcome).increment();
+    }
+
+    /**
+     * Gives queued events a chance to be sent before the application stops.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        dispatcher.join(TimeUnit.SECONDS.toMillis(clientConfig.getShutdownTimeoutSeconds()));
+        if (dispatcher.isAlive()) {
+            LOG.warn("DataLedgerApiClient:: {} DataLedger events not sent before shutdown", queue.size());
+            dispatcher.interrupt();
+            return;
+        }
+        // wait for the last requests to complete
+        if (inFlight.tryAcquire(clientConfig.getMaxConcurrentRequests(), clientConfig.getShutdownTimeoutSeconds(),
+                TimeUnit.SECONDS)) {
+            inFlight.release(clientConfig.getMaxConcurrentRequests());
+        }
+    }
+
     @Transactional
     private void saveSentActionDiagnosticData(String interactionId, String apiUrl, String requestPayload,
             HttpResponse<String> response, String errorMessage,
@@ -1,13 +1,6 @@
 package org.techbd.service.fhir;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.rmi.UnexpectedException;
-import java.security.Security;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.OffsetDateTime;
@@ -19,16 +12,15 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 import org.apache.commons.collections4.CollectionUtils;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.jooq.DSLContext;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.NestedExceptionUtils;
-import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -58,9 +50,9 @@ import org.techbd.service.dataledger.CoreDataLedgerApiClient;
 import org.techbd.service.dataledger.CoreDataLedgerApiClient.DataLedgerPayload;
 import org.techbd.service.fhir.engine.OrchestrationEngine;
 import org.techbd.service.fhir.engine.OrchestrationEngine.Device;
+import org.techbd.service.interaction.InteractionRegistrationWriter;
 import org.techbd.udi.auto.jooq.ingress.routines.GetOperationOutcomeSendToNyec;
 import org.techbd.udi.auto.jooq.ingress.routines.RegisterInteractionFhirRequest;
-import org.techbd.util.AWSUtil;
 import org.techbd.util.AppLogger;
 import org.techbd.util.TemplateLogger;
 import org.techbd.util.fhir.CoreFHIRUtil;
@@ -72,7 +64,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.TextNode;
 
 import io.micrometer.common.util.StringUtils;
-import io.netty.handler.ssl.SslContextBuilder;
 import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
@@ -81,12 +72,6 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.Getter;
 import lombok.Setter;
 import reactor.core.publisher.Mono;
-import reactor.netty.http.client.HttpClient;
-import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
-import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
-import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
-import software.amazon.awssdk.services.secretsmanager.model.SecretsManagerException;
 
 @Service
 
@@ -98,11 +83,19 @@ public class FHIRService {
 	private final CoreDataLedgerApiClient coreDataLedgerApiClient;
     private final OrchestrationEngine engine;
 	private final DSLContext primaryDSLContext;
+	private final ScoringEngineClientPool scoringEngineClientPool;
+	private final ScoringEngineForwarder scoringEngineForwarder;
+	private final InteractionRegistrationWriter interactionRegistrationWriter;
 	private Tracer tracer;
 
 	public FHIRService(CoreAppConfig coreAppConfig, CoreDataLedgerApiClient coreDataLedgerApiClient,OrchestrationEngine engine,
-	@Qualifier("primaryDslContext") final DSLContext primaryDSLContext, AppLogger appLogger) {
+	@Qualifier("primaryDslContext") final DSLContext primaryDSLContext, ScoringEngineClientPool scoringEngineClientPool,
+	ScoringEngineForwarder scoringEngineForwarder, InteractionRegistrationWriter interactionRegistrationWriter,
+	AppLogger appLogger) {
 		this.coreAppConfig = coreAppConfig;
+		this.interactionRegistrationWriter = interactionRegistrationWriter;
+		this.scoringEngineClientPool = scoringEngineClientPool;
+		this.scoringEngineForwarder = scoringEngineForwarder;
 		this.coreDataLedgerApiClient = coreDataLedgerApiClient;
 		this.tracer = GlobalOpenTelemetry.get().getTracer("FHIRService");
 		this.engine = engine;
@@ -424,7 +417,6 @@ public class FHIRService {
 			final String coRrelationId) throws IOException {
 		final Span span = tracer.spanBuilder("FHIRService.registerOriginalPayload").startSpan();
 		try {
-			final var jooqCfg = primaryDSLContext.configuration();
 			LOG.info(
 					"FHIRService -  REGISTER Original Payload BEGIN  for interaction id: {}",interactionId);
 			final var rihr = new RegisterInteractionFhirRequest();
@@ -438,9 +430,10 @@ public class FHIRService {
 				LOG.error("Invalid JSON format. Storing raw payload. Error: {} for interactionID :{}", e.getMessage(), interactionId,e);
 				payloadJson = TextNode.valueOf(payload);
 			}
+			final var registeredInteractionId = interactionId != null ? interactionId : UUID.randomUUID().toString();
 			prepareRequestBase(
 					rihr,
-					interactionId != null ? interactionId : UUID.randomUUID().toString(),
+					registeredInteractionId,
 					groupInteractionId,
 					masterInteractionId,
 					sourceType,
@@ -458,16 +451,15 @@ public class FHIRService {
 					LOG.error("Invalid elaboration JSON. Storing as string. Error: {} for interactionID :{}", e.getMessage(), interactionId, e);
 				}
 			}
-			final int i = rihr.execute(jooqCfg);
-			final var end = Instant.now();
-			final JsonNode response = rihr.getReturnValue();
-			final Map<String, Object> responseAttributes = CoreFHIRUtil.extractFields(response);
-			LOG.info(
-					"FHIRService - Time taken: {} ms for DB call to REGISTER Original Payload, interaction id: {}, error: {}, hub_nexus_interaction_id: {}",
-					Duration.between(start, end).toMillis(),
-					interactionId,
-					responseAttributes.getOrDefault(Constants.KEY_ERROR, "N/A"),
-					responseAttributes.getOrDefault(Constants.KEY_HUB_NEXUS_INTERACTION_ID, "N/A"));
+			interactionRegistrationWriter.register(registeredInteractionId, rihr).thenAccept(response -> {
+				final Map<String, Object> responseAttributes = CoreFHIRUtil.extractFields(response);
+				LOG.info(
+						"FHIRService - Time taken: {} ms for DB call to REGISTER Original Payload, interaction id: {}, error: {}, hub_nexus_interaction_id: {}",
+						Duration.between(start, Instant.now()).toMillis(),
+						interactionId,
+						responseAttributes.getOrDefault(Constants.KEY_ERROR, "N/A"),
+						responseAttributes.getOrDefault(Constants.KEY_HUB_NEXUS_INTERACTION_ID, "N/A"));
+			}).exceptionally(registrationFailed("Original Payload", registeredInteractionId));
 		} catch (final Exception e) {
 			LOG.error("ERROR:: REGISTER Original Payload for interaction id: {}: {}",
 					interactionId, e.getMessage(), e);
@@ -486,7 +478,6 @@ public class FHIRService {
 			final String requestUriToBeOverriden) throws IOException {
 		final Span span = tracer.spanBuilder("FHIRService.registerValidationResults").startSpan();
 		try {
-			final var jooqCfg = primaryDSLContext.configuration();
 			LOG.info("FHIRService REGISTER Validation Results BEGIN  for interaction id: {}",interactionId);
 			final var rihr = new RegisterInteractionFhirRequest();
 			final var provenance = "%s.doFilterInternal".formatted(FHIRService.class.getName());
@@ -502,9 +493,9 @@ public class FHIRService {
 					provenance,
 					Nature.TECH_BY_DISPOSITION.getDescription(),
 					Configuration.objectMapper.valueToTree(immediateResult),State.ACCEPT_FHIR_BUNDLE.name(),State.DISPOSITION.name());
-			final int i = rihr.execute(jooqCfg);
+			// the caller needs the registered payload, so wait for the (possibly batched) write
+			final JsonNode response = interactionRegistrationWriter.registerDurably(interactionId, rihr);
 			final var end = Instant.now();
-			final JsonNode response = rihr.getReturnValue();
 			final Map<String, Object> responseAttributes = CoreFHIRUtil.extractFields(response);
 
 			LOG.info(
@@ -524,6 +515,18 @@ public class FHIRService {
 		}
 	}
 
+	/**
+	 * Logs a transition whose registration failed after it was handed to the
+	 * writer; with write-behind that happens after the caller's catch block has
+	 * been left.
+	 */
+	private Function<Throwable, Void> registrationFailed(final String transition, final String interactionId) {
+		return error -> {
+			LOG.error("ERROR:: REGISTER {} failed for interaction id: {}", transition, interactionId, error);
+			return null;
+		};
+	}
+
 	private void prepareRequestBase(final RegisterInteractionFhirRequest rihr,
 			final String interactionId,
 			final String groupInteractionId,
@@ -545,6 +548,9 @@ public class FHIRService {
 				? requestUriToBeOverriden
 				: (String) requestParameters.get(Constants.REQUEST_URI));
 		rihr.setPPayload(payloadNode);
+		if (interactionRegistrationWriter.isWriteBehind()) {
+			rihr.setPCreatedAt(OffsetDateTime.now()); // queued transitions are written later, use app time
+		}
 		rihr.setPCreatedBy(FHIRService.class.getName());
 		rihr.setPSourceType(sourceType);
 		rihr.setPProvenance(provenance);
@@ -648,7 +654,30 @@ public class FHIRService {
 			final String mtlsStrategy, final String interactionId, final String groupInteractionId,
 			final String masterInteractionId, final String sourceType, final String requestUriToBeOverriden, 
 			final String coRrelationId,final String bundleId,boolean replay,Map<String,Object> replayPayload) {
+		forwardToScoringEngine(requestParameters, scoringEngineApiURL, tenantId, payload, provenance,
+				validationPayloadWithDisposition, mtlsStrategy, interactionId, groupInteractionId,
+				masterInteractionId, sourceType, requestUriToBeOverriden, coRrelationId, bundleId, replay,
+				replayPayload).subscribe();
+	}
+
+	/**
+	 * Same as {@link #sendToScoringEngine} but leaves the subscription to the
+	 * caller. The returned Mono emits true when the scoring engine accepted
+	 * the bundle and false when the forward failed; either way the outcome has
+	 * been registered in the interaction state by then.
+	 */
+	public Mono<Boolean> forwardToScoringEngine(
+			final Map<String,Object> requestParameters,
+			final String scoringEngineApiURL,
+			final String tenantId,
+			final String payload,
+			final String provenance,
+			final Map<String, Object> validationPayloadWithDisposition, 
+			final String mtlsStrategy, final String interactionId, final String groupInteractionId,
+			final String masterInteractionId, final String sourceType, final String requestUriToBeOverriden, 
+			final String coRrelationId,final String bundleId,boolean replay,Map<String,Object> replayPayload) {
 		final Span span = tracer.spanBuilder("FhirService.sentToScoringEngine").startSpan();
+		Mono<Boolean> delivery = Mono.just(false);
 		try {
 			LOG.info("FHIRService:: sendToScoringEngine BEGIN | interactionId: {} | replay mode: {}", interactionId, replay);
 
@@ -687,14 +716,14 @@ public class FHIRService {
 					LOG.info(
 							"###### defaultDatalakeApiAuthn is not defined #######.Hence proceeding with post to scoring engine without mTls for interaction id :{}",
 							interactionId);
-					handleNoMtls(MTlsStrategy.NO_MTLS, interactionId, tenantId, dataLakeApiBaseURL,requestParameters,
+					delivery = handleNoMtls(MTlsStrategy.NO_MTLS, interactionId, tenantId, dataLakeApiBaseURL,requestParameters,
 							bundlePayloadWithDisposition, payload,
 							// dataLakeApiContentType,
 							provenance,  
                                                         groupInteractionId,
 							masterInteractionId, sourceType, requestUriToBeOverriden,bundleId,replay);
 				} else {
-					handleMTlsStrategy(defaultDatalakeApiAuthn, interactionId, tenantId,
+					delivery = handleMTlsStrategy(defaultDatalakeApiAuthn, interactionId, tenantId,
 							dataLakeApiBaseURL,
 							requestParameters, bundlePayloadWithDisposition,
 							payload,
@@ -714,9 +743,10 @@ public class FHIRService {
 		} finally {
 			span.end();
 		}
+		return delivery;
 	}
 
-	public void handleMTlsStrategy(final DefaultDataLakeApiAuthn defaultDatalakeApiAuthn, final String interactionId,
+	public Mono<Boolean> handleMTlsStrategy(final DefaultDataLakeApiAuthn defaultDatalakeApiAuthn, final String interactionId,
 			final String tenantId, final String dataLakeApiBaseURL, final Map<String,Object> requestParameters,
 			final Map<String, Object> bundlePayloadWithDisposition, final String payload,
 			// final String dataLakeApiContentType,
@@ -738,7 +768,7 @@ public class FHIRService {
 		}
 		final String requestURI = StringUtils.isNotEmpty(requestUriToBeOverriden) ? requestUriToBeOverriden
 				: (String) requestParameters.get(Constants.REQUEST_URI);
-		switch (mTlsStrategy) {
+		return switch (mTlsStrategy) {
 			case AWS_SECRETS -> handleAwsSecrets(defaultDatalakeApiAuthn.mTlsAwsSecrets(), interactionId,
 					tenantId, dataLakeApiBaseURL, 
 					//dataLakeApiContentType,
@@ -746,10 +776,11 @@ public class FHIRService {
 					requestURI, 
                                         payload,
 					groupInteractionId, masterInteractionId, sourceType,bundleId,requestParameters, replay);
-			case POST_STDOUT_PAYLOAD_TO_NYEC_DATA_LAKE_EXTERNAL ->
-				handlePostStdoutPayload(interactionId, tenantId, dataLakeApiBaseURL,
+			case POST_PAYLOAD_TO_NYEC_DATA_LAKE ->
+				handlePostPayloadToNyecDataLake(interactionId, tenantId, dataLakeApiBaseURL,
 						bundlePayloadWithDisposition,payload, provenance,
 						defaultDatalakeApiAuthn.postStdinPayloadToNyecDataLakeExternal(),
+						defaultDatalakeApiAuthn.mTlsAwsSecrets(),
 						groupInteractionId, masterInteractionId, sourceType,
 						requestUriToBeOverriden,requestParameters,replay);
 			case MTLS_RESOURCES ->
@@ -773,10 +804,10 @@ public class FHIRService {
 						provenance, 
                                                 groupInteractionId,
 						masterInteractionId, sourceType, requestUriToBeOverriden,bundleId,replay);
-		}
+		};
 	}
 
-	private void handleMtlsResources(final String interactionId, final String tenantId,
+	private Mono<Boolean> handleMtlsResources(final String interactionId, final String tenantId,
 			final Map<String, Object> bundlePayloadWithDisposition,
 			final String payload, final String provenance,final Map<String,Object> requestParameters,
 			//final String dataLakeApiContentType,
@@ -798,75 +829,8 @@ public class FHIRService {
                                          payload, groupInteractionId,
 					masterInteractionId, sourceType,replay);
 
-			if (null == mTlsResources.mTlsKeyResourceName()) {
-				LOG.error(
-						"ERROR:: FHIRService:: handleMtlsResources Key location  `mTlsKeyResourceName` is not configured in application.yml for interaction id : {}  tenant id :{} ",
-						interactionId, tenantId);
-				throw new IllegalArgumentException(
-						"Client key location `mTlsKeyResourceName` is not configured in application.yml");
-			}
-			if (null == mTlsResources.mTlsCertResourceName()) {
-				LOG.error(
-						"ERROR:: FHIRService:: handleMtlsResources Client certificate location `mTlsCertResourceName` not configured in application.yml  for interaction id : {} tenant id : {}",
-						interactionId, tenantId);
-				throw new IllegalArgumentException(
-						"Client certificate location `mTlsCertResourceName` not configured in application.yml");
-			}
-			final String myClientKey = Files
-					.readString(Paths.get(mTlsResources.mTlsKeyResourceName()));
-			if (null == myClientKey) {
-				LOG.error(
-						"ERROR:: FHIRService:: handleMtlsResources Key not provided.Copy the key to file in location :{} for interaction id :{} tenant id :{} ",
-						mTlsResources.mTlsKeyResourceName(), interactionId, tenantId);
-				throw new IllegalArgumentException(
-						"Client key not provided.Copy the key to file in location : "
-								+ mTlsResources.mTlsKeyResourceName());
-			}
-			LOG.debug(
-					"FHIRService:: handleMtlsResources Client key fetched successfully for interaction id: {} tenantid :{} ",
-					interactionId,
-					tenantId);
-			final String myClientCert = Files.readString(Paths.get(mTlsResources.mTlsCertResourceName()));
-			if (null == myClientCert) {
-				LOG.error(
-						"ERROR:: FHIRService:: handleMtlsResources Client certificate not provided.Copy the certificate to file in location :{}  for interaction id : {}  tenantId :{}",
-						mTlsResources.mTlsCertResourceName(), interactionId, tenantId);
-				throw new IllegalArgumentException(
-						"Client certificate not provided.Copy the certificate to file in location : "
-								+ mTlsResources.mTlsCertResourceName());
-			}
-			LOG.debug(
-					"FHIRService:: handleMtlsResources Client cert fetched successfully for interaction id: {} tenantid :{} ",
-					interactionId,
-					tenantId);
-			LOG.debug("FHIRService:: handleMtlsResources Get SSL Context -BEGIN for interaction id: {} tenantid:{}",
-					interactionId, tenantId);
-
-			final var sslContext = SslContextBuilder.forClient()
-					.keyManager(new ByteArrayInputStream(myClientCert.getBytes()),
-							new ByteArrayInputStream(myClientKey.getBytes()))
-					.build();
-			LOG.debug("FHIRService:: handleMtlsResources Get SSL Context -END for interaction id: {} tenantId:{}",
-					interactionId, tenantId);
-			LOG.debug("FHIRService:: handleMtlsResources Create HttpClient for interaction id: {} tenantID:{}",
-					interactionId, tenantId);
-			final HttpClient httpClient = HttpClient.create()
-					.secure(sslSpec -> sslSpec.sslContext(sslContext));
-
-			LOG.debug("FHIRService:: Create ReactorClientHttpConnector for interaction id: {} tenantId:{}",
-					interactionId, tenantId);
-			final ReactorClientHttpConnector connector = new ReactorClientHttpConnector(httpClient);
-			LOG.debug(
-					"FHIRService:: Build WebClient with MTLS Enabled ReactorClientHttpConnector -BEGIN with scoring Engine API URL : {} for interactionID :{} tenant Id:{} ",
-					dataLakeApiBaseURL, interactionId, tenantId);
-			final var webClient = WebClient.builder()
-					.baseUrl(dataLakeApiBaseURL)
-					//.defaultHeader("Content-Type", dataLakeApiContentType)
-					.clientConnector(connector)
-					.build();
-			LOG.debug(
-					"FHIRService:: Build WebClient with MTLS Enabled ReactorClientHttpConnector -END with scoring Engine API URL : {} for interactionID :{} tenant Id:{} ",
-					dataLakeApiBaseURL, interactionId, tenantId);
+			final var webClient = scoringEngineClientPool.getMtlsResourcesClient(tenantId, dataLakeApiBaseURL,
+					mTlsResources);
 			LOG.debug(
 					"FHIRService:: handleMtlsResources Build WebClient with MTLS Enabled ReactorClientHttpConnector -BEGIN \n"
 							+
@@ -881,7 +845,7 @@ public class FHIRService {
 							: "Payload is not null",
 					interactionId,
 					tenantId);
-			sendPostRequest(webClient, tenantId, bundlePayloadWithDisposition, payload,
+			final var delivery = sendPostRequest(webClient, tenantId, bundlePayloadWithDisposition, payload,
 					//dataLakeApiContentType,
 					 interactionId,
 					provenance, (String) requestParameters.get(Constants.REQUEST_URI), dataLakeApiBaseURL,
@@ -892,6 +856,7 @@ public class FHIRService {
 			LOG.info("FHIRService:: handleMtlsResources END for interaction id: {} tenantid :{} ",
 					interactionId,
 					tenantId);
+			return delivery;
 		} catch (final Exception ex) {
 			LOG.error(
 					"ERROR:: handleMtlsResources Exception while posting to scoring engine with MTLS enabled for interactionId : {}",
@@ -899,11 +864,11 @@ public class FHIRService {
 			registerStateFailed(interactionId,
 					requestURI, tenantId, ex.getMessage(), provenance,
 					groupInteractionId, masterInteractionId, sourceType,requestParameters,replay);
-
+			return Mono.just(false);
 		}
 	}
 
-	private void handleApiKeyAuth(final String interactionId, final String tenantId,
+	private Mono<Boolean> handleApiKeyAuth(final String interactionId, final String tenantId,
 			final String dataLakeApiBaseURL,final Map<String,Object> requestParameters,
 			final Map<String, Object> bundlePayloadWithDisposition, final String payload,
 			// final String dataLakeApiContentType,
@@ -937,7 +902,7 @@ public class FHIRService {
 						: "Payload is not null",
 				interactionId,
 				tenantId);
-		final var webClient = createWebClient(dataLakeApiBaseURL, requestParameters,
+		final var webClient = createWebClient(MTlsStrategy.WITH_API_KEY, dataLakeApiBaseURL, requestParameters,
 				tenantId, payload,
 				bundlePayloadWithDisposition, provenance, 
 				interactionId, groupInteractionId, masterInteractionId, sourceType,
@@ -946,7 +911,7 @@ public class FHIRService {
 				tenantId);
 		LOG.debug("FHIRService:: sendPostRequest BEGIN for interaction id: {} tenantid :{} ", interactionId,
 				tenantId);
-		sendPostRequestWithApiKey(webClient, tenantId, bundlePayloadWithDisposition, payload,
+		final var delivery = sendPostRequestWithApiKey(webClient, tenantId, bundlePayloadWithDisposition, payload,
 				//dataLakeApiContentType, 
 				interactionId,
 				provenance,
@@ -956,8 +921,9 @@ public class FHIRService {
 				masterInteractionId, sourceType, apiKeyAuthDetails, bundleId, requestParameters, replay);
 		LOG.debug("FHIRService:: sendPostRequest END for interaction id: {} tenantid :{} ", interactionId,
 				tenantId);
+		return delivery;
 	}
-	private void handleNoMtls(final MTlsStrategy mTlsStrategy, final String interactionId, final String tenantId,
+	private Mono<Boolean> handleNoMtls(final MTlsStrategy mTlsStrategy, final String interactionId, final String tenantId,
 			final String dataLakeApiBaseURL,final Map<String,Object> requestParameters,
 			final Map<String, Object> bundlePayloadWithDisposition, final String payload, 
 			//final String dataLakeApiContentType,
@@ -982,7 +948,7 @@ public class FHIRService {
 						: "Payload is not null",
 				interactionId,
 				tenantId);
-		final var webClient = createWebClient(dataLakeApiBaseURL, requestParameters,
+		final var webClient = createWebClient(MTlsStrategy.NO_MTLS, dataLakeApiBaseURL, requestParameters,
 				tenantId, payload,
 				bundlePayloadWithDisposition, provenance, 
 				interactionId, groupInteractionId, masterInteractionId, sourceType,
@@ -991,7 +957,7 @@ public class FHIRService {
 				tenantId);
 		LOG.debug("FHIRService:: sendPostRequest BEGIN for interaction id: {} tenantid :{} ", interactionId,
 				tenantId);
-		sendPostRequest(webClient, tenantId, bundlePayloadWithDisposition, payload,
+		final var delivery = sendPostRequest(webClient, tenantId, bundlePayloadWithDisposition, payload,
 			//	dataLakeApiContentType, 
 				interactionId,provenance,
 				StringUtils.isNotEmpty(requestUriToBeOverriden) ? requestUriToBeOverriden
@@ -1000,9 +966,10 @@ public class FHIRService {
 				masterInteractionId, sourceType, bundleId, requestParameters, replay);
 		LOG.debug("FHIRService:: sendPostRequest END for interaction id: {} tenantid :{} ", interactionId,
 				tenantId);
+		return delivery;
 	}
 
-	private void handleAwsSecrets(final MTlsAwsSecrets mTlsAwsSecrets, final String interactionId, final String tenantId,
+	private Mono<Boolean> handleAwsSecrets(final MTlsAwsSecrets mTlsAwsSecrets, final String interactionId, final String tenantId,
 			final String dataLakeApiBaseURL, 
 			//final String dataLakeApiContentType,
 			final Map<String, Object> bundlePayloadWithDisposition, final String provenance, final String requestURI,
@@ -1010,6 +977,7 @@ public class FHIRService {
                         final String payload, final String groupInteractionId,
 			final String masterInteractionId,
 			final String sourceType,final String bundleId,Map<String,Object> requestParameters, boolean replay) {
+		Mono<Boolean> delivery;
 		try {
 			LOG.info("FHIRService :: handleAwsSecrets -BEGIN for interactionId : {}",
 					interactionId);
@@ -1017,80 +985,24 @@ public class FHIRService {
 			registerStateForward(provenance, interactionId, requestURI,
 					tenantId, bundlePayloadWithDisposition, null, 
 					payload, groupInteractionId, masterInteractionId, sourceType,replay);
-			if (null == mTlsAwsSecrets || null == mTlsAwsSecrets.mTlsKeySecretName()
-					|| null == mTlsAwsSecrets.mTlsCertSecretName()) {
-				throw new IllegalArgumentException(
-						"######## Strategy defined is aws-secrets but mTlsKeySecretName and mTlsCertSecretName is not correctly configured. ######### ");
-			}
-			if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
-				Security.addProvider(new BouncyCastleProvider());
-			}
-			final KeyDetails keyDetails = getSecretsFromAWSSecretManager(mTlsAwsSecrets.mTlsKeySecretName(),
-					mTlsAwsSecrets.mTlsCertSecretName());
-			final String CERTIFICATE = keyDetails.cert();
-			final String PRIVATE_KEY = keyDetails.key();
-
-			if (StringUtils.isEmpty(CERTIFICATE)) {
-				throw new IllegalArgumentException(
-						"Certifcate read from secrets manager with certficate secret name : {} is null "
-								+ mTlsAwsSecrets.mTlsCertSecretName());
-			}
-
-			if (StringUtils.isEmpty(PRIVATE_KEY)) {
-				throw new IllegalArgumentException(
-						"Private key read from secrets manager with key secret name : {} is null "
-								+ mTlsAwsSecrets.mTlsKeySecretName());
-			}
-
-			LOG.debug(
-					"FHIRService :: handleAwsSecrets Certificate and Key Details fetched successfully for interactionId : {}",
-					interactionId);
-
-			LOG.debug("FHIRService :: handleAwsSecrets Creating SSLContext  -BEGIN for interactionId : {}",
-					interactionId);
-
-			final var sslContext = SslContextBuilder.forClient()
-					.keyManager(new ByteArrayInputStream(CERTIFICATE.getBytes()),
-							new ByteArrayInputStream(PRIVATE_KEY.getBytes()))
-					.build();
-			LOG.debug("FHIRService :: handleAwsSecrets Creating SSLContext  - END for interactionId : {}",
-					interactionId);
-
-			final HttpClient httpClient = HttpClient.create()
-					.secure(sslSpec -> sslSpec.sslContext(sslContext));
-			LOG.debug("FHIRService :: handleAwsSecrets HttpClient created successfully  for interactionId : {}",
-					interactionId);
-
-			final ReactorClientHttpConnector connector = new ReactorClientHttpConnector(httpClient);
-			LOG.debug(
-					"FHIRService :: handleAwsSecrets ReactorClientHttpConnector created successfully  for interactionId : {}",
-					interactionId);
 			LOG.info(
-					"FHIRService:: handleAwsSecrets Build WebClient with MTLS Enabled ReactorClientHttpConnector -BEGIN \n"
+					"FHIRService:: handleAwsSecrets Get pooled WebClient with MTLS Enabled \n"
 							+
 							"with scoring Engine API URL: {} \n" +
-							//"dataLakeApiContentType: {} \n" +
 							"bundlePayloadWithDisposition: {} \n" +
 							"for interactionID: {} \n" +
 							"tenant Id: {}",
 					dataLakeApiBaseURL,
-					//dataLakeApiContentType,
 					bundlePayloadWithDisposition == null ? "Payload is null"
 							: "Payload is not null",
 					interactionId,
 					tenantId);
-			final var webClient = WebClient.builder()
-					.baseUrl(dataLakeApiBaseURL)
-				//	.defaultHeader("Content-Type", dataLakeApiContentType)
-					.clientConnector(connector)
-					.build();
-			LOG.debug(
-					"FHIRService :: handleAwsSecrets  Build WebClient with MTLS Enabled ReactorClientHttpConnector -END for interactionId :{}",
-					interactionId);
+			final var webClient = scoringEngineClientPool.getAwsSecretsClient(tenantId, dataLakeApiBaseURL,
+					mTlsAwsSecrets);
 			LOG.debug("FHIRService:: handleAwsSecrets - sendPostRequest BEGIN for interaction id: {} tenantid :{} ",
 					interactionId,
 					tenantId);
-			sendPostRequest(webClient, tenantId, bundlePayloadWithDisposition, payload,
+			delivery = sendPostRequest(webClient, tenantId, bundlePayloadWithDisposition, payload,
 					//dataLakeApiContentType,
 					 interactionId,
 					provenance, requestURI, dataLakeApiBaseURL, groupInteractionId,
@@ -1107,23 +1019,26 @@ public class FHIRService {
 					interactionId, tenantId, ex);
 			registerStateFailed(interactionId, requestURI, tenantId, ex.getMessage(),
 					provenance, groupInteractionId, masterInteractionId, sourceType, requestParameters,replay);
+			delivery = Mono.just(false);
 		}
 		LOG.info("FHIRService :: handleAwsSecrets -END for interactionId : {}",
 				interactionId);
+		return delivery;
 	}
 
-	private void handlePostStdoutPayload(final String interactionId, final String tenantId,
+	private Mono<Boolean> handlePostPayloadToNyecDataLake(final String interactionId, final String tenantId,
 			final String dataLakeApiBaseURL,
 			final Map<String, Object> bundlePayloadWithDisposition,
                          final String payload, final String provenance,
 			final PostStdinPayloadToNyecDataLakeExternal postStdinPayloadToNyecDataLakeExternal,
+			final MTlsAwsSecrets mTlsAwsSecrets,
 			final String groupInteractionId, final String masterInteractionId, final String sourceType,
 			final String requestUriToBeOverriden,final Map<String,Object> requestParameters,boolean replay) {
-		LOG.info("Proceed with posting payload via external process BEGIN forinteractionId : {}",
+		LOG.info("FHIRService:: handlePostPayloadToNyecDataLake BEGIN for interactionId : {}",
 				interactionId);
 		final var requestURI = StringUtils.isNotEmpty(requestUriToBeOverriden) ? requestUriToBeOverriden
 				: (String) requestParameters.get(Constants.REQUEST_URI);
-
+		Mono<Boolean> delivery;
 		try {
 			registerStateForward(provenance, interactionId,
 					requestURI, tenantId,
@@ -1132,138 +1047,75 @@ public class FHIRService {
 					null, 
 					payload, groupInteractionId,
 					masterInteractionId, sourceType, replay);
-			final var postToNyecExternalResponse = postStdinPayloadToNyecDataLakeExternal(dataLakeApiBaseURL,
-					tenantId, interactionId,
-					bundlePayloadWithDisposition,
-					postStdinPayloadToNyecDataLakeExternal);
-
-			LOG.info("Create payload from postToNyecExternalResponse- BEGIN for interactionId : {}",
-					interactionId);
-			final var payloadJson = Map.of("completed",
-					postToNyecExternalResponse.completed(),
-					"processOutput", postToNyecExternalResponse.processOutput(),
-					"errorOutput", postToNyecExternalResponse.errorOutput());
-			final String responsePayload = Configuration.objectMapper
-					.writeValueAsString(payloadJson);
-			LOG.info("Create payload from postToNyecExternalResponse- END forinteractionId : {}",
-					interactionId);
-			if (postToNyecExternalResponse.completed() && null != postToNyecExternalResponse.processOutput()
-					&& postToNyecExternalResponse.processOutput()
-							.contains("{\"status\": \"Success\"")) {
-				registerStateComplete(interactionId,
-						requestURI, tenantId, responsePayload,
-						provenance, groupInteractionId, masterInteractionId, sourceType,requestParameters,replay);
-			} else {
-				registerStateFailed(interactionId,
-						requestURI, tenantId, responsePayload,
-						provenance, groupInteractionId, masterInteractionId, sourceType,requestParameters,replay);
-			}
+			// same client certificate the curl script fetched from Secrets Manager; without it, plain HTTPS
+			final var webClient = null != mTlsAwsSecrets && null != mTlsAwsSecrets.mTlsKeySecretName()
+					&& null != mTlsAwsSecrets.mTlsCertSecretName()
+							? scoringEngineClientPool.getAwsSecretsClient(tenantId, dataLakeApiBaseURL, mTlsAwsSecrets)
+							: scoringEngineClientPool.getClient(tenantId,
+									MTlsStrategy.POST_PAYLOAD_TO_NYEC_DATA_LAKE.getValue(), dataLakeApiBaseURL);
+			// the pooled client gives up after its response-timeout, so a longer wait here would never be reached
+			final long responseTimeoutSeconds = coreAppConfig.getScoringEngineClient().getResponseTimeoutSeconds();
+			final var timeout = Duration.ofSeconds(null != postStdinPayloadToNyecDataLakeExternal
+					&& postStdinPayloadToNyecDataLakeExternal.timeout() > 0
+							? Math.min(postStdinPayloadToNyecDataLakeExternal.timeout(), responseTimeoutSeconds)
+							: responseTimeoutSeconds);
+			delivery = scoringEngineForwarder.forward(tenantId, dataLakeApiBaseURL, () -> webClient.post()
+					.uri("?processingAgent=" + tenantId)
+					.contentType(MediaType.APPLICATION_JSON)
+					// encoded by Jackson straight into the request buffers
+					.body(BodyInserters.fromValue(null != bundlePayloadWithDisposition
+							? bundlePayloadWithDisposition
+							: payload))
+					.retrieve()
+					.bodyToMono(String.class)
+					.defaultIfEmpty("")
+					.timeout(timeout))
+					.map(response -> {
+						final var nyecResponse = new PostToNyecExternalResponse(true, response, "");
+						if (response.contains("{\"status\": \"Success\"")) {
+							registerStateComplete(interactionId,
+									requestURI, tenantId, toJson(nyecResponse),
+									provenance, groupInteractionId, masterInteractionId, sourceType,
+									requestParameters, replay);
+							return true;
+						}
+						registerStateFailed(interactionId,
+								requestURI, tenantId, toJson(nyecResponse),
+								provenance, groupInteractionId, masterInteractionId, sourceType,
+								requestParameters, replay);
+						return false;
+					})
+					.onErrorResume(error -> {
+						LOG.error("FHIRService:: handlePostPayloadToNyecDataLake post FAILED for interactionId : {}",
+								interactionId, error);
+						registerStateFailed(interactionId,
+								requestURI, tenantId, toJson(PostToNyecExternalResponse.of(error)),
+								provenance, groupInteractionId, masterInteractionId, sourceType,
+								requestParameters, replay);
+						return Mono.just(false);
+					});
 		} catch (final Exception ex) {
-			LOG.error("Exception while postStdinPayloadToNyecDataLakeExternal forinteractionId : {}",
+			LOG.error("FHIRService:: handlePostPayloadToNyecDataLake FAILED for interactionId : {}",
 					interactionId, ex);
 			registerStateFailed(interactionId,
 					requestURI, tenantId, ex.getMessage(), provenance,
 					groupInteractionId, masterInteractionId, sourceType, requestParameters,replay);
+			delivery = Mono.just(false);
 		}
-		LOG.info("Proceed with posting payload via external process END for interactionId : {}",
+		LOG.info("FHIRService:: handlePostPayloadToNyecDataLake END for interactionId : {}",
 				interactionId);
+		return delivery;
 	}
 
-	private PostToNyecExternalResponse postStdinPayloadToNyecDataLakeExternal(final String dataLakeApiBaseURL,
-			final String tenantId,
-			final String interactionId,
-			final Map<String, Object> bundlePayloadWithDisposition,
-			final PostStdinPayloadToNyecDataLakeExternal postStdinPayloadToNyecDataLakeExternal)
-			throws Exception {
-		boolean completed = false;
-		String processOutput = "";
-		String errorOutput = "";
-		LOG.info("FHIRService :: postStdinPayloadToNyecDataLakeExternal BEGIN for interaction id : {} tenantID :{}",
-				interactionId, tenantId);
-		final var bashScriptPath = postStdinPayloadToNyecDataLakeExternal.cmd();
-		if (null == bashScriptPath) {
-			throw new IllegalArgumentException(
-					"Bash Script path not configured for the environment.Configure this in application.yml.");
-		}
-		LOG.debug(
-				"FHIRService :: postStdinPayloadToNyecDataLakeExternal Fetched Bash Script Path :{} for interaction id : {} tenantID :{}",
-				bashScriptPath, interactionId, tenantId);
-		LOG.debug(
-				"FHIRService :: postStdinPayloadToNyecDataLakeExternal Prepare ProcessBuilder to run the bash script for interaction id : {} tenantID :{}",
-				interactionId, tenantId);
-		final var processBuilder = new ProcessBuilder(bashScriptPath, tenantId, dataLakeApiBaseURL)
-				.redirectErrorStream(true);
-		LOG.debug(
-				"FHIRService :: postStdinPayloadToNyecDataLakeExternal Start the process  for interaction id : {} tenantID :{}",
-				interactionId, tenantId);
-		final var process = processBuilder.start();
-		LOG.debug(
-				"FHIRService :: postStdinPayloadToNyecDataLakeExternal DEBUG: Capture any output from stdout or stderr immediately after starting\r\n"
-						+ //
-						"        // the process  for interaction id : {} tenantID :{}",
-				interactionId, tenantId);
-		try (var errorStream = process.getErrorStream();
-				var inputStream = process.getInputStream()) {
-
-			// DEBUG: Print any errors encountered
-			errorOutput = new String(errorStream.readAllBytes(), StandardCharsets.UTF_8);
-			if (!errorOutput.isBlank()) {
-				LOG.error(
-						"FHIRService :: postStdinPayloadToNyecDataLakeExternal Error Stream Output before sending payload:{}  for interaction id : {} tenantID :{}",
-						errorOutput, interactionId, tenantId);
-				throw new UnexpectedException(
-						"Error Stream Output before sending payload:\n" + errorOutput);
-			}
-			LOG.debug(
-					"FHIRService :: postStdinPayloadToNyecDataLakeExternal Convert Payload map to String BEGIN for interaction id : {} tenantID :{}",
-					interactionId, tenantId);
-
-			LOG.debug(
-					"FHIRService :: postStdinPayloadToNyecDataLakeExternal Pass the payload map to String END for interaction id : {} tenantID :{}",
-					interactionId, tenantId);
-			final String payload = Configuration.objectMapper.writeValueAsString(bundlePayloadWithDisposition);
-			LOG.debug(
-					"FHIRService :: postStdinPayloadToNyecDataLakeExternal Pass the payload via STDIN -BEGIN for interaction id : {} tenantID :{}",
-					interactionId, tenantId);
-			try (OutputStream outputStream = process.getOutputStream()) {
-				outputStream.write(payload.getBytes(StandardCharsets.UTF_8));
-				outputStream.flush();
-				LOG.debug(
-						"FHIRService :: postStdinPayloadToNyecDataLakeExternal Payload send successfully to STDIN -END for interaction id : {} tenantID :{}",
-						interactionId, tenantId);
-			} catch (final IOException e) {
-				LOG.debug(
-						"FHIRService :: postStdinPayloadToNyecDataLakeExternal Failed to write payload to process STDIN due to error :{}  begin for interaction id : {} tenantID :{}",
-						e.getMessage(), interactionId, tenantId);
-				throw e;
-			}
-			final int timeout = Integer.valueOf(postStdinPayloadToNyecDataLakeExternal.timeout());
-			LOG.debug(
-					"FHIRService :: postStdinPayloadToNyecDataLakeExternal Wait for the process to complete with a timeout :{}  begin for interaction id : {} tenantID :{}",
-					timeout, interactionId, tenantId);
-			completed = process.waitFor(timeout, TimeUnit.SECONDS);
-			LOG.debug(
-					"FHIRService :: postStdinPayloadToNyecDataLakeExternal Wait elapsed ...Fetch response  begin for interaction id : {} tenantID :{}",
-					interactionId, tenantId);
-
-			processOutput = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
-			LOG.debug(
-					"FHIRService :: postStdinPayloadToNyecDataLakeExternal Standard Output received:{} for interaction id : {} tenantID :{}",
-					processOutput, interactionId, tenantId);
-			errorOutput = new String(errorStream.readAllBytes(), StandardCharsets.UTF_8);
-			if (!errorOutput.isBlank()) {
-				LOG.debug(
-						"FHIRService :: postStdinPayloadToNyecDataLakeExternal Error Stream Output after execution: {} for interaction id : {} tenantID :{}",
-						errorOutput, interactionId, tenantId);
-			}
+	private String toJson(final PostToNyecExternalResponse response) {
+		try {
+			return Configuration.objectMapper.writeValueAsString(response);
+		} catch (JsonProcessingException e) {
+			return String.valueOf(response);
 		}
-
-		LOG.info("FHIRService :: postStdinPayloadToNyecDataLakeExternal END for interaction id : {} tenantID :{}",
-				interactionId, tenantId);
-		return new PostToNyecExternalResponse(completed, processOutput, errorOutput);
 	}
 
-	private WebClient createWebClient(final String scoringEngineApiURL,
+	private WebClient createWebClient(final MTlsStrategy mTlsStrategy, final String scoringEngineApiURL,
 			final Map<String,Object> requestParamters,
 			final String tenantId,
 			final String payload,
@@ -1271,8 +1123,8 @@ public class FHIRService {
 			final String provenance,
 			final String interactionId, final String groupInteractionId,
 			final String masterInteractionId, final String sourceType, final String requestUriToBeOverriden, boolean replay) {
-		return WebClient.builder()
-				.baseUrl(scoringEngineApiURL)
+		return scoringEngineClientPool.getClient(tenantId, mTlsStrategy.getValue(), scoringEngineApiURL)
+				.mutate()
 				.filter(ExchangeFilterFunction.ofRequestProcessor(clientRequest -> {
 					filter(clientRequest, requestParamters, provenance, tenantId, payload,
 							bundlePayloadWithDisposition,
@@ -1284,46 +1136,6 @@ public class FHIRService {
 				.build();
 	}
 
-	private KeyDetails getSecretsFromAWSSecretManager(final String keyName, final String certName) {
-		final Region region = Region.US_EAST_1;
-		LOG.debug(
-				"FHIRService:: getSecretsFromAWSSecretManager  - Get Secrets Client Manager for region : {} BEGIN for interaction id: {}",
-				Region.US_EAST_1);
-		final SecretsManagerClient secretsClient = SecretsManagerClient.builder()
-				.region(region)
-				.build();
-		final KeyDetails keyDetails = new KeyDetails(getValue(secretsClient, keyName),
-				getValue(secretsClient, certName));
-		secretsClient.close();
-		LOG.debug(
-				"FHIRService:: getSecretsFromAWSSecretManager  - Get Secrets Client Manager for region : {} END for interaction id: {}",
-				Region.US_EAST_1);
-		return keyDetails;
-	}
-
-	public String getValue(final SecretsManagerClient secretsClient, final String secretName) {
-		LOG.debug("FHIRService:: getValue  - Get Value of secret with name  : {} -BEGIN", secretName);
-		String secret = null;
-		try {
-			final GetSecretValueRequest valueRequest = GetSecretValueRequest.builder()
-					.secretId(secretName)
-					.build();
-
-			final GetSecretValueResponse valueResponse = secretsClient.getSecretValue(valueRequest);
-			secret = valueResponse.secretString();
-			LOG.info("FHIRService:: getValue  - Fetched value of secret with name  : {}  value  is null : {} -END",
-					secretName, secret == null ? "true" : "false");
-		} catch (final SecretsManagerException e) {
-			LOG.error("ERROR:: FHIRService:: getValue  - Get Value of secret with name  : {} - FAILED with error "
-					+ e.awsErrorDetails().errorMessage(), e);
-		} catch (final Exception e) {
-			LOG.error("ERROR:: FHIRService:: getValue  - Get Value of secret with name  : {} - FAILED with error ",
-					e);
-		}
-		LOG.info("FHIRService:: getValue  - Get Value of secret with name  : {} ", secretName);
-		return secret;
-	}
-
 	private void filter(final ClientRequest clientRequest,
 			final Map<String,Object> requestParameters,
 			final String provenance,
@@ -1356,7 +1168,7 @@ public class FHIRService {
 				interactionId);
 	}
 
-	private void sendPostRequest(final WebClient webClient,
+	private Mono<Boolean> sendPostRequest(final WebClient webClient,
         final String tenantId,
         final Map<String, Object> bundlePayloadWithDisposition,
         final String payload,
@@ -1376,36 +1188,37 @@ public class FHIRService {
 				CoreDataLedgerApiClient.Actor.TECHBD.getValue(), CoreDataLedgerApiClient.Action.SENT.getValue(),
 				CoreDataLedgerApiClient.Actor.NYEC.getValue(), bundleId);
         // Post request to scoring engine
-        webClient.post()
+        final var delivery = scoringEngineForwarder.forward(tenantId, scoringEngineApiURL, () -> webClient.post()
                 .uri("?processingAgent=" + resolveProcessingAgent(tenantId))
                 .body(BodyInserters.fromValue(
                         bundlePayloadWithDisposition != null ? bundlePayloadWithDisposition : payload))
                 .header("Content-Type", Constants.FHIR_CONTENT_TYPE_HEADER_VALUE)
                 .retrieve()
-                .bodyToMono(String.class)
+                .bodyToMono(String.class))
                 .doFinally(signalType -> {
                     if (!skipDataLedger) {
                         final var dataLedgerProvenance = "%s.sendPostRequest".formatted(FHIRService.class.getName());
                         coreDataLedgerApiClient.processRequest(dataLedgerPayload,interactionId,masterInteractionId,groupInteractionId,dataLedgerProvenance,SourceType.FHIR.name(),null);
                     }
                 })
-                .subscribe(response -> {
-                    handleResponse(response, interactionId, requestURI, tenantId,
-                            provenance, scoringEngineApiURL, groupInteractionId,
-                            masterInteractionId, sourceType, requestParameters,replay);
-                }, error -> {
+                .map(response -> handleResponse(response, interactionId, requestURI, tenantId,
+                        provenance, scoringEngineApiURL, groupInteractionId,
+                        masterInteractionId, sourceType, requestParameters,replay))
+                .onErrorResume(error -> {
                     registerStateFailure(scoringEngineApiURL, interactionId, error,
                             requestURI, tenantId, provenance, groupInteractionId,
                             masterInteractionId, sourceType, requestParameters,replay);
+                    return Mono.just(false);
                 });
 
 			LOG.info("FHIRService:: sendToScoringEngine Post to scoring engine - END interaction id: {} tenantid: {}",
 					interactionId, tenantId);
+			return delivery;
 		} finally {
 			span.end();
 		}
 	}
-	private void sendPostRequestWithApiKey(final WebClient webClient,
+	private Mono<Boolean> sendPostRequestWithApiKey(final WebClient webClient,
 			final String tenantId,
 			final Map<String, Object> bundlePayloadWithDisposition,
 			final String payload,
@@ -1420,11 +1233,11 @@ public class FHIRService {
 			LOG.debug(
 					"FHIRService:: sendPostRequestWithApiKey Post to scoring engine - BEGIN interaction id: {} tenantID :{}",
 					interactionId, tenantId);
-			final String apiClientKey =  AWSUtil.getValue(apiKeyAuthDetails.apiKeySecretName());	
+			final String apiClientKey =  scoringEngineClientPool.getSecret(apiKeyAuthDetails.apiKeySecretName());	
 			LOG.info(
 				"FHIRService:: nyec api client key retrieved  : {} from secret  {} - BEGIN interaction id: {} tenantID :{}",
 				apiClientKey == null ? "Api key is null" : "Api key is not null" ,apiKeyAuthDetails.apiKeySecretName(),interactionId, tenantId);	
-			webClient.post()
+			final var delivery = scoringEngineForwarder.forward(tenantId, scoringEngineApiURL, () -> webClient.post()
 					.uri("?processingAgent=" + tenantId)
 					.body(BodyInserters.fromValue(null != bundlePayloadWithDisposition
 							? bundlePayloadWithDisposition
@@ -1432,7 +1245,7 @@ public class FHIRService {
 							.header("Content-Type", Constants.FHIR_CONTENT_TYPE_HEADER_VALUE)
 						.header(apiKeyAuthDetails.apiKeyHeaderName(),apiClientKey)				
 					.retrieve()
-					.bodyToMono(String.class)
+					.bodyToMono(String.class))
 					.doFinally(signalType -> {
 						if (!isDataLedgerSkipped(requestParameters)) {
 							final DataLedgerPayload dataLedgerPayload = DataLedgerPayload.create(
@@ -1442,24 +1255,28 @@ public class FHIRService {
 							coreDataLedgerApiClient.processRequest(dataLedgerPayload,interactionId,masterInteractionId,groupInteractionId,dataLedgerProvenance,SourceType.FHIR.name(),null);
 						}
 					})
-					.subscribe(response -> {
-						handleResponse(response, interactionId, requestURI, tenantId,
-								provenance, scoringEngineApiURL, groupInteractionId,
-								masterInteractionId, sourceType,requestParameters,replay);
-					}, error -> {
+					.map(response -> handleResponse(response, interactionId, requestURI, tenantId,
+							provenance, scoringEngineApiURL, groupInteractionId,
+							masterInteractionId, sourceType,requestParameters,replay))
+					.onErrorResume(error -> {
 						registerStateFailure(scoringEngineApiURL, interactionId, error,
 								requestURI, tenantId, provenance, groupInteractionId,
 								masterInteractionId, sourceType,requestParameters,replay);
+						return Mono.just(false);
 					});
 
 			LOG.info("FHIRService:: sendPostRequestWithApiKey Post to scoring engine - END interaction id: {} tenantid: {}",
 					interactionId, tenantId);
+			return delivery;
 		} finally {
 			span.end();
 		}
 	}
 
-	private void handleResponse(final String response,
+	/**
+	 * @return true when the scoring engine accepted the bundle
+	 */
+	private boolean handleResponse(final String response,
 			final String interactionId,
 			final String requestURI,
 			final String tenantId,
@@ -1483,21 +1300,22 @@ public class FHIRService {
 					registerStateComplete(interactionId, requestURI, tenantId, response,
 							provenance, groupInteractionId, masterInteractionId,
 							sourceType,requestParameters,replay);
-				} else {
-					LOG.warn("FHIRService:: handleResponse FAILURE for interaction id: {}",
-							interactionId);
-					registerStateFailed(interactionId, requestURI, tenantId, response,
-							provenance, groupInteractionId, masterInteractionId,
-							sourceType,requestParameters,replay);
+					return true;
 				}
+				LOG.warn("FHIRService:: handleResponse FAILURE for interaction id: {}",
+						interactionId);
+				registerStateFailed(interactionId, requestURI, tenantId, response,
+						provenance, groupInteractionId, masterInteractionId,
+						sourceType,requestParameters,replay);
 			} catch (final Exception e) {
 				LOG.error("FHIRService:: handleResponse unexpected error for interaction id : {}, response: {}",
 						interactionId, response, e);
 				registerStateFailed(interactionId, requestURI, tenantId, e.getMessage(),
 						provenance, groupInteractionId, masterInteractionId, sourceType,requestParameters,replay);
 			}
-			LOG.info("FHIRService:: handleResponse END for interaction id: {}", interactionId);
+			return false;
 		} finally {
+			LOG.info("FHIRService:: handleResponse END for interaction id: {}", interactionId);
 			span.end();
 		}
 	}
@@ -1709,7 +1527,6 @@ public class FHIRService {
 			final String groupInteractionId, final String masterInteractionId, final String sourceType,final boolean replay) {
 		final Span span = tracer.spanBuilder("FHIRService.registerStateForward").startSpan();
 		try {
-			final var jooqCfg = primaryDSLContext.configuration();
 			LOG.info("{} : BEGIN for interaction id: {} | tenant id: {}",
 					replay ? "FHIR-REPLAY" : "REGISTER State Forward",
 					bundleAsyncInteractionId,
@@ -1755,20 +1572,18 @@ public class FHIRService {
 				initRIHR.setPProvenance(buildProvenance(provenance, tenantId, bundleAsyncInteractionId));
 				initRIHR.setPTechbdVersionNumber(coreAppConfig.getVersion());
 				final var start = Instant.now();
-				final var execResult = initRIHR.execute(jooqCfg);
-				final var end = Instant.now();
-				final JsonNode response = initRIHR.getReturnValue();
-				final Map<String,Object> responseAttributes = CoreFHIRUtil.extractFields(response);
-				LOG.info(
-						"{} REGISTER State Forward : END for interaction id: {} tenant id: {}. Time taken: {} milliseconds | payload -> error: {}, interaction_id: {}, hub_nexus_interaction_id: {} | execResult: {}",
-						replay ? "FHIR-REPLAY" : "REGISTER State Forward",
-						bundleAsyncInteractionId,
-						tenantId,
-						Duration.between(start, end).toMillis(),
-						responseAttributes.getOrDefault(Constants.KEY_ERROR, "N/A"),
-						responseAttributes.getOrDefault(Constants.KEY_INTERACTION_ID, "N/A"),
-						responseAttributes.getOrDefault(Constants.KEY_HUB_NEXUS_INTERACTION_ID, "N/A"),
-						execResult);
+				interactionRegistrationWriter.register(bundleAsyncInteractionId, initRIHR).thenAccept(response -> {
+					final Map<String,Object> responseAttributes = CoreFHIRUtil.extractFields(response);
+					LOG.info(
+							"{} REGISTER State Forward : END for interaction id: {} tenant id: {}. Time taken: {} milliseconds | payload -> error: {}, interaction_id: {}, hub_nexus_interaction_id: {}",
+							replay ? "FHIR-REPLAY" : "REGISTER State Forward",
+							bundleAsyncInteractionId,
+							tenantId,
+							Duration.between(start, Instant.now()).toMillis(),
+							responseAttributes.getOrDefault(Constants.KEY_ERROR, "N/A"),
+							responseAttributes.getOrDefault(Constants.KEY_INTERACTION_ID, "N/A"),
+							responseAttributes.getOrDefault(Constants.KEY_HUB_NEXUS_INTERACTION_ID, "N/A"));
+				}).exceptionally(registrationFailed("State Forward", bundleAsyncInteractionId));
 			} catch (final Exception e) {
 				LOG.error("ERROR:: REGISTER State Forward CALL for interaction id : {} tenant id : {}"
 						+ initRIHR.getName() + " initRIHR error", bundleAsyncInteractionId,
@@ -1804,7 +1619,6 @@ public class FHIRService {
 					bundleAsyncInteractionId, tenantId);
 			final var forwardRIHR = new RegisterInteractionFhirRequest();
 			try {
-				final var jooqCfg = primaryDSLContext.configuration();
 				if (!replay) {
 					requestParameters.put(Constants.OBSERVABILITY_METRIC_INTERACTION_FINISH_TIME, Instant.now().toString());
 					forwardRIHR.setPAdditionalDetails((JsonNode) Configuration.objectMapper.valueToTree( Map.of("request", requestParameters)));
@@ -1841,19 +1655,17 @@ public class FHIRService {
 				forwardRIHR.setPProvenance(provenance);
 				forwardRIHR.setPTechbdVersionNumber(coreAppConfig.getVersion());
 				final var start = Instant.now();
-				final var execResult = forwardRIHR.execute(jooqCfg);
-				final var end = Instant.now();
-				final JsonNode responseFromDB = forwardRIHR.getReturnValue();
-				final Map<String,Object> responseAttributes = CoreFHIRUtil.extractFields(responseFromDB);
-				LOG.info(
-						"REGISTER State Complete : END for interaction id: {} tenant id: {}. Time Taken: {} milliseconds | payload -> error: {}, interaction_id: {}, hub_nexus_interaction_id: {} | execResult: {}",
-						bundleAsyncInteractionId,
-						tenantId,
-						Duration.between(start, end).toMillis(),
-						responseAttributes.getOrDefault(Constants.KEY_ERROR, "N/A"),
-						responseAttributes.getOrDefault(Constants.KEY_INTERACTION_ID, "N/A"),
-						responseAttributes.getOrDefault(Constants.KEY_HUB_NEXUS_INTERACTION_ID, "N/A"),
-						execResult);
+				interactionRegistrationWriter.register(bundleAsyncInteractionId, forwardRIHR).thenAccept(responseFromDB -> {
+					final Map<String,Object> responseAttributes = CoreFHIRUtil.extractFields(responseFromDB);
+					LOG.info(
+							"REGISTER State Complete : END for interaction id: {} tenant id: {}. Time Taken: {} milliseconds | payload -> error: {}, interaction_id: {}, hub_nexus_interaction_id: {}",
+							bundleAsyncInteractionId,
+							tenantId,
+							Duration.between(start, Instant.now()).toMillis(),
+							responseAttributes.getOrDefault(Constants.KEY_ERROR, "N/A"),
+							responseAttributes.getOrDefault(Constants.KEY_INTERACTION_ID, "N/A"),
+							responseAttributes.getOrDefault(Constants.KEY_HUB_NEXUS_INTERACTION_ID, "N/A"));
+				}).exceptionally(registrationFailed("State Complete", bundleAsyncInteractionId));
 			} catch (final Exception e) {
 				LOG.error("ERROR:: REGISTER State Complete CALL for interaction id : {} tenant id : {} "
 						+ forwardRIHR.getName()
@@ -1871,7 +1683,6 @@ public class FHIRService {
 			final String sourceType,Map<String,Object> requestParameters,boolean replay) {
 		final Span span = tracer.spanBuilder("FHIRService.registerStateFailed").startSpan();
 		try {
-			final var jooqCfg = primaryDSLContext.configuration();
 			LOG.info("{} ; REGISTER State Fail : BEGIN for interaction id :  {} tenant id : {}",
 					replay ? "FHIR-REPLAY" : "REGISTER State Fail",
 					bundleAsyncInteractionId, tenantId);
@@ -1915,23 +1726,22 @@ public class FHIRService {
 				forwardRIHR.setPProvenance(provenance);
 				forwardRIHR.setPTechbdVersionNumber(coreAppConfig.getVersion());
 				final var start = Instant.now();
-				final var execResult = forwardRIHR.execute(jooqCfg);
-				final var end = Instant.now();
-                final JsonNode responseFromDB = forwardRIHR.getReturnValue();
-				final Map<String,Object> responseAttributes = CoreFHIRUtil.extractFields(responseFromDB);
-				LOG.info(
-					"{} : FHIRService - Time taken: {} milliseconds for DB call to REGISTER State None, Accept, Disposition for interaction id: {}  error: {}, hub_nexus_interaction_id: {}",
-					replay ? "FHIR-REPLAY" : "REGISTER State Fail",
-					Duration.between(start, end).toMillis(),
-					responseAttributes.getOrDefault(Constants.KEY_INTERACTION_ID, "N/A"),
-					responseAttributes.getOrDefault(Constants.KEY_ERROR, "N/A"),					
-					responseAttributes.getOrDefault(Constants.KEY_HUB_NEXUS_INTERACTION_ID, "N/A")
-				);
-				LOG.info(
-						"{} : REGISTER State Fail : END for interaction id : {} tenant id : {} .Time Taken : {} milliseconds"
-								+ execResult,replay ? "FHIR-REPLAY" : "REGISTER State Fail",
-						bundleAsyncInteractionId, tenantId,
-						Duration.between(start, end).toMillis());
+				interactionRegistrationWriter.register(bundleAsyncInteractionId, forwardRIHR).thenAccept(responseFromDB -> {
+					final Map<String,Object> responseAttributes = CoreFHIRUtil.extractFields(responseFromDB);
+					LOG.info(
+						"{} : FHIRService - Time taken: {} milliseconds for DB call to REGISTER State None, Accept, Disposition for interaction id: {}  error: {}, hub_nexus_interaction_id: {}",
+						replay ? "FHIR-REPLAY" : "REGISTER State Fail",
+						Duration.between(start, Instant.now()).toMillis(),
+						responseAttributes.getOrDefault(Constants.KEY_INTERACTION_ID, "N/A"),
+						responseAttributes.getOrDefault(Constants.KEY_ERROR, "N/A"),
+						responseAttributes.getOrDefault(Constants.KEY_HUB_NEXUS_INTERACTION_ID, "N/A")
+					);
+					LOG.info(
+							"{} : REGISTER State Fail : END for interaction id : {} tenant id : {} .Time Taken : {} milliseconds",
+							replay ? "FHIR-REPLAY" : "REGISTER State Fail",
+							bundleAsyncInteractionId, tenantId,
+							Duration.between(start, Instant.now()).toMillis());
+				}).exceptionally(registrationFailed("State Fail", bundleAsyncInteractionId));
 			} catch (final Exception e) {
 				LOG.error("{} : ERROR:: REGISTER State Fail CALL for interaction id : {} tenant id : {} "
 						+ forwardRIHR.getName()
@@ -1956,7 +1766,6 @@ public class FHIRService {
 					" NYEC_API_CALL_FAILED  {} : Register State Failure - Exception while sending FHIR payload to datalake URL {} for interaction id {}",
 					replay ? "FHIR-REPLAY" : "REGISTER State Fail",
 					dataLakeApiBaseURL, bundleAsyncInteractionId, error);
-			final var jooqCfg = primaryDSLContext.configuration();
 			final var errorRIHR = new RegisterInteractionFhirRequest();
 			try {
 				if(!replay) {
@@ -2041,22 +1850,19 @@ public class FHIRService {
 				errorRIHR.setPProvenance(provenance);
 				errorRIHR.setPTechbdVersionNumber(coreAppConfig.getVersion());
 				final var start = Instant.now();
-				final var execResult = errorRIHR.execute(jooqCfg);
-				final var end = Instant.now();
-
-				final JsonNode responseFromDB = errorRIHR.getReturnValue();
-				final Map<String, Object> responseAttributes = CoreFHIRUtil.extractFields(responseFromDB);
+				interactionRegistrationWriter.register(bundleAsyncInteractionId, errorRIHR).thenAccept(responseFromDB -> {
+					final Map<String, Object> responseAttributes = CoreFHIRUtil.extractFields(responseFromDB);
 
-				LOG.info(
-						"{} : Register State Failure - END for interaction id: {} tenant id: {} forwardRIHR execResult: {}. Time Taken: {} milliseconds  error: {}, interaction_id: {}, hub_nexus_interaction_id: {}",
-						replay ? "FHIR-REPLAY" : "REGISTER State Fail",
-						bundleAsyncInteractionId,
-						tenantId,
-						execResult,
-						Duration.between(start, end).toMillis(),
-						responseAttributes.getOrDefault(Constants.KEY_ERROR, "N/A"),
-						responseAttributes.getOrDefault(Constants.KEY_INTERACTION_ID, "N/A"),
-						responseAttributes.getOrDefault(Constants.KEY_HUB_NEXUS_INTERACTION_ID, "N/A"));
+					LOG.info(
+							"{} : Register State Failure - END for interaction id: {} tenant id: {}. Time Taken: {} milliseconds  error: {}, interaction_id: {}, hub_nexus_interaction_id: {}",
+							replay ? "FHIR-REPLAY" : "REGISTER State Fail",
+							bundleAsyncInteractionId,
+							tenantId,
+							Duration.between(start, Instant.now()).toMillis(),
+							responseAttributes.getOrDefault(Constants.KEY_ERROR, "N/A"),
+							responseAttributes.getOrDefault(Constants.KEY_INTERACTION_ID, "N/A"),
+							responseAttributes.getOrDefault(Constants.KEY_HUB_NEXUS_INTERACTION_ID, "N/A"));
+				}).exceptionally(registrationFailed("State Failure", bundleAsyncInteractionId));
 			} catch (final Exception e) {
 				LOG.error("{} : ERROR :: Register State Failure - for interaction id : {} tenant id : {} CALL "
 						+ errorRIHR.getName() + " errorRIHR error", replay ? "FHIR-REPLAY" : "REGISTER State Fail",
@@ -2232,7 +2038,8 @@ public class FHIRService {
 		NO_MTLS("no-mTls"),
 		AWS_SECRETS("aws-secrets"),
 		MTLS_RESOURCES("mTlsResources"),
-		POST_STDOUT_PAYLOAD_TO_NYEC_DATA_LAKE_EXTERNAL("post-stdin-payload-to-nyec-datalake-external"),
+		// in-process replacement for the curl script; the old strategy name is kept as an alias
+		POST_PAYLOAD_TO_NYEC_DATA_LAKE("post-payload-to-nyec-datalake", "post-stdin-payload-to-nyec-datalake-external"),
 		WITH_API_KEY("with-api-key-auth");
 
 		// AWS_SECRETS_TEMP_FILE("aws-secrets-temp-file"),
@@ -2243,9 +2050,11 @@ public class FHIRService {
 		// AWS_SECRETS_TEMP_FILE_WITHOUT_OPENSSLANDHASH("aws-secrets-temp-file-without-opensslandhash");
 
 		private final String value;
+		private final List<String> aliases;
 
-		MTlsStrategy(final String value) {
+		MTlsStrategy(final String value, final String... aliases) {
 			this.value = value;
+			this.aliases = List.of(aliases);
 		}
 
 		public String getValue() {
@@ -2260,7 +2069,7 @@ public class FHIRService {
 
 		public static MTlsStrategy fromString(final String value) {
 			for (final MTlsStrategy strategy : MTlsStrategy.values()) {
-				if (strategy.value.equals(value)) {
+				if (strategy.value.equals(value) || strategy.aliases.contains(value)) {
 					return strategy;
 				}
 			}
@@ -2268,10 +2077,21 @@ public class FHIRService {
 		}
 	}
 
-	public record KeyDetails(String key, String cert) {
-	}
-
+	/**
+	 * Outcome of a post to the NYeC data lake. {@code processOutput} holds the
+	 * response body, {@code errorOutput} the failure (HTTP status and body, or
+	 * the transport error) when the post did not succeed.
+	 */
 	public record PostToNyecExternalResponse(boolean completed, String processOutput, String errorOutput) {
+
+		static PostToNyecExternalResponse of(final Throwable error) {
+			if (error instanceof final WebClientResponseException responseException) {
+				return new PostToNyecExternalResponse(true, responseException.getResponseBodyAsString(),
+						"HTTP " + responseException.getStatusCode().value() + " " + responseException.getStatusText());
+			}
+			return new PostToNyecExternalResponse(false, "",
+					NestedExceptionUtils.getMostSpecificCause(error).toString());
+		}
 	}
 
 	public enum TechByDesignDisposition {
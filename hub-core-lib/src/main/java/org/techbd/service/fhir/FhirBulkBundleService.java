@@ -0,0 +1,188 @@
+package org.techbd.service.fhir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Service;
+import org.techbd.config.Configuration;
+import org.techbd.config.Constants;
+import org.techbd.config.CoreAppConfig;
+import org.techbd.service.fhir.engine.OrchestrationEngine;
+import org.techbd.util.AppLogger;
+import org.techbd.util.TemplateLogger;
+import org.techbd.util.fhir.CoreFHIRUtil;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Processes an NDJSON stream of FHIR Bundles (one bundle per line) through the
+ * regular {@link FHIRService#processBundle} pipeline.
+ * <p>
+ * Lines are read in batches of {@code org.techbd.fhir-bulk.batch-size}; each
+ * batch is processed on a shared pool of {@code parallelism} threads and its
+ * manifest entries are written (in line order) and flushed before the next
+ * batch is read, so memory is bounded regardless of the size of the upload.
+ */
+@Service
+public class FhirBulkBundleService {
+
+    public static final String STATUS_ACCEPTED = "ACCEPTED";
+    public static final String STATUS_DISCARDED = "DISCARDED";
+    public static final String STATUS_ERROR = "ERROR";
+
+    private final FHIRService fhirService;
+    private final CoreAppConfig.FhirBulkConfig config;
+    private final Tracer tracer;
+    private final TemplateLogger LOG;
+    private final ExecutorService executor;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ManifestEntry(int line, String interactionId, String bundleId, String status, Boolean valid,
+            String message) {
+    }
+
+    public FhirBulkBundleService(final FHIRService fhirService, final CoreAppConfig coreAppConfig,
+            final Tracer tracer, final AppLogger appLogger) {
+        this.fhirService = fhirService;
+        this.config = coreAppConfig.getFhirBulk();
+        this.tracer = tracer;
+        this.LOG = appLogger.getLogger(FhirBulkBundleService.class);
+        final var threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(config.getParallelism(), runnable -> {
+            final var thread = new Thread(runnable, "fhir-bulk-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reads {@code ndjson} line by line and writes one manifest entry per
+     * non-blank line to {@code manifest} as NDJSON.
+     *
+     * @return counts per manifest status
+     */
+    public Map<String, Integer> process(final InputStream ndjson, final Map<String, Object> requestParameters,
+            final OutputStream manifest) throws IOException {
+        final Span span = tracer.spanBuilder("FhirBulkBundleService.process").startSpan();
+        try {
+            final var start = Instant.now();
+            final var bulkInteractionId = (String) requestParameters.get(Constants.INTERACTION_ID);
+            final Map<String, Integer> summary = new LinkedHashMap<>();
+            LOG.info("FhirBulkBundleService:: process -BEGIN bulkInteractionId: {}", bulkInteractionId);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+                final List<CompletableFuture<ManifestEntry>> batch = new ArrayList<>(config.getBatchSize());
+                int lineNumber = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    final var payload = line;
+                    final var currentLine = lineNumber;
+                    batch.add(CompletableFuture.supplyAsync(
+                            () -> processLine(currentLine, payload, requestParameters, bulkInteractionId), executor));
+                    if (batch.size() >= config.getBatchSize()) {
+                        writeBatch(batch, manifest, summary);
+                    }
+                }
+                writeBatch(batch, manifest, summary);
+            }
+            LOG.info("FhirBulkBundleService:: process -END bulkInteractionId: {} summary: {} Time Taken : {} milliseconds",
+                    bulkInteractionId, summary, Duration.between(start, Instant.now()).toMillis());
+            return summary;
+        } finally {
+            span.end();
+        }
+    }
+
+    private void writeBatch(final List<CompletableFuture<ManifestEntry>> batch, final OutputStream manifest,
+            final Map<String, Integer> summary) throws IOException {
+        for (CompletableFuture<ManifestEntry> future : batch) {
+            final var entry = future.join();
+            summary.merge(entry.status(), 1, Integer::sum);
+            manifest.write(Configuration.objectMapperConcise.writeValueAsBytes(entry));
+            manifest.write('\n');
+        }
+        manifest.flush();
+        batch.clear();
+    }
+
+    private ManifestEntry processLine(final int lineNumber, final String payload,
+            final Map<String, Object> requestParameters, final String bulkInteractionId) {
+        final var interactionId = UUID.randomUUID().toString();
+        final var bundleId = CoreFHIRUtil.extractBundleId(payload, interactionId);
+        final Map<String, Object> lineParameters = new HashMap<>(requestParameters);
+        lineParameters.remove(Constants.CORRELATION_ID);
+        lineParameters.put(Constants.INTERACTION_ID, interactionId);
+        lineParameters.put(Constants.OBSERVABILITY_METRIC_INTERACTION_START_TIME, Instant.now().toString());
+        lineParameters.put(Constants.PROVENANCE, "%s.process(%s#%d)".formatted(
+                FhirBulkBundleService.class.getName(), bulkInteractionId, lineNumber));
+        try {
+            final var result = fhirService.processBundle(payload, lineParameters, new HashMap<>());
+            return summarize(lineNumber, interactionId, bundleId, result);
+        } catch (Exception e) {
+            LOG.error("FhirBulkBundleService:: line {} failed for bulkInteractionId: {} interactionId: {}",
+                    lineNumber, bulkInteractionId, interactionId, e);
+            return new ManifestEntry(lineNumber, interactionId, bundleId, STATUS_ERROR, null, e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static ManifestEntry summarize(final int lineNumber, final String interactionId, final String bundleId,
+            final Object result) {
+        if (!(result instanceof Map<?, ?> resultMap)) {
+            return new ManifestEntry(lineNumber, interactionId, bundleId, STATUS_ACCEPTED, null, null);
+        }
+        if (FHIRService.isActionDiscard((Map<String, Object>) resultMap)) {
+            return new ManifestEntry(lineNumber, interactionId, bundleId, STATUS_DISCARDED, false, null);
+        }
+        if (!(resultMap.get("OperationOutcome") instanceof Map<?, ?> outcome)) {
+            return new ManifestEntry(lineNumber, interactionId, bundleId, STATUS_ACCEPTED, null, null);
+        }
+        if (outcome.get("error") != null) {
+            return new ManifestEntry(lineNumber, interactionId, bundleId, STATUS_ERROR, null,
+                    String.valueOf(outcome.get("error")));
+        }
+        Boolean valid = null;
+        if (outcome.get("validationResults") instanceof List<?> validationResults) {
+            valid = validationResults.stream().allMatch(FhirBulkBundleService::isValid);
+        }
+        return new ManifestEntry(lineNumber, interactionId, bundleId, STATUS_ACCEPTED, valid, null);
+    }
+
+    private static boolean isValid(final Object validationResult) {
+        if (validationResult instanceof OrchestrationEngine.ValidationResult result) {
+            return result.isValid();
+        }
+        if (validationResult instanceof Map<?, ?> result) {
+            return !Boolean.FALSE.equals(result.get("valid"));
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,176 @@
+package org.techbd.service.fhir;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.techbd.config.Configuration;
+import org.techbd.config.Constants;
+import org.techbd.config.CoreAppConfig;
+import org.techbd.util.AppLogger;
+import org.techbd.util.TemplateLogger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/**
+ * Durable queue for asynchronous /Bundle submissions backed by
+ * {@code techbd_udi_ingress.fhir_bundle_job}. Jobs are keyed by interaction id
+ * and claimed by {@link FhirBundleJobWorker} with {@code FOR UPDATE SKIP LOCKED}
+ * so that any number of hub instances can drain the same queue.
+ */
+@Service
+public class FhirBundleJobService {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_PROCESSING = "PROCESSING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private final DSLContext primaryDslContext;
+    private final CoreAppConfig coreAppConfig;
+    private final TemplateLogger LOG;
+
+    public record ClaimedJob(String interactionId, String tenantId, String payload,
+            Map<String, Object> requestParameters, int attempts) {
+    }
+
+    public FhirBundleJobService(@Qualifier("primaryDslContext") final DSLContext primaryDslContext,
+            final CoreAppConfig coreAppConfig, final AppLogger appLogger) {
+        this.primaryDslContext = primaryDslContext;
+        this.coreAppConfig = coreAppConfig;
+        this.LOG = appLogger.getLogger(FhirBundleJobService.class);
+    }
+
+    /**
+     * Resolves the interaction id the same way {@link FHIRService#processBundle}
+     * does, so the job key matches the interaction that will be registered.
+     */
+    public static String resolveInteractionId(final Map<String, Object> requestParameters) {
+        final var correlationId = (String) requestParameters.get(Constants.CORRELATION_ID);
+        return StringUtils.isNotEmpty(correlationId) ? correlationId
+                : (String) requestParameters.get(Constants.INTERACTION_ID);
+    }
+
+    /**
+     * Persists the bundle and its request parameters and returns the job status.
+     * Resubmitting an interaction id that is already queued returns the existing
+     * job's status instead of creating a new job.
+     */
+    public String enqueue(final String payload, final Map<String, Object> requestParameters)
+            throws JsonProcessingException {
+        final var interactionId = resolveInteractionId(requestParameters);
+        final var tenantId = (String) requestParameters.get(Constants.TENANT_ID);
+        // HTTP session attributes are not needed to process the bundle and may not be serializable
+        final Map<String, Object> persistable = new LinkedHashMap<>(requestParameters);
+        persistable.remove(Constants.SESSION);
+        final var status = primaryDslContext.select(DSL.field(
+                "techbd_udi_ingress.enqueue_fhir_bundle_job({0}, {1}, {2}, {3}::jsonb, {4}, {5})",
+                SQLDataType.VARCHAR,
+                DSL.val(interactionId), DSL.val(tenantId), DSL.val(payload),
+                DSL.val(Configuration.objectMapperConcise.writeValueAsString(persistable)),
+                DSL.val(coreAppConfig.getFhirBundleJobs().getMaxAttempts()),
+                DSL.val((String) requestParameters.get(Constants.PROVENANCE))))
+                .fetchOne(0, String.class);
+        LOG.info("FhirBundleJobService:: enqueued bundle job for interactionId: {} tenantId: {} status: {}",
+                interactionId, tenantId, status);
+        return status;
+    }
+
+    public List<ClaimedJob> claim(final String workerId, final int batchSize) {
+        return primaryDslContext.resultQuery(
+                "select interaction_id, tenant_id, payload, request_parameters::text, attempts "
+                        + "from techbd_udi_ingress.claim_fhir_bundle_jobs({0}, {1}, {2})",
+                DSL.val(workerId), DSL.val(batchSize),
+                DSL.val(coreAppConfig.getFhirBundleJobs().getClaimTimeoutSeconds()))
+                .fetch(record -> new ClaimedJob(
+                        record.get(0, String.class),
+                        record.get(1, String.class),
+                        record.get(2, String.class),
+                        readRequestParameters(record.get(3, String.class)),
+                        record.get(4, Integer.class)));
+    }
+
+    /**
+     * Records the outcome of {@code job} while {@code claimedBy} still holds
+     * its claim.
+     *
+     * @return the new job status, or {@code null} when the claim was lost (the
+     *         job timed out and was reclaimed) and the outcome was discarded
+     */
+    public String complete(final ClaimedJob job, final String claimedBy, final Object result) {
+        String resultJson = null;
+        try {
+            resultJson = result == null ? null : Configuration.objectMapperConcise.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            LOG.warn("FhirBundleJobService:: could not serialize result for interactionId: {}", job.interactionId(),
+                    e);
+        }
+        return finish(job, claimedBy, true, resultJson, null);
+    }
+
+    /**
+     * @see #complete(ClaimedJob, String, Object)
+     */
+    public String fail(final ClaimedJob job, final String claimedBy, final String errorMessage) {
+        return finish(job, claimedBy, false, null, errorMessage);
+    }
+
+    /**
+     * Returns the job row for {@code interactionId} or {@code null} when the
+     * interaction was not submitted asynchronously.
+     */
+    public Map<String, Object> findStatus(final String interactionId) {
+        final var record = primaryDslContext.resultQuery(
+                "select interaction_id, tenant_id, job_status, attempts, max_attempts, error_message, "
+                        + "result::text as result, created_at, claimed_at, completed_at "
+                        + "from techbd_udi_ingress.fhir_bundle_job_status where interaction_id = {0}",
+                DSL.val(interactionId))
+                .fetchOne();
+        if (record == null) {
+            return null;
+        }
+        final Map<String, Object> status = new LinkedHashMap<>(record.intoMap());
+        final var result = (String) status.get("result");
+        if (result != null) {
+            try {
+                status.put("result", Configuration.objectMapperConcise.readTree(result));
+            } catch (JsonProcessingException e) {
+                LOG.warn("FhirBundleJobService:: unreadable result for interactionId: {}", interactionId, e);
+            }
+        }
+        return status;
+    }
+
+    private String finish(final ClaimedJob job, final String claimedBy, final boolean succeeded,
+            final String resultJson, final String errorMessage) {
+        final var status = primaryDslContext.select(DSL.field(
+                "techbd_udi_ingress.complete_fhir_bundle_job({0}, {1}, {2}, {3}, {4}::jsonb, {5})",
+                SQLDataType.VARCHAR,
+                DSL.val(job.interactionId()), DSL.val(claimedBy), DSL.val(job.attempts()), DSL.val(succeeded),
+                DSL.val(resultJson, SQLDataType.VARCHAR), DSL.val(errorMessage)))
+                .fetchOne(0, String.class);
+        if (status == null) {
+            LOG.warn("FhirBundleJobService:: claim of {} on bundle job for interactionId: {} attempt: {} was lost; outcome discarded",
+                    claimedBy, job.interactionId(), job.attempts());
+        } else {
+            LOG.info("FhirBundleJobService:: bundle job for interactionId: {} is {}", job.interactionId(), status);
+        }
+        return status;
+    }
+
+    private Map<String, Object> readRequestParameters(final String json) {
+        try {
+            return Configuration.objectMapperConcise.readValue(json, new TypeReference<Map<String, Object>>() {
+            });
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable request parameters in fhir_bundle_job", e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.techbd.service.fhir;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.techbd.config.CoreAppConfig;
+import org.techbd.util.AppLogger;
+import org.techbd.util.TemplateLogger;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Drains {@code techbd_udi_ingress.fhir_bundle_job} with a bounded pool of
+ * worker threads. Each poll claims at most as many jobs as there are idle
+ * workers, so a busy instance leaves the remaining jobs to other instances.
+ * Jobs left PROCESSING by a crashed or restarted instance are reclaimed after
+ * the configured claim timeout; the outcome of a claim that was reclaimed in
+ * the meantime is discarded by {@link FhirBundleJobService#complete}.
+ */
+@Component
+public class FhirBundleJobWorker {
+
+    private final FhirBundleJobService jobService;
+    private final FHIRService fhirService;
+    private final CoreAppConfig.FhirBundleJobConfig config;
+    private final TemplateLogger LOG;
+    private final String workerId;
+    private final Semaphore idleWorkers;
+    private final ExecutorService executor;
+
+    public FhirBundleJobWorker(final FhirBundleJobService jobService, final FHIRService fhirService,
+            final CoreAppConfig coreAppConfig, final AppLogger appLogger) {
+        this.jobService = jobService;
+        this.fhirService = fhirService;
+        this.config = coreAppConfig.getFhirBundleJobs();
+        this.LOG = appLogger.getLogger(FhirBundleJobWorker.class);
+        this.workerId = hostName() + "-" + UUID.randomUUID();
+        this.idleWorkers = new Semaphore(config.getWorkerThreads());
+        final var threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(config.getWorkerThreads(), runnable -> {
+            final var thread = new Thread(runnable, "fhir-bundle-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${org.techbd.fhir-bundle-jobs.poll-interval-ms:1000}")
+    public void poll() {
+        if (!config.isWorkerEnabled()) {
+            return;
+        }
+        final int idle = idleWorkers.drainPermits();
+        if (idle == 0) {
+            return;
+        }
+        int claimed = 0;
+        try {
+            for (FhirBundleJobService.ClaimedJob job : jobService.claim(workerId, idle)) {
+                claimed++;
+                executor.execute(() -> {
+                    try {
+                        process(job);
+                    } finally {
+                        idleWorkers.release();
+                    }
+                });
+            }
+        } catch (Exception e) {
+            LOG.error("FhirBundleJobWorker:: failed to claim bundle jobs for worker {}", workerId, e);
+        } finally {
+            idleWorkers.release(idle - claimed);
+        }
+    }
+
+    void process(final FhirBundleJobService.ClaimedJob job) {
+        LOG.info("FhirBundleJobWorker:: processing bundle job -BEGIN interactionId: {} tenantId: {} attempt: {}",
+                job.interactionId(), job.tenantId(), job.attempts());
+        try {
+            final var result = fhirService.processBundle(job.payload(), job.requestParameters(), new HashMap<>());
+            if (jobService.complete(job, workerId, result) == null) {
+                LOG.warn("FhirBundleJobWorker:: bundle job for interactionId: {} attempt: {} was reclaimed by another worker; ignoring its outcome",
+                        job.interactionId(), job.attempts());
+            }
+        } catch (Exception e) {
+            LOG.error("FhirBundleJobWorker:: bundle job failed for interactionId: {} attempt: {}",
+                    job.interactionId(), job.attempts(), e);
+            try {
+                if (jobService.fail(job, workerId, e.getMessage()) == null) {
+                    LOG.warn("FhirBundleJobWorker:: bundle job for interactionId: {} attempt: {} was reclaimed by another worker; ignoring its failure",
+                            job.interactionId(), job.attempts());
+                }
+            } catch (Exception statusException) {
+                // the claim times out and the job is retried by the next poll
+                LOG.error("FhirBundleJobWorker:: could not record failure for interactionId: {}",
+                        job.interactionId(), statusException);
+            }
+        }
+        LOG.info("FhirBundleJobWorker:: processing bundle job -END interactionId: {}", job.interactionId());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            // unfinished jobs stay PROCESSING and are reclaimed after the claim timeout
+            executor.shutdownNow();
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
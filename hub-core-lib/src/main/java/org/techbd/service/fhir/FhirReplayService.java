@@ -8,25 +8,27 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
+import java.util.UUID;
 
 import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.core.task.TaskExecutor;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.techbd.config.Configuration;
 import org.techbd.config.CoreAppConfig;
 import org.techbd.udi.auto.jooq.ingress.routines.GetFhirBundlesToReplay;
 import org.techbd.udi.auto.jooq.ingress.routines.GetFhirPayloadForNyec;
 import org.techbd.udi.auto.jooq.ingress.routines.GetNyecSubmissionFailedBundles;
-import org.techbd.udi.auto.jooq.ingress.routines.UpdateFhirReplayStatus;
 import org.techbd.util.AppLogger;
 import org.techbd.util.TemplateLogger;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import jakarta.servlet.http.HttpServletRequest;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Service
 public class FhirReplayService {
@@ -39,16 +41,20 @@ public class FhirReplayService {
 
     private final DSLContext primaryDslContext;
 
-    private final TaskExecutor asyncTaskExecutor;
+    /**
+     * A bundle of a replay claimed by {@link FhirReplayWorker}; {@code claimedBy}
+     * identifies the claim its outcome is recorded under.
+     */
+    public record ReplayBundle(String replayId, String bundleId, String interactionId, String tenantId,
+            String source, String uri, String groupInteractionId, String zipInteractionId, String claimedBy) {
+    }
 
     public FhirReplayService(FHIRService fhirService, AppLogger appLogger, CoreAppConfig appConfig,
-            @Qualifier("primaryDslContext") final DSLContext primaryDslContext,
-            @Qualifier("asyncTaskExecutor") final TaskExecutor asyncTaskExecutor) {
+            @Qualifier("primaryDslContext") final DSLContext primaryDslContext) {
         this.fhirService = fhirService;
         this.LOG = appLogger.getLogger(FhirReplayService.class);
         this.appConfig = appConfig;
         this.primaryDslContext = primaryDslContext;
-        this.asyncTaskExecutor = asyncTaskExecutor;
     }
 
     public Map<String, Object> replayBundles(HttpServletRequest request, String replayId, OffsetDateTime startDate,
@@ -63,7 +69,6 @@ public class FhirReplayService {
                     "bundle_count", 0,
                     "message", "No bundles found to replay");
         }
-        List<Map<String, Object>> bundlesList = (List<Map<String, Object>>) bundlesResponse.get("bundles");
         Map<String, Object> interimResponse = new HashMap<>();
 
         int bundleCount = Optional.ofNullable(bundlesResponse.get("bundle_count"))
@@ -87,51 +92,93 @@ public class FhirReplayService {
         } else {
             interimResponse.put("message",
                     "Replay started. Please refer to the Hub UI Interactions > FHIR Data tab for detailed status updates.");
+            interimResponse.put("status_url", "/Bundle/replay/$status/" + replayId);
         }
 
         LOG.info("FHIR-REPLAY Replay started for replayId={} | bundle_count={}",
                 replayId, bundleCount);
-        CompletableFuture.runAsync(() -> {
-            for (Map<String, Object> bundle : bundlesList) {
-                final var bundleId = (String) bundle.get("bundleid");
-                final var bundleInteractionId = (String) bundle.get("interactionid");
-                final var groupInteractionId = (String) bundle.get("groupInteractionId");
-                final var zipInteractionId = (String) bundle.get("zipInteractionID");
-                final var tenant = (String) bundle.get("tenantID");
-                final var source = (String) bundle.get("source");
-                final var requestUri = (String) bundle.get("uri");
-                var errorMessage = (String) bundle.get("errorMessage");
-                var status = "Success";
-                final var provenance = "%s.replayBundles".formatted(FhirReplayService.class.getName());
-                try {
-                    LOG.info(
-                            "FHIR-REPLAY Starting replay of bundle | replayId={} | bundleInteractionId={} | zipInteractionId={} | groupInteractionId={} | bundleId={} | tenantId={} | source={}",
-                            replayId,
-                            bundleInteractionId,
-                            zipInteractionId,
-                            groupInteractionId,
-                            bundleId,
-                            tenant,
-                            source);
-                        // Call scoring engine
-
-                        fhirService.sendToScoringEngine(                                
-                                null,
-                                appConfig.getDefaultDatalakeApiUrl(),
-                                MediaType.APPLICATION_JSON_VALUE,
-                                tenant,
-                                null,
-                                null,
-                                null,
-                                bundleInteractionId,
-                                groupInteractionId,
-                                zipInteractionId,
-                                source,
-                                requestUri,
-                                null,
-                                bundleId,
-                                true,
-                                getNyecPayload(jooqCfg, bundleInteractionId));
+        // the bundles are now recorded in fhir_replay_details; FhirReplayWorker claims and sends them
+        return interimResponse;
+    }
+
+    /**
+     * Claims up to {@code batchSize} bundles of any unfinished replay for
+     * {@code workerId}. Bundles of replays interrupted by a restart are
+     * claimed again once their claim has timed out. Every claim gets its own
+     * id, so a worker whose claim timed out cannot record the outcome of a
+     * bundle claimed again, even by the same worker.
+     */
+    public List<ReplayBundle> claim(final String workerId, final int batchSize) {
+        final var config = appConfig.getFhirReplay();
+        final var claimedBy = workerId + "/" + UUID.randomUUID();
+        return primaryDslContext.resultQuery(
+                "select replay_master_id, bundle_id, hub_interaction_id, tenant_id, source_type, uri, "
+                        + "group_hub_interaction_id, source_hub_interaction_id "
+                        + "from techbd_udi_ingress.claim_fhir_replay_bundles({0}, {1}, {2}, {3})",
+                DSL.val(claimedBy), DSL.val(batchSize), DSL.val(config.getClaimTimeoutSeconds()),
+                DSL.val(config.getMaxAgeHours()))
+                .fetch(record -> new ReplayBundle(
+                        record.get(0, String.class),
+                        record.get(1, String.class),
+                        record.get(2, String.class),
+                        record.get(3, String.class),
+                        record.get(4, String.class),
+                        record.get(5, String.class),
+                        record.get(6, String.class),
+                        record.get(7, String.class),
+                        claimedBy));
+    }
+
+    /**
+     * Sends a claimed bundle to the scoring engine again and, once the scoring
+     * engine has answered, records the outcome in fhir_replay_details unless
+     * the claim was lost meanwhile. Nothing is sent until the returned Mono is
+     * subscribed to.
+     *
+     * @return emits true when the scoring engine accepted the bundle
+     */
+    public Mono<Boolean> replayBundle(final ReplayBundle bundle) {
+        final var replayId = bundle.replayId();
+        final var bundleId = bundle.bundleId();
+        final var bundleInteractionId = bundle.interactionId();
+        final var groupInteractionId = bundle.groupInteractionId();
+        final var zipInteractionId = bundle.zipInteractionId();
+        final var tenant = bundle.tenantId();
+        final var source = bundle.source();
+        return Mono.defer(() -> {
+            LOG.info(
+                    "FHIR-REPLAY Starting replay of bundle | replayId={} | bundleInteractionId={} | zipInteractionId={} | groupInteractionId={} | bundleId={} | tenantId={} | source={}",
+                    replayId,
+                    bundleInteractionId,
+                    zipInteractionId,
+                    groupInteractionId,
+                    bundleId,
+                    tenant,
+                    source);
+            // Call scoring engine
+            return fhirService.forwardToScoringEngine(
+                    null,
+                    appConfig.getDefaultDatalakeApiUrl(),
+                    tenant,
+                    null,
+                    null,
+                    null,
+                    null,
+                    bundleInteractionId,
+                    groupInteractionId,
+                    zipInteractionId,
+                    source,
+                    bundle.uri(),
+                    null,
+                    bundleId,
+                    true,
+                    getNyecPayload(primaryDslContext.configuration(), bundleInteractionId));
+        })
+                // the payload lookup and the status update are blocking database calls
+                .subscribeOn(Schedulers.boundedElastic())
+                .publishOn(Schedulers.boundedElastic())
+                .map(delivered -> {
+                    if (delivered) {
                         LOG.info(
                                 "FHIR-REPLAY Successfully sent bundle | replayId={} | bundleInteractionId={} | zipInteractionId={} | groupInteractionId={} | bundleId={} | tenantId={} | source={}",
                                 replayId,
@@ -141,26 +188,41 @@ public class FhirReplayService {
                                 bundleId,
                                 tenant,
                                 source);
-                    
-                } catch (Exception e) {
+                        completeReplayBundle(bundle, "Success", null);
+                    } else {
+                        LOG.warn("FHIR-REPLAY Scoring engine did not accept bundleId={} for replayId={}",
+                                bundleId, replayId);
+                        completeReplayBundle(bundle, "Failed",
+                                "Scoring engine did not accept the bundle; see the interaction of " + bundleInteractionId);
+                    }
+                    return delivered;
+                })
+                .onErrorResume(e -> {
                     LOG.error("FHIR-REPLAY Failed sending bundleId={} for replayId={} | error={}",
                             bundleId, replayId, e.getMessage(), e);
-                    status = "Failed";
-
                     // Capture full stack trace
                     StringWriter sw = new StringWriter();
                     e.printStackTrace(new PrintWriter(sw));
-                    errorMessage = sw.toString();
-                } finally {
-                    // Always update FHIR replay status and errorMessage
-                        updateFhirStatus(jooqCfg, bundleInteractionId, status, errorMessage, replayId, bundleId);
-                }
-            }
+                    completeReplayBundle(bundle, "Failed", sw.toString());
+                    return Mono.just(false);
+                });
+    }
 
-            LOG.info("FHIR-REPLAY Completed asynchronous processing for replayMasterId={}",
-                    replayId);
-        }, asyncTaskExecutor);
-        return interimResponse;
+    /**
+     * Progress of a replay as recorded in fhir_replay_details: total, pending,
+     * in_progress, succeeded and failed bundle counts and an overall status of
+     * Running, Completed or Not Found.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getReplayStatus(final String replayId) {
+        final var progress = primaryDslContext.select(DSL.field(
+                "techbd_udi_ingress.get_fhir_replay_progress({0})::text", SQLDataType.VARCHAR, DSL.val(replayId)))
+                .fetchOne(0, String.class);
+        try {
+            return Configuration.objectMapper.readValue(progress, Map.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable replay progress for replayId=" + replayId, e);
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -186,26 +248,30 @@ public class FhirReplayService {
     }
 
     /**
-     * Private helper method to update FHIR replay status and errorMessage
+     * Records the outcome of a claimed bundle; ignored when the bundle timed
+     * out and was claimed again while it was being sent.
      */
-    private void updateFhirStatus(final org.jooq.Configuration jooqCfg,String bundleInteractionId, String status, String errorMessage, String replayMasterId, String bundleId) {
+    private void completeReplayBundle(final ReplayBundle bundle, final String status, String errorMessage) {
         try {
-            UpdateFhirReplayStatus updateFhirReplayStatus = new UpdateFhirReplayStatus();
-            updateFhirReplayStatus.setPBundleId(bundleId);
-            updateFhirReplayStatus.setPInteractionId(bundleInteractionId);
-            updateFhirReplayStatus.setPReplayMasterId(replayMasterId);
-            updateFhirReplayStatus.setPStatus(status);
             if (errorMessage != null && errorMessage.length() > 4000) { // adjust length as per DB field
                 errorMessage = errorMessage.substring(0, 4000);
             }
-            updateFhirReplayStatus.setPErrorMessage(errorMessage);
-            updateFhirReplayStatus.execute(jooqCfg);
-
+            final var result = primaryDslContext.select(DSL.field(
+                    "techbd_udi_ingress.complete_fhir_replay_bundle({0}, {1}, {2}, {3}, {4}, {5})",
+                    SQLDataType.VARCHAR, DSL.val(bundle.replayId()), DSL.val(bundle.bundleId()),
+                    DSL.val(bundle.interactionId()), DSL.val(bundle.claimedBy()), DSL.val(status),
+                    DSL.val(errorMessage)))
+                    .fetchOne(0, String.class);
+            if (result == null) {
+                LOG.warn("FHIR-REPLAY Ignored status={} for bundleId={} replayMasterId={}: claim {} was lost",
+                        status, bundle.bundleId(), bundle.replayId(), bundle.claimedBy());
+                return;
+            }
             LOG.info("FHIR-REPLAY Updated status={} for bundleId={} replayMasterId={}",
-                    status, bundleId, replayMasterId);
+                    status, bundle.bundleId(), bundle.replayId());
         } catch (Exception e) {
             LOG.error("FHIR-REPLAY Failed to update FHIR replay status for bundleId={} | error={}",
-                    bundleId, e.getMessage(), e);
+                    bundle.bundleId(), e.getMessage(), e);
         }
     }
 
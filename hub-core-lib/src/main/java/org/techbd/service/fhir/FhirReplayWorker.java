@@ -0,0 +1,125 @@
+package org.techbd.service.fhir;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.techbd.config.CoreAppConfig;
+import org.techbd.util.AppLogger;
+import org.techbd.util.TemplateLogger;
+
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Sends the bundles of FHIR replays recorded in
+ * {@code techbd_udi_ingress.fhir_replay_details} with at most
+ * {@code max-concurrency} bundles in flight. A poll starts a drain unless one
+ * is running; the drain claims the next bundle whenever a send completes and
+ * stops once no replay has any left, so a large replay is not paced by the
+ * poll interval. A bundle's outcome is recorded when the scoring engine
+ * answers. Progress is the replay_status of each bundle, so bundles claimed
+ * by an instance that stopped are claimed again after the claim timeout and a
+ * replay resumes instead of starting over.
+ */
+@Component
+public class FhirReplayWorker {
+
+    private final FhirReplayService replayService;
+    private final CoreAppConfig.FhirReplayConfig config;
+    private final TemplateLogger LOG;
+    private final String workerId;
+    /**
+     * Replays of every tenant are sent to the default scoring engine URL, so
+     * one bucket paces all replays of this instance.
+     */
+    private final TokenBucket rateLimit;
+    private Disposable drain;
+    private boolean stopped;
+
+    public FhirReplayWorker(final FhirReplayService replayService, final CoreAppConfig coreAppConfig,
+            final AppLogger appLogger) {
+        this.replayService = replayService;
+        this.config = coreAppConfig.getFhirReplay();
+        this.LOG = appLogger.getLogger(FhirReplayWorker.class);
+        this.workerId = hostName() + "-" + UUID.randomUUID();
+        this.rateLimit = new TokenBucket(config.getRatePerSecond(), config.getBurst());
+    }
+
+    @Scheduled(fixedDelayString = "${org.techbd.fhir-replay.poll-interval-ms:5000}")
+    public synchronized void poll() {
+        if (!config.isWorkerEnabled() || stopped || (drain != null && !drain.isDisposed())) {
+            return;
+        }
+        // claims and token waits block, so the source runs on its own worker rather than on the
+        // thread that completed the previous send
+        drain = Flux.<FhirReplayService.ReplayBundle>generate(sink -> {
+            final var bundle = claimNext();
+            if (bundle == null) {
+                sink.complete();
+            } else {
+                sink.next(bundle);
+            }
+        })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(this::replay, config.getMaxConcurrency())
+                .subscribe(null,
+                        error -> LOG.error("FhirReplayWorker:: replay drain of worker {} failed", workerId, error));
+    }
+
+    /**
+     * Waits for a token before claiming, so that a claimed bundle is sent
+     * straight away.
+     *
+     * @return null when no replay has a bundle left or the claim failed
+     */
+    private FhirReplayService.ReplayBundle claimNext() {
+        try {
+            rateLimit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        try {
+            return replayService.claim(workerId, 1).stream().findFirst().orElse(null);
+        } catch (Exception e) {
+            LOG.error("FhirReplayWorker:: failed to claim the next replay bundle for worker {}", workerId, e);
+            return null;
+        }
+    }
+
+    private Mono<Boolean> replay(final FhirReplayService.ReplayBundle bundle) {
+        return replayService.replayBundle(bundle)
+                .onErrorResume(e -> {
+                    // replayBundle records its own failures; this is a failure to record the status
+                    LOG.error("FhirReplayWorker:: could not replay bundleId: {} of replayId: {}", bundle.bundleId(),
+                            bundle.replayId(), e);
+                    return Mono.just(false);
+                });
+    }
+
+    /**
+     * Bundles still in flight stay In Progress and are claimed again after the
+     * claim timeout.
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        stopped = true;
+        if (drain != null) {
+            drain.dispose();
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package org.techbd.service.fhir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.Security;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import javax.net.ssl.SSLException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.techbd.config.CoreAppConfig;
+import org.techbd.config.CoreAppConfig.MTlsAwsSecrets;
+import org.techbd.config.CoreAppConfig.MTlsResources;
+import org.techbd.util.AppLogger;
+import org.techbd.util.TemplateLogger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import jakarta.annotation.PreDestroy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+
+/**
+ * Keeps one {@link WebClient} per (tenant, mTLS strategy, scoring engine URL)
+ * so that forwarded bundles reuse TLS sessions and pooled connections instead
+ * of building a new {@link SslContext}, Reactor Netty {@link HttpClient} and
+ * {@link WebClient} per bundle.
+ * <p>
+ * Key and certificate material is cached: AWS Secrets Manager values for
+ * {@code org.techbd.scoring-engine-client.secret-ttl-seconds}, mTLS resource
+ * files until their size or modification time changes. When a refreshed secret
+ * comes back with a new version id (rotation) the affected clients are rebuilt
+ * on their next use. A TLS handshake failure evicts the client and the cached
+ * secrets it was built from, so a rotation that happens inside the TTL is
+ * picked up by the following request.
+ * <p>
+ * All clients share one {@link ConnectionProvider}; Reactor Netty keeps a
+ * separate connection pool per remote address and TLS configuration within it.
+ */
+@Component
+public class ScoringEngineClientPool {
+
+    static final String METRIC_CLIENTS = "techbd.scoring_engine.clients";
+    static final String METRIC_CLIENT_BUILDS = "techbd.scoring_engine.client.builds";
+    static final String METRIC_CLIENT_EVICTIONS = "techbd.scoring_engine.client.evictions";
+    static final String METRIC_SECRET_LOOKUPS = "techbd.scoring_engine.secret.lookups";
+
+    private final CoreAppConfig.ScoringEngineClientConfig config;
+    private final Supplier<SecretsManagerClient> secretsManagerClientFactory;
+    private final MeterRegistry meterRegistry;
+    private final TemplateLogger LOG;
+    private final ConnectionProvider connectionProvider;
+    private final Map<ClientKey, PooledClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, CachedSecret> secrets = new ConcurrentHashMap<>();
+    private final Map<String, Object> secretLocks = new ConcurrentHashMap<>();
+    private volatile SecretsManagerClient secretsManagerClient;
+
+    record ClientKey(String tenantId, String strategy, String baseUrl) {
+    }
+
+    /**
+     * @param fingerprint identifies the key material the client was built from
+     * @param secretNames secrets to evict when the client fails a TLS handshake
+     */
+    private record PooledClient(String fingerprint, WebClient webClient, List<String> secretNames) {
+    }
+
+    private record CachedSecret(String value, String versionId, long expiresAtNanos) {
+    }
+
+    @Autowired
+    public ScoringEngineClientPool(final CoreAppConfig coreAppConfig,
+            final ObjectProvider<MeterRegistry> meterRegistry, final AppLogger appLogger) {
+        this(coreAppConfig, null, meterRegistry.getIfAvailable(SimpleMeterRegistry::new), appLogger);
+    }
+
+    ScoringEngineClientPool(final CoreAppConfig coreAppConfig,
+            final Supplier<SecretsManagerClient> secretsManagerClientFactory, final MeterRegistry meterRegistry,
+            final AppLogger appLogger) {
+        this.config = coreAppConfig.getScoringEngineClient();
+        this.secretsManagerClientFactory = secretsManagerClientFactory != null ? secretsManagerClientFactory
+                : this::buildSecretsManagerClient;
+        this.meterRegistry = meterRegistry;
+        this.LOG = appLogger.getLogger(ScoringEngineClientPool.class);
+        this.connectionProvider = ConnectionProvider.builder("scoring-engine")
+                .maxConnections(config.getMaxConnections())
+                .pendingAcquireTimeout(Duration.ofSeconds(config.getPendingAcquireTimeoutSeconds()))
+                .maxIdleTime(Duration.ofSeconds(config.getMaxIdleTimeSeconds()))
+                .maxLifeTime(Duration.ofSeconds(config.getMaxLifeTimeSeconds()))
+                .evictInBackground(Duration.ofSeconds(config.getMaxIdleTimeSeconds()))
+                // pools keyed by a rotated-away TLS configuration are dropped once idle
+                .disposeInactivePoolsInBackground(Duration.ofMinutes(1), Duration.ofMinutes(5))
+                .metrics(true)
+                .build();
+        Gauge.builder(METRIC_CLIENTS, clients, Map::size)
+                .description("Pooled scoring engine WebClients")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Client authenticated with the key and certificate stored in AWS Secrets
+     * Manager under the configured secret names.
+     */
+    public WebClient getAwsSecretsClient(final String tenantId, final String baseUrl,
+            final MTlsAwsSecrets mTlsAwsSecrets) {
+        if (null == mTlsAwsSecrets || null == mTlsAwsSecrets.mTlsKeySecretName()
+                || null == mTlsAwsSecrets.mTlsCertSecretName()) {
+            throw new IllegalArgumentException(
+                    "######## Strategy defined is aws-secrets but mTlsKeySecretName and mTlsCertSecretName is not correctly configured. ######### ");
+        }
+        final var key = new ClientKey(tenantId, FHIRService.MTlsStrategy.AWS_SECRETS.getValue(), baseUrl);
+        final var keySecret = getCachedSecret(mTlsAwsSecrets.mTlsKeySecretName());
+        final var certSecret = getCachedSecret(mTlsAwsSecrets.mTlsCertSecretName());
+        if (StringUtils.isEmpty(certSecret.value())) {
+            throw new IllegalArgumentException(
+                    "Certifcate read from secrets manager with certficate secret name : {} is null "
+                            + mTlsAwsSecrets.mTlsCertSecretName());
+        }
+        if (StringUtils.isEmpty(keySecret.value())) {
+            throw new IllegalArgumentException(
+                    "Private key read from secrets manager with key secret name : {} is null "
+                            + mTlsAwsSecrets.mTlsKeySecretName());
+        }
+        final var fingerprint = keySecret.versionId() + "/" + certSecret.versionId();
+        return getOrBuild(key, fingerprint, () -> sslContext(certSecret.value(), keySecret.value()),
+                mTlsAwsSecrets.mTlsKeySecretName(), mTlsAwsSecrets.mTlsCertSecretName());
+    }
+
+    /**
+     * Client authenticated with the key and certificate read from the
+     * configured files. The files are only read again after they change.
+     */
+    public WebClient getMtlsResourcesClient(final String tenantId, final String baseUrl,
+            final MTlsResources mTlsResources) throws IOException {
+        if (null == mTlsResources.mTlsKeyResourceName()) {
+            throw new IllegalArgumentException(
+                    "Client key location `mTlsKeyResourceName` is not configured in application.yml");
+        }
+        if (null == mTlsResources.mTlsCertResourceName()) {
+            throw new IllegalArgumentException(
+                    "Client certificate location `mTlsCertResourceName` not configured in application.yml");
+        }
+        final var keyPath = Paths.get(mTlsResources.mTlsKeyResourceName());
+        final var certPath = Paths.get(mTlsResources.mTlsCertResourceName());
+        final var key = new ClientKey(tenantId, FHIRService.MTlsStrategy.MTLS_RESOURCES.getValue(), baseUrl);
+        final var fingerprint = fileFingerprint(keyPath) + "/" + fileFingerprint(certPath);
+        return getOrBuild(key, fingerprint, () -> {
+            try {
+                return sslContext(Files.readString(certPath), Files.readString(keyPath));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Unable to read mTLS key or certificate from "
+                        + keyPath + " / " + certPath, e);
+            }
+        });
+    }
+
+    /**
+     * Client without client certificates, still sharing the pooled connections.
+     */
+    public WebClient getClient(final String tenantId, final String strategy, final String baseUrl) {
+        return getOrBuild(new ClientKey(tenantId, strategy, baseUrl), "", () -> null);
+    }
+
+    /**
+     * Secret value cached for the configured TTL; used for API keys sent with
+     * every forwarded bundle.
+     */
+    public String getSecret(final String secretName) {
+        return getCachedSecret(secretName).value();
+    }
+
+    /**
+     * Drops the pooled client so that the next request rebuilds it, re-reading
+     * the secrets it was built from.
+     */
+    public void evict(final String tenantId, final String strategy, final String baseUrl) {
+        evict(new ClientKey(tenantId, strategy, baseUrl), null, "manual");
+    }
+
+    int size() {
+        return clients.size();
+    }
+
+    private WebClient getOrBuild(final ClientKey key, final String fingerprint,
+            final Supplier<SslContext> sslContextSupplier, final String... secretNames) {
+        final var existing = clients.get(key);
+        if (existing != null && existing.fingerprint().equals(fingerprint)) {
+            return existing.webClient();
+        }
+        return clients.compute(key, (k, current) -> {
+            if (current != null && current.fingerprint().equals(fingerprint)) {
+                return current;
+            }
+            if (current != null) {
+                LOG.info("ScoringEngineClientPool:: key material changed, rebuilding client for tenant: {} strategy: {} url: {}",
+                        k.tenantId(), k.strategy(), k.baseUrl());
+                counter(METRIC_CLIENT_EVICTIONS, "reason", "rotated", "strategy", k.strategy()).increment();
+            }
+            final var webClient = build(k, fingerprint, sslContextSupplier.get());
+            counter(METRIC_CLIENT_BUILDS, "strategy", k.strategy()).increment();
+            return new PooledClient(fingerprint, webClient, List.of(secretNames));
+        }).webClient();
+    }
+
+    private WebClient build(final ClientKey key, final String fingerprint, final SslContext sslContext) {
+        LOG.info("ScoringEngineClientPool:: building client for tenant: {} strategy: {} url: {}",
+                key.tenantId(), key.strategy(), key.baseUrl());
+        var httpClient = HttpClient.create(connectionProvider)
+                .responseTimeout(Duration.ofSeconds(config.getResponseTimeoutSeconds()));
+        if (sslContext != null) {
+            httpClient = httpClient.secure(sslSpec -> sslSpec.sslContext(sslContext));
+        }
+        return WebClient.builder()
+                .baseUrl(key.baseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(evictOnTlsFailure(key, fingerprint))
+                .build();
+    }
+
+    private ExchangeFilterFunction evictOnTlsFailure(final ClientKey key, final String fingerprint) {
+        return (request, next) -> next.exchange(request)
+                .doOnError(ScoringEngineClientPool::isTlsFailure, error -> evict(key, fingerprint, "tls_failure"));
+    }
+
+    private static boolean isTlsFailure(final Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SSLException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void evict(final ClientKey key, final String fingerprint, final String reason) {
+        final var current = clients.get(key);
+        if (current == null || (fingerprint != null && !current.fingerprint().equals(fingerprint))) {
+            return;
+        }
+        if (clients.remove(key, current)) {
+            LOG.warn("ScoringEngineClientPool:: evicted client for tenant: {} strategy: {} url: {} reason: {}",
+                    key.tenantId(), key.strategy(), key.baseUrl(), reason);
+            counter(METRIC_CLIENT_EVICTIONS, "reason", reason, "strategy", key.strategy()).increment();
+            // the secrets may have been rotated since they were cached
+            current.secretNames().forEach(secrets::remove);
+        }
+    }
+
+    private CachedSecret getCachedSecret(final String secretName) {
+        final var cached = secrets.get(secretName);
+        if (isFresh(cached)) {
+            counter(METRIC_SECRET_LOOKUPS, "result", "hit").increment();
+            return cached;
+        }
+        // one lookup per secret at a time, made outside the map so that a slow Secrets Manager call does not
+        // block lookups and evictions of other secrets
+        synchronized (secretLocks.computeIfAbsent(secretName, name -> new Object())) {
+            final var current = secrets.get(secretName);
+            if (isFresh(current)) {
+                counter(METRIC_SECRET_LOOKUPS, "result", "hit").increment();
+                return current;
+            }
+            final var refreshed = fetchSecret(secretName, current);
+            secrets.put(secretName, refreshed);
+            return refreshed;
+        }
+    }
+
+    private CachedSecret fetchSecret(final String name, final CachedSecret current) {
+        try {
+            final GetSecretValueResponse response = secretsManagerClient().getSecretValue(
+                    GetSecretValueRequest.builder().secretId(name).build());
+            final var rotated = current != null && !current.versionId().equals(response.versionId());
+            counter(METRIC_SECRET_LOOKUPS, "result", rotated ? "rotated" : "fetched").increment();
+            if (rotated) {
+                LOG.info("ScoringEngineClientPool:: secret {} rotated to version {}", name, response.versionId());
+            }
+            return new CachedSecret(response.secretString(), String.valueOf(response.versionId()), expiresAt());
+        } catch (RuntimeException e) {
+            counter(METRIC_SECRET_LOOKUPS, "result", "error").increment();
+            if (current == null) {
+                throw e;
+            }
+            // keep forwarding with the last known material while Secrets Manager is unavailable
+            LOG.error("ScoringEngineClientPool:: refreshing secret {} failed, reusing cached version {}",
+                    name, current.versionId(), e);
+            return new CachedSecret(current.value(), current.versionId(), expiresAt());
+        }
+    }
+
+    private static boolean isFresh(final CachedSecret secret) {
+        return secret != null && System.nanoTime() - secret.expiresAtNanos() < 0;
+    }
+
+    private long expiresAt() {
+        return System.nanoTime() + Duration.ofSeconds(config.getSecretTtlSeconds()).toNanos();
+    }
+
+    private SecretsManagerClient secretsManagerClient() {
+        var client = secretsManagerClient;
+        if (client == null) {
+            synchronized (this) {
+                client = secretsManagerClient;
+                if (client == null) {
+                    client = secretsManagerClientFactory.get();
+                    secretsManagerClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    private SecretsManagerClient buildSecretsManagerClient() {
+        final var builder = SecretsManagerClient.builder().region(Region.of(config.getSecretsManagerRegion()));
+        if (StringUtils.isNotEmpty(config.getSecretsManagerEndpoint())) {
+            builder.endpointOverride(URI.create(config.getSecretsManagerEndpoint()));
+        }
+        return builder.build();
+    }
+
+    private static SslContext sslContext(final String certificate, final String privateKey) {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+        try {
+            return SslContextBuilder.forClient()
+                    .keyManager(new ByteArrayInputStream(certificate.getBytes(StandardCharsets.UTF_8)),
+                            new ByteArrayInputStream(privateKey.getBytes(StandardCharsets.UTF_8)))
+                    .build();
+        } catch (SSLException e) {
+            throw new IllegalArgumentException("Invalid mTLS key or certificate", e);
+        }
+    }
+
+    private static String fileFingerprint(final Path path) throws IOException {
+        return Files.size(path) + ":" + Files.getLastModifiedTime(path).toMillis();
+    }
+
+    private Counter counter(final String name, final String... tags) {
+        return meterRegistry.counter(name, tags);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clients.clear();
+        connectionProvider.dispose();
+        if (secretsManagerClient != null) {
+            secretsManagerClient.close();
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package org.techbd.service.fhir;
+
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.techbd.config.CoreAppConfig;
+import org.techbd.util.AppLogger;
+import org.techbd.util.TemplateLogger;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.PrematureCloseException;
+import reactor.util.retry.Retry;
+
+/**
+ * Wraps every POST to the scoring engine with
+ * <ul>
+ * <li>a per-tenant in-flight limit, so that a slow endpoint cannot accumulate
+ * an unbounded number of open requests; forwards over the limit wait in a
+ * bounded per-tenant queue (without blocking a thread) for up to
+ * {@code queue-timeout-ms},</li>
+ * <li>exponential retry with jitter for failures after which the bundle cannot
+ * have reached the endpoint: connection failures and the configured retryable
+ * status codes. The forward is a non-idempotent POST, so errors after the
+ * request may have been written, 408 and 504 are never retried, and</li>
+ * <li>a circuit breaker per endpoint that fails fast once the endpoint keeps
+ * failing.</li>
+ * </ul>
+ * A forward that still fails is registered by {@link FHIRService} as
+ * {@code Forwarded HTTP Response Error}, which is the state
+ * {@link FhirReplayService} replays from.
+ */
+@Component
+public class ScoringEngineForwarder {
+
+    static final String METRIC_FORWARD = "techbd.scoring_engine.forward";
+    static final String METRIC_FORWARD_RETRIES = "techbd.scoring_engine.forward.retries";
+    static final String METRIC_FORWARD_IN_FLIGHT = "techbd.scoring_engine.forward.in_flight";
+    static final String METRIC_FORWARD_QUEUED = "techbd.scoring_engine.forward.queued";
+    static final String METRIC_CIRCUIT_STATE = "techbd.scoring_engine.circuit.state";
+
+    static final String OUTCOME_SUCCESS = "success";
+    static final String OUTCOME_ERROR = "error";
+    static final String OUTCOME_CIRCUIT_OPEN = "circuit_open";
+    static final String OUTCOME_IN_FLIGHT_LIMIT = "in_flight_limit";
+
+    private final CoreAppConfig.ScoringEngineForwardConfig config;
+    private final MeterRegistry meterRegistry;
+    private final TemplateLogger LOG;
+    /** The endpoint may have received the request before answering with these. */
+    private static final Set<Integer> NEVER_RETRIED_STATUS_CODES = Set.of(408, 504);
+
+    private final Map<String, InFlightLimit> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * Raised without calling the endpoint while its circuit is open.
+     */
+    public static class CircuitOpenException extends RuntimeException {
+        public CircuitOpenException(final String endpoint) {
+            super("Circuit open for scoring engine endpoint " + endpoint + "; forward will be replayed");
+        }
+    }
+
+    /**
+     * Raised when a tenant has the maximum number of forwards in flight and
+     * its queue is full or the forward waited longer than the queue timeout.
+     */
+    public static class InFlightLimitException extends RuntimeException {
+        public InFlightLimitException(final String message) {
+            super(message);
+        }
+    }
+
+    @Autowired
+    public ScoringEngineForwarder(final CoreAppConfig coreAppConfig,
+            final ObjectProvider<MeterRegistry> meterRegistry, final AppLogger appLogger) {
+        this(coreAppConfig, meterRegistry.getIfAvailable(SimpleMeterRegistry::new), appLogger);
+    }
+
+    ScoringEngineForwarder(final CoreAppConfig coreAppConfig, final MeterRegistry meterRegistry,
+            final AppLogger appLogger) {
+        this.config = coreAppConfig.getScoringEngineForward();
+        this.meterRegistry = meterRegistry;
+        this.LOG = appLogger.getLogger(ScoringEngineForwarder.class);
+    }
+
+    /**
+     * Subscribes to {@code request} (once per attempt) under the in-flight
+     * limit of {@code tenantId}, the retry policy and the circuit breaker of
+     * {@code endpoint}.
+     */
+    public Mono<String> forward(final String tenantId, final String endpoint,
+            final Supplier<Mono<String>> request) {
+        final var tenant = tenantId == null ? "unknown" : tenantId;
+        final var limit = inFlight.computeIfAbsent(tenant, this::newInFlightLimit);
+        final var circuitBreaker = circuitBreakers.computeIfAbsent(endpoint, this::newCircuitBreaker);
+        final var sample = Timer.start(meterRegistry);
+        return Mono.defer(() -> attempt(limit, circuitBreaker, request))
+                .retryWhen(Retry.backoff(config.getMaxRetries(), Duration.ofMillis(config.getInitialBackoffMs()))
+                        .maxBackoff(Duration.ofMillis(config.getMaxBackoffMs()))
+                        .jitter(config.getJitter())
+                        .filter(this::isRetryable)
+                        .doBeforeRetry(signal -> {
+                            LOG.warn("ScoringEngineForwarder:: retry {} for tenant: {} endpoint: {} after: {}",
+                                    signal.totalRetries() + 1, tenant, endpoint, signal.failure().toString());
+                            meterRegistry.counter(METRIC_FORWARD_RETRIES, "tenant", tenant).increment();
+                        })
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .doOnSuccess(response -> sample.stop(timer(tenant, OUTCOME_SUCCESS)))
+                .doOnError(error -> sample.stop(timer(tenant, outcome(error))));
+    }
+
+    private Mono<String> attempt(final InFlightLimit limit, final CircuitBreaker circuitBreaker,
+            final Supplier<Mono<String>> request) {
+        // the permit is released by the doFinally of whatever runs once it is granted
+        return limit.acquire().then(Mono.defer(() -> call(circuitBreaker, request))
+                .doFinally(signal -> limit.release()));
+    }
+
+    private Mono<String> call(final CircuitBreaker circuitBreaker, final Supplier<Mono<String>> request) {
+        if (!circuitBreaker.tryAcquire()) {
+            return Mono.error(new CircuitOpenException(circuitBreaker.endpoint));
+        }
+        return Mono.defer(request)
+                .doOnSuccess(response -> circuitBreaker.onSuccess())
+                .doOnError(error -> {
+                    if (isEndpointFailure(error)) {
+                        circuitBreaker.onFailure();
+                    } else {
+                        // the endpoint answered; a client error says nothing about its health
+                        circuitBreaker.onSuccess();
+                    }
+                })
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        circuitBreaker.onCancel();
+                    }
+                });
+    }
+
+    /**
+     * Only failures after which the endpoint cannot have processed the bundle
+     * are retried; retrying anything else could submit the bundle twice.
+     */
+    boolean isRetryable(final Throwable error) {
+        if (error instanceof WebClientRequestException) {
+            return isConnectFailure(error);
+        }
+        if (error instanceof WebClientResponseException responseException) {
+            final int status = responseException.getStatusCode().value();
+            return !NEVER_RETRIED_STATUS_CODES.contains(status) && config.getRetryableStatusCodes().contains(status);
+        }
+        return false;
+    }
+
+    /**
+     * The connection was never established, so nothing was written. Errors on
+     * an established connection (reset, premature close, read timeout) may
+     * come after the request was sent.
+     */
+    private static boolean isConnectFailure(final Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            // io.netty.channel.ConnectTimeoutException is a ConnectException
+            if (cause instanceof ConnectException || cause instanceof UnknownHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The endpoint could not be reached or did not answer in time: connect
+     * errors, timeouts (the caller's {@code .timeout()} or the client's
+     * response timeout) and connections closed before a response.
+     */
+    private boolean isEndpointFailure(final Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            // io.netty.handler.timeout.ReadTimeoutException is a netty TimeoutException, not a java.util.concurrent one
+            if (cause instanceof WebClientRequestException || cause instanceof TimeoutException
+                    || cause instanceof io.netty.handler.timeout.TimeoutException
+                    || cause instanceof ConnectException || cause instanceof UnknownHostException
+                    || cause instanceof PrematureCloseException) {
+                return true;
+            }
+        }
+        return error instanceof WebClientResponseException responseException
+                && (responseException.getStatusCode().is5xxServerError()
+                        || config.getRetryableStatusCodes().contains(responseException.getStatusCode().value()));
+    }
+
+    private static String outcome(final Throwable error) {
+        if (error instanceof CircuitOpenException) {
+            return OUTCOME_CIRCUIT_OPEN;
+        }
+        if (error instanceof InFlightLimitException) {
+            return OUTCOME_IN_FLIGHT_LIMIT;
+        }
+        return OUTCOME_ERROR;
+    }
+
+    private Timer timer(final String tenant, final String outcome) {
+        return Timer.builder(METRIC_FORWARD)
+                .description("Scoring engine forward latency including retries")
+                .tag("tenant", tenant)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private InFlightLimit newInFlightLimit(final String tenant) {
+        final var limit = new InFlightLimit(tenant);
+        Gauge.builder(METRIC_FORWARD_IN_FLIGHT, limit, InFlightLimit::inFlight)
+                .tag("tenant", tenant)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_FORWARD_QUEUED, limit, InFlightLimit::queued)
+                .description("Forwards waiting for the per-tenant in-flight limit")
+                .tag("tenant", tenant)
+                .register(meterRegistry);
+        return limit;
+    }
+
+    private CircuitBreaker newCircuitBreaker(final String endpoint) {
+        final var circuitBreaker = new CircuitBreaker(endpoint);
+        Gauge.builder(METRIC_CIRCUIT_STATE, circuitBreaker, CircuitBreaker::state)
+                .description("0 = closed, 1 = half open, 2 = open")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        return circuitBreaker;
+    }
+
+    CircuitBreaker circuitBreaker(final String endpoint) {
+        return circuitBreakers.get(endpoint);
+    }
+
+    /**
+     * At most {@code max-in-flight-per-tenant} permits; further callers wait in
+     * arrival order in a queue of at most {@code max-queued-per-tenant} for up
+     * to {@code queue-timeout-ms}. A released permit is handed straight to the
+     * oldest waiter, which resumes on the parallel scheduler rather than on
+     * the releasing thread. A waiter that gives up after being granted passes
+     * the permit on, so a permit is never lost.
+     */
+    final class InFlightLimit {
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int DELIVERED = 2;
+        private static final int ABANDONED = 3;
+
+        private final String tenant;
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        private int inFlight;
+
+        private InFlightLimit(final String tenant) {
+            this.tenant = tenant;
+        }
+
+        private final class Waiter {
+            private final MonoSink<Void> sink;
+            private final AtomicInteger state = new AtomicInteger(WAITING);
+            private volatile Disposable expiry;
+
+            private Waiter(final MonoSink<Void> sink) {
+                this.sink = sink;
+            }
+
+            private void expire() {
+                if (state.compareAndSet(WAITING, ABANDONED)) {
+                    remove(this);
+                    sink.error(new InFlightLimitException("Tenant " + tenant + " waited more than "
+                            + config.getQueueTimeoutMs() + "ms for one of its "
+                            + config.getMaxInFlightPerTenant() + " scoring engine forwards in flight"));
+                }
+            }
+
+            private void cancel() {
+                if (state.compareAndSet(WAITING, ABANDONED)) {
+                    remove(this);
+                    final var pendingExpiry = expiry;
+                    if (pendingExpiry != null) {
+                        pendingExpiry.dispose();
+                    }
+                } else if (state.compareAndSet(GRANTED, ABANDONED)) {
+                    release();
+                }
+            }
+
+            private boolean grant() {
+                if (!state.compareAndSet(WAITING, GRANTED)) {
+                    return false;
+                }
+                final var pendingExpiry = expiry;
+                if (pendingExpiry != null) {
+                    pendingExpiry.dispose();
+                }
+                Schedulers.parallel().schedule(() -> {
+                    if (state.compareAndSet(GRANTED, DELIVERED)) {
+                        sink.success();
+                    }
+                });
+                return true;
+            }
+        }
+
+        Mono<Void> acquire() {
+            return Mono.create(sink -> {
+                final var waiter = new Waiter(sink);
+                sink.onCancel(waiter::cancel);
+                final boolean permitTaken;
+                synchronized (this) {
+                    if (inFlight < config.getMaxInFlightPerTenant()) {
+                        inFlight++;
+                        permitTaken = true;
+                    } else if (waiters.size() < config.getMaxQueuedPerTenant()) {
+                        waiters.add(waiter);
+                        permitTaken = false;
+                    } else {
+                        sink.error(new InFlightLimitException("Tenant " + tenant + " already has "
+                                + config.getMaxInFlightPerTenant() + " scoring engine forwards in flight and "
+                                + config.getMaxQueuedPerTenant() + " queued"));
+                        return;
+                    }
+                }
+                if (permitTaken) {
+                    if (waiter.state.compareAndSet(WAITING, DELIVERED)) {
+                        sink.success();
+                    } else {
+                        // cancelled while taking the permit
+                        release();
+                    }
+                    return;
+                }
+                waiter.expiry = Schedulers.parallel().schedule(waiter::expire, config.getQueueTimeoutMs(),
+                        TimeUnit.MILLISECONDS);
+            });
+        }
+
+        void release() {
+            while (true) {
+                final Waiter next;
+                synchronized (this) {
+                    next = waiters.poll();
+                    if (next == null) {
+                        inFlight--;
+                        return;
+                    }
+                }
+                // the permit moves to the waiter; inFlight is unchanged
+                if (next.grant()) {
+                    return;
+                }
+            }
+        }
+
+        private synchronized void remove(final Waiter waiter) {
+            waiters.remove(waiter);
+        }
+
+        synchronized int inFlight() {
+            return inFlight;
+        }
+
+        synchronized int queued() {
+            return waiters.size();
+        }
+    }
+
+    /**
+     * Opens after {@code circuit-failure-threshold} consecutive endpoint
+     * failures. Once {@code circuit-open-seconds} have elapsed a single trial
+     * request is let through; its outcome closes or re-opens the circuit.
+     */
+    final class CircuitBreaker {
+        private final String endpoint;
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicBoolean trialInFlight = new AtomicBoolean();
+        private volatile long openUntilNanos;
+        private volatile boolean open;
+
+        private CircuitBreaker(final String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        boolean tryAcquire() {
+            if (!open) {
+                return true;
+            }
+            if (System.nanoTime() - openUntilNanos < 0) {
+                return false;
+            }
+            return trialInFlight.compareAndSet(false, true);
+        }
+
+        void onSuccess() {
+            if (open) {
+                LOG.info("ScoringEngineForwarder:: circuit closed for endpoint: {}", endpoint);
+            }
+            consecutiveFailures.set(0);
+            open = false;
+            trialInFlight.set(false);
+        }
+
+        void onFailure() {
+            if (trialInFlight.compareAndSet(true, false)
+                    || consecutiveFailures.incrementAndGet() >= config.getCircuitFailureThreshold()) {
+                if (!open) {
+                    LOG.warn("ScoringEngineForwarder:: circuit opened for endpoint: {} for {} seconds",
+                            endpoint, config.getCircuitOpenSeconds());
+                }
+                openUntilNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getCircuitOpenSeconds());
+                open = true;
+            }
+        }
+
+        void onCancel() {
+            trialInFlight.set(false);
+        }
+
+        int state() {
+            if (!open) {
+                return 0;
+            }
+            return System.nanoTime() - openUntilNanos < 0 ? 2 : 1;
+        }
+    }
+}
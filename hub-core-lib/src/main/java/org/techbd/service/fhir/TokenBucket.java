@@ -0,0 +1,59 @@
+package org.techbd.service.fhir;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket limiting how often {@link FhirReplayWorker} sends to one
+ * scoring engine URL. Tokens refill continuously at {@code ratePerSecond} up
+ * to {@code burst}. A caller that finds the bucket empty still takes its token
+ * (the balance goes negative) and sleeps until the token would have been
+ * refilled, so waiting callers are served in the order they arrived and the
+ * lock is never held while sleeping.
+ */
+final class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final LongSupplier nanoClock;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(final double ratePerSecond, final int burst) {
+        this(ratePerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(final double ratePerSecond, final int burst, final LongSupplier nanoClock) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException(
+                    "ratePerSecond must be positive and burst at least 1, was " + ratePerSecond + "/" + burst);
+        }
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.nanoClock = nanoClock;
+        this.tokens = burst;
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    /**
+     * Blocks until a token is available.
+     */
+    void acquire() throws InterruptedException {
+        final long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Takes a token and returns how many nanoseconds the caller has to wait
+     * before using it.
+     */
+    synchronized long reserve() {
+        final long now = nanoClock.getAsLong();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+}
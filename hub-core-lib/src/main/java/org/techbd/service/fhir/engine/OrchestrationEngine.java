@@ -1,5 +1,6 @@
 package org.techbd.service.fhir.engine;
 
+import java.io.IOException;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.UnknownHostException;
@@ -8,19 +9,17 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringEscapeUtils;
@@ -42,6 +41,8 @@ import org.techbd.config.CoreAppConfig.FhirV4Config;
 import org.techbd.exceptions.ErrorCode;
 import org.techbd.exceptions.JsonValidationException;
 import org.techbd.service.fhir.validation.FhirBundleValidator;
+import org.techbd.service.fhir.validation.FhirBundleValidatorRoutes;
+import org.techbd.service.fhir.validation.IgSnapshotCache;
 import org.techbd.service.fhir.validation.PostPopulateSupport;
 import org.techbd.service.fhir.validation.PrePopulateSupport;
 import org.techbd.util.AppLogger;
@@ -49,19 +50,22 @@ import org.techbd.util.JsonText.JsonTextSerializer;
 import org.techbd.util.TemplateLogger;
 import org.techbd.util.fhir.CoreFHIRUtil;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.context.support.DefaultProfileValidationSupport;
-import ca.uhn.fhir.parser.LenientErrorHandler;
+import ca.uhn.fhir.parser.IParser;
+import ca.uhn.fhir.util.VersionUtil;
 import ca.uhn.fhir.validation.FhirValidator;
 import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
 import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -146,12 +150,14 @@ public class OrchestrationEngine {
     private final CoreAppConfig coreAppConfig;
     private final TemplateLogger LOG;
     private final AppLogger appLogger;
+    private final FhirContext fhirContext;
     private Tracer tracer;
 
-    public OrchestrationEngine(final CoreAppConfig coreAppConfig, AppLogger appLogger) {
+    public OrchestrationEngine(final CoreAppConfig coreAppConfig, AppLogger appLogger, final FhirContext fhirContext) {
         this.sessions = new ConcurrentHashMap<>();
         this.coreAppConfig = coreAppConfig;
-        this.validationEngineCache = new HashMap<>();
+        this.fhirContext = fhirContext;
+        this.validationEngineCache = new ConcurrentHashMap<>();
         this.tracer = GlobalOpenTelemetry.get().getTracer("OrchestrationEngine");
         LOG = appLogger.getLogger(OrchestrationEngine.class);
         this.appLogger = appLogger;
@@ -199,6 +205,7 @@ public class OrchestrationEngine {
             switch (type) {
                 case HAPI:
                     return new HapiValidationEngine.Builder()
+                            .withFhirContext(fhirContext)
                             .withIgPackages(igPackages)
                             .withTracer(tracer)
                             .withAppLogger(appLogger)
@@ -285,23 +292,30 @@ public class OrchestrationEngine {
         private final Observability observability;
         private final Instant engineInitAt = Instant.now();
         private final Instant engineConstructedAt;
-        private String fhirProfileUrl;
+        private final String fhirProfileUrl;
         private final FhirContext fhirContext;
+        // parsers are not thread safe and every request thread validates through this engine, so each keeps its own
+        @Getter(AccessLevel.NONE)
+        private final ThreadLocal<IParser> jsonParser;
         private final Map<String, FhirV4Config> igPackages;
-        private String igVersion;
+        private final String igVersion;
         private final Tracer tracer;
         private final AppLogger appLogger;
         private final TemplateLogger LOG;
         private final String interactionId;
-        private final List<FhirBundleValidator> fhirBundleValidators;
-        
+        private final AtomicReference<FhirBundleValidatorRoutes> fhirBundleValidatorRoutes;
+        private final IgSnapshotCache igSnapshotCache;
+
         private HapiValidationEngine(final Builder builder) {
             this.fhirProfileUrl = builder.fhirProfileUrl;
-            this.fhirContext = FhirContext.forR4();
+            // shared with the rest of the application rather than scanning the R4 model classes again
+            this.fhirContext = builder.fhirContext != null ? builder.fhirContext : FhirContext.forR4Cached();
+            this.jsonParser = ThreadLocal.withInitial(fhirContext::newJsonParser);
             this.engineConstructedAt = Instant.now();
             this.observability = new Observability(HapiValidationEngine.class.getName(),
                     "HAPI version %s (FHIR version %s)"
-                            .formatted("8.2.2", fhirContext.getVersion().getVersion().getFhirVersionString()),
+                            .formatted(VersionUtil.getVersion(),
+                                    fhirContext.getVersion().getVersion().getFhirVersionString()),
                     engineInitAt, engineConstructedAt);
             this.igPackages = builder.igPackages;
             this.igVersion = builder.igVersion;
@@ -309,10 +323,26 @@ public class OrchestrationEngine {
             this.appLogger = builder.appLogger;
             this.LOG = builder.LOG;
             this.interactionId = builder.interactionId;
-            this.fhirBundleValidators = new ArrayList<>();
+            this.fhirBundleValidatorRoutes = new AtomicReference<>(FhirBundleValidatorRoutes.empty());
+            this.igSnapshotCache = isSnapshotCacheEnabled(igPackages)
+                    ? new IgSnapshotCache(resolveSnapshotCachePath(igPackages), tracer, appLogger)
+                    : null;
             initializeFhirBundleValidators();
         }
 
+        private static boolean isSnapshotCacheEnabled(final Map<String, FhirV4Config> igPackages) {
+            final var fhirV4Config = igPackages == null ? null : igPackages.get("fhir-v4");
+            return fhirV4Config == null || fhirV4Config.isSnapshotCacheEnabled();
+        }
+
+        private static Path resolveSnapshotCachePath(final Map<String, FhirV4Config> igPackages) {
+            final var fhirV4Config = igPackages == null ? null : igPackages.get("fhir-v4");
+            if (fhirV4Config != null && StringUtils.isNotBlank(fhirV4Config.getSnapshotCachePath())) {
+                return Path.of(fhirV4Config.getSnapshotCachePath());
+            }
+            return Path.of(System.getProperty("java.io.tmpdir"), "techbd", "ig-snapshots");
+        }
+
         private void initializeFhirBundleValidators() {
             Span span = tracer.spanBuilder("OrchestrationEngine.initializeFhirBundleValidators").startSpan();
             try {
@@ -326,6 +356,7 @@ public class OrchestrationEngine {
                     Map<String, String> basePackages = fhirV4Config.getBasePackages();
                     LOG.info("Number of Base Packages to be loaded :{} interactionId :{} ",
                             null == basePackages ? 0 : basePackages.size(), interactionId);
+                    final List<FhirBundleValidator> fhirBundleValidators = new ArrayList<>();
                     for (Map<String, String> igPackageMap : shinNyPackages.values()) {
                         String packagePath = igPackageMap.get("package-path");
                         String profileBaseUrl = igPackageMap.get("profile-base-url");
@@ -335,7 +366,7 @@ public class OrchestrationEngine {
                                 interactionId);
 
                         FhirBundleValidator bundleValidator = FhirBundleValidator.builder()
-                                .fhirContext(FhirContext.forR4())
+                                .fhirContext(fhirContext)
                                 .fhirValidator(initializeFhirValidator(packagePath, basePackages,profileBaseUrl)) // Pass igPackageMap
                                                                                                    // directly
                                 .baseFHIRUrl(profileBaseUrl)
@@ -344,6 +375,7 @@ public class OrchestrationEngine {
                                 .build();
                         fhirBundleValidators.add(bundleValidator);
                     }
+                    fhirBundleValidatorRoutes.set(FhirBundleValidatorRoutes.of(fhirBundleValidators));
                 } else {
                     LOG.warn("No SHIN-NY IG Packages found in igPackages for interaction id :{}", interactionId);
                 }
@@ -407,6 +439,10 @@ public class OrchestrationEngine {
                 prePopulatedValidationSupport = null;
                 final var postPopulateSupport = new PostPopulateSupport(tracer, appLogger);
                 postPopulateSupport.update(supportChain,profileBaseUrl);
+                if (shinNyPackagePath != null && igSnapshotCache != null) {
+                    igSnapshotCache.apply(fhirContext, supportChain, npmPackageValidationSupport, shinNyPackagePath,
+                            basePackages, profileBaseUrl);
+                }
                 final var cache = new CachingValidationSupport(supportChain);
                 final var instanceValidator = new FhirInstanceValidator(cache);
                 
@@ -422,29 +458,55 @@ public class OrchestrationEngine {
 
         private String extractProfileUrl(String jsonString) {
             try {
-                JsonNode rootNode = Configuration.objectMapper.readTree(jsonString);
-                JsonNode metaNode = rootNode.path("meta").path("profile");
-
-                List<String> profileList = Optional.ofNullable(metaNode)
-                        .filter(JsonNode::isArray)
-                        .map(node -> StreamSupport.stream(node.spliterator(), false)
-                                .map(JsonNode::asText)
-                                .collect(Collectors.toList()))
-                        .orElse(List.of());
-
-                return profileList.isEmpty() ? null : profileList.get(0); // Return the first profile URL
+                return readFirstMetaProfile(jsonString);
             } catch (Exception e) {
                 LOG.error("Error extracting profile URL from payload for interactionId : {} ", interactionId, e);
                 return StringUtils.EMPTY;
             }
         }
 
+        /**
+         * Streams the payload only as far as {@code meta.profile[0]}, skipping every
+         * other top-level member (including {@code entry}) without materializing it.
+         */
+        public static String readFirstMetaProfile(String jsonString) throws IOException {
+            try (JsonParser parser = Configuration.objectMapper.getFactory().createParser(jsonString)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return null;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String fieldName = parser.currentName();
+                    final JsonToken value = parser.nextToken();
+                    if ("meta".equals(fieldName)) {
+                        if (value != JsonToken.START_OBJECT) {
+                            return null;
+                        }
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            final String metaFieldName = parser.currentName();
+                            final JsonToken metaValue = parser.nextToken();
+                            if ("profile".equals(metaFieldName)) {
+                                if (metaValue != JsonToken.START_ARRAY) {
+                                    return null;
+                                }
+                                final JsonToken first = parser.nextToken();
+                                return first == null || first == JsonToken.END_ARRAY ? null : parser.getValueAsString();
+                            }
+                            parser.skipChildren();
+                        }
+                        return null;
+                    }
+                    parser.skipChildren();
+                }
+                return null;
+            }
+        }
+
         public FhirBundleValidator findFhirBundleValidator(String profileUrl) {
-            return fhirBundleValidators.stream()
-                    .peek(validator -> System.out.println("Checking Profile URL: " + validator.getFhirProfileUrl()))
-                    .filter(validator -> validator.getFhirProfileUrl().equals(profileUrl))
-                    .findFirst()
-                    .orElse(null);
+            return fhirBundleValidatorRoutes.get().find(profileUrl);
+        }
+
+        public List<FhirBundleValidator> getFhirBundleValidators() {
+            return fhirBundleValidatorRoutes.get().validators();
         }
 
         // 1. Validate after parsing into Bundle
@@ -455,7 +517,7 @@ public class OrchestrationEngine {
                 String interactionId) {
 
             LOG.debug("BUNDLE PAYLOAD parse -BEGIN for interactionId:{}", interactionId);
-            final var bundle = fhirContext.newJsonParser().parseResource(Bundle.class, payload);
+            final var bundle = jsonParserFor(fhirContext).parseResource(Bundle.class, payload);
             LOG.debug("BUNDLE PAYLOAD parse -END for interactionId:{}", interactionId);
 
             final var hapiVR = bundleValidator.getFhirValidator().validateWithResult(bundle);
@@ -470,13 +532,18 @@ public class OrchestrationEngine {
                 String interactionId) {
 
             LOG.debug("RAW PAYLOAD validation -BEGIN for interactionId:{}", interactionId);
-            fhirContext.newJsonParser().parseResource(Bundle.class, payload);
+            jsonParserFor(fhirContext).parseResource(Bundle.class, payload);
             final var hapiVR = bundleValidator.getFhirValidator().validateWithResult(payload);
             ;
             LOG.debug("RAW PAYLOAD validation -END for interactionId:{}", interactionId);
 
             return hapiVR;
         }
+
+        /** This thread's parser when {@code context} is the engine's own, otherwise a new one. */
+        private IParser jsonParserFor(final FhirContext context) {
+            return context == fhirContext ? jsonParser.get() : context.newJsonParser();
+        }
         
         @Override
         public OrchestrationEngine.ValidationResult validate(@NotNull final String payload,
@@ -511,21 +578,20 @@ public class OrchestrationEngine {
                                 "sdoh", "ig-packages/fhir-v4/sdoh-clinicalcare/stu-2.2.0",
                                 "uv-sdc", "ig-packages/fhir-v4/uv-sdc/stu-3.0.0");
                         
-                        String profileBaseUrl = profileUrl;
-                        if (profileUrl != null) {
-                            int idx = profileUrl.indexOf("/StructureDefinition/");
-                            if (idx != -1) {
-                                profileBaseUrl = profileUrl.substring(0, idx);
-                            }
-                        }                                
-                        bundleValidator = FhirBundleValidator.builder()
-                                .fhirContext(FhirContext.forR4())
-                                .fhirValidator(initializeFhirValidator(shinNyPackagePath, basePackages, profileBaseUrl))
-                                .baseFHIRUrl(profileBaseUrl)
-                                .packagePath(shinNyPackagePath)
-                                .igVersion(headerIgVersion)
-                                .build();
-                        fhirBundleValidators.add(bundleValidator);
+                        final String profileBaseUrl = FhirBundleValidatorRoutes.baseUrlOf(profileUrl);
+                        bundleValidator = fhirBundleValidatorRoutes.get().find(profileBaseUrl, headerIgVersion);
+                        if (bundleValidator == null) {
+                            final FhirBundleValidator requestedValidator = FhirBundleValidator.builder()
+                                    .fhirContext(fhirContext)
+                                    .fhirValidator(initializeFhirValidator(shinNyPackagePath, basePackages, profileBaseUrl))
+                                    .baseFHIRUrl(profileBaseUrl)
+                                    .packagePath(shinNyPackagePath)
+                                    .igVersion(headerIgVersion)
+                                    .build();
+                            bundleValidator = fhirBundleValidatorRoutes
+                                    .updateAndGet(routes -> routes.withValidator(requestedValidator))
+                                    .find(profileBaseUrl, headerIgVersion);
+                        }
                     } else {
                         bundleValidator = findFhirBundleValidator(profileUrl);
                     }
@@ -538,20 +604,19 @@ public class OrchestrationEngine {
                                 "Bundle validated against version :{} using package at path: {} for interactionId :{} ",
                                 bundleValidator.getIgVersion(), bundleValidator.getPackagePath(), interactionId);
                     }
-                    this.igVersion = bundleValidator.getIgVersion();
-                                        this.fhirProfileUrl = bundleValidator.getFhirProfileUrl();
-                    fhirContext.setParserErrorHandler(new LenientErrorHandler());
+                    // the engine is shared by concurrent requests, so the validator's IG stays with this result
+                    final String validatedIgVersion = bundleValidator.getIgVersion();
+                    final String validatedProfileUrl = bundleValidator.getFhirProfileUrl();
 
                     final var hapiVR = validateAsRawPayload(payload, fhirContext, bundleValidator, interactionId);
                     final var completedAt = Instant.now();
                     LOG.info("VALIDATOR -END completed at :{} ms for interactionId:{} with ig version :{}",
-                            Duration.between(initiatedAt, completedAt).toMillis(), interactionId, igVersion);
-                    this.igVersion = bundleValidator.getIgVersion();  
+                            Duration.between(initiatedAt, completedAt).toMillis(), interactionId, validatedIgVersion);
                     return new OrchestrationEngine.ValidationResult() {
                         @Override
                         @JsonSerialize(using = JsonTextSerializer.class)
                         public String getOperationOutcome() {
-                            final var jp = FhirContext.forR4Cached().newJsonParser();
+                            final var jp = jsonParser.get();
                             OperationOutcome outcome = (OperationOutcome) hapiVR.toOperationOutcome();
                             return jp.encodeResourceToString(outcome);
                         }
@@ -564,15 +629,15 @@ public class OrchestrationEngine {
                         @Override
                         public String getProfileUrl() {
                             LOG.info("Profile url in final outcome :{}  for interactionId :{} ",
-                                    HapiValidationEngine.this.fhirProfileUrl, interactionId);
-                            return HapiValidationEngine.this.fhirProfileUrl;
+                                    validatedProfileUrl, interactionId);
+                            return validatedProfileUrl;
                         }
 
                         @Override
                         public String getIgVersion() {
-                            LOG.info("IG version in final outcome :{}    for interactionId :{} ", igVersion,
+                            LOG.info("IG version in final outcome :{}    for interactionId :{} ", validatedIgVersion,
                                     interactionId);
-                            return igVersion;
+                            return validatedIgVersion;
                         }
 
                         @Override
@@ -603,7 +668,7 @@ public class OrchestrationEngine {
                             issue.setDiagnostics(e.getMessage());
                             issue.setCode(OperationOutcome.IssueType.EXCEPTION);
                             operationOutcome.addIssue(issue);
-                            return FhirContext.forR4().newJsonParser().encodeResourceToString(operationOutcome);
+                            return jsonParser.get().encodeResourceToString(operationOutcome);
                         }
 
                         @Override
@@ -645,6 +710,7 @@ public class OrchestrationEngine {
 
         public static class Builder {
             private String fhirProfileUrl;
+            private FhirContext fhirContext;
             private Map<String, FhirV4Config> igPackages;
             private String igVersion;
             private String interactionId;
@@ -662,6 +728,11 @@ public class OrchestrationEngine {
                 return this;
             }
 
+            public Builder withFhirContext(@NotNull final FhirContext fhirContext) {
+                this.fhirContext = fhirContext;
+                return this;
+            }
+
             public Builder withIgPackages(@NotNull final Map<String, FhirV4Config> igPackages) {
                 this.igPackages = igPackages;
                 return this;
@@ -0,0 +1,220 @@
+package org.techbd.service.fhir.validation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.hl7.fhir.common.hapi.validation.support.NpmPackageValidationSupport;
+import org.hl7.fhir.common.hapi.validation.support.PrePopulatedValidationSupport;
+import org.hl7.fhir.common.hapi.validation.support.ValidationSupportChain;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.StructureDefinition;
+import org.hl7.fhir.r4.model.ValueSet;
+import org.techbd.util.AppLogger;
+import org.techbd.util.TemplateLogger;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.context.support.IValidationSupport.ValueSetExpansionOutcome;
+import ca.uhn.fhir.context.support.ValidationSupportContext;
+import ca.uhn.fhir.util.VersionUtil;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+
+/**
+ * Persists generated StructureDefinition snapshots and expanded ValueSets for a
+ * SHIN-NY IG package so that later boots can load them in one pass instead of
+ * regenerating them lazily during the first validations.
+ * <p>
+ * The artifact is a gzipped FHIR {@code collection} Bundle named after the
+ * package path and identified by a SHA-256 checksum of every
+ * {@code package.tgz} it was generated from. A checksum mismatch (new IG, new
+ * base package or new HAPI version) causes the artifact to be regenerated.
+ */
+public class IgSnapshotCache {
+
+    private static final String ARTIFACT_SUFFIX = ".snapshots.json.gz";
+    private static final String CHECKSUM_SYSTEM = "urn:techbd:ig-snapshot-checksum";
+    private static final String HAPI_VERSION = VersionUtil.getVersion();
+
+    private final Path cacheDirectory;
+    private final Tracer tracer;
+    private final TemplateLogger LOG;
+
+    public IgSnapshotCache(final Path cacheDirectory, final Tracer tracer, final AppLogger appLogger) {
+        this.cacheDirectory = cacheDirectory;
+        this.tracer = tracer;
+        this.LOG = appLogger.getLogger(IgSnapshotCache.class);
+    }
+
+    /**
+     * Adds the precompiled snapshots for {@code shinNyPackagePath} to the front of
+     * {@code supportChain}, generating and persisting them first when no
+     * artifact with a matching checksum exists.
+     */
+    public void apply(FhirContext fhirContext, ValidationSupportChain supportChain,
+            NpmPackageValidationSupport npmPackageValidationSupport, String shinNyPackagePath,
+            Map<String, String> basePackages, String profileBaseUrl) {
+        Span span = tracer.spanBuilder("IgSnapshotCache.apply").startSpan();
+        try {
+            final var checksum = checksum(shinNyPackagePath, basePackages);
+            if (checksum == null) {
+                LOG.warn("IgSnapshotCache:: package.tgz not found for {} , skipping snapshot cache", shinNyPackagePath);
+                return;
+            }
+            var snapshotSupport = load(fhirContext, shinNyPackagePath, checksum);
+            if (snapshotSupport == null) {
+                snapshotSupport = generate(fhirContext, supportChain, npmPackageValidationSupport,
+                        shinNyPackagePath, profileBaseUrl, checksum);
+            }
+            supportChain.addValidationSupport(0, snapshotSupport);
+        } catch (Exception e) {
+            LOG.error("IgSnapshotCache:: failed for package {} , falling back to lazy snapshot generation",
+                    shinNyPackagePath, e);
+        } finally {
+            span.end();
+        }
+    }
+
+    public String checksum(String shinNyPackagePath, Map<String, String> basePackages) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(HAPI_VERSION.getBytes(StandardCharsets.UTF_8));
+        if (!digestResource(digest, shinNyPackagePath + "/package.tgz")) {
+            return null;
+        }
+        if (basePackages != null) {
+            for (String basePackagePath : new TreeMap<>(basePackages).values()) {
+                digestResource(digest, basePackagePath + "/package.tgz");
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public Path artifactPath(String shinNyPackagePath) {
+        return cacheDirectory.resolve(shinNyPackagePath.replaceAll("[^A-Za-z0-9.-]", "_") + ARTIFACT_SUFFIX);
+    }
+
+    public PrePopulatedValidationSupport load(FhirContext fhirContext, String shinNyPackagePath, String checksum) {
+        final var artifact = artifactPath(shinNyPackagePath);
+        if (!Files.isRegularFile(artifact)) {
+            LOG.info("IgSnapshotCache:: no snapshot artifact at {}", artifact);
+            return null;
+        }
+        Span span = tracer.spanBuilder("IgSnapshotCache.load").startSpan();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(artifact)), StandardCharsets.UTF_8))) {
+            final var bundle = fhirContext.newJsonParser().parseResource(Bundle.class, reader);
+            if (!bundle.hasIdentifier() || !checksum.equals(bundle.getIdentifier().getValue())) {
+                LOG.info("IgSnapshotCache:: checksum mismatch for {} , regenerating", artifact);
+                return null;
+            }
+            final var support = new PrePopulatedValidationSupport(fhirContext);
+            bundle.getEntry().forEach(entry -> support.addResource(entry.getResource()));
+            LOG.info("IgSnapshotCache:: loaded {} precompiled resources for {}", bundle.getEntry().size(),
+                    shinNyPackagePath);
+            return support;
+        } catch (Exception e) {
+            LOG.warn("IgSnapshotCache:: unreadable snapshot artifact {} , regenerating", artifact, e);
+            return null;
+        } finally {
+            span.end();
+        }
+    }
+
+    public PrePopulatedValidationSupport generate(FhirContext fhirContext, ValidationSupportChain supportChain,
+            NpmPackageValidationSupport npmPackageValidationSupport, String shinNyPackagePath,
+            String profileBaseUrl, String checksum) throws IOException {
+        Span span = tracer.spanBuilder("IgSnapshotCache.generate").startSpan();
+        try {
+            LOG.info("IgSnapshotCache:: generating snapshots for {} -BEGIN", shinNyPackagePath);
+            final var context = new ValidationSupportContext(supportChain);
+            final var support = new PrePopulatedValidationSupport(fhirContext);
+            final var bundle = new Bundle().setType(Bundle.BundleType.COLLECTION);
+            bundle.getIdentifier().setSystem(CHECKSUM_SYSTEM).setValue(checksum);
+
+            for (IBaseResource resource : npmPackageValidationSupport.fetchAllConformanceResources()) {
+                IBaseResource precompiled = null;
+                if (resource instanceof StructureDefinition sd && !sd.hasSnapshot()) {
+                    try {
+                        precompiled = supportChain.generateSnapshot(context, sd, sd.getUrl(), null, sd.getName());
+                    } catch (Exception e) {
+                        LOG.warn("IgSnapshotCache:: could not generate snapshot for {}", sd.getUrl(), e);
+                    }
+                } else if (resource instanceof ValueSet vs && profileBaseUrl != null
+                        && vs.getUrl() != null && vs.getUrl().startsWith(profileBaseUrl) && !vs.hasExpansion()) {
+                    precompiled = expand(supportChain, context, vs);
+                }
+                if (precompiled != null) {
+                    support.addResource(precompiled);
+                    bundle.addEntry().setResource((Resource) precompiled);
+                }
+            }
+            write(fhirContext, bundle, artifactPath(shinNyPackagePath));
+            LOG.info("IgSnapshotCache:: generating snapshots for {} -END , {} resources precompiled",
+                    shinNyPackagePath, bundle.getEntry().size());
+            return support;
+        } finally {
+            span.end();
+        }
+    }
+
+    private ValueSet expand(ValidationSupportChain supportChain, ValidationSupportContext context, ValueSet vs) {
+        try {
+            final ValueSetExpansionOutcome outcome = supportChain.expandValueSet(context, null, vs);
+            if (outcome == null || outcome.getError() != null
+                    || !(outcome.getValueSet() instanceof ValueSet expanded)) {
+                return null;
+            }
+            final var copy = vs.copy();
+            copy.setExpansion(expanded.getExpansion());
+            return copy;
+        } catch (Exception e) {
+            LOG.warn("IgSnapshotCache:: could not expand ValueSet {}", vs.getUrl(), e);
+            return null;
+        }
+    }
+
+    private void write(FhirContext fhirContext, Bundle bundle, Path artifact) throws IOException {
+        Files.createDirectories(artifact.getParent());
+        final var tmp = Files.createTempFile(artifact.getParent(), artifact.getFileName().toString(), ".tmp");
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(tmp)),
+                StandardCharsets.UTF_8)) {
+            fhirContext.newJsonParser().encodeResourceToWriter(bundle, writer);
+        }
+        Files.move(tmp, artifact, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private boolean digestResource(MessageDigest digest, String resourcePath) throws IOException {
+        try (InputStream in = IgSnapshotCache.class.getClassLoader().getResourceAsStream(resourcePath)) {
+            if (in == null) {
+                return false;
+            }
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return true;
+        }
+    }
+}
@@ -5,8 +5,6 @@ import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.Map;
 
-import org.jooq.DSLContext;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.techbd.config.Configuration;
@@ -15,6 +13,7 @@ import org.techbd.config.CoreAppConfig;
 import org.techbd.config.Nature;
 import org.techbd.config.SourceType;
 import org.techbd.config.State;
+import org.techbd.service.interaction.InteractionRegistrationWriter;
 import org.techbd.udi.auto.jooq.ingress.routines.RegisterInteractionHl7Request;
 import org.techbd.util.AppLogger;
 import org.techbd.util.TemplateLogger;
@@ -35,12 +34,12 @@ import ca.uhn.fhir.rest.annotation.Transaction;
  */
 @Service
 public class HL7Service {
-    private final DSLContext primaryDSLContext;
+    private final InteractionRegistrationWriter interactionRegistrationWriter;
     private final TemplateLogger logger;
     private final CoreAppConfig coreAppConfig;
 
-    public HL7Service(@Qualifier("primaryDslContext") final DSLContext primaryDSLContext, final AppLogger appLogger, final CoreAppConfig coreAppConfig) {
-        this.primaryDSLContext = primaryDSLContext;
+    public HL7Service(final InteractionRegistrationWriter interactionRegistrationWriter, final AppLogger appLogger, final CoreAppConfig coreAppConfig) {
+        this.interactionRegistrationWriter = interactionRegistrationWriter;
         this.logger = appLogger.getLogger(HL7Service.class);
         this.coreAppConfig = coreAppConfig;
     }    
@@ -66,7 +65,6 @@ public class HL7Service {
                     "tenant_id", tenantId);
             JsonNode natureNode = Configuration.objectMapper.valueToTree(natureMap);
             JsonNode payloadNode = Configuration.objectMapper.valueToTree(operationOutcome);
-            var jooqCfg = primaryDSLContext.configuration();
             var rihr = new RegisterInteractionHl7Request();
             rihr.setPInteractionId(interactionId);
             rihr.setPInteractionKey(requestUri);
@@ -85,18 +83,16 @@ public class HL7Service {
             rihr.setPClientIpAddress(clientIpAddress);
             rihr.setPTechbdVersionNumber(coreAppConfig.getVersion());
             final Instant start = Instant.now();
-            final int result = rihr.execute(jooqCfg);
+            final JsonNode responseFromDB = interactionRegistrationWriter.registerDurably(interactionId, rihr);
             final Instant end = Instant.now();
-            final JsonNode responseFromDB = rihr.getReturnValue();
             final Map<String, Object> responseAttributes = CoreFHIRUtil.extractFields(responseFromDB);
             logger.info(
-                    "HL7Service - saveOriginalHl7Payload END | result: {}, timeTaken: {} ms, error: {}, interaction_id: {}, hub_nexus_interaction_id: {}",
-                    result,
+                    "HL7Service - saveOriginalHl7Payload END | timeTaken: {} ms, error: {}, interaction_id: {}, hub_nexus_interaction_id: {}",
                     Duration.between(start, end).toMillis(),
                     responseAttributes.getOrDefault(Constants.KEY_ERROR, "N/A"),
                     interactionId,
                     responseAttributes.getOrDefault(Constants.KEY_HUB_NEXUS_INTERACTION_ID, "N/A"));
-            return result >= 0;
+            return true;
         } catch (Exception e) {
             logger.error("Error saving original HL7 payload for interactionId: {}", interactionId, e);
             return false;
@@ -124,7 +120,6 @@ public class HL7Service {
                     "tenant_id", tenantId);
             JsonNode natureNode = Configuration.objectMapper.valueToTree(natureMap);
             JsonNode payloadNode = Configuration.objectMapper.valueToTree(operationOutcome);
-            var jooqCfg = primaryDSLContext.configuration();
             var rihr = new RegisterInteractionHl7Request();
             rihr.setPInteractionId(interactionId);
             rihr.setPInteractionKey(requestUri);
@@ -143,19 +138,17 @@ public class HL7Service {
             rihr.setPClientIpAddress(clientIpAddress);
             rihr.setPTechbdVersionNumber(coreAppConfig.getVersion());
             final Instant start = Instant.now();
-            final int result = rihr.execute(jooqCfg);
+            final JsonNode responseFromDB = interactionRegistrationWriter.registerDurably(interactionId, rihr);
             final Instant end = Instant.now();
-            final JsonNode responseFromDB = rihr.getReturnValue();
             final Map<String, Object> responseAttributes = CoreFHIRUtil.extractFields(responseFromDB);
 
             logger.info(
-                    "HL7Service - saveValidation END | result: {}, timeTaken: {} ms, error: {}, hub_nexus_interaction_id: {}",
-                    result,
+                    "HL7Service - saveValidation END | timeTaken: {} ms, error: {}, hub_nexus_interaction_id: {}",
                     Duration.between(start, end).toMillis(),
                     responseAttributes.getOrDefault(Constants.KEY_ERROR, "N/A"),
                     responseAttributes.getOrDefault(Constants.KEY_HUB_NEXUS_INTERACTION_ID, "N/A"));
 
-            return result >= 0;
+            return true;
         } catch (Exception e) {
             logger.error("Error saving HL7 validation for interactionId: {}", interactionId, e);
             return false;
@@ -184,7 +177,6 @@ public class HL7Service {
                     "tenant_id", tenantId);
             JsonNode natureNode = Configuration.objectMapper.valueToTree(natureMap);
             JsonNode bundleNode = Configuration.objectMapper.valueToTree(bundle);
-            var jooqCfg = primaryDSLContext.configuration();
             var rihr = new RegisterInteractionHl7Request();
             rihr.setPInteractionId(interactionId);
             rihr.setPInteractionKey(requestUri);
@@ -203,17 +195,15 @@ public class HL7Service {
             rihr.setPUserAgent(userAgent);
             rihr.setPClientIpAddress(clientIpAddress);
             final Instant start = Instant.now();
-            final int result = rihr.execute(jooqCfg);
+            final JsonNode responseFromDB = interactionRegistrationWriter.registerDurably(interactionId, rihr);
             final Instant end = Instant.now();
-            final JsonNode responseFromDB = rihr.getReturnValue();
             final Map<String, Object> responseAttributes = CoreFHIRUtil.extractFields(responseFromDB);
             logger.info(
-                    "Hl7Service - saveFhirConversionResult : END | result: {}, timeTaken: {} ms, error: {}, hub_nexus_interaction_id: {}",
-                    result,
+                    "Hl7Service - saveFhirConversionResult : END | timeTaken: {} ms, error: {}, hub_nexus_interaction_id: {}",
                     Duration.between(start, end).toMillis(),
                     responseAttributes.getOrDefault(Constants.KEY_ERROR, "N/A"),
                     responseAttributes.getOrDefault(Constants.KEY_HUB_NEXUS_INTERACTION_ID, "N/A"));
-            return result >= 0;
+            return true;
         } catch (Exception e) {
             logger.error("Error saving FHIR conversion result for interactionId: {}", interactionId, e);
             return false;
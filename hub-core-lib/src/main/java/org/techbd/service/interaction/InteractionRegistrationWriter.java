@@ -0,0 +1,270 @@
+package org.techbd.service.interaction;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.impl.AbstractRoutine;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.techbd.config.CoreAppConfig;
+import org.techbd.util.AppLogger;
+import org.techbd.util.TemplateLogger;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Executes {@code register_interaction_*} routines either directly on the
+ * calling thread (the default) or, when
+ * {@code org.techbd.interaction-registration.write-behind} is enabled, from
+ * per-partition queues that are flushed on a short linger.
+ * <p>
+ * A flush evaluates all queued routines as the select list of a single
+ * {@code SELECT} statement, i.e. one round-trip and one transaction for the
+ * whole batch. Transitions are partitioned by interaction id and each
+ * partition is flushed in queue order, so the transitions of one interaction
+ * are registered in the order they were submitted. If the batch statement
+ * fails, its routines are executed one by one so that a single bad transition
+ * does not lose the others.
+ * <p>
+ * Callers that must not acknowledge a request before its transition is
+ * committed use {@link #registerDurably}, which waits for the flush; all other
+ * callers get a future completed with the routine's return value.
+ * <p>
+ * FHIR, CCDA and HL7 registrations go through this writer. The CSV services
+ * still execute their routines directly: most of them are
+ * {@code sat_interaction_csv_request_upserted} updates of the zip file's
+ * master interaction rather than state transitions, and moving them is left
+ * for a follow-up.
+ */
+@Component
+public class InteractionRegistrationWriter {
+
+    static final String METRIC_ROUND_TRIPS = "techbd.interaction_registration.round_trips";
+    static final String METRIC_ROUND_TRIPS_PER_INTERACTION = "techbd.interaction_registration.round_trips_per_interaction";
+    static final String METRIC_BATCH_SIZE = "techbd.interaction_registration.batch.size";
+    static final String METRIC_FAILURES = "techbd.interaction_registration.failures";
+
+    private final DSLContext primaryDslContext;
+    private final CoreAppConfig.InteractionRegistrationConfig config;
+    private final MeterRegistry meterRegistry;
+    private final TemplateLogger LOG;
+    private final List<Partition> partitions = new ArrayList<>();
+
+    private record Pending<T>(String interactionId, AbstractRoutine<T> routine, CompletableFuture<T> future) {
+
+        @SuppressWarnings("unchecked")
+        void complete(final Object value) {
+            future.complete((T) value);
+        }
+    }
+
+    @Autowired
+    public InteractionRegistrationWriter(@Qualifier("primaryDslContext") final DSLContext primaryDslContext,
+            final CoreAppConfig coreAppConfig, final ObjectProvider<MeterRegistry> meterRegistry,
+            final AppLogger appLogger) {
+        this(primaryDslContext, coreAppConfig, meterRegistry.getIfAvailable(SimpleMeterRegistry::new), appLogger);
+    }
+
+    InteractionRegistrationWriter(final DSLContext primaryDslContext, final CoreAppConfig coreAppConfig,
+            final MeterRegistry meterRegistry, final AppLogger appLogger) {
+        this.primaryDslContext = primaryDslContext;
+        this.config = coreAppConfig.getInteractionRegistration();
+        this.meterRegistry = meterRegistry;
+        this.LOG = appLogger.getLogger(InteractionRegistrationWriter.class);
+        if (config.isWriteBehind()) {
+            for (int i = 0; i < config.getPartitions(); i++) {
+                final var partition = new Partition(i);
+                partitions.add(partition);
+                partition.thread.start();
+            }
+            LOG.info("InteractionRegistrationWriter:: write-behind enabled with {} partitions, batch size {}, linger {} ms",
+                    config.getPartitions(), config.getBatchSize(), config.getLingerMs());
+        }
+    }
+
+    /**
+     * Registers {@code routine} (with its parameters already set) for
+     * {@code interactionId}. The returned future completes with the routine's
+     * return value once it has been executed, or exceptionally if it failed.
+     * When write-behind is disabled, or {@code durable-before-ack} is set,
+     * the routine has already been executed when this method returns.
+     */
+    public <T> CompletableFuture<T> register(final String interactionId, final AbstractRoutine<T> routine) {
+        final var pending = new Pending<>(interactionId, routine, new CompletableFuture<>());
+        if (partitions.isEmpty()) {
+            executeSingly(List.of(pending));
+            return pending.future();
+        }
+        final var partition = partitions.get(Math.floorMod(String.valueOf(interactionId).hashCode(), partitions.size()));
+        try {
+            // blocking when the partition is full keeps later transitions behind earlier ones
+            partition.queue.put(pending);
+            if (config.isDurableBeforeAck()) {
+                pending.future().get(config.getDurableTimeoutSeconds(), TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(pending, e);
+        } catch (ExecutionException | TimeoutException e) {
+            // reported to the caller through the returned future
+        }
+        return pending.future();
+    }
+
+    /**
+     * @return true when transitions are queued and written after
+     *         {@link #register} returns, false when they are executed on the
+     *         calling thread
+     */
+    public boolean isWriteBehind() {
+        return !partitions.isEmpty();
+    }
+
+    /**
+     * Like {@link #register} but only returns once the routine has been
+     * committed, with its return value. Use this where the caller needs the
+     * result or must not acknowledge the request before the transition is
+     * durable.
+     */
+    public <T> T registerDurably(final String interactionId, final AbstractRoutine<T> routine)
+            throws ExecutionException, TimeoutException, InterruptedException {
+        return register(interactionId, routine).get(config.getDurableTimeoutSeconds(), TimeUnit.SECONDS);
+    }
+
+    private void flush(final List<Pending<?>> batch) {
+        if (batch.size() == 1) {
+            executeSingly(batch);
+            return;
+        }
+        final List<Field<?>> fields = new ArrayList<>(batch.size());
+        for (Pending<?> pending : batch) {
+            fields.add(pending.routine().asField());
+        }
+        try {
+            // the select list is evaluated in order within one statement and transaction
+            final var record = primaryDslContext.select(fields).fetchOne();
+            recordRoundTrips(batch, 1, "batch");
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).complete(record.get(i));
+            }
+        } catch (Exception e) {
+            LOG.warn("InteractionRegistrationWriter:: batch of {} registrations failed, retrying one by one: {}",
+                    batch.size(), e.getMessage());
+            recordRoundTrips(batch, 1, "batch");
+            executeSingly(batch);
+        }
+    }
+
+    private void executeSingly(final List<Pending<?>> batch) {
+        for (Pending<?> pending : batch) {
+            try {
+                pending.routine().execute(primaryDslContext.configuration());
+                pending.complete(pending.routine().getReturnValue());
+            } catch (Exception e) {
+                LOG.error("InteractionRegistrationWriter:: {} failed for interaction id: {}",
+                        pending.routine().getName(), pending.interactionId(), e);
+                fail(pending, e);
+            }
+        }
+        recordRoundTrips(batch, batch.size(), "single");
+    }
+
+    private void fail(final Pending<?> pending, final Exception e) {
+        meterRegistry.counter(METRIC_FAILURES, "routine", String.valueOf(pending.routine().getName())).increment();
+        pending.future().completeExceptionally(e);
+    }
+
+    private void recordRoundTrips(final List<Pending<?>> batch, final int roundTrips, final String mode) {
+        meterRegistry.counter(METRIC_ROUND_TRIPS, "mode", mode).increment(roundTrips);
+        final var interactions = new HashSet<String>();
+        for (Pending<?> pending : batch) {
+            interactions.add(pending.interactionId());
+        }
+        DistributionSummary.builder(METRIC_ROUND_TRIPS_PER_INTERACTION)
+                .description("Database round-trips spent per interaction registered in one flush")
+                .register(meterRegistry)
+                .record((double) roundTrips / interactions.size());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (Partition partition : partitions) {
+            partition.running = false;
+        }
+        for (Partition partition : partitions) {
+            partition.thread.join(TimeUnit.SECONDS.toMillis(config.getDurableTimeoutSeconds()));
+            if (partition.thread.isAlive()) {
+                LOG.warn("InteractionRegistrationWriter:: {} registrations not flushed before shutdown",
+                        partition.queue.size());
+                partition.thread.interrupt();
+            }
+        }
+    }
+
+    int queued() {
+        int queued = 0;
+        for (Partition partition : partitions) {
+            queued += partition.queue.size();
+        }
+        return queued;
+    }
+
+    private final class Partition implements Runnable {
+        private final BlockingQueue<Pending<?>> queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private Partition(final int index) {
+            this.thread = new Thread(this, "interaction-registration-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            final List<Pending<?>> batch = new ArrayList<>(config.getBatchSize());
+            while (running || !queue.isEmpty()) {
+                try {
+                    final var first = queue.poll(config.getLingerMs(), TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getLingerMs());
+                    while (batch.size() < config.getBatchSize()) {
+                        final var next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    DistributionSummary.builder(METRIC_BATCH_SIZE).register(meterRegistry).record(batch.size());
+                    flush(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    LOG.error("InteractionRegistrationWriter:: flush of {} registrations failed", batch.size(), e);
+                    for (Pending<?> pending : batch) {
+                        fail(pending, e);
+                    }
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+}
@@ -11,13 +11,17 @@ import org.jooq.DSLContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedConstruction;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.techbd.config.CoreAppConfig;
+import org.techbd.service.interaction.InteractionRegistrationWriter;
 import org.techbd.udi.auto.jooq.ingress.routines.RegisterInteractionCcdaRequest;
 import org.techbd.util.AppLogger;
 import org.techbd.util.TemplateLogger;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 class CCDAServiceTest {
 
     private DSLContext dslContext;
@@ -37,7 +41,12 @@ class CCDAServiceTest {
         when(appLogger.getLogger(CCDAService.class)).thenReturn(templateLogger);
         when(dslContext.dsl()).thenReturn(dslContext);
         when(dslContext.configuration()).thenReturn(jooqConfig);
-        ccdaService = new CCDAService(dslContext, appLogger, coreAppConfig);
+        when(appLogger.getLogger(InteractionRegistrationWriter.class)).thenReturn(templateLogger);
+        when(coreAppConfig.getInteractionRegistration()).thenReturn(new CoreAppConfig.InteractionRegistrationConfig());
+        // write-behind is off by default, so the writer executes the routine on the calling thread
+        final var interactionRegistrationWriter = new InteractionRegistrationWriter(dslContext, coreAppConfig,
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class), appLogger);
+        ccdaService = new CCDAService(interactionRegistrationWriter, appLogger, coreAppConfig);
     }
 
     @Test
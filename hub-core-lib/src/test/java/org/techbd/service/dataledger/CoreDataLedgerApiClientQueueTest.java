@@ -0,0 +1,167 @@
+package org.techbd.service.dataledger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.techbd.config.Configuration;
+import org.techbd.config.CoreAppConfig;
+import org.techbd.service.dataledger.CoreDataLedgerApiClient.Action;
+import org.techbd.service.dataledger.CoreDataLedgerApiClient.Actor;
+import org.techbd.service.dataledger.CoreDataLedgerApiClient.DataLedgerPayload;
+import org.techbd.util.AppLogger;
+import org.techbd.util.TemplateLogger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CoreDataLedgerApiClientQueueTest {
+
+    /** Request paths and bodies received by the stub ledger API. */
+    private final List<String[]> received = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch releaseResponses = new CountDownLatch(0);
+
+    private HttpServer stub;
+    private String baseUrl;
+    private CoreAppConfig.DataLedgerClientConfig clientConfig;
+    private SimpleMeterRegistry meterRegistry;
+    private CoreDataLedgerApiClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/", exchange -> {
+            final var body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            received.add(new String[] { exchange.getRequestURI().getPath(), body });
+            try {
+                releaseResponses.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            final var response = "{\"status\": \"ok\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        stub.setExecutor(Executors.newCachedThreadPool());
+        stub.start();
+        baseUrl = "http://localhost:" + stub.getAddress().getPort();
+        clientConfig = new CoreAppConfig.DataLedgerClientConfig();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        releaseResponses.countDown();
+        if (client != null) {
+            client.shutdown();
+        }
+        stub.stop(0);
+    }
+
+    private CoreDataLedgerApiClient newClient() {
+        final var appConfig = mock(CoreAppConfig.class);
+        when(appConfig.getDataLedgerClient()).thenReturn(clientConfig);
+        when(appConfig.getDataLedgerApiUrl()).thenReturn(baseUrl + "/DataLedger");
+        when(appConfig.isDataLedgerTracking()).thenReturn(true);
+        final var appLogger = mock(AppLogger.class);
+        when(appLogger.getLogger(CoreDataLedgerApiClient.class)).thenReturn(mock(TemplateLogger.class));
+        return new CoreDataLedgerApiClient(appConfig, mock(DSLContext.class), meterRegistry, appLogger);
+    }
+
+    private void send(final int events) {
+        for (int i = 0; i < events; i++) {
+            final var payload = DataLedgerPayload.create(Actor.TECHBD.getValue(), Action.SENT.getValue(),
+                    Actor.NYEC.getValue(), "data-" + i);
+            client.processRequest(payload, "interaction-" + i, "provenance", "source", Map.of());
+        }
+    }
+
+    private double events(final String outcome) {
+        return meterRegistry.get(CoreDataLedgerApiClient.METRIC_EVENTS).tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void testEventsArePostedIndividuallyWithoutBatchEndpoint() throws Exception {
+        client = newClient();
+
+        send(5);
+        client.shutdown();
+
+        assertThat(received).hasSize(5).allMatch(request -> request[0].equals("/DataLedger"));
+        assertThat(events("sent")).isEqualTo(5);
+    }
+
+    @Test
+    void testQueuedEventsAreCoalescedIntoBatches() throws Exception {
+        clientConfig.setBatchApiUrl(baseUrl + "/DataLedger/batch");
+        clientConfig.setBatchSize(10);
+        clientConfig.setLingerMs(500);
+        client = newClient();
+
+        send(25);
+        client.shutdown();
+
+        assertThat(received).hasSizeBetween(3, 5).allMatch(request -> request[0].equals("/DataLedger/batch"));
+        int total = 0;
+        for (String[] request : received) {
+            final JsonNode batch = Configuration.objectMapper.readTree(request[1]);
+            assertThat(batch.isArray()).isTrue();
+            assertThat(batch.size()).isLessThanOrEqualTo(10);
+            total += batch.size();
+        }
+        assertThat(total).isEqualTo(25);
+        assertThat(events("sent")).isEqualTo(25);
+    }
+
+    @Test
+    void testSendRequestAsyncGoesThroughTheQueue() throws Exception {
+        clientConfig.setBatchApiUrl(baseUrl + "/DataLedger/batch");
+        clientConfig.setLingerMs(500);
+        client = newClient();
+
+        send(2);
+        client.sendRequestAsync(baseUrl + "/DataLedger", "{\"dataId\": \"raw\"}", "interaction-raw", null, null,
+                Action.SENT.getValue(), "provenance", "source", Map.of());
+        client.shutdown();
+
+        assertThat(received).hasSize(1);
+        final JsonNode batch = Configuration.objectMapper.readTree(received.get(0)[1]);
+        assertThat(batch).hasSize(3);
+        assertThat(batch.get(2).path("dataId").asText()).isEqualTo("raw");
+        assertThat(events("queued")).isEqualTo(3);
+        assertThat(events("sent")).isEqualTo(3);
+    }
+
+    @Test
+    void testEventsAreDroppedAndCountedWhenQueueIsFull() throws Exception {
+        releaseResponses = new CountDownLatch(1);
+        clientConfig.setQueueCapacity(1);
+        clientConfig.setMaxConcurrentRequests(1);
+        client = newClient();
+
+        // one request is held by the stub, one event waits in the dispatcher and one in the queue
+        send(20);
+
+        assertThat(events("dropped")).isGreaterThanOrEqualTo(17);
+        assertThat(events("queued") + events("dropped")).isEqualTo(20);
+        releaseResponses.countDown();
+        client.shutdown();
+        assertThat(received).hasSize((int) events("queued"));
+    }
+}
@@ -29,6 +29,8 @@ import org.techbd.util.AWSUtil;
 import org.techbd.util.AppLogger;
 import org.techbd.util.TemplateLogger;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 class DataLedgerApiClientTest {
 
     @Mock
@@ -71,7 +73,8 @@ class DataLedgerApiClientTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        coreDataLedgerApiClient = new CoreDataLedgerApiClient(coreAppConfig,dslContext,appLogger);
+        coreDataLedgerApiClient = new CoreDataLedgerApiClient(coreAppConfig, dslContext, new SimpleMeterRegistry(),
+                appLogger);
         when(mock(org.jooq.DSLContext.class).configuration()).thenReturn(mock(org.jooq.Configuration.class));
     }
 
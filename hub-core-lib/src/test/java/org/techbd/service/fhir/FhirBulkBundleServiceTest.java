@@ -0,0 +1,112 @@
+package org.techbd.service.fhir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.techbd.config.Configuration;
+import org.techbd.config.Constants;
+import org.techbd.config.CoreAppConfig;
+import org.techbd.util.AppLogger;
+import org.techbd.util.TemplateLogger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.Tracer;
+
+class FhirBulkBundleServiceTest {
+
+    private FHIRService fhirService;
+    private FhirBulkBundleService bulkService;
+
+    @BeforeEach
+    void setUp() {
+        fhirService = mock(FHIRService.class);
+        final var appConfig = mock(CoreAppConfig.class);
+        final var bulkConfig = new CoreAppConfig.FhirBulkConfig();
+        bulkConfig.setParallelism(3);
+        bulkConfig.setBatchSize(2);
+        when(appConfig.getFhirBulk()).thenReturn(bulkConfig);
+        final var tracer = mock(Tracer.class);
+        final var spanBuilder = mock(SpanBuilder.class);
+        when(tracer.spanBuilder(anyString())).thenReturn(spanBuilder);
+        when(spanBuilder.startSpan()).thenReturn(mock(Span.class));
+        final var appLogger = mock(AppLogger.class);
+        when(appLogger.getLogger(FhirBulkBundleService.class)).thenReturn(mock(TemplateLogger.class));
+        bulkService = new FhirBulkBundleService(fhirService, appConfig, tracer, appLogger);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkService.shutdown();
+    }
+
+    @Test
+    void testManifestHasOneEntryPerLineInInputOrder() throws Exception {
+        final Set<String> interactionIds = ConcurrentHashMap.newKeySet();
+        when(fhirService.processBundle(anyString(), any(), any())).thenAnswer(invocation -> {
+            Map<String, Object> params = invocation.getArgument(1);
+            interactionIds.add((String) params.get(Constants.INTERACTION_ID));
+            String payload = invocation.getArgument(0);
+            if (payload.contains("\"boom\"")) {
+                throw new IllegalStateException("boom");
+            }
+            return Map.of("OperationOutcome", Map.of("validationResults",
+                    List.of(Map.of("valid", !payload.contains("\"invalid\"")))));
+        });
+        final var ndjson = String.join("\n",
+                "{\"resourceType\":\"Bundle\",\"id\":\"b1\"}",
+                "",
+                "{\"resourceType\":\"Bundle\",\"id\":\"invalid\"}",
+                "{\"resourceType\":\"Bundle\",\"id\":\"boom\"}",
+                "{\"resourceType\":\"Bundle\",\"id\":\"b4\"}");
+        final var manifest = new ByteArrayOutputStream();
+
+        final var summary = bulkService.process(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+                Map.of(Constants.INTERACTION_ID, "bulk-1", Constants.TENANT_ID, "tenant"), manifest);
+
+        final List<JsonNode> entries = manifest.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> {
+                    try {
+                        return Configuration.objectMapper.readTree(line);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }).toList();
+        assertThat(entries).extracting(e -> e.get("line").asInt()).containsExactly(1, 3, 4, 5);
+        assertThat(entries).extracting(e -> e.get("bundleId").asText()).containsExactly("b1", "invalid", "boom", "b4");
+        assertThat(entries).extracting(e -> e.get("status").asText())
+                .containsExactly("ACCEPTED", "ACCEPTED", "ERROR", "ACCEPTED");
+        assertThat(entries.get(1).get("valid").asBoolean()).isFalse();
+        assertThat(summary).containsEntry("ACCEPTED", 3).containsEntry("ERROR", 1);
+        assertThat(interactionIds).hasSize(4).doesNotContain("bulk-1");
+    }
+
+    @Test
+    void testDiscardedBundleIsReported() throws Exception {
+        when(fhirService.processBundle(eq("{\"resourceType\":\"Bundle\"}"), any(), any())).thenReturn(
+                Map.of("OperationOutcome", Map.of("techByDesignDisposition", List.of(Map.of("action", "discard")))));
+        final var manifest = new ByteArrayOutputStream();
+
+        bulkService.process(new ByteArrayInputStream("{\"resourceType\":\"Bundle\"}".getBytes(StandardCharsets.UTF_8)),
+                Map.of(Constants.INTERACTION_ID, "bulk-2"), manifest);
+
+        assertThat(manifest.toString(StandardCharsets.UTF_8)).contains("\"status\":\"DISCARDED\"");
+    }
+}
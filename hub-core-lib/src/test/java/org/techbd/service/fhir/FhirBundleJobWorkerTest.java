@@ -0,0 +1,107 @@
+package org.techbd.service.fhir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.techbd.config.CoreAppConfig;
+import org.techbd.util.AppLogger;
+import org.techbd.util.TemplateLogger;
+
+class FhirBundleJobWorkerTest {
+
+    private FhirBundleJobService jobService;
+    private FHIRService fhirService;
+    private FhirBundleJobWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        jobService = mock(FhirBundleJobService.class);
+        fhirService = mock(FHIRService.class);
+        final var appConfig = mock(CoreAppConfig.class);
+        final var jobConfig = new CoreAppConfig.FhirBundleJobConfig();
+        jobConfig.setWorkerThreads(2);
+        when(appConfig.getFhirBundleJobs()).thenReturn(jobConfig);
+        final var appLogger = mock(AppLogger.class);
+        when(appLogger.getLogger(FhirBundleJobWorker.class)).thenReturn(mock(TemplateLogger.class));
+        worker = new FhirBundleJobWorker(jobService, fhirService, appConfig, appLogger);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        worker.shutdown();
+    }
+
+    private static FhirBundleJobService.ClaimedJob job(String interactionId) {
+        return new FhirBundleJobService.ClaimedJob(interactionId, "tenant", "{}", Map.of(), 1);
+    }
+
+    @Test
+    void testCompletesClaimedJob() throws Exception {
+        when(jobService.claim(anyString(), eq(2))).thenReturn(List.of(job("job-1")));
+        when(fhirService.processBundle(eq("{}"), any(), any())).thenReturn(Map.of("OperationOutcome", Map.of()));
+
+        worker.poll();
+
+        verify(jobService, timeout(5000)).complete(eq(job("job-1")), anyString(),
+                eq(Map.of("OperationOutcome", Map.of())));
+    }
+
+    @Test
+    void testFailedJobIsReportedForRetry() throws Exception {
+        when(jobService.claim(anyString(), eq(2))).thenReturn(List.of(job("job-1")));
+        when(fhirService.processBundle(eq("{}"), any(), any())).thenThrow(new IllegalStateException("boom"));
+
+        worker.poll();
+
+        verify(jobService, timeout(5000)).fail(eq(job("job-1")), anyString(), eq("boom"));
+    }
+
+    @Test
+    void testOutcomeIsRecordedUnderTheClaimOfThisWorker() throws Exception {
+        when(jobService.claim(anyString(), eq(2))).thenReturn(List.of(job("job-1")));
+        when(fhirService.processBundle(eq("{}"), any(), any())).thenReturn(Map.of());
+
+        worker.poll();
+
+        final ArgumentCaptor<String> claimedBy = ArgumentCaptor.forClass(String.class);
+        verify(jobService, timeout(5000)).claim(claimedBy.capture(), eq(2));
+        // a lost claim returns null; the worker logs it and moves on without failing the job
+        verify(jobService, timeout(5000)).complete(eq(job("job-1")), eq(claimedBy.getValue()), eq(Map.of()));
+        verify(jobService, never()).fail(any(), anyString(), anyString());
+    }
+
+    @Test
+    void testClaimsOnlyAsManyJobsAsIdleWorkers() throws Exception {
+        final var release = new CountDownLatch(1);
+        when(jobService.claim(anyString(), anyInt())).thenReturn(List.of(job("job-1")), List.of());
+        when(fhirService.processBundle(eq("{}"), any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Map.of();
+        });
+
+        worker.poll();
+        worker.poll();
+        release.countDown();
+
+        final ArgumentCaptor<Integer> batchSizes = ArgumentCaptor.forClass(Integer.class);
+        verify(jobService, timeout(5000).times(2)).claim(anyString(), batchSizes.capture());
+        assertThat(batchSizes.getAllValues()).containsExactly(2, 1);
+    }
+}
@@ -0,0 +1,65 @@
+package org.techbd.service.fhir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.techbd.service.fhir.engine.OrchestrationEngine;
+import org.techbd.service.fhir.validation.FhirBundleValidator;
+import org.techbd.service.fhir.validation.FhirBundleValidatorRoutes;
+
+class FhirBundleValidatorRoutesTest {
+
+    private static FhirBundleValidator validator(String baseUrl, String igVersion) {
+        return FhirBundleValidator.builder().baseFHIRUrl(baseUrl).igVersion(igVersion)
+                .packagePath("ig-packages/shin-ny-ig/shinny/v" + igVersion).build();
+    }
+
+    @Test
+    void testRoutesByBaseUrlAndIgVersion() {
+        var shinny = validator("http://shinny.org/us/ny/hrsn", "1.9.4");
+        var testShinny = validator("http://test.shinny.org/us/ny/hrsn", "1.9.4");
+        var routes = FhirBundleValidatorRoutes.of(List.of(shinny, testShinny));
+
+        assertThat(routes.find("http://shinny.org/us/ny/hrsn", "1.9.4")).isSameAs(shinny);
+        assertThat(routes.find("http://test.shinny.org/us/ny/hrsn", "1.9.4")).isSameAs(testShinny);
+        assertThat(routes.find("http://shinny.org/us/ny/hrsn", "1.3.0")).isNull();
+    }
+
+    @Test
+    void testWithValidatorIsImmutableAndIdempotent() {
+        var shinny = validator("http://shinny.org/us/ny/hrsn", "1.9.4");
+        var routes = FhirBundleValidatorRoutes.of(List.of(shinny));
+
+        var older = validator("http://shinny.org/us/ny/hrsn", "1.3.0");
+        var updated = routes.withValidator(older);
+        assertThat(routes.validators()).containsExactly(shinny);
+        assertThat(updated.validators()).containsExactly(shinny, older);
+        assertThat(updated.withValidator(validator("http://shinny.org/us/ny/hrsn", "1.3.0"))).isSameAs(updated);
+    }
+
+    @Test
+    void testBaseUrlOf() {
+        assertThat(FhirBundleValidatorRoutes
+                .baseUrlOf("http://shinny.org/us/ny/hrsn/StructureDefinition/SHINNYBundleProfile"))
+                .isEqualTo("http://shinny.org/us/ny/hrsn");
+        assertThat(FhirBundleValidatorRoutes.baseUrlOf(null)).isNull();
+    }
+
+    @Test
+    void testReadFirstMetaProfileStopsAtProfile() throws Exception {
+        String payload = """
+                { "resourceType": "Bundle", "id": "x", "identifier": { "value": "1" },
+                  "meta": { "lastUpdated": "2024-02-23T00:00:00Z",
+                            "profile": ["http://shinny.org/us/ny/hrsn/StructureDefinition/SHINNYBundleProfile", "other"] },
+                  "entry": [ not even valid json after this point
+                """;
+        assertThat(OrchestrationEngine.HapiValidationEngine.readFirstMetaProfile(payload))
+                .isEqualTo("http://shinny.org/us/ny/hrsn/StructureDefinition/SHINNYBundleProfile");
+        assertThat(OrchestrationEngine.HapiValidationEngine.readFirstMetaProfile("{\"meta\":{\"profile\":[]}}"))
+                .isNull();
+        assertThat(OrchestrationEngine.HapiValidationEngine.readFirstMetaProfile("{\"resourceType\":\"Bundle\"}"))
+                .isNull();
+    }
+}
@@ -0,0 +1,129 @@
+package org.techbd.service.fhir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.techbd.config.CoreAppConfig;
+import org.techbd.util.AppLogger;
+import org.techbd.util.TemplateLogger;
+
+import reactor.core.publisher.Mono;
+
+class FhirReplayWorkerTest {
+
+    private final FhirReplayService replayService = mock(FhirReplayService.class);
+    private FhirReplayWorker worker;
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    private FhirReplayWorker worker(final int maxConcurrency, final double ratePerSecond, final int burst) {
+        final var appConfig = mock(CoreAppConfig.class);
+        final var replayConfig = new CoreAppConfig.FhirReplayConfig();
+        replayConfig.setMaxConcurrency(maxConcurrency);
+        replayConfig.setRatePerSecond(ratePerSecond);
+        replayConfig.setBurst(burst);
+        when(appConfig.getFhirReplay()).thenReturn(replayConfig);
+        when(replayService.replayBundle(any())).thenReturn(Mono.just(true));
+        final var appLogger = mock(AppLogger.class);
+        when(appLogger.getLogger(FhirReplayWorker.class)).thenReturn(mock(TemplateLogger.class));
+        return new FhirReplayWorker(replayService, appConfig, appLogger);
+    }
+
+    private static FhirReplayService.ReplayBundle bundle(final String bundleId) {
+        return new FhirReplayService.ReplayBundle("replay-1", bundleId, "interaction-" + bundleId, "tenant",
+                "FHIR", "/Bundle", null, null, "worker/claim-" + bundleId);
+    }
+
+    @Test
+    void testWorkerKeepsClaimingUntilTheReplayIsDrained() {
+        worker = worker(1, 1000, 10);
+        when(replayService.claim(anyString(), eq(1))).thenReturn(List.of(bundle("b1")), List.of(bundle("b2")),
+                List.of(bundle("b3")), List.of());
+
+        worker.poll();
+
+        final ArgumentCaptor<FhirReplayService.ReplayBundle> replayed = ArgumentCaptor
+                .forClass(FhirReplayService.ReplayBundle.class);
+        verify(replayService, timeout(5000).times(3)).replayBundle(replayed.capture());
+        assertThat(replayed.getAllValues()).extracting(FhirReplayService.ReplayBundle::bundleId)
+                .containsExactly("b1", "b2", "b3");
+    }
+
+    @Test
+    void testAtMostMaxConcurrencyBundlesAreInFlight() throws InterruptedException {
+        worker = worker(2, 1000, 10);
+        final var remaining = new AtomicInteger(6);
+        when(replayService.claim(anyString(), anyInt())).thenAnswer(invocation -> remaining.getAndDecrement() > 0
+                ? List.of(bundle("b" + remaining.get()))
+                : List.of());
+        final var inFlight = new AtomicInteger();
+        final var maxInFlight = new AtomicInteger();
+        final var completed = new CountDownLatch(6);
+        when(replayService.replayBundle(any())).thenAnswer(invocation -> Mono.delay(Duration.ofMillis(100))
+                .thenReturn(true)
+                .doOnSubscribe(subscription -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                .doOnSuccess(delivered -> {
+                    inFlight.decrementAndGet();
+                    completed.countDown();
+                }));
+
+        worker.poll();
+        // a poll while the drain is running does not start a second one
+        worker.poll();
+
+        verify(replayService, timeout(5000).times(7)).claim(anyString(), eq(1));
+        assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxInFlight.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testWorkerSubscribesToEachReplay() throws InterruptedException {
+        worker = worker(1, 1000, 10);
+        when(replayService.claim(anyString(), anyInt())).thenReturn(List.of(bundle("b1")), List.of());
+        // replayBundle only sends, and records the outcome, when subscribed to
+        final var sent = new CountDownLatch(1);
+        when(replayService.replayBundle(any())).thenReturn(Mono.fromRunnable(sent::countDown).thenReturn(true));
+
+        worker.poll();
+
+        assertThat(sent.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void testBundlesAreSentAtTheConfiguredRate() {
+        worker = worker(4, 20, 1);
+        final var remaining = new AtomicInteger(6);
+        when(replayService.claim(anyString(), anyInt())).thenAnswer(invocation -> {
+            final int batchSize = invocation.getArgument(1);
+            final int claimed = Math.max(0, Math.min(batchSize, remaining.getAndAdd(-batchSize)));
+            return IntStream.range(0, claimed).mapToObj(i -> bundle("b" + i)).toList();
+        });
+        final long start = System.nanoTime();
+
+        worker.poll();
+
+        verify(replayService, timeout(5000).times(6)).replayBundle(any());
+        // one token up front, then one every 50ms for the other five bundles
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(240);
+    }
+}
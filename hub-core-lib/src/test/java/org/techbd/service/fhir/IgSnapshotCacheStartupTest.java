@@ -0,0 +1,77 @@
+package org.techbd.service.fhir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.techbd.service.fhir.engine.OrchestrationEngine;
+
+import ca.uhn.fhir.context.FhirContext;
+
+/**
+ * Startup benchmark comparing time-to-first-validation with and without a
+ * precompiled IG snapshot artifact. The first engine generates the artifacts
+ * (cold boot), the second one loads them (warm boot).
+ */
+class IgSnapshotCacheStartupTest extends BaseIgValidationTest {
+
+        private static final Logger LOG = LoggerFactory.getLogger(IgSnapshotCacheStartupTest.class);
+
+        @TempDir
+        static Path snapshotCacheDir;
+
+        @Test
+        void testTimeToFirstValidationWithPrecompiledSnapshots() throws Exception {
+                String payload = Files.readString(Path.of(
+                                "src/test/resources/org/techbd/ig-examples/shinny-examples/Bundle-AHCHRSNScreeningResponseExample.json"));
+                var igPackages = getIgPackages();
+                igPackages.get("fhir-v4").setSnapshotCachePath(snapshotCacheDir.toString());
+                when(appConfig.getIgPackages()).thenReturn(igPackages);
+
+                Instant coldStart = Instant.now();
+                OrchestrationEngine coldEngine = new OrchestrationEngine(appConfig, appLogger, FhirContext.forR4Cached());
+                OrchestrationEngine.ValidationResult coldResult = firstValidation(coldEngine, payload);
+                Duration cold = Duration.between(coldStart, Instant.now());
+
+                try (Stream<Path> artifacts = Files.list(snapshotCacheDir)) {
+                        assertThat(artifacts.filter(p -> p.toString().endsWith(".snapshots.json.gz"))).hasSize(2);
+                }
+
+                Instant warmStart = Instant.now();
+                OrchestrationEngine warmEngine = new OrchestrationEngine(appConfig, appLogger, FhirContext.forR4Cached());
+                OrchestrationEngine.ValidationResult warmResult = firstValidation(warmEngine, payload);
+                Duration warm = Duration.between(warmStart, Instant.now());
+
+                LOG.info("Time to first validation: cold={} ms, precompiled={} ms", cold.toMillis(), warm.toMillis());
+                assertThat(warmResult.isValid()).isEqualTo(coldResult.isValid());
+                assertThat(warmResult.getIgVersion()).isEqualTo(coldResult.getIgVersion());
+        }
+
+        private OrchestrationEngine.ValidationResult firstValidation(OrchestrationEngine orchestrationEngine,
+                        String payload) {
+                OrchestrationEngine.OrchestrationSession session = orchestrationEngine.session()
+                                .withPayloads(List.of(payload))
+                                .withTracer(tracer)
+                                .withSessionId(UUID.randomUUID().toString())
+                                .withInteractionId(UUID.randomUUID().toString())
+                                .addHapiValidationEngine()
+                                .build();
+                try {
+                        orchestrationEngine.orchestrate(session);
+                        return session.getValidationResults().get(0);
+                } finally {
+                        orchestrationEngine.clear(session);
+                }
+        }
+}
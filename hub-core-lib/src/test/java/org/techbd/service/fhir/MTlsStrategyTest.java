@@ -0,0 +1,44 @@
+package org.techbd.service.fhir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.techbd.service.fhir.FHIRService.MTlsStrategy;
+import org.techbd.service.fhir.FHIRService.PostToNyecExternalResponse;
+
+class MTlsStrategyTest {
+
+    @Test
+    void testFormerCurlStrategyNameIsAnAliasForInProcessPost() {
+        assertThat(MTlsStrategy.fromString("post-stdin-payload-to-nyec-datalake-external"))
+                .isEqualTo(MTlsStrategy.POST_PAYLOAD_TO_NYEC_DATA_LAKE);
+        assertThat(MTlsStrategy.fromString("post-payload-to-nyec-datalake"))
+                .isEqualTo(MTlsStrategy.POST_PAYLOAD_TO_NYEC_DATA_LAKE);
+    }
+
+    @Test
+    void testHttpErrorIsReportedWithStatusAndBody() {
+        final var error = WebClientResponseException.create(503, "Service Unavailable", new HttpHeaders(),
+                "{\"status\": \"Busy\"}".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+
+        final var response = PostToNyecExternalResponse.of(error);
+
+        assertThat(response.completed()).isTrue();
+        assertThat(response.processOutput()).isEqualTo("{\"status\": \"Busy\"}");
+        assertThat(response.errorOutput()).isEqualTo("HTTP 503 Service Unavailable");
+    }
+
+    @Test
+    void testTransportErrorIsReportedAsNotCompleted() {
+        final var response = PostToNyecExternalResponse.of(
+                new IllegalStateException("post failed", new ConnectException("Connection refused")));
+
+        assertThat(response.completed()).isFalse();
+        assertThat(response.errorOutput()).contains("Connection refused");
+    }
+}
@@ -0,0 +1,230 @@
+package org.techbd.service.fhir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.techbd.config.CoreAppConfig;
+import org.techbd.config.CoreAppConfig.MTlsAwsSecrets;
+import org.techbd.config.CoreAppConfig.MTlsResources;
+import org.techbd.util.AppLogger;
+import org.techbd.util.TemplateLogger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.Http11SslContextSpec;
+import reactor.netty.http.server.HttpServer;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+import software.amazon.awssdk.services.secretsmanager.model.SecretsManagerException;
+
+class ScoringEngineClientPoolTest {
+
+    private static final String CERT_FILE = "src/test/resources/org/techbd/scoring-engine/client.crt";
+    private static final String KEY_FILE = "src/test/resources/org/techbd/scoring-engine/client.key";
+    private static final MTlsAwsSecrets AWS_SECRETS = new MTlsAwsSecrets("scoring-key", "scoring-cert");
+
+    private final Map<String, String> secretVersions = new ConcurrentHashMap<>();
+    private SecretsManagerClient secretsManagerClient;
+    private CoreAppConfig.ScoringEngineClientConfig clientConfig;
+    private SimpleMeterRegistry meterRegistry;
+    private ScoringEngineClientPool pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final var certificate = Files.readString(Path.of(CERT_FILE));
+        final var privateKey = Files.readString(Path.of(KEY_FILE));
+        secretVersions.put("scoring-key", "v1");
+        secretVersions.put("scoring-cert", "v1");
+        secretsManagerClient = mock(SecretsManagerClient.class);
+        when(secretsManagerClient.getSecretValue(any(GetSecretValueRequest.class))).thenAnswer(invocation -> {
+            final GetSecretValueRequest request = invocation.getArgument(0);
+            return GetSecretValueResponse.builder()
+                    .name(request.secretId())
+                    .versionId(secretVersions.get(request.secretId()))
+                    .secretString(request.secretId().equals("scoring-key") ? privateKey : certificate)
+                    .build();
+        });
+        clientConfig = new CoreAppConfig.ScoringEngineClientConfig();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private ScoringEngineClientPool newPool() {
+        final var appConfig = mock(CoreAppConfig.class);
+        when(appConfig.getScoringEngineClient()).thenReturn(clientConfig);
+        final var appLogger = mock(AppLogger.class);
+        when(appLogger.getLogger(ScoringEngineClientPool.class)).thenReturn(mock(TemplateLogger.class));
+        return new ScoringEngineClientPool(appConfig, () -> secretsManagerClient, meterRegistry, appLogger);
+    }
+
+    @Test
+    void testAwsSecretsClientAndSecretsAreReusedWithinTtl() {
+        pool = newPool();
+
+        final var first = pool.getAwsSecretsClient("tenant-a", "https://scoring.example", AWS_SECRETS);
+        final var second = pool.getAwsSecretsClient("tenant-a", "https://scoring.example", AWS_SECRETS);
+
+        assertThat(second).isSameAs(first);
+        verify(secretsManagerClient, times(2)).getSecretValue(any(GetSecretValueRequest.class));
+        assertThat(meterRegistry.get(ScoringEngineClientPool.METRIC_CLIENT_BUILDS).counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(ScoringEngineClientPool.METRIC_SECRET_LOOKUPS).tag("result", "hit")
+                .counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testClientsAreKeyedByTenantStrategyAndEndpoint() {
+        pool = newPool();
+
+        final var tenantA = pool.getAwsSecretsClient("tenant-a", "https://scoring.example", AWS_SECRETS);
+        final var tenantB = pool.getAwsSecretsClient("tenant-b", "https://scoring.example", AWS_SECRETS);
+        final var otherEndpoint = pool.getAwsSecretsClient("tenant-a", "https://other.example", AWS_SECRETS);
+        final var noMtls = pool.getClient("tenant-a", FHIRService.MTlsStrategy.NO_MTLS.getValue(),
+                "https://scoring.example");
+
+        assertThat(tenantA).isNotSameAs(tenantB).isNotSameAs(otherEndpoint).isNotSameAs(noMtls);
+        assertThat(pool.size()).isEqualTo(4);
+        assertThat(meterRegistry.get(ScoringEngineClientPool.METRIC_CLIENTS).gauge().value()).isEqualTo(4);
+    }
+
+    @Test
+    void testRotatedSecretRebuildsClientAfterTtl() {
+        clientConfig.setSecretTtlSeconds(0);
+        pool = newPool();
+
+        final var first = pool.getAwsSecretsClient("tenant-a", "https://scoring.example", AWS_SECRETS);
+        final var unchanged = pool.getAwsSecretsClient("tenant-a", "https://scoring.example", AWS_SECRETS);
+        secretVersions.put("scoring-cert", "v2");
+        final var rotated = pool.getAwsSecretsClient("tenant-a", "https://scoring.example", AWS_SECRETS);
+
+        assertThat(unchanged).isSameAs(first);
+        assertThat(rotated).isNotSameAs(first);
+        assertThat(pool.size()).isEqualTo(1);
+        assertThat(meterRegistry.get(ScoringEngineClientPool.METRIC_SECRET_LOOKUPS).tag("result", "rotated")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(ScoringEngineClientPool.METRIC_CLIENT_EVICTIONS).tag("reason", "rotated")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testCachedSecretIsReusedWhenRefreshFails() {
+        clientConfig.setSecretTtlSeconds(0);
+        pool = newPool();
+        assertThat(pool.getSecret("api-key")).isNotNull();
+        when(secretsManagerClient.getSecretValue(any(GetSecretValueRequest.class)))
+                .thenThrow(SecretsManagerException.builder().message("throttled").build());
+
+        assertThat(pool.getSecret("api-key")).isNotNull();
+        assertThatThrownBy(() -> pool.getSecret("never-fetched")).isInstanceOf(SecretsManagerException.class);
+    }
+
+    @Test
+    void testSlowSecretLookupIsMadeOnceAndDoesNotBlockOtherSecrets() throws Exception {
+        final var started = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        when(secretsManagerClient.getSecretValue(any(GetSecretValueRequest.class))).thenAnswer(invocation -> {
+            final GetSecretValueRequest request = invocation.getArgument(0);
+            if (request.secretId().equals("slow-key")) {
+                started.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return GetSecretValueResponse.builder()
+                    .name(request.secretId())
+                    .versionId("v1")
+                    .secretString(request.secretId() + "-value")
+                    .build();
+        });
+        pool = newPool();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final var first = CompletableFuture.supplyAsync(() -> pool.getSecret("slow-key"), executor);
+            final var second = CompletableFuture.supplyAsync(() -> pool.getSecret("slow-key"), executor);
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(pool.getSecret("api-key")).isEqualTo("api-key-value");
+            release.countDown();
+
+            assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("slow-key-value");
+            assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo("slow-key-value");
+            verify(secretsManagerClient, times(1))
+                    .getSecretValue(argThat((GetSecretValueRequest request) -> request.secretId().equals("slow-key")));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testMtlsResourcesAreReadAgainOnlyAfterFilesChange(@TempDir final Path tempDir) throws Exception {
+        final var keyPath = Files.copy(Path.of(KEY_FILE), tempDir.resolve("client.key"));
+        final var certPath = Files.copy(Path.of(CERT_FILE), tempDir.resolve("client.crt"));
+        final var resources = new MTlsResources(keyPath.toString(), certPath.toString());
+        pool = newPool();
+
+        final var first = pool.getMtlsResourcesClient("tenant-a", "https://scoring.example", resources);
+        final var second = pool.getMtlsResourcesClient("tenant-a", "https://scoring.example", resources);
+        Files.setLastModifiedTime(certPath, FileTime.from(Instant.now().plusSeconds(60)));
+        final var replaced = pool.getMtlsResourcesClient("tenant-a", "https://scoring.example", resources);
+
+        assertThat(second).isSameAs(first);
+        assertThat(replaced).isNotSameAs(first);
+    }
+
+    @Test
+    void testTlsHandshakeFailureEvictsClientAndCachedSecrets() {
+        // the stub presents a self-signed certificate, which the client does not trust
+        final DisposableServer stub = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .secure(spec -> spec.sslContext(Http11SslContextSpec.forServer(new File(CERT_FILE), new File(KEY_FILE))))
+                .handle((request, response) -> response.sendString(Mono.just("{\"status\": \"Success\"}")))
+                .bindNow();
+        try {
+            pool = newPool();
+            final var baseUrl = "https://localhost:" + stub.port();
+            final var webClient = pool.getAwsSecretsClient("tenant-a", baseUrl, AWS_SECRETS);
+
+            assertThatThrownBy(() -> webClient.post().retrieve().bodyToMono(String.class).block())
+                    .isInstanceOf(WebClientRequestException.class);
+
+            assertThat(pool.size()).isZero();
+            assertThat(meterRegistry.get(ScoringEngineClientPool.METRIC_CLIENT_EVICTIONS)
+                    .tag("reason", "tls_failure").counter().count()).isEqualTo(1);
+            pool.getAwsSecretsClient("tenant-a", baseUrl, AWS_SECRETS);
+            verify(secretsManagerClient, times(4)).getSecretValue(any(GetSecretValueRequest.class));
+        } finally {
+            stub.disposeNow();
+        }
+    }
+}
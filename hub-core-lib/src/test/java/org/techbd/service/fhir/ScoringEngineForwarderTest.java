@@ -0,0 +1,285 @@
+package org.techbd.service.fhir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.techbd.config.CoreAppConfig;
+import org.techbd.util.AppLogger;
+import org.techbd.util.TemplateLogger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+class ScoringEngineForwarderTest {
+
+    /** Status codes returned by the stub, one per request; 200 once exhausted. */
+    private volatile List<Integer> stubStatuses = List.of();
+    private volatile Duration stubDelay = Duration.ZERO;
+    private final AtomicInteger stubRequests = new AtomicInteger();
+    private final AtomicInteger stubInFlight = new AtomicInteger();
+    private final AtomicInteger stubMaxInFlight = new AtomicInteger();
+
+    private DisposableServer stub;
+    private WebClient webClient;
+    private CoreAppConfig.ScoringEngineForwardConfig forwardConfig;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        stub = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .handle((request, response) -> {
+                    final int index = stubRequests.getAndIncrement();
+                    final int inFlight = stubInFlight.incrementAndGet();
+                    stubMaxInFlight.accumulateAndGet(inFlight, Math::max);
+                    final int status = index < stubStatuses.size() ? stubStatuses.get(index) : 200;
+                    return Mono.delay(stubDelay)
+                            .then(response.status(HttpResponseStatus.valueOf(status))
+                                    .sendString(Mono.just("{\"status\": \"" + status + "\"}"))
+                                    .then())
+                            .doFinally(signal -> stubInFlight.decrementAndGet());
+                })
+                .bindNow();
+        webClient = WebClient.create("http://localhost:" + stub.port());
+        forwardConfig = new CoreAppConfig.ScoringEngineForwardConfig();
+        forwardConfig.setInitialBackoffMs(10);
+        forwardConfig.setMaxBackoffMs(50);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.disposeNow();
+    }
+
+    private ScoringEngineForwarder newForwarder() {
+        final var appConfig = mock(CoreAppConfig.class);
+        when(appConfig.getScoringEngineForward()).thenReturn(forwardConfig);
+        final var appLogger = mock(AppLogger.class);
+        when(appLogger.getLogger(ScoringEngineForwarder.class)).thenReturn(mock(TemplateLogger.class));
+        return new ScoringEngineForwarder(appConfig, meterRegistry, appLogger);
+    }
+
+    private Mono<String> forward(final ScoringEngineForwarder forwarder, final String tenantId) {
+        return forwarder.forward(tenantId, "stub",
+                () -> webClient.post().bodyValue("{}").retrieve().bodyToMono(String.class));
+    }
+
+    @Test
+    void testRetriesRetryableStatusUntilSuccess() {
+        stubStatuses = List.of(503, 502);
+        final var forwarder = newForwarder();
+
+        final var response = forward(forwarder, "tenant-a").block(Duration.ofSeconds(10));
+
+        assertThat(response).contains("200");
+        assertThat(stubRequests.get()).isEqualTo(3);
+        assertThat(meterRegistry.get(ScoringEngineForwarder.METRIC_FORWARD_RETRIES).counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(ScoringEngineForwarder.METRIC_FORWARD)
+                .tag("outcome", ScoringEngineForwarder.OUTCOME_SUCCESS).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testClientErrorIsNotRetried() {
+        stubStatuses = List.of(400);
+        final var forwarder = newForwarder();
+
+        assertThatThrownBy(() -> forward(forwarder, "tenant-a").block(Duration.ofSeconds(10)))
+                .isInstanceOf(WebClientResponseException.BadRequest.class);
+        assertThat(stubRequests.get()).isEqualTo(1);
+        assertThat(forwarder.circuitBreaker("stub").state()).isZero();
+    }
+
+    @Test
+    void testCircuitOpensAndFailsFastWithoutCallingEndpoint() {
+        stubStatuses = List.of(503, 503, 503, 503);
+        forwardConfig.setMaxRetries(1);
+        forwardConfig.setCircuitFailureThreshold(4);
+        forwardConfig.setCircuitOpenSeconds(60);
+        final var forwarder = newForwarder();
+
+        assertThatThrownBy(() -> forward(forwarder, "tenant-a").block(Duration.ofSeconds(10)))
+                .isInstanceOf(WebClientResponseException.ServiceUnavailable.class);
+        assertThatThrownBy(() -> forward(forwarder, "tenant-b").block(Duration.ofSeconds(10)))
+                .isInstanceOf(WebClientResponseException.ServiceUnavailable.class);
+        assertThatThrownBy(() -> forward(forwarder, "tenant-a").block(Duration.ofSeconds(10)))
+                .isInstanceOf(ScoringEngineForwarder.CircuitOpenException.class);
+
+        assertThat(stubRequests.get()).isEqualTo(4);
+        assertThat(forwarder.circuitBreaker("stub").state()).isEqualTo(2);
+        assertThat(meterRegistry.get(ScoringEngineForwarder.METRIC_FORWARD)
+                .tag("outcome", ScoringEngineForwarder.OUTCOME_CIRCUIT_OPEN).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testHalfOpenTrialClosesCircuitOnSuccess() {
+        stubStatuses = List.of(503);
+        forwardConfig.setMaxRetries(0);
+        forwardConfig.setCircuitFailureThreshold(1);
+        forwardConfig.setCircuitOpenSeconds(0);
+        final var forwarder = newForwarder();
+
+        assertThatThrownBy(() -> forward(forwarder, "tenant-a").block(Duration.ofSeconds(10)))
+                .isInstanceOf(WebClientResponseException.ServiceUnavailable.class);
+        assertThat(forwarder.circuitBreaker("stub").state()).isEqualTo(1);
+
+        assertThat(forward(forwarder, "tenant-a").block(Duration.ofSeconds(10))).contains("200");
+        assertThat(forwarder.circuitBreaker("stub").state()).isZero();
+    }
+
+    @Test
+    void testInFlightLimitIsEnforcedPerTenant() {
+        stubDelay = Duration.ofMillis(200);
+        forwardConfig.setMaxInFlightPerTenant(1);
+        forwardConfig.setMaxRetries(0);
+        final var forwarder = newForwarder();
+
+        // forwards over the limit wait in the tenant's queue; none of them needs a retry
+        final var responses = Mono.zip(forward(forwarder, "tenant-a"), forward(forwarder, "tenant-a"),
+                forward(forwarder, "tenant-a")).block(Duration.ofSeconds(30));
+
+        assertThat(responses).isNotNull();
+        assertThat(stubRequests.get()).isEqualTo(3);
+        assertThat(stubMaxInFlight.get()).isEqualTo(1);
+        assertThat(meterRegistry.find(ScoringEngineForwarder.METRIC_FORWARD_RETRIES).counter()).isNull();
+    }
+
+    @Test
+    void testForwardFailsAfterWaitingLongerThanTheQueueTimeout() {
+        stubDelay = Duration.ofMillis(1000);
+        forwardConfig.setMaxInFlightPerTenant(1);
+        forwardConfig.setQueueTimeoutMs(50);
+        final var forwarder = newForwarder();
+
+        final var first = forward(forwarder, "tenant-a").toFuture();
+        assertThatThrownBy(() -> forward(forwarder, "tenant-a").block(Duration.ofSeconds(10)))
+                .isInstanceOf(ScoringEngineForwarder.InFlightLimitException.class);
+
+        assertThat(first.orTimeout(10, TimeUnit.SECONDS).join()).contains("200");
+        assertThat(stubRequests.get()).isEqualTo(1);
+        assertThat(meterRegistry.get(ScoringEngineForwarder.METRIC_FORWARD)
+                .tag("outcome", ScoringEngineForwarder.OUTCOME_IN_FLIGHT_LIMIT).timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(ScoringEngineForwarder.METRIC_FORWARD_QUEUED).gauge().value()).isZero();
+    }
+
+    @Test
+    void testForwardFailsWhenTheQueueIsFull() {
+        stubDelay = Duration.ofMillis(500);
+        forwardConfig.setMaxInFlightPerTenant(1);
+        forwardConfig.setMaxQueuedPerTenant(0);
+        final var forwarder = newForwarder();
+
+        final var first = forward(forwarder, "tenant-a").toFuture();
+        assertThatThrownBy(() -> forward(forwarder, "tenant-a").block(Duration.ofSeconds(10)))
+                .isInstanceOf(ScoringEngineForwarder.InFlightLimitException.class);
+        // another tenant has its own limit
+        assertThat(forward(forwarder, "tenant-b").block(Duration.ofSeconds(10))).contains("200");
+
+        assertThat(first.orTimeout(10, TimeUnit.SECONDS).join()).contains("200");
+    }
+
+    @Test
+    void testGatewayTimeoutIsNotRetried() {
+        stubStatuses = List.of(504);
+        forwardConfig.setRetryableStatusCodes(List.of(408, 429, 502, 503, 504));
+        final var forwarder = newForwarder();
+
+        assertThatThrownBy(() -> forward(forwarder, "tenant-a").block(Duration.ofSeconds(10)))
+                .isInstanceOf(WebClientResponseException.GatewayTimeout.class);
+        assertThat(stubRequests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testConnectFailureIsRetried() throws IOException {
+        final int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        final var unreachable = WebClient.create("http://localhost:" + closedPort);
+        forwardConfig.setMaxRetries(2);
+        final var forwarder = newForwarder();
+
+        assertThatThrownBy(() -> forwarder.forward("tenant-a", "unreachable",
+                () -> unreachable.post().bodyValue("{}").retrieve().bodyToMono(String.class))
+                .block(Duration.ofSeconds(10)))
+                .isInstanceOf(WebClientRequestException.class);
+        assertThat(meterRegistry.get(ScoringEngineForwarder.METRIC_FORWARD_RETRIES).counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testTimeoutCountsAsEndpointFailure() {
+        stubDelay = Duration.ofMillis(1000);
+        forwardConfig.setMaxRetries(2);
+        forwardConfig.setCircuitFailureThreshold(1);
+        forwardConfig.setCircuitOpenSeconds(60);
+        final var forwarder = newForwarder();
+
+        // the endpoint may have received the bundle, so the timeout is not retried, but it opens the circuit
+        assertThatThrownBy(() -> forwarder.forward("tenant-a", "stub",
+                () -> webClient.post().bodyValue("{}").retrieve().bodyToMono(String.class)
+                        .timeout(Duration.ofMillis(100)))
+                .block(Duration.ofSeconds(10)))
+                // block() wraps the checked TimeoutException
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(stubRequests.get()).isEqualTo(1);
+        assertThat(forwarder.circuitBreaker("stub").state()).isEqualTo(2);
+        assertThatThrownBy(() -> forward(forwarder, "tenant-a").block(Duration.ofSeconds(10)))
+                .isInstanceOf(ScoringEngineForwarder.CircuitOpenException.class);
+        assertThat(stubRequests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testConnectFailureOpensTheCircuit() throws IOException {
+        final int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        final var unreachable = WebClient.create("http://localhost:" + closedPort);
+        forwardConfig.setMaxRetries(0);
+        forwardConfig.setCircuitFailureThreshold(1);
+        forwardConfig.setCircuitOpenSeconds(60);
+        final var forwarder = newForwarder();
+
+        assertThatThrownBy(() -> forwarder.forward("tenant-a", "unreachable",
+                () -> unreachable.post().bodyValue("{}").retrieve().bodyToMono(String.class))
+                .block(Duration.ofSeconds(10)))
+                .isInstanceOf(WebClientRequestException.class);
+        assertThat(forwarder.circuitBreaker("unreachable").state()).isEqualTo(2);
+    }
+
+    @Test
+    void testErrorAfterTheRequestMayHaveBeenSentIsNotRetried() {
+        final var forwarder = newForwarder();
+        final var uri = URI.create("http://localhost/stub");
+
+        assertThat(forwarder.isRetryable(new WebClientRequestException(new IOException("Connection reset by peer"),
+                HttpMethod.POST, uri, new HttpHeaders()))).isFalse();
+        assertThat(forwarder.isRetryable(new WebClientRequestException(
+                new ConnectException("Connection refused"), HttpMethod.POST, uri, new HttpHeaders())))
+                .isTrue();
+    }
+}
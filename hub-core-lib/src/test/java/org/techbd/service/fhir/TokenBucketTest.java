@@ -0,0 +1,64 @@
+package org.techbd.service.fhir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testBurstIsAvailableImmediately() {
+        final var clock = new AtomicLong();
+        final var bucket = new TokenBucket(2, 3, clock::get);
+
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isZero();
+        assertWait(bucket, SECOND / 2);
+    }
+
+    @Test
+    void testWaitingCallersAreSpacedAtTheRate() {
+        final var clock = new AtomicLong();
+        final var bucket = new TokenBucket(4, 1, clock::get);
+
+        assertThat(bucket.reserve()).isZero();
+        assertWait(bucket, SECOND / 4);
+        assertWait(bucket, SECOND / 2);
+
+        // the refill pays for the reservations above before a token is free again
+        clock.addAndGet(SECOND / 2);
+        assertWait(bucket, SECOND / 4);
+    }
+
+    @Test
+    void testRefillIsCappedAtTheBurst() {
+        final var clock = new AtomicLong();
+        final var bucket = new TokenBucket(10, 2, clock::get);
+        bucket.reserve();
+        bucket.reserve();
+
+        clock.addAndGet(60 * SECOND);
+
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isZero();
+        assertWait(bucket, SECOND / 10);
+    }
+
+    @Test
+    void testRejectsInvalidSettings() {
+        assertThatThrownBy(() -> new TokenBucket(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertWait(final TokenBucket bucket, final long expectedNanos) {
+        assertThat(bucket.reserve()).isCloseTo(expectedNanos, within(1L));
+    }
+}
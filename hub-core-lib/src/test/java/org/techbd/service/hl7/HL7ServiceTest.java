@@ -11,13 +11,17 @@ import org.jooq.DSLContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedConstruction;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.techbd.config.CoreAppConfig;
+import org.techbd.service.interaction.InteractionRegistrationWriter;
 import org.techbd.udi.auto.jooq.ingress.routines.RegisterInteractionHl7Request;
 import org.techbd.util.AppLogger;
 import org.techbd.util.TemplateLogger;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 class HL7ServiceTest {
 
     private DSLContext dslContext;
@@ -37,7 +41,12 @@ class HL7ServiceTest {
         when(appLogger.getLogger(HL7Service.class)).thenReturn(templateLogger);
         when(dslContext.configuration()).thenReturn(jooqConfig);
         when(coreAppConfig.getVersion()).thenReturn("1.0.0-test");
-        hl7Service = new HL7Service(dslContext, appLogger, coreAppConfig);
+        when(appLogger.getLogger(InteractionRegistrationWriter.class)).thenReturn(templateLogger);
+        when(coreAppConfig.getInteractionRegistration()).thenReturn(new CoreAppConfig.InteractionRegistrationConfig());
+        // write-behind is off by default, so the writer executes the routine on the calling thread
+        final var interactionRegistrationWriter = new InteractionRegistrationWriter(dslContext, coreAppConfig,
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class), appLogger);
+        hl7Service = new HL7Service(interactionRegistrationWriter, appLogger, coreAppConfig);
     }
 
     @Test
@@ -0,0 +1,207 @@
+package org.techbd.service.interaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.jooq.DSLContext;
+import org.jooq.Parameter;
+import org.jooq.SQLDialect;
+import org.jooq.impl.AbstractRoutine;
+import org.jooq.impl.DSL;
+import org.jooq.impl.Internal;
+import org.jooq.impl.SQLDataType;
+import org.jooq.jackson.extensions.converters.JSONBtoJacksonConverter;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.techbd.config.CoreAppConfig;
+import org.techbd.util.AppLogger;
+import org.techbd.util.TemplateLogger;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@Testcontainers(disabledWithoutDocker = true)
+class InteractionRegistrationWriterTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static HikariDataSource dataSource;
+    private static DSLContext dsl;
+
+    private CoreAppConfig.InteractionRegistrationConfig config;
+    private SimpleMeterRegistry meterRegistry;
+    private InteractionRegistrationWriter writer;
+
+    /**
+     * Stand-in for the generated register_interaction_* routines: records the
+     * transition and returns it as jsonb, failing for the state {@code BAD}.
+     */
+    static class RegisterTransition extends AbstractRoutine<JsonNode> {
+        static final Parameter<JsonNode> RETURN_VALUE = Internal.createParameter("RETURN_VALUE", SQLDataType.JSONB,
+                false, false, new JSONBtoJacksonConverter<JsonNode>(JsonNode.class));
+        static final Parameter<String> P_INTERACTION_ID = Internal.createParameter("p_interaction_id",
+                SQLDataType.CLOB, false, false);
+        static final Parameter<String> P_TO_STATE = Internal.createParameter("p_to_state", SQLDataType.CLOB, false,
+                false);
+
+        RegisterTransition(final String interactionId, final String toState) {
+            super("register_transition", DSL.schema(DSL.name("public")), SQLDataType.JSONB,
+                    new JSONBtoJacksonConverter<JsonNode>(JsonNode.class));
+            setReturnParameter(RETURN_VALUE);
+            addInParameter(P_INTERACTION_ID);
+            addInParameter(P_TO_STATE);
+            setValue(P_INTERACTION_ID, interactionId);
+            setValue(P_TO_STATE, toState);
+        }
+    }
+
+    @BeforeAll
+    static void createSchema() {
+        final var hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(POSTGRES.getJdbcUrl());
+        hikariConfig.setUsername(POSTGRES.getUsername());
+        hikariConfig.setPassword(POSTGRES.getPassword());
+        dataSource = new HikariDataSource(hikariConfig);
+        dsl = DSL.using(dataSource, SQLDialect.POSTGRES);
+        dsl.execute("create table transition (id bigserial primary key, interaction_id text, to_state text)");
+        dsl.execute("""
+                create function register_transition(p_interaction_id text, p_to_state text) returns jsonb
+                language plpgsql as $$
+                declare v_id bigint;
+                begin
+                    if p_to_state = 'BAD' then
+                        raise exception 'invalid transition for %', p_interaction_id;
+                    end if;
+                    insert into transition (interaction_id, to_state) values (p_interaction_id, p_to_state)
+                        returning id into v_id;
+                    return jsonb_build_object('id', v_id, 'interaction_id', p_interaction_id, 'to_state', p_to_state);
+                end $$""");
+    }
+
+    @AfterAll
+    static void closeDataSource() {
+        dataSource.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        dsl.execute("truncate table transition");
+        config = new CoreAppConfig.InteractionRegistrationConfig();
+        config.setWriteBehind(true);
+        config.setPartitions(2);
+        config.setLingerMs(100);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    private InteractionRegistrationWriter newWriter() {
+        final var appConfig = mock(CoreAppConfig.class);
+        when(appConfig.getInteractionRegistration()).thenReturn(config);
+        final var appLogger = mock(AppLogger.class);
+        when(appLogger.getLogger(InteractionRegistrationWriter.class)).thenReturn(mock(TemplateLogger.class));
+        return new InteractionRegistrationWriter(dsl, appConfig, meterRegistry, appLogger);
+    }
+
+    private static final List<String> STATES = List.of("ACCEPT_FHIR_BUNDLE", "DISPOSITION", "FORWARD", "COMPLETE");
+
+    private List<CompletableFuture<JsonNode>> registerAll(final int interactions) {
+        final List<CompletableFuture<JsonNode>> futures = new ArrayList<>();
+        for (String state : STATES) {
+            for (int i = 0; i < interactions; i++) {
+                futures.add(writer.register("interaction-" + i, new RegisterTransition("interaction-" + i, state)));
+            }
+        }
+        return futures;
+    }
+
+    private List<String> statesOf(final String interactionId) {
+        return dsl.resultQuery("select to_state from transition where interaction_id = ? order by id", interactionId)
+                .fetch(0, String.class);
+    }
+
+    private double roundTrips(final String mode) {
+        final var counter = meterRegistry.find(InteractionRegistrationWriter.METRIC_ROUND_TRIPS).tag("mode", mode)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Test
+    void testTransitionsAreBatchedAndKeepTheirOrderPerInteraction() {
+        writer = newWriter();
+
+        final var futures = registerAll(10);
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).orTimeout(30, TimeUnit.SECONDS).join();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(statesOf("interaction-" + i)).containsExactlyElementsOf(STATES);
+        }
+        assertThat(futures.get(0).join().get("to_state").asText()).isEqualTo("ACCEPT_FHIR_BUNDLE");
+        assertThat(roundTrips("batch") + roundTrips("single")).isLessThan(40);
+        assertThat(meterRegistry.get(InteractionRegistrationWriter.METRIC_ROUND_TRIPS_PER_INTERACTION).summary()
+                .mean()).isLessThan(1);
+    }
+
+    @Test
+    void testDurableRegistrationIsCommittedOnReturn() throws Exception {
+        config.setLingerMs(500);
+        writer = newWriter();
+
+        final JsonNode response = writer.registerDurably("interaction-1",
+                new RegisterTransition("interaction-1", "ACCEPT_FHIR_BUNDLE"));
+
+        assertThat(response.get("id").asLong()).isPositive();
+        assertThat(statesOf("interaction-1")).containsExactly("ACCEPT_FHIR_BUNDLE");
+    }
+
+    @Test
+    void testFailingTransitionDoesNotLoseTheRestOfTheBatch() {
+        config.setPartitions(1);
+        writer = newWriter();
+
+        final var good = writer.register("interaction-1", new RegisterTransition("interaction-1", "ACCEPT_FHIR_BUNDLE"));
+        final var bad = writer.register("interaction-2", new RegisterTransition("interaction-2", "BAD"));
+        final var after = writer.register("interaction-1", new RegisterTransition("interaction-1", "DISPOSITION"));
+
+        assertThat(after.orTimeout(30, TimeUnit.SECONDS).join().get("to_state").asText()).isEqualTo("DISPOSITION");
+        assertThat(good.join()).isNotNull();
+        assertThatThrownBy(bad::join).isInstanceOf(CompletionException.class);
+        assertThat(statesOf("interaction-1")).containsExactly("ACCEPT_FHIR_BUNDLE", "DISPOSITION");
+        assertThat(statesOf("interaction-2")).isEmpty();
+    }
+
+    @Test
+    void testDirectModeExecutesOnTheCallingThread() {
+        config.setWriteBehind(false);
+        writer = newWriter();
+
+        final var futures = registerAll(2);
+
+        assertThat(futures).allMatch(CompletableFuture::isDone);
+        assertThat(statesOf("interaction-0")).containsExactlyElementsOf(STATES);
+        assertThat(roundTrips("single")).isEqualTo(8);
+    }
+}
@@ -1,8 +1,6 @@
 package lib.aide.tabular;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.time.LocalDate;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.OffsetDateTime;
@@ -10,13 +8,15 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import org.jooq.Condition;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
 import org.jooq.Field;
 import org.jooq.Query;
@@ -28,11 +28,14 @@ import org.jooq.Table;
 import org.jooq.conf.RenderKeywordCase;
 import org.jooq.conf.RenderQuotedNames;
 import org.jooq.conf.Settings;
+import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.techbd.util.NoOpUtils;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 
@@ -40,6 +43,23 @@ public final class JooqRowsSupplier implements TabularRowsSupplier<JooqRowsSuppl
 
     static private final Logger LOG = LoggerFactory.getLogger(JooqRowsSupplier.class);
 
+    private static final ZoneId DISPLAY_ZONE = ZoneId.of("America/New_York");
+    private static final DateTimeFormatter DISPLAY_DATE_TIME = DateTimeFormatter.ofPattern("MM-dd-yyyy HH:mm:ss");
+    private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("MM-dd-yyyy");
+
+    /**
+     * Alias prefix of the hidden columns that carry the raw sort key of each
+     * row in seek mode; they are never sent to the grid.
+     */
+    static final String SEEK_FIELD_PREFIX = "__seek_";
+
+    /**
+     * {@code requestContext} entry naming the column (or list of columns) that
+     * makes the grid's sort order unique, used for seek pagination on views
+     * that have no primary key.
+     */
+    public static final String SEEK_KEY_CONTEXT = "seekKey";
+
     public record TypableTable(Table<?> table, boolean stronglyTyped) {
 
         private static final Set<String> VALIDATED_TABLES = ConcurrentHashMap.newKeySet();
@@ -122,6 +142,8 @@ public final class JooqRowsSupplier implements TabularRowsSupplier<JooqRowsSuppl
     private final Logger logger;
     private final Query customQuery;
     private final List<Object> customBindValues;
+    private final SeekAnchors seekAnchors;
+    private final List<SeekColumn> seekColumns;
 
     private JooqRowsSupplier(final Builder builder) {
         this.request = builder.request;
@@ -132,6 +154,62 @@ public final class JooqRowsSupplier implements TabularRowsSupplier<JooqRowsSuppl
         this.logger = builder.logger;
         this.customQuery = builder.customQuery;
         this.customBindValues = builder.customBindValues;
+        this.seekAnchors = builder.seekAnchors;
+        this.seekColumns = builder.seekAnchors != null ? seekColumns(builder.seekKey) : List.of();
+    }
+
+    /**
+     * The grid's sort columns followed by the unique key columns that break
+     * ties between them, or an empty list when no unique key is known and
+     * rows therefore cannot be addressed by their sort key.
+     */
+    private List<SeekColumn> seekColumns(@Nullable final List<String> configuredKey) {
+        final List<String> key;
+        final var fromContext = request.requestContext() != null
+                ? request.requestContext().get(SEEK_KEY_CONTEXT)
+                : null;
+        if (fromContext instanceof String column) {
+            key = List.of(column);
+        } else if (fromContext instanceof List<?> names) {
+            key = names.stream().map(String::valueOf).toList();
+        } else if (configuredKey != null) {
+            key = configuredKey;
+        } else if (typableTable.stronglyTyped() && typableTable.table().getPrimaryKey() != null) {
+            key = typableTable.table().getPrimaryKey().getFields().stream().map(Field::getName).toList();
+        } else {
+            key = List.of();
+        }
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        final var columns = new ArrayList<SeekColumn>();
+        if (request.sortModel() != null) {
+            for (final var sort : request.sortModel()) {
+                if (!"asc".equals(sort.sort()) && !"desc".equals(sort.sort())) {
+                    return List.of();
+                }
+                columns.add(new SeekColumn(sort.colId(), "desc".equals(sort.sort()), nullable(sort.colId())));
+            }
+        }
+        for (final var column : key) {
+            if (columns.stream().noneMatch(c -> c.name().equals(column))) {
+                // unique key columns are never NULL
+                columns.add(new SeekColumn(column, false, false));
+            }
+        }
+        return List.copyOf(columns);
+    }
+
+    /**
+     * Whether a sort column may hold NULL; only jOOQ generated tables say
+     * otherwise.
+     */
+    private boolean nullable(final String column) {
+        if (!typableTable.stronglyTyped()) {
+            return true;
+        }
+        final var field = typableTable.table().field(column);
+        return field == null || field.getDataType().nullable();
     }
 
     public TabularRowsRequest request() {
@@ -148,46 +226,27 @@ public final class JooqRowsSupplier implements TabularRowsSupplier<JooqRowsSuppl
 
     @Override
     public TabularRowsResponse<JooqProvenance> response() {
-        final var jq = query();
-        final var provenance = new JooqProvenance(jq.query.getSQL(), jq.bindValues(), typableTable.stronglyTyped);
-        try {
-            Instant start = Instant.now();
-            final var query = jq.query();
-            final var result = dsl.fetch(query.getSQL(), jq.bindValues().toArray());
-            final var data = result.intoMaps();
-            // Format date fields in the result set
-            final var formattedData = new ArrayList<Map<String, Object>>();
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM-dd-yyyy HH:mm:ss");
-            for (Map<String, Object> row : data) {
-                Map<String, Object> formattedRow = new HashMap<>(row);
-
-                row.forEach((column, value) -> {
-
-                    if (value instanceof OffsetDateTime) {
-                        LOG.info("", value);
-                        formattedRow.put(column, ((OffsetDateTime) value)
-                                .atZoneSameInstant(ZoneId.of("America/New_York"))
-                                .toLocalDateTime()
-                                .format(formatter));
-                    } else if (value instanceof java.sql.Date) {
-                        // Convert java.sql.Date to LocalDate
-                        LocalDate localDate = ((java.sql.Date) value).toLocalDate();
-                        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM-dd-yyyy");
-                        formattedRow.put(column, localDate.format(dateFormatter));
-                    }
-                });
-                formattedData.add(formattedRow);
-            }
-            var lastRow = request.startRow() + formattedData.size();
-            if (formattedData.size() < (request.endRow() - request.startRow())) {
-                lastRow = -1;
-            }
-            Instant end = Instant.now();
-            long timeTaken = Duration.between(start, end).toNanos();
-            System.out.println(
-                    "Time taken by JOOQ: %d ns (%d s)".formatted(timeTaken, Duration.between(start, end).toSeconds()));
-            return new TabularRowsResponse<>(includeGeneratedSqlInResp ? provenance : null, formattedData, lastRow,
-                    null);
+        final var page = page();
+        final var provenance = new JooqProvenance(page.query().query().getSQL(), page.query().bindValues(),
+                typableTable.stronglyTyped);
+        final long start = System.nanoTime();
+        try (var cursor = open(page.query())) {
+            final var columns = columns(cursor.fields());
+            final var data = new ArrayList<Map<String, Object>>();
+            Record last = null;
+            for (final Record record : cursor) {
+                final var row = new LinkedHashMap<String, Object>(columns.length * 2);
+                for (final var column : columns) {
+                    row.put(column.name(), column.format(record.get(column.index())));
+                }
+                data.add(row);
+                last = record;
+            }
+            remember(page, data.size(), last);
+            LOG.debug("JooqRowsSupplier:: {} rows in {} ms (seek: {})", data.size(),
+                    (System.nanoTime() - start) / 1_000_000, page.seek());
+            return new TabularRowsResponse<>(includeGeneratedSqlInResp ? provenance : null, data,
+                    lastRow(data.size()), null);
         } catch (Exception e) {
             if (logger != null) {
                 logger.error("JooqRowsSupplier error", e);
@@ -197,10 +256,199 @@ public final class JooqRowsSupplier implements TabularRowsSupplier<JooqRowsSuppl
         }
     }
 
+    /**
+     * Writes the same JSON object as {@link #response()} would be serialized
+     * to, but row by row from a database cursor, without collecting the rows
+     * first. A failure before the first row is written produces the same
+     * error response as {@link #response()}; a failure after it ends the
+     * {@code data} array early and reports the error with {@code lastRow}
+     * of -1.
+     */
+    public void stream(final JsonGenerator json) throws IOException {
+        final var page = page();
+        final var provenance = new JooqProvenance(page.query().query().getSQL(), page.query().bindValues(),
+                typableTable.stronglyTyped);
+        final long start = System.nanoTime();
+        json.writeStartObject();
+        json.writeFieldName("provenance");
+        json.writeObject(includeGeneratedSqlInResp ? provenance : null);
+
+        final Cursor<Record> cursor;
+        try {
+            cursor = open(page.query());
+        } catch (Exception e) {
+            if (logger != null) {
+                logger.error("JooqRowsSupplier error", e);
+            }
+            json.writeNullField("data");
+            json.writeNumberField("lastRow", -1);
+            writeError(json, e);
+            return;
+        }
+
+        json.writeArrayFieldStart("data");
+        int rows = 0;
+        Record last = null;
+        Exception failure = null;
+        try (cursor) {
+            final var columns = columns(cursor.fields());
+            for (final Record record : cursor) {
+                json.writeStartObject();
+                for (final var column : columns) {
+                    json.writeFieldName(column.name());
+                    json.writeObject(column.format(record.get(column.index())));
+                }
+                json.writeEndObject();
+                rows++;
+                last = record;
+            }
+        } catch (DataAccessException e) {
+            failure = e;
+            if (logger != null) {
+                logger.error("JooqRowsSupplier error after {} rows", rows, e);
+            }
+        }
+        json.writeEndArray();
+        if (failure == null) {
+            remember(page, rows, last);
+        }
+        json.writeNumberField("lastRow", failure == null ? lastRow(rows) : -1);
+        writeError(json, failure);
+        json.flush();
+        LOG.debug("JooqRowsSupplier:: streamed {} rows in {} ms (seek: {})", rows,
+                (System.nanoTime() - start) / 1_000_000, page.seek());
+    }
+
+    private void writeError(final JsonGenerator json, @Nullable final Exception e) throws IOException {
+        if (e != null && includeGeneratedSqlInErrorResp) {
+            json.writeStringField("uxReportableError", e.getMessage());
+        } else {
+            json.writeNullField("uxReportableError");
+        }
+        json.writeEndObject();
+    }
+
+    private Cursor<Record> open(final JooqQuery jq) {
+        return dsl.resultQuery(jq.query().getSQL(), jq.bindValues().toArray()).fetchLazy();
+    }
+
+    private int lastRow(final int rows) {
+        return rows < request.endRow() - request.startRow() ? -1 : request.startRow() + rows;
+    }
+
+    /**
+     * The query for the requested block: a seek past the anchor left by the
+     * previous block when one is known, otherwise the {@code OFFSET} query.
+     */
+    private Page page() {
+        final var offsetQuery = query();
+        if (!seekEnabled()) {
+            return new Page(offsetQuery, null, false);
+        }
+        final var binds = offsetQuery.bindValues();
+        // the OFFSET query without its offset and limit identifies the grid's query across blocks
+        final var signature = offsetQuery.query().getSQL() + binds.subList(0, binds.size() - 2);
+        final var after = request.startRow() > 0 ? seekAnchors.get(signature, request.startRow()) : null;
+        return after == null ? new Page(offsetQuery, signature, false) : new Page(query(after), signature, true);
+    }
+
+    private void remember(final Page page, final int rows, @Nullable final Record last) {
+        if (page.signature() == null || last == null || rows < request.endRow() - request.startRow()) {
+            return;
+        }
+        final var sortKey = new ArrayList<Object>(seekColumns.size());
+        for (int i = 0; i < seekColumns.size(); i++) {
+            sortKey.add(last.get(SEEK_FIELD_PREFIX + i));
+        }
+        seekAnchors.put(page.signature(), request.startRow() + rows, sortKey);
+    }
+
+    private boolean seekEnabled() {
+        return seekAnchors != null && !seekColumns.isEmpty() && customQuery == null
+                && (request.groupKeys() == null || request.groupKeys().isEmpty())
+                && (request.rowGroupCols() == null || request.rowGroupCols().isEmpty())
+                && (request.aggregationFunctions() == null || request.aggregationFunctions().isEmpty());
+    }
+
+    /**
+     * Output columns of a result, each with the formatter for its type chosen
+     * once instead of per value. The hidden seek key columns are left out.
+     */
+    private static Column[] columns(final Field<?>[] fields) {
+        final var columns = new ArrayList<Column>(fields.length);
+        for (int i = 0; i < fields.length; i++) {
+            final var name = fields[i].getName();
+            if (!name.startsWith(SEEK_FIELD_PREFIX)) {
+                columns.add(new Column(name, i, formatter(fields[i].getType())));
+            }
+        }
+        return columns.toArray(Column[]::new);
+    }
+
+    private static Function<Object, Object> formatter(final Class<?> type) {
+        if (OffsetDateTime.class.equals(type)) {
+            return JooqRowsSupplier::formatDateTime;
+        }
+        if (java.sql.Date.class.equals(type)) {
+            return JooqRowsSupplier::formatDate;
+        }
+        if (Object.class.equals(type)) {
+            // type not known up front: decide per value
+            return value -> formatDate(formatDateTime(value));
+        }
+        return Function.identity();
+    }
+
+    private static Object formatDateTime(final Object value) {
+        return value instanceof OffsetDateTime dateTime
+                ? dateTime.atZoneSameInstant(DISPLAY_ZONE).toLocalDateTime().format(DISPLAY_DATE_TIME)
+                : value;
+    }
+
+    private static Object formatDate(final Object value) {
+        return value instanceof java.sql.Date date ? date.toLocalDate().format(DISPLAY_DATE) : value;
+    }
+
+    private record Column(String name, int index, Function<Object, Object> formatter) {
+
+        Object format(final Object value) {
+            return value == null ? null : formatter.apply(value);
+        }
+    }
+
+    private record Page(JooqQuery query, @Nullable String signature, boolean seek) {
+
+    }
+
+    /**
+     * A column of the seek key, whether the grid sorts it descending and
+     * whether it may hold NULL.
+     */
+    private record SeekColumn(String name, boolean descending, boolean nullable) {
+
+    }
+
+    /**
+     * A seek condition and its bind values in the order they appear in its
+     * SQL.
+     */
+    private record SeekCondition(Condition condition, List<Object> bindValues) {
+
+    }
+
     private Condition finalCondition;
 
-    @SuppressWarnings("unchecked")
     public JooqQuery query() {
+        return query(null);
+    }
+
+    /**
+     * @param seekAfter sort key of the row the requested block follows; when
+     *                  given, the block is read with a seek condition and a
+     *                  plain {@code LIMIT} instead of {@code OFFSET}
+     */
+    @SuppressWarnings("unchecked")
+    private JooqQuery query(@Nullable final List<Object> seekAfter) {
         final var selectFields = new ArrayList<Field<?>>();
         final var whereConditions = new ArrayList<Condition>();
         final var bindValues = new ArrayList<Object>();
@@ -444,6 +692,30 @@ public final class JooqRowsSupplier implements TabularRowsSupplier<JooqRowsSuppl
             }
         }
 
+        // Adding the hidden sort key columns and their tie-breaking order for seek pagination
+        if (seekEnabled()) {
+            if (selectFields.isEmpty()) {
+                // keep the implicit SELECT * alongside the hidden columns
+                selectFields.add(DSL.asterisk());
+            }
+            for (int i = 0; i < seekColumns.size(); i++) {
+                final var column = seekColumns.get(i);
+                selectFields.add(typableTable.column(column.name()).as(SEEK_FIELD_PREFIX + i));
+                if (request.sortModel() == null
+                        || request.sortModel().stream().noneMatch(s -> s.colId().equals(column.name()))) {
+                    sortFields.add(typableTable.column(column.name()).asc());
+                }
+            }
+        }
+        if (seekAfter != null) {
+            final var seek = seekCondition(seekAfter);
+            whereConditions.add(seek.condition());
+            if (finalCondition != null) {
+                finalCondition = DSL.and(finalCondition, seek.condition());
+            }
+            bindValues.addAll(seek.bindValues());
+        }
+
         // Adding grouping
         if (request.rowGroupCols() != null) {
             request.rowGroupCols().forEach(col -> {
@@ -500,6 +772,15 @@ public final class JooqRowsSupplier implements TabularRowsSupplier<JooqRowsSuppl
         }
 
         LOG.info("Query for Single Schema {} :", typableTable.table);
+        if (seekAfter != null) {
+            final var select = this.dsl.select(selectFields).from(typableTable.table)
+                    .where(finalCondition == null ? DSL.and(whereConditions) : finalCondition)
+                    .orderBy(sortFields)
+                    .limit(limit);
+            LOG.debug("Seek Select Query : {}", select);
+            bindValues.add(limit);
+            return new JooqQuery(select, bindValues, typableTable.stronglyTyped);
+        }
         if (finalCondition == null) {
             final var select = groupByFields.isEmpty()
                     ? this.dsl.select(selectFields).from(typableTable.table).where(whereConditions).orderBy(sortFields)
@@ -530,6 +811,59 @@ public final class JooqRowsSupplier implements TabularRowsSupplier<JooqRowsSuppl
 
     }
 
+    /**
+     * Rows after {@code seekAfter} in the grid's order. When every column is
+     * sorted the same way and none can be NULL this is a single row-value
+     * comparison, which PostgreSQL can answer from a matching index.
+     * Otherwise it expands to {@code (a > ?) OR (a = ? AND b < ?) ...}, with
+     * NULLs placed where PostgreSQL sorts them by default: after every value
+     * ascending and before every value descending. A NULL in the anchor
+     * compares with {@code IS NULL} / {@code IS NOT NULL} instead of a bind
+     * value.
+     */
+    private SeekCondition seekCondition(final List<Object> seekAfter) {
+        final var fields = seekColumns.stream().map(c -> typableTable.column(c.name())).toList();
+        final boolean descending = seekColumns.get(0).descending();
+        if (seekColumns.stream().allMatch(c -> c.descending() == descending && !c.nullable())) {
+            final var row = DSL.row(fields);
+            return new SeekCondition(descending ? row.lt(seekAfter.toArray()) : row.gt(seekAfter.toArray()),
+                    seekAfter);
+        }
+        final var alternatives = new ArrayList<Condition>();
+        final var bindValues = new ArrayList<Object>();
+        for (int i = 0; i < seekColumns.size(); i++) {
+            final var column = seekColumns.get(i);
+            final var field = fields.get(i);
+            final var value = seekAfter.get(i);
+            if (value == null && !column.descending()) {
+                // nothing sorts after NULL ascending
+                continue;
+            }
+            final var conjuncts = new ArrayList<Condition>();
+            for (int j = 0; j < i; j++) {
+                final var previous = seekAfter.get(j);
+                if (previous == null) {
+                    conjuncts.add(fields.get(j).isNull());
+                } else {
+                    conjuncts.add(fields.get(j).eq(previous));
+                    bindValues.add(previous);
+                }
+            }
+            if (value == null) {
+                conjuncts.add(field.isNotNull());
+            } else if (column.descending()) {
+                conjuncts.add(field.lt(value));
+                bindValues.add(value);
+            } else {
+                conjuncts.add(column.nullable() ? field.gt(value).or(field.isNull()) : field.gt(value));
+                bindValues.add(value);
+            }
+            alternatives.add(DSL.and(conjuncts));
+        }
+        return new SeekCondition(alternatives.isEmpty() ? DSL.falseCondition() : DSL.or(alternatives),
+                bindValues);
+    }
+
     private Condition createCondition(final String field, final TabularRowsRequest.FilterModel filter) {
         return createConditionSub(field, filter.type(), filter.filter(), filter.secondFilter(), filter.dateFrom(),
                 filter.dateTo());
@@ -705,6 +1039,8 @@ public final class JooqRowsSupplier implements TabularRowsSupplier<JooqRowsSuppl
         private Query customQuery;
         private List<Object> customBindValues;
         private String schemaName;
+        private SeekAnchors seekAnchors;
+        private List<String> seekKey;
 
         public Builder withRequest(final TabularRowsRequest request) {
             this.request = request;
@@ -758,6 +1094,26 @@ public final class JooqRowsSupplier implements TabularRowsSupplier<JooqRowsSuppl
             return this;
         }
 
+        /**
+         * Enables seek (keyset) pagination: blocks that follow one already
+         * served through {@code seekAnchors} are read past its last row
+         * instead of with {@code OFFSET}.
+         */
+        public Builder withSeekAnchors(final SeekAnchors seekAnchors) {
+            this.seekAnchors = seekAnchors;
+            return this;
+        }
+
+        /**
+         * Columns that make rows unique, for tables and views whose primary
+         * key is not known to jOOQ; a {@code seekKey} in the request context
+         * takes precedence.
+         */
+        public Builder withSeekKey(final List<String> seekKey) {
+            this.seekKey = seekKey;
+            return this;
+        }
+
         public JooqRowsSupplier build() {
             if (dsl != null && table != null && !table.stronglyTyped()) {
                 table.validateExists(dsl, schemaName);
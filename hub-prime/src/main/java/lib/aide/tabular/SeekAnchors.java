@@ -0,0 +1,60 @@
+package lib.aide.tabular;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * Remembers, per query and row number, the sort key of the last row served
+ * by {@link JooqRowsSupplier}, so that the request for the next block of the
+ * same grid can seek past that row instead of skipping {@code startRow} rows
+ * with {@code OFFSET}.
+ * <p>
+ * The anchors stay on the server because the rows sent to the grid carry
+ * display-formatted values (timestamps truncated to seconds, for example)
+ * that cannot be bound back into a query. A request without a matching
+ * anchor, such as a jump to a distant block or a request served by another
+ * instance, simply falls back to {@code OFFSET}. The least recently used
+ * anchors are dropped once {@code capacity} is reached.
+ */
+public final class SeekAnchors {
+
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private final Map<String, List<Object>> anchors;
+
+    public SeekAnchors() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SeekAnchors(final int capacity) {
+        this.anchors = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, List<Object>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return the sort key values of row {@code row - 1} of the query
+     *         identified by {@code signature}, or null when not known
+     */
+    @Nullable
+    public synchronized List<Object> get(final String signature, final int row) {
+        return anchors.get(signature + '@' + row);
+    }
+
+    public synchronized void put(final String signature, final int row, final List<Object> sortKey) {
+        // sort keys may hold NULLs, which List.copyOf rejects
+        anchors.put(signature + '@' + row, Collections.unmodifiableList(new ArrayList<>(sortKey)));
+    }
+
+    public synchronized int size() {
+        return anchors.size();
+    }
+}
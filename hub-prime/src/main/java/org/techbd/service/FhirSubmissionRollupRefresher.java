@@ -0,0 +1,49 @@
+package org.techbd.service;
+
+import org.jooq.DSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps {@code techbd_udi_ingress.fhir_submission_rollup}, which backs the
+ * needs-attention and tenant stats dashboards, up to date by draining the
+ * queue of changed interactions on a fixed delay. Every hub-prime instance
+ * runs this; the database lets one refresh run at a time and the others
+ * return immediately.
+ */
+@Component
+public class FhirSubmissionRollupRefresher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FhirSubmissionRollupRefresher.class.getName());
+
+    private final DSLContext primaryDslContext;
+    private final boolean enabled;
+    private final int maxInteractions;
+
+    public FhirSubmissionRollupRefresher(@Qualifier("primaryDslContext") final DSLContext primaryDslContext,
+            @Value("${org.techbd.udi.fhir-submission-rollup.enabled:true}") final boolean enabled,
+            @Value("${org.techbd.udi.fhir-submission-rollup.max-interactions:50000}") final int maxInteractions) {
+        this.primaryDslContext = primaryDslContext;
+        this.enabled = enabled;
+        this.maxInteractions = maxInteractions;
+    }
+
+    @Scheduled(fixedDelayString = "${org.techbd.udi.fhir-submission-rollup.refresh-interval-ms:30000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            final var result = primaryDslContext.fetchValue(
+                    "select techbd_udi_ingress.refresh_fhir_submission_rollup(?)::text", maxInteractions);
+            LOG.debug("FhirSubmissionRollupRefresher:: refreshed {}", result);
+        } catch (Exception e) {
+            // queued interactions stay queued and are picked up by the next refresh
+            LOG.error("FhirSubmissionRollupRefresher:: refresh failed", e);
+        }
+    }
+}
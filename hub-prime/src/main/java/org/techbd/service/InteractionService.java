@@ -2,11 +2,14 @@ package org.techbd.service;
 
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -51,104 +54,155 @@ public class InteractionService {
     @Value("${AUTH_PROVIDER:github}")
     private String authProvider;
 
+    /**
+     * Everything needed to register an interaction, captured on the request
+     * thread: the session and authenticated user are only reachable while the
+     * request is active, whereas payload serialization and the database write
+     * can happen later on another thread.
+     */
+    public record PendingInteraction(RequestResponseEncountered rre, String requestURI, OffsetDateTime createdAt,
+            String provenance, String activeTenant, String userName, String userId, String userSession,
+            String userRole) {
+    }
+
     @Transactional
     public void saveInteractionToDatabase(RequestResponseEncountered rre, String requestURI, 
             OffsetDateTime createdAt, String provenance, HttpServletRequest origRequest) {
-       final var rihr = new RegisterUserInteraction();
-            try {
-                LOG.info("REGISTER State None : BEGIN for  interaction id : {} tenant id : {}",
-                rre.interactionId().toString(), rre.tenant());
-                final var tenant = rre.tenant();
-                String activeTenant = Optional.ofNullable(origRequest.getSession(false))
-                        .map(session -> (String) session.getAttribute("activeTenant"))
+        saveInteractionToDatabase(capture(rre, requestURI, createdAt, provenance, origRequest));
+    }
+
+    public void saveInteractionToDatabase(final PendingInteraction pending) {
+        final var rre = pending.rre();
+        final var rihr = new RegisterUserInteraction();
+        try {
+            LOG.info("REGISTER State None : BEGIN for  interaction id : {} tenant id : {}",
+                    rre.interactionId().toString(), rre.tenant());
+            prepareRoutine(rihr, pending);
+            rihr.execute(primaryDslContext.configuration());
+            LOG.info("REGISTER State None : END for  interaction id : {} tenant id : {}",
+                    rre.interactionId().toString(), rre.tenant());
+        } catch (Exception e) {
+            LOG.error("ERROR:: REGISTER State None  for  interaction id : {} tenant id : {} : CALL " + rihr.getName() + " error",  rre.interactionId().toString(), rre.tenant(),e);
+        }
+    }
+
+    /**
+     * Registers {@code batch} with a single statement that evaluates one
+     * {@code register_user_interaction} call per interaction. If that statement
+     * fails the interactions are registered one by one, so one bad interaction
+     * does not lose the rest of the batch.
+     */
+    public void saveInteractionsToDatabase(final List<PendingInteraction> batch) {
+        if (batch.size() == 1) {
+            saveInteractionToDatabase(batch.get(0));
+            return;
+        }
+        try {
+            final List<Field<?>> fields = new ArrayList<>(batch.size());
+            for (PendingInteraction pending : batch) {
+                final var rihr = new RegisterUserInteraction();
+                prepareRoutine(rihr, pending);
+                fields.add(rihr.asField());
+            }
+            primaryDslContext.select(fields).fetchOne();
+            LOG.info("REGISTER State None : registered batch of {} interactions", batch.size());
+        } catch (Exception e) {
+            LOG.warn("REGISTER State None : batch of {} interactions failed, registering one by one: {}",
+                    batch.size(), e.getMessage());
+            for (PendingInteraction pending : batch) {
+                saveInteractionToDatabase(pending);
+            }
+        }
+    }
+
+    public PendingInteraction capture(RequestResponseEncountered rre, String requestURI, OffsetDateTime createdAt,
+            String provenance, HttpServletRequest origRequest) {
+        final var tenant = rre.tenant();
+        String activeTenant = Optional.ofNullable(origRequest.getSession(false))
+                .map(session -> (String) session.getAttribute("activeTenant"))
+                .filter(value -> value != null && !value.isBlank())
+                .orElseGet(() -> Optional.ofNullable(tenant)
+                        .map(Interactions.Tenant::tenantId)
                         .filter(value -> value != null && !value.isBlank())
-                        .orElseGet(() -> Optional.ofNullable(tenant)
-                                .map(Interactions.Tenant::tenantId)
-                                .filter(value -> value != null && !value.isBlank())
-                                .orElse("N/A"));
-
-                rihr.setPInteractionId(rre.interactionId().toString());
-                rihr.setPContentType(MimeTypeUtils.APPLICATION_JSON_VALUE);
-                rihr.setPInteractionKey(requestURI);
-                rihr.setPSourceType(SourceType.FHIR.name());
-                rihr.setPPayload((JsonNode) Configuration.objectMapper.valueToTree(rre));
-                rihr.setPCreatedAt(createdAt); // don't let DB set this, since it might be stored out of order
-                rihr.setPCreatedBy(InteractionService.class.getName());
-                rihr.setPTechbdVersionNumber(coreAppConfig.getVersion());
-                rihr.setPProvenance(provenance);
-                // User details
-                if (saveUserDataToInteractions) {
-                    var curUserName = "API_USER";
-                    var userId = "N/A";
-                    final var sessionId = origRequest.getRequestedSessionId();
-                    var userRole = "API_ROLE";
-
-                    Optional<?> curUser = Optional.empty();
-
-                    if ("fusionauth".equalsIgnoreCase(authProvider)) {
-                        curUser = FusionAuthUserAuthorizationFilter.getAuthenticatedUser(origRequest);
-                    } else if ("github".equalsIgnoreCase(authProvider)) {
-                        curUser = GitHubUserAuthorizationFilter.getAuthenticatedUser(origRequest);
-                    }
-
-                    if (curUser.isPresent()) {
-                        Object user = curUser.get();
-
-                        if ("fusionauth".equalsIgnoreCase(authProvider)) {
-                            final var faUser = ((FusionAuthUserAuthorizationFilter.AuthenticatedUser) user).faUser();
-                            if (faUser != null) {
-                                curUserName = Optional.ofNullable(faUser.name()).orElse("NO_DATA");
-                                userId = Optional.ofNullable(faUser.fusionAuthId()).orElse("NO_DATA");
-                            }
-
-                            userRole = ((FusionAuthUserAuthorizationFilter.AuthenticatedUser) user)
-                                    .principal()
-                                    .getAuthorities()
-                                    .stream()
-                                    .map(GrantedAuthority::getAuthority)
-                                    .collect(Collectors.joining(","));
-
-                        } else if ("github".equalsIgnoreCase(authProvider)) {
-                            final var ghUser = ((GitHubUserAuthorizationFilter.AuthenticatedUser) user).ghUser();
-                            if (ghUser != null) {
-                                curUserName = Optional.ofNullable(ghUser.name()).orElse("NO_DATA");
-                                userId = Optional.ofNullable(ghUser.gitHubId()).orElse("NO_DATA");
-                            }
-
-                            userRole = ((GitHubUserAuthorizationFilter.AuthenticatedUser) user)
-                                    .principal()
-                                    .getAuthorities()
-                                    .stream()
-                                    .map(GrantedAuthority::getAuthority)
-                                    .collect(Collectors.joining(","));
-                        }
-
-                        LOG.info("userRole: " + userRole);
-                        userRole = "DEFAULT_ROLE"; // TODO: remove when real role mapping is implemented
-                    }
-                    rihr.setPUserName(curUserName);
-                    rihr.setPUserId(userId);
-                    rihr.setPUserSession(sessionId);
-                    rihr.setPUserRole(userRole);
-                    rihr.setPNature((JsonNode)Configuration.objectMapper.valueToTree(
-                            Map.of("nature", RequestResponseEncountered.class.getName(), "tenant_id",
-                                    activeTenant)));
-                } else {
-                    LOG.info("User details are not saved with Interaction as saveUserDataToInteractions: "
-                            + saveUserDataToInteractions);
+                        .orElse("N/A"));
+        if (!saveUserDataToInteractions) {
+            LOG.info("User details are not saved with Interaction as saveUserDataToInteractions: "
+                    + saveUserDataToInteractions);
+            return new PendingInteraction(rre, requestURI, createdAt, provenance, activeTenant, null, null, null,
+                    null);
+        }
+        // User details
+        var curUserName = "API_USER";
+        var userId = "N/A";
+        final var sessionId = origRequest.getRequestedSessionId();
+        var userRole = "API_ROLE";
+
+        Optional<?> curUser = Optional.empty();
+
+        if ("fusionauth".equalsIgnoreCase(authProvider)) {
+            curUser = FusionAuthUserAuthorizationFilter.getAuthenticatedUser(origRequest);
+        } else if ("github".equalsIgnoreCase(authProvider)) {
+            curUser = GitHubUserAuthorizationFilter.getAuthenticatedUser(origRequest);
+        }
+
+        if (curUser.isPresent()) {
+            Object user = curUser.get();
+
+            if ("fusionauth".equalsIgnoreCase(authProvider)) {
+                final var faUser = ((FusionAuthUserAuthorizationFilter.AuthenticatedUser) user).faUser();
+                if (faUser != null) {
+                    curUserName = Optional.ofNullable(faUser.name()).orElse("NO_DATA");
+                    userId = Optional.ofNullable(faUser.fusionAuthId()).orElse("NO_DATA");
                 }
 
-                if (!saveUserDataToInteractions) {
-                    rihr.setPNature((JsonNode)Configuration.objectMapper.valueToTree(
-                            Map.of("nature", RequestResponseEncountered.class.getName(), "tenant_id",
-                                    activeTenant)));
+                userRole = ((FusionAuthUserAuthorizationFilter.AuthenticatedUser) user)
+                        .principal()
+                        .getAuthorities()
+                        .stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .collect(Collectors.joining(","));
+
+            } else if ("github".equalsIgnoreCase(authProvider)) {
+                final var ghUser = ((GitHubUserAuthorizationFilter.AuthenticatedUser) user).ghUser();
+                if (ghUser != null) {
+                    curUserName = Optional.ofNullable(ghUser.name()).orElse("NO_DATA");
+                    userId = Optional.ofNullable(ghUser.gitHubId()).orElse("NO_DATA");
                 }
 
-                rihr.execute(primaryDslContext.configuration());
-                LOG.info("REGISTER State None : END for  interaction id : {} tenant id : {}",
-                rre.interactionId().toString(), rre.tenant());
-            } catch (Exception e) {
-                LOG.error("ERROR:: REGISTER State None  for  interaction id : {} tenant id : {} : CALL " + rihr.getName() + " error",  rre.interactionId().toString(), rre.tenant(),e);
+                userRole = ((GitHubUserAuthorizationFilter.AuthenticatedUser) user)
+                        .principal()
+                        .getAuthorities()
+                        .stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .collect(Collectors.joining(","));
+            }
+
+            LOG.info("userRole: " + userRole);
+            userRole = "DEFAULT_ROLE"; // TODO: remove when real role mapping is implemented
+        }
+        return new PendingInteraction(rre, requestURI, createdAt, provenance, activeTenant, curUserName, userId,
+                sessionId, userRole);
+    }
+
+    private void prepareRoutine(final RegisterUserInteraction rihr, final PendingInteraction pending) {
+        final var rre = pending.rre();
+        rihr.setPInteractionId(rre.interactionId().toString());
+        rihr.setPContentType(MimeTypeUtils.APPLICATION_JSON_VALUE);
+        rihr.setPInteractionKey(pending.requestURI());
+        rihr.setPSourceType(SourceType.FHIR.name());
+        rihr.setPPayload((JsonNode) Configuration.objectMapper.valueToTree(rre));
+        rihr.setPCreatedAt(pending.createdAt()); // don't let DB set this, since it might be stored out of order
+        rihr.setPCreatedBy(InteractionService.class.getName());
+        rihr.setPTechbdVersionNumber(coreAppConfig.getVersion());
+        rihr.setPProvenance(pending.provenance());
+        if (saveUserDataToInteractions) {
+            rihr.setPUserName(pending.userName());
+            rihr.setPUserId(pending.userId());
+            rihr.setPUserSession(pending.userSession());
+            rihr.setPUserRole(pending.userRole());
         }
+        rihr.setPNature((JsonNode) Configuration.objectMapper.valueToTree(
+                Map.of("nature", RequestResponseEncountered.class.getName(), "tenant_id",
+                        pending.activeTenant())));
     }
 }
@@ -0,0 +1,178 @@
+package org.techbd.service.http;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.techbd.service.http.Interactions.RequestResponseEncountered;
+
+/**
+ * Fixed-capacity, lock-free ring buffer of recent interactions. Writers claim
+ * a slot with one atomic increment and never wait for each other or for
+ * readers; once the buffer is full each write overwrites the oldest entry.
+ * <p>
+ * Entries are compact summaries. A payload preview of at most
+ * {@code previewBytes} per body is kept only while the previews retained by
+ * the whole buffer fit in {@code maxPreviewBytes}; past that, new entries are
+ * stored without previews until older ones are overwritten. Memory is
+ * therefore bounded by the capacity and the byte budget, not by payload size.
+ * <p>
+ * Preview sizes are counted in characters, which for the JSON and text bodies
+ * seen here is close to their size in bytes. A writer stalled for a whole lap
+ * of the buffer may overwrite a newer entry with its older one; snapshots skip
+ * such a slot, which is an acceptable loss for a diagnostic history.
+ */
+public class InteractionHistory implements Iterable<InteractionHistory.Entry> {
+
+    public static final int DEFAULT_CAPACITY = 256;
+    public static final int DEFAULT_PREVIEW_BYTES = 2 * 1024;
+    public static final long DEFAULT_MAX_PREVIEW_BYTES = 4L * 1024 * 1024;
+
+    public record Entry(
+            long sequence,
+            UUID interactionId,
+            String tenantId,
+            String method,
+            String requestUri,
+            int status,
+            Instant requestEncounteredAt,
+            Instant responseEncounteredAt,
+            int requestBytes,
+            int responseBytes,
+            String requestPreview,
+            String responsePreview) {
+
+        int previewBytes() {
+            return (requestPreview == null ? 0 : requestPreview.length())
+                    + (responsePreview == null ? 0 : responsePreview.length());
+        }
+    }
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final int previewBytes;
+    private final long maxPreviewBytes;
+    private final AtomicLong next = new AtomicLong();
+    private final AtomicLong retainedPreviewBytes = new AtomicLong();
+
+    public InteractionHistory() {
+        this(DEFAULT_CAPACITY, DEFAULT_PREVIEW_BYTES, DEFAULT_MAX_PREVIEW_BYTES);
+    }
+
+    /**
+     * @param capacity        number of entries kept, rounded up to a power of two
+     * @param previewBytes    per-body preview size; 0 keeps summaries only
+     * @param maxPreviewBytes previews retained across all entries
+     */
+    public InteractionHistory(final int capacity, final int previewBytes, final long maxPreviewBytes) {
+        final int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity <= 1 ? 1 : size);
+        this.mask = slots.length() - 1;
+        this.previewBytes = Math.max(0, previewBytes);
+        this.maxPreviewBytes = Math.max(0, maxPreviewBytes);
+    }
+
+    public RequestResponseEncountered add(final RequestResponseEncountered rre) {
+        final long sequence = next.getAndIncrement();
+        final var request = rre.request();
+        final var response = rre.response();
+        final byte[] requestBody = request == null ? null : request.requestBody();
+        final byte[] responseBody = response == null ? null : response.responseBody();
+
+        String requestPreview = preview(requestBody);
+        String responsePreview = preview(responseBody);
+        final long wanted = (requestPreview == null ? 0 : requestPreview.length())
+                + (responsePreview == null ? 0 : responsePreview.length());
+        if (wanted > 0 && retainedPreviewBytes.addAndGet(wanted) > maxPreviewBytes) {
+            retainedPreviewBytes.addAndGet(-wanted);
+            requestPreview = null;
+            responsePreview = null;
+        }
+
+        final var entry = new Entry(sequence, rre.interactionId(),
+                rre.tenant() == null ? null : rre.tenant().tenantId(),
+                request == null ? null : request.method(),
+                request == null ? null : request.requestUri(),
+                response == null ? 0 : response.status(),
+                request == null ? null : request.encounteredAt(),
+                response == null ? null : response.encounteredAt(),
+                requestBody == null ? 0 : requestBody.length,
+                responseBody == null ? 0 : responseBody.length,
+                requestPreview, responsePreview);
+        final var replaced = slots.getAndSet((int) (sequence & mask), entry);
+        if (replaced != null) {
+            retainedPreviewBytes.addAndGet(-replaced.previewBytes());
+        }
+        return rre;
+    }
+
+    private String preview(final byte[] body) {
+        if (body == null || previewBytes == 0) {
+            return null;
+        }
+        // decode at most previewBytes; a multi-byte character cut at the end becomes U+FFFD
+        return new String(body, 0, Math.min(body.length, previewBytes), StandardCharsets.UTF_8);
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    public long retainedPreviewBytes() {
+        return retainedPreviewBytes.get();
+    }
+
+    /**
+     * Iterates over a snapshot of the entries, oldest first. Writes that happen
+     * while iterating do not disturb it: an entry overwritten after the snapshot
+     * was taken is skipped rather than returned out of order.
+     */
+    @Override
+    public Iterator<Entry> iterator() {
+        final long end = next.get();
+        final long start = Math.max(0, end - slots.length());
+        return new Iterator<>() {
+            private long sequence = start;
+            private Entry pending = advance();
+
+            private Entry advance() {
+                while (sequence < end) {
+                    final var entry = slots.get((int) (sequence & mask));
+                    final long expected = sequence++;
+                    // null or a different sequence: not written yet, or already overwritten
+                    if (entry != null && entry.sequence() == expected) {
+                        return entry;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return pending != null;
+            }
+
+            @Override
+            public Entry next() {
+                if (pending == null) {
+                    throw new NoSuchElementException();
+                }
+                final var entry = pending;
+                pending = advance();
+                return entry;
+            }
+        };
+    }
+
+    public List<Entry> snapshot() {
+        final List<Entry> entries = new ArrayList<>(slots.length());
+        forEach(entries::add);
+        return entries;
+    }
+}
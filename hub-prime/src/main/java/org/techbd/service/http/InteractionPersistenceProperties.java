@@ -0,0 +1,53 @@
+package org.techbd.service.http;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Settings for {@link InteractionPersistenceQueue}, which registers the
+ * interactions recorded by {@link InteractionsFilter} off the request thread.
+ */
+@Component
+@ConfigurationProperties(prefix = "org.techbd.service.http.interactions.async-persist")
+@Getter
+@Setter
+public class InteractionPersistenceProperties {
+
+    public enum OverflowPolicy {
+        /** Discard the interaction and count it; the response is never delayed. */
+        DROP,
+        /** Register the interaction on the request thread, as before the queue existed. */
+        CALLER_RUNS
+    }
+
+    /** When false, interactions are registered synchronously in the filter. */
+    private boolean enabled = true;
+    private int queueCapacity = 10000;
+    private int writers = 2;
+    private int batchSize = 50;
+    private long lingerMs = 100;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.CALLER_RUNS;
+    /**
+     * Request and response bodies longer than this are truncated before being
+     * queued; 0 or less keeps them whole.
+     */
+    private int maxBodyBytes = 64 * 1024;
+    /** Fraction of matching interactions persisted when no sampling rule applies. */
+    private double defaultSampleRate = 1.0;
+    /** First rule whose pattern matches the request URI decides its sample rate. */
+    private List<SamplingRule> sampling = new ArrayList<>();
+    private long shutdownTimeoutSeconds = 30;
+
+    @Getter
+    @Setter
+    public static class SamplingRule {
+        private String pattern;
+        private double rate = 1.0;
+    }
+}
@@ -0,0 +1,219 @@
+package org.techbd.service.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.techbd.service.InteractionService;
+import org.techbd.service.InteractionService.PendingInteraction;
+import org.techbd.service.http.Interactions.RequestResponseEncountered;
+import org.techbd.service.http.Interactions.ResponseEncountered;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Bounded queue between {@link InteractionsFilter} and
+ * {@link InteractionService}: the filter captures what it needs from the
+ * request and returns, and writer threads serialize and register queued
+ * interactions in batches. Bodies are truncated to
+ * {@code max-body-bytes} before queueing so the queue's memory stays bounded,
+ * and per-path sampling can thin out high-volume, low-value paths.
+ * <p>
+ * On shutdown the queue stops accepting work (later interactions are
+ * registered synchronously) and the writers drain what is queued.
+ */
+@Component
+public class InteractionPersistenceQueue {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InteractionPersistenceQueue.class.getName());
+
+    static final String METRIC_INTERACTIONS = "techbd.interactions.persist";
+    static final String METRIC_QUEUE_SIZE = "techbd.interactions.persist.queue.size";
+    static final String METRIC_BATCH_SIZE = "techbd.interactions.persist.batch.size";
+    static final String METRIC_TRUNCATED = "techbd.interactions.persist.truncated";
+
+    private final InteractionService interactionService;
+    private final InteractionPersistenceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final BlockingQueue<PendingInteraction> queue;
+    private final List<Thread> writers = new ArrayList<>();
+    private final List<Pattern> samplingPatterns = new ArrayList<>();
+    private volatile boolean accepting = true;
+
+    @Autowired
+    public InteractionPersistenceQueue(final InteractionService interactionService,
+            final InteractionPersistenceProperties properties, final ObjectProvider<MeterRegistry> meterRegistry) {
+        this(interactionService, properties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    InteractionPersistenceQueue(final InteractionService interactionService,
+            final InteractionPersistenceProperties properties, final MeterRegistry meterRegistry) {
+        this.interactionService = interactionService;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        for (InteractionPersistenceProperties.SamplingRule rule : properties.getSampling()) {
+            samplingPatterns.add(Pattern.compile(rule.getPattern()));
+        }
+        meterRegistry.gauge(METRIC_QUEUE_SIZE, queue, BlockingQueue::size);
+        if (properties.isEnabled()) {
+            for (int i = 0; i < Math.max(1, properties.getWriters()); i++) {
+                final var writer = new Thread(this::drain, "interaction-persist-" + i);
+                writer.setDaemon(true);
+                writers.add(writer);
+                writer.start();
+            }
+            LOG.info("InteractionPersistenceQueue:: {} writers, queue capacity {}, batch size {}, max body bytes {}",
+                    writers.size(), properties.getQueueCapacity(), properties.getBatchSize(),
+                    properties.getMaxBodyBytes());
+        }
+    }
+
+    /**
+     * Whether an interaction for {@code requestUri} should be persisted at all,
+     * according to the sampling rules.
+     */
+    public boolean sampled(final String requestUri) {
+        double rate = properties.getDefaultSampleRate();
+        for (int i = 0; i < samplingPatterns.size(); i++) {
+            if (samplingPatterns.get(i).matcher(requestUri).find()) {
+                rate = properties.getSampling().get(i).getRate();
+                break;
+            }
+        }
+        final boolean sampled = rate >= 1.0 || rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+        if (!sampled) {
+            meterRegistry.counter(METRIC_INTERACTIONS, "outcome", "sampled_out").increment();
+        }
+        return sampled;
+    }
+
+    /**
+     * Queues {@code pending} for registration. Registers it on the calling
+     * thread when the queue is disabled or shutting down, or when it is full
+     * and the overflow policy is {@code CALLER_RUNS}.
+     */
+    public void submit(final PendingInteraction pending) {
+        final var truncated = truncate(pending);
+        if (!properties.isEnabled() || !accepting) {
+            interactionService.saveInteractionToDatabase(truncated);
+            meterRegistry.counter(METRIC_INTERACTIONS, "outcome", "direct").increment();
+            return;
+        }
+        if (queue.offer(truncated)) {
+            meterRegistry.counter(METRIC_INTERACTIONS, "outcome", "queued").increment();
+            return;
+        }
+        meterRegistry.counter(METRIC_INTERACTIONS, "outcome", "overflow").increment();
+        if (properties.getOverflowPolicy() == InteractionPersistenceProperties.OverflowPolicy.CALLER_RUNS) {
+            interactionService.saveInteractionToDatabase(truncated);
+        } else {
+            LOG.warn("InteractionPersistenceQueue:: queue full, dropped interaction {} for {}",
+                    pending.rre().interactionId(), pending.requestURI());
+        }
+    }
+
+    private PendingInteraction truncate(final PendingInteraction pending) {
+        final int limit = properties.getMaxBodyBytes();
+        final var rre = pending.rre();
+        if (limit <= 0) {
+            return pending;
+        }
+        final byte[] requestBody = rre.request().requestBody();
+        final byte[] responseBody = rre.response() == null ? null : rre.response().responseBody();
+        final boolean truncateRequest = requestBody != null && requestBody.length > limit;
+        final boolean truncateResponse = responseBody != null && responseBody.length > limit;
+        if (!truncateRequest && !truncateResponse) {
+            return pending;
+        }
+        meterRegistry.counter(METRIC_TRUNCATED).increment();
+        final var request = truncateRequest ? rre.request().withRequestBody(truncate(requestBody, limit))
+                : rre.request();
+        final var response = truncateResponse
+                ? new ResponseEncountered(rre.response().requestId(), rre.response().responseId(),
+                        rre.response().status(), rre.response().encounteredAt(), rre.response().headers(),
+                        truncate(responseBody, limit))
+                : rre.response();
+        return new PendingInteraction(new RequestResponseEncountered(rre.interactionId(), rre.tenant(), request,
+                response), pending.requestURI(), pending.createdAt(), pending.provenance(), pending.activeTenant(),
+                pending.userName(), pending.userId(), pending.userSession(), pending.userRole());
+    }
+
+    private static byte[] truncate(final byte[] body, final int limit) {
+        // bodies are UTF-8; back off over continuation bytes (10xxxxxx) so that no character is cut in half
+        int cut = limit;
+        while (cut > 0 && (body[cut] & 0xC0) == 0x80) {
+            cut--;
+        }
+        final byte[] marker = " ... [truncated, %d bytes]".formatted(body.length).getBytes(StandardCharsets.UTF_8);
+        final byte[] truncated = Arrays.copyOf(body, cut + marker.length);
+        System.arraycopy(marker, 0, truncated, cut, marker.length);
+        return truncated;
+    }
+
+    private void drain() {
+        final int batchSize = Math.max(1, properties.getBatchSize());
+        final List<PendingInteraction> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                final var first = queue.poll(properties.getLingerMs(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                DistributionSummary.builder(METRIC_BATCH_SIZE).register(meterRegistry).record(batch.size());
+                interactionService.saveInteractionsToDatabase(batch);
+                meterRegistry.counter(METRIC_INTERACTIONS, "outcome", "written").increment(batch.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                meterRegistry.counter(METRIC_INTERACTIONS, "outcome", "failed").increment(batch.size());
+                LOG.error("InteractionPersistenceQueue:: failed to register {} interactions", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    int queued() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        accepting = false;
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(properties.getShutdownTimeoutSeconds());
+        for (Thread writer : writers) {
+            writer.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        }
+        final boolean writersDone = writers.stream().noneMatch(Thread::isAlive);
+        final List<PendingInteraction> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty() && writersDone) {
+            // submitted between the writers' last poll and accepting = false
+            interactionService.saveInteractionsToDatabase(remaining);
+        } else if (!remaining.isEmpty()) {
+            LOG.warn("InteractionPersistenceQueue:: {} interactions not registered before shutdown",
+                    remaining.size());
+        }
+        for (Thread writer : writers) {
+            writer.interrupt();
+        }
+    }
+}
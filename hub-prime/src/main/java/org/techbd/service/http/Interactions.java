@@ -3,7 +3,6 @@ package org.techbd.service.http;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,23 +43,22 @@ public class Interactions {
         }
     }
 
-    private static final int MAX_IN_MEMORY_HISTORY = 50;
+    private volatile InteractionHistory history = new InteractionHistory();
 
-    private final Map<UUID, RequestResponseEncountered> history = Collections
-            .synchronizedMap(new LinkedHashMap<>() {
-                @Override
-                protected boolean removeEldestEntry(Map.Entry<UUID, RequestResponseEncountered> eldest) {
-                    return size() > MAX_IN_MEMORY_HISTORY;
-                }
-            });
+    /**
+     * Replaces the history buffer with one of the given size and byte budget;
+     * entries recorded so far are discarded.
+     */
+    public void configureHistory(final int capacity, final int previewBytes, final long maxPreviewBytes) {
+        history = new InteractionHistory(capacity, previewBytes, maxPreviewBytes);
+    }
 
     public RequestResponseEncountered addHistory(final @NotNull RequestResponseEncountered rre) {
-        history.put(rre.interactionId(), rre);
-        return rre;
+        return history.add(rre);
     }
 
-    public Map<UUID, RequestResponseEncountered> getHistory() {
-        return Collections.unmodifiableMap(history);
+    public InteractionHistory history() {
+        return history;
     }
 
     public record Tenant(String tenantId, String name) {
@@ -113,7 +111,7 @@ public class Interactions {
                                     false)
                             .map(headerName -> new Header(headerName, request.getHeader(headerName)))
                             .collect(Collectors.toList()),
-                    request.getParameterMap(),
+                    new LinkedHashMap<>(request.getParameterMap()), // the container recycles its own map
                     request.getContentType(), // Content type
                     request.getQueryString(), // Query string
                     request.getProtocol(), // Protocol
@@ -140,7 +138,7 @@ public class Interactions {
                                     false)
                             .map(headerName -> new Header(headerName, request.getHeader(headerName)))
                             .collect(Collectors.toList()),
-                    request.getParameterMap(),
+                    new LinkedHashMap<>(request.getParameterMap()), // the container recycles its own map
                     request.getContentType(), // Content type
                     request.getQueryString(), // Query string
                     request.getProtocol(), // Protocol
@@ -46,6 +46,9 @@ public class InteractionsFilter extends OncePerRequestFilter {
     @Autowired
     private InteractionService interactionService;
 
+    @Autowired
+    private InteractionPersistenceQueue interactionPersistenceQueue;
+
     private InteractionPersistRules iprDB;
 
     @Value("${TECHBD_ALLOWED_HOSTS:#{null}}")
@@ -53,10 +56,22 @@ public class InteractionsFilter extends OncePerRequestFilter {
 
     private List<String> allowedHosts;
 
+    @Value("${org.techbd.service.http.interactions.history.capacity:" + InteractionHistory.DEFAULT_CAPACITY + "}")
+    private int historyCapacity;
+
+    @Value("${org.techbd.service.http.interactions.history.preview-bytes:" + InteractionHistory.DEFAULT_PREVIEW_BYTES + "}")
+    private int historyPreviewBytes;
+
+    @Value("${org.techbd.service.http.interactions.history.max-preview-bytes:" + InteractionHistory.DEFAULT_MAX_PREVIEW_BYTES + "}")
+    private long historyMaxPreviewBytes;
+
     @PostConstruct
     private void init() {
         allowedHosts = Arrays.asList(allowedHostsString.split(","));
         LOG.info("Initialized allowed hosts: {}", allowedHosts);
+        interactions.configureHistory(historyCapacity, historyPreviewBytes, historyMaxPreviewBytes);
+        LOG.info("Interaction history: {} entries, {} preview bytes per body, {} preview bytes in total",
+                interactions.history().capacity(), historyPreviewBytes, historyMaxPreviewBytes);
     }
 
     // TODO: figure out why this is not being read from application.yml (NULL is
@@ -151,6 +166,14 @@ public class InteractionsFilter extends OncePerRequestFilter {
             return;
         }
 
+        // NDJSON bulk uploads are streamed in and the manifest is streamed out, so they
+        // must not be buffered by the content caching wrappers; each bundle in the
+        // upload is registered individually by FhirBulkBundleService
+        if (requestUri.startsWith("/Bundle/$bulk")) {
+            chain.doFilter(origRequest, origResponse);
+            return;
+        }
+
         // for the /Bundle/$validate (at least, and maybe even /Bundle) we want
         // to store the entire request/response cycle including the response payload;
         // for everything else we only want to keep the request and response without
@@ -209,8 +232,11 @@ public class InteractionsFilter extends OncePerRequestFilter {
         if (persistInteractionDB && !requestURI.startsWith("/Bundle") && !requestURI.startsWith("/Bundle/")
         && !requestURI.equals("/Hl7/v2")  && !requestURI.equals("/Hl7/v2/")
         && !requestURI.startsWith("/flatfile/csv")  && !requestURI.startsWith("/flatfile/csv/")
+        && interactionPersistenceQueue.sampled(requestURI)
         ) {
-            interactionService.saveInteractionToDatabase(rre, requestURI, createdAt, provenance, origRequest);
+            // capture what needs the live request here; serialization and the write happen off the request thread
+            interactionPersistenceQueue.submit(
+                    interactionService.capture(rre, requestURI, createdAt, provenance, origRequest));
         }
         mutatableResp.copyBodyToResponse();
     }
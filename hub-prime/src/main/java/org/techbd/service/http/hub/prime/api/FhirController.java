@@ -41,6 +41,8 @@ import org.techbd.config.Constants;
 import org.techbd.config.CoreAppConfig;
 import org.techbd.service.dataledger.CoreDataLedgerApiClient;
 import org.techbd.service.fhir.FHIRService;
+import org.techbd.service.fhir.FhirBulkBundleService;
+import org.techbd.service.fhir.FhirBundleJobService;
 import org.techbd.service.fhir.FhirReplayService;
 import org.techbd.service.fhir.engine.OrchestrationEngine;
 import org.techbd.service.http.Helpers;
@@ -74,12 +76,15 @@ public class FhirController {
         private final DSLContext primaryDslContext;
         private final FHIRService fhirService;
         private final FhirReplayService fhirReplayService;
+        private final FhirBundleJobService fhirBundleJobService;
+        private final FhirBulkBundleService fhirBulkBundleService;
         private final Tracer tracer;
 
         public FhirController(final Tracer tracer,final OrchestrationEngine engine,
         final CoreAppConfig appConfig ,final CoreDataLedgerApiClient dataLedgerApiClient,
         final FHIRService fhirService, final FhirReplayService fhirReplayService
-        ,@Qualifier("primaryDslContext") final DSLContext primaryDslContext) throws IOException {
+        ,@Qualifier("primaryDslContext") final DSLContext primaryDslContext,
+        final FhirBundleJobService fhirBundleJobService, final FhirBulkBundleService fhirBulkBundleService) throws IOException {
                 // String activeProfile = System.getenv("SPRING_PROFILES_ACTIVE");
                 // appConfig = ConfigLoader.loadConfig(activeProfile);
                 // this.fhirService = new FHIRService();
@@ -96,6 +101,8 @@ public class FhirController {
                 this.tracer = tracer;
                 this.primaryDslContext = primaryDslContext;
                 this.fhirReplayService = fhirReplayService;
+                this.fhirBundleJobService = fhirBundleJobService;
+                this.fhirBulkBundleService = fhirBulkBundleService;
         }
 
         @GetMapping(value = "/metadata", produces = { MediaType.APPLICATION_XML_VALUE })
@@ -146,6 +153,13 @@ public class FhirController {
                                         + "  }\n"
                                         + "}"))),
 
+                        @ApiResponse(responseCode = "202", description = "Request accepted for asynchronous processing (<code>Prefer: respond-async</code>). Poll the <code>statusUrl</code> for progress.", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n"
+                                        + "  \"resourceType\": \"OperationOutcome\",\n"
+                                        + "  \"bundleSessionId\": \"0b1ab1a8-0c1e-4f5e-9d0e-1f2c3d4e5f60\",\n"
+                                        + "  \"isAsync\": true,\n"
+                                        + "  \"jobStatus\": \"QUEUED\",\n"
+                                        + "  \"statusUrl\": \"/Bundle/$status/0b1ab1a8-0c1e-4f5e-9d0e-1f2c3d4e5f60\"\n"
+                                        + "}"))),
                         @ApiResponse(responseCode = "400", description = "Validation Error: Missing or invalid parameter", content = @Content(mediaType = "application/json", examples = {
                                         @ExampleObject(value = "{\n"
                                                         + "  \"status\": \"Error\",\n"
@@ -177,6 +191,7 @@ public class FhirController {
                         //                 """, required = false) @RequestHeader(value = Constants.DATALAKE_API_CONTENT_TYPE, required = false) String dataLakeApiContentType,
                         @Parameter(description = "Header to decide whether the request is just for health check. If <code>true</code>, no information will be recorded in the database. It will be <code>false</code> in by default.", required = false) @RequestHeader(value = Constants.HEALTH_CHECK_HEADER, required = false) String healthCheck,
                         @Parameter(hidden = true, description = "Optional parameter to decide whether response should be synchronous or asynchronous.", required = false) @RequestParam(value = "immediate", required = false,defaultValue = "true") boolean isSync,
+                        @Parameter(description = "Optional header. <code>respond-async</code> persists the bundle as a job and returns <code>202 Accepted</code> immediately; poll <code>/Bundle/$status/{bundleSessionId}</code> for progress.", required = false) @RequestHeader(value = "Prefer", required = false) String prefer,
 
                         @Parameter(hidden = true, description = """
                                         An optional parameter specifies whether the scoring engine API should be called with or without mTLS.<br>
@@ -185,7 +200,7 @@ public class FhirController {
                                             <li><code>no-mTls</code>: No mTLS is used. The WebClient sends a standard HTTP POST request to the scoring engine API without mutual TLS (mTLS).</li>
                                             <li><code>mTlsResources</code>: mTLS is enabled. The WebClient reads the TLS key and certificate from a local folder, and then sends an HTTPS POST request to the scoring engine API with mutual TLS authentication.</li>
                                             <li><code>aws-secrets</code>: mTLS is enabled. The WebClient retrieves the TLS key and certificate from AWS Secrets Manager, and then sends an HTTPS POST request to the scoring engine API with mutual TLS authentication.</li>
-                                            <li><code>post-stdin-payload-to-nyec-datalake-external</code>: This option runs a bash script via ProcessBuilder. The payload is passed through standard input (STDIN) to the script, which uses <code>curl</code> to send the request to the scoring engine API. In the <b>PHI-QA</b> environment, mTLS is enabled for this request. In other environments, mTLS is disabled for this script.</li>
+                                            <li><code>post-payload-to-nyec-datalake</code> (alias <code>post-stdin-payload-to-nyec-datalake-external</code>): Posts the payload as JSON to the scoring engine API with the <code>processingAgent</code> query parameter, using the client certificate from AWS Secrets Manager when <code>mTlsAwsSecrets</code> is configured.</li>
                                         </ul>
                                         """, required = false) @RequestParam(value = "mtls-strategy", required = false) String mtlsStrategy,
                         @Parameter(hidden = true, description = "Optional parameter to decide whether the session cookie (JSESSIONID) should be deleted.", required = false) @RequestParam(value = "delete-session-cookie", required = false) Boolean deleteSessionCookie,
@@ -210,9 +225,12 @@ public class FhirController {
                                         throw new IllegalArgumentException("X-Correlation-ID should be a valid UUID");
                                 }
                         }
+                        final boolean respondAsync = (!isSync || "respond-async".equalsIgnoreCase(
+                                        prefer == null ? null : prefer.trim()))
+                                        && !"true".equalsIgnoreCase(healthCheck == null ? null : healthCheck.trim());
                         final var provenance = "%s.validateBundleAndForward(%s)".formatted(
                                         FhirController.class.getName(),
-                                        isSync ? "sync" : "async");
+                                        respondAsync ? "async" : "sync");
                         request = new CustomRequestWrapper(request, payload);
                         Map<String, Object> headers = CoreFHIRUtil.buildHeaderParametersMap(tenantId, customDataLakeApi,
                                      //   dataLakeApiContentType,
@@ -227,6 +245,9 @@ public class FhirController {
                         requestDetailsMap.putAll(headers);  
                         request = new CustomRequestWrapper(request, payload);
                         Map<String, Object> responseParameters = new HashMap<>();
+                        if (respondAsync) {
+                                return acceptBundleJob(payload, requestDetailsMap, responseParameters, response);
+                        }
                         final var result = fhirService.processBundle(payload, requestDetailsMap,responseParameters);
                         CoreFHIRUtil.addCookieAndHeadersToResponse(response, responseParameters, requestDetailsMap);
                         return result;
@@ -235,6 +256,70 @@ public class FhirController {
                 }
         }
 
+        private ResponseEntity<Map<String, Object>> acceptBundleJob(final String payload,
+                        final Map<String, Object> requestDetailsMap, final Map<String, Object> responseParameters,
+                        final HttpServletResponse response) throws IOException {
+                final var interactionId = FhirBundleJobService.resolveInteractionId(requestDetailsMap);
+                final var jobStatus = fhirBundleJobService.enqueue(payload, requestDetailsMap);
+                final var statusUrl = "/Bundle/$status/" + interactionId;
+                LOG.info("FHIRController:Bundle accepted for async processing interactionId: {} jobStatus: {}",
+                                interactionId, jobStatus);
+                CoreFHIRUtil.addCookieAndHeadersToResponse(response, responseParameters, requestDetailsMap);
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                                .header(HttpHeaders.CONTENT_LOCATION, statusUrl)
+                                .body(Map.of(
+                                                "resourceType", "OperationOutcome",
+                                                "bundleSessionId", interactionId,
+                                                Constants.TECHBD_VERSION, appConfig.getVersion(),
+                                                "isAsync", true,
+                                                "jobStatus", jobStatus,
+                                                "statusUrl", statusUrl));
+        }
+
+        @PostMapping(value = { "/Bundle/$bulk", "/Bundle/$bulk/" }, consumes = { Constants.FHIR_NDJSON_CONTENT_TYPE_HEADER_VALUE,
+                        "application/x-ndjson", "application/ndjson" })
+        @Operation(summary = "Endpoint to validate, store, and then forward many bundles in one request.", description = """
+                        Accepts newline-delimited JSON (<code>application/fhir+ndjson</code>) with one FHIR Bundle per line.
+                        Bundles are streamed one line at a time and each one goes through the same validate, store and forward
+                        pipeline as <code>/Bundle</code>, with bounded parallelism. The response is an NDJSON manifest with one
+                        entry per non-blank input line (<code>line</code>, <code>interactionId</code>, <code>bundleId</code>,
+                        <code>status</code>, <code>valid</code>), written in input order as each batch completes.
+                        """)
+        public void bulkBundles(
+                        @Parameter(description = "Parameter to specify the Tenant ID. This is a <b>mandatory</b> parameter.", required = true) @RequestHeader(value = Configuration.Servlet.HeaderName.Request.TENANT_ID, required = true) String tenantId,
+                        @Parameter(description = "Optional header to specify the Datalake API URL. If not specified, the default URL mentioned in the application configuration will be used.", required = false) @RequestHeader(value = Constants.DATALAKE_API_URL, required = false) String customDataLakeApi,
+                        @Parameter(description = "Optional header to set validation severity level (`information`, `warning`, `error`, `fatal`).", required = false) @RequestHeader(value = "X-TechBD-Validation-Severity-Level", required = false) String validationSeverityLevel,
+                        @Parameter(description = "Optional header to specify IG version.", required = false) @RequestHeader(value = "X-SHIN-NY-IG-Version", required = false) String requestedIgVersion,
+                        @Parameter(hidden = true, description = "An optional parameter specifies whether the scoring engine API should be called with or without mTLS.", required = false) @RequestParam(value = "mtls-strategy", required = false) String mtlsStrategy,
+                        HttpServletRequest request, HttpServletResponse response) throws IOException {
+                Span span = tracer.spanBuilder("FhirController.bulkBundles").startSpan();
+                try {
+                        if (tenantId == null || tenantId.trim().isEmpty()) {
+                                LOG.error("FHIRController:Bundle Bulk:: Tenant ID is missing or empty");
+                                throw new IllegalArgumentException("Tenant ID must be provided");
+                        }
+                        final var bulkInteractionId = UUID.randomUUID().toString();
+                        final var provenance = "%s.bulkBundles(%s)".formatted(FhirController.class.getName(),
+                                        bulkInteractionId);
+                        Map<String, Object> headers = CoreFHIRUtil.buildHeaderParametersMap(tenantId, customDataLakeApi,
+                                        null, validationSeverityLevel, null, null, provenance, requestedIgVersion);
+                        Map<String, Object> requestDetailsMap = FHIRUtil.extractRequestDetails(request);
+                        // each bundle is registered under /Bundle so it shows up alongside individual submissions
+                        CoreFHIRUtil.buildRequestParametersMap(requestDetailsMap, null, mtlsStrategy, "FHIR", null, null,
+                                        "/Bundle");
+                        requestDetailsMap.put(Constants.INTERACTION_ID, bulkInteractionId);
+                        requestDetailsMap.putAll(headers);
+                        response.setStatus(HttpServletResponse.SC_OK);
+                        response.setContentType("application/x-ndjson");
+                        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                        response.setHeader("X-TechBD-Bulk-Interaction-ID", bulkInteractionId);
+                        fhirBulkBundleService.process(request.getInputStream(), requestDetailsMap,
+                                        response.getOutputStream());
+                } finally {
+                        span.end();
+                }
+        }
+
         @PostMapping(value = { "/Bundle/$validate", "/Bundle/$validate/" }, consumes = {
                         MediaType.APPLICATION_JSON_VALUE,
                         Constants.FHIR_CONTENT_TYPE_HEADER_VALUE })
@@ -322,10 +407,19 @@ public class FhirController {
                         final Model model, HttpServletRequest request) {
                 try {
                         String normalizedBundleSessionId = normalizeBundleSessionId(bundleSessionId);
+                        final var job = fhirBundleJobService.findStatus(normalizedBundleSessionId);
                         final var result = primaryDslContext.select()
                                         .from(INTERACTION_HTTP_REQUEST)
                                         .where(INTERACTION_HTTP_REQUEST.INTERACTION_ID.eq(normalizedBundleSessionId))
                                         .fetch();
+                        if (job != null) {
+                                // asynchronous submission: report job progress along with any interactions recorded so far
+                                final Map<String, Object> jobStatus = new HashMap<>();
+                                jobStatus.put("bundleSessionId", normalizedBundleSessionId);
+                                jobStatus.put("job", job);
+                                jobStatus.put("interactions", result.intoMaps());
+                                return ResponseEntity.ok(jobStatus);
+                        }
                         
                         if (result.isEmpty()) {
                                 return ResponseEntity.ok(Map.of(
@@ -427,6 +521,33 @@ public class FhirController {
                 } 
         }
 
+        @GetMapping(value = { "/Bundle/replay/$status/{replayId}", "/Bundle/replay/$status/{replayId}/" })
+        @Operation(summary = "Check the progress of a FHIR Bundle replay", description = """
+                        Returns the number of bundles of the replay that are pending, in progress, succeeded and failed.
+                        A replay interrupted by a restart resumes with its pending bundles.
+                        """)
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Replay progress returned."),
+                        @ApiResponse(responseCode = "404", description = "No replay found for the replay ID."),
+                        @ApiResponse(responseCode = "500", description = "Internal error occurred.")
+        })
+        @ResponseBody
+        public ResponseEntity<Map<String, Object>> replayStatus(
+                        @Parameter(description = "<b>mandatory</b> path variable to specify the replay_id returned by /Bundle/replay.", required = true) @PathVariable String replayId) {
+                try {
+                        final var progress = fhirReplayService.getReplayStatus(replayId);
+                        if ("Not Found".equals(progress.get("status"))) {
+                                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(progress);
+                        }
+                        return ResponseEntity.ok(progress);
+                } catch (Exception e) {
+                        LOG.error("Error fetching replay progress for replayId {}", replayId, e);
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                                        "status", "Error",
+                                        "message", "An unexpected error occurred while fetching progress for replayId: " + replayId));
+                }
+        }
+
         @GetMapping(value = { "/Bundles/status/nyec-submission-failed", "/Bundles/status/nyec-submission-failed/" })
         @Operation(summary = "Retrieve FHIR Bundles that failed NYEC submission", description = """
                         Fetches bundles that failed NYEC submission within the specified date/datetime range.
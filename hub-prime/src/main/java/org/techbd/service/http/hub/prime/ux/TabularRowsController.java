@@ -1,5 +1,6 @@
 package org.techbd.service.http.hub.prime.ux;
 
+import java.io.IOException;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
@@ -42,9 +43,11 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Nonnull;
+import jakarta.servlet.http.HttpServletResponse;
 import lib.aide.tabular.JooqRowsSupplier;
 import lib.aide.tabular.JooqRowsSupplier.JooqProvenance;
 import lib.aide.tabular.JooqRowsSupplierForSP;
+import lib.aide.tabular.SeekAnchors;
 import lib.aide.tabular.TabularRowsRequest;
 import lib.aide.tabular.TabularRowsRequestForSP;
 import lib.aide.tabular.TabularRowsResponse;
@@ -64,6 +67,8 @@ public class TabularRowsController {
     private FileDownloadProperties fileDownloadProperties;
     @Autowired
     private ObjectMapper objectMapper;
+    // last-row sort keys of recently served grid blocks, so the next block can seek instead of OFFSET
+    private final SeekAnchors seekAnchors = new SeekAnchors();
 
     public TabularRowsController(List<Validator> validators,@Qualifier("primaryDslContext") DSLContext primaryDslContext) {
         this.validators = validators;
@@ -93,27 +98,33 @@ public class TabularRowsController {
             """)
     @PostMapping(value = {
         "/api/ux/tabular/jooq/{schemaName}/{masterTableNameOrViewName}.json"}, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    @ResponseBody
-    public TabularRowsResponse<?> tabularRows(
+    public void tabularRows(
             @Parameter(description = "Mandatory path variable to mention schema name.", required = true) @PathVariable(required = true) String schemaName,
             @Parameter(description = "Mandatory path variable to mention the table or view name.", required = true) final @PathVariable String masterTableNameOrViewName,
             @Parameter(description = "Payload for the API. This <b>must not</b> be <code>null</code>.", required = true) final @RequestBody @Nonnull TabularRowsRequest payload,
             @Parameter(description = "Header to mention whether the generated SQL to be included in the response.", required = false) boolean includeGeneratedSqlInResp,
-            @Parameter(description = "Header to mention whether the generated SQL to be included in the error response. This will be taken <code>true</code> by default.", required = false) boolean includeGeneratedSqlInErrorResp) {
+            @Parameter(description = "Header to mention whether the generated SQL to be included in the error response. This will be taken <code>true</code> by default.", required = false) boolean includeGeneratedSqlInErrorResp,
+            final HttpServletResponse response) throws IOException {
 
         if (!VALID_PATTERN_FOR_SCHEMA_AND_TABLE_AND_COLUMN.matcher(schemaName).matches()
                 || !VALID_PATTERN_FOR_SCHEMA_AND_TABLE_AND_COLUMN.matcher(masterTableNameOrViewName).matches()) {
             throw new IllegalArgumentException("Invalid schema or table name.");
         }
-        return new JooqRowsSupplier.Builder()
+        final var supplier = new JooqRowsSupplier.Builder()
                 .withRequest(payload)
                 .withTable(Tables.class, schemaName, masterTableNameOrViewName)
                 .withDSL(getDsl())
                 .withLogger(LOG)
+                .withSeekAnchors(seekAnchors)
                 .includeGeneratedSqlInResp(includeGeneratedSqlInResp)
                 .includeGeneratedSqlInErrorResp(includeGeneratedSqlInErrorResp)
-                .build()
-                .response();
+                .build();
+        // rows are written as they are read instead of being collected into a TabularRowsResponse first
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (var json = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            supplier.stream(json);
+        }
     }
 
     @Operation(summary = "Fetch SQL rows from a <b>stored procedure</b> with schema specification", description = """
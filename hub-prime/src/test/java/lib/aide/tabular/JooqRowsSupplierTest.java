@@ -2,10 +2,19 @@ package lib.aide.tabular;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.StringWriter;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
+import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.jooq.SQLDialect;
 import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockDataProvider;
+import org.jooq.tools.jdbc.MockExecuteContext;
+import org.jooq.tools.jdbc.MockResult;
 import org.junit.jupiter.api.Test;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -247,4 +256,124 @@ public class JooqRowsSupplierTest {
                 assertThat(jooqQuery.bindValues()).isEqualTo(expectedParams);
         }
 
+        @Test
+        public void testSeekPaginationStreamsFollowingBlockAfterLastRow() throws Exception {
+                final var executed = new ArrayList<MockExecuteContext>();
+                final MockDataProvider provider = ctx -> {
+                        executed.add(ctx);
+                        final var create = DSL.using(SQLDialect.POSTGRES);
+                        final Field<String> country = DSL.field(DSL.name("country"), String.class);
+                        final Field<Integer> gold = DSL.field(DSL.name("gold"), Integer.class);
+                        final Field<OffsetDateTime> awardedAt = DSL.field(DSL.name("awarded_at"), OffsetDateTime.class);
+                        final Field<Integer> seekGold = DSL.field(DSL.name("__seek_0"), Integer.class);
+                        final Field<Integer> seekId = DSL.field(DSL.name("__seek_1"), Integer.class);
+                        final var result = create.newResult(country, gold, awardedAt, seekGold, seekId);
+                        result.add(create.newRecord(country, gold, awardedAt, seekGold, seekId)
+                                        .values("USA", 10, OffsetDateTime.parse("2024-07-01T16:30:00Z"), 10, 7));
+                        result.add(create.newRecord(country, gold, awardedAt, seekGold, seekId)
+                                        .values("CHN", 12, OffsetDateTime.parse("2024-07-02T16:30:00Z"), 12, 9));
+                        return new MockResult[] { new MockResult(result.size(), result) };
+                };
+                final DSLContext dsl = DSL.using(new MockConnection(provider), SQLDialect.POSTGRES);
+                final var anchors = new SeekAnchors();
+
+                final var firstBlock = objectMapper.readTree(stream(dsl, anchors, seekRequest(0, 2)));
+                assertThat(firstBlock.get("lastRow").asInt()).isEqualTo(2);
+                assertThat(firstBlock.get("data")).hasSize(2);
+                assertThat(firstBlock.get("data").get(0).fieldNames()).toIterable()
+                                .containsExactly("country", "gold", "awarded_at");
+                assertThat(firstBlock.get("data").get(0).get("awarded_at").asText()).isEqualTo("07-01-2024 12:30:00");
+                assertThat(executed.get(0).sql()).contains("OFFSET");
+                assertThat(anchors.size()).isEqualTo(1);
+
+                final var secondBlock = objectMapper.readTree(stream(dsl, anchors, seekRequest(2, 4)));
+                assertThat(secondBlock.get("lastRow").asInt()).isEqualTo(4);
+                // "gold" may be NULL, and NULLs sort after 12, so they stay reachable
+                assertThat(executed.get(1).sql())
+                                .doesNotContain("OFFSET")
+                                .containsIgnoringWhitespaces("\"gold\" > ? OR \"gold\" IS NULL")
+                                .containsIgnoringWhitespaces("\"gold\" = ? AND \"id\" > ?");
+                assertThat(executed.get(1).bindings()).containsExactly(12, 12, 9, 2);
+        }
+
+        @Test
+        public void testSeekPaginationKeepsNullSortValuesAcrossBlocks() throws Exception {
+                // gold ascending puts NULLs last: (10, 1), (12, 2) | (NULL, 3), (NULL, 4) | (NULL, 5)
+                final var blocks = List.of(
+                                List.of(new Integer[] { 10, 1 }, new Integer[] { 12, 2 }),
+                                List.of(new Integer[] { null, 3 }, new Integer[] { null, 4 }),
+                                List.<Integer[]>of(new Integer[] { null, 5 }));
+                final var executed = new ArrayList<MockExecuteContext>();
+                final MockDataProvider provider = ctx -> {
+                        final var block = blocks.get(executed.size());
+                        executed.add(ctx);
+                        final var create = DSL.using(SQLDialect.POSTGRES);
+                        final Field<Integer> gold = DSL.field(DSL.name("gold"), Integer.class);
+                        final Field<Integer> seekGold = DSL.field(DSL.name("__seek_0"), Integer.class);
+                        final Field<Integer> seekId = DSL.field(DSL.name("__seek_1"), Integer.class);
+                        final var result = create.newResult(gold, seekGold, seekId);
+                        for (final var row : block) {
+                                result.add(create.newRecord(gold, seekGold, seekId).values(row[0], row[0], row[1]));
+                        }
+                        return new MockResult[] { new MockResult(result.size(), result) };
+                };
+                final DSLContext dsl = DSL.using(new MockConnection(provider), SQLDialect.POSTGRES);
+                final var anchors = new SeekAnchors();
+
+                stream(dsl, anchors, seekRequest(0, 2));
+                final var secondBlock = objectMapper.readTree(stream(dsl, anchors, seekRequest(2, 4)));
+                assertThat(secondBlock.get("data")).hasSize(2);
+                assertThat(executed.get(1).sql()).containsIgnoringWhitespaces("\"gold\" IS NULL");
+                assertThat(executed.get(1).bindings()).containsExactly(12, 12, 2, 2);
+
+                // the second block ends on a NULL, which is remembered and sought past rather than read with OFFSET
+                final var thirdBlock = objectMapper.readTree(stream(dsl, anchors, seekRequest(4, 6)));
+                assertThat(thirdBlock.get("data")).hasSize(1);
+                assertThat(executed.get(2).sql())
+                                .doesNotContain("OFFSET")
+                                .doesNotContain("\"gold\" > ?")
+                                .containsIgnoringWhitespaces("\"gold\" IS NULL AND \"id\" > ?");
+                assertThat(executed.get(2).bindings()).containsExactly(4, 2);
+        }
+
+        private static TabularRowsRequest seekRequest(final int startRow, final int endRow) throws Exception {
+                final var jsonRequest = """
+                                {
+                                    "startRow": %d,
+                                    "endRow": %d,
+                                    "rowGroupCols": [],
+                                    "valueCols": [
+                                        {"id": "country", "displayName": "Country", "field": "country", "aggFunc": null},
+                                        {"id": "gold", "displayName": "Gold Medals", "field": "gold", "aggFunc": null},
+                                        {"id": "awarded_at", "displayName": "Awarded", "field": "awarded_at", "aggFunc": null}
+                                    ],
+                                    "pivotCols": [],
+                                    "pivotMode": false,
+                                    "groupKeys": [],
+                                    "filterModel": {},
+                                    "sortModel": [
+                                        {"colId": "gold", "sort": "asc"}
+                                    ],
+                                    "requestContext": {"seekKey": "id"},
+                                    "rangeSelection": [],
+                                    "aggregationFunctions": []
+                                }
+                                """.formatted(startRow, endRow);
+                return objectMapper.readValue(jsonRequest, TabularRowsRequest.class);
+        }
+
+        private static String stream(final DSLContext dsl, final SeekAnchors anchors, final TabularRowsRequest request)
+                        throws Exception {
+                final var out = new StringWriter();
+                try (var json = objectMapper.getFactory().createGenerator(out)) {
+                        new JooqRowsSupplier.Builder()
+                                        .withRequest(request)
+                                        .withTable(DSL.table("medals"))
+                                        .withDSL(dsl)
+                                        .withSeekAnchors(anchors)
+                                        .build()
+                                        .stream(json);
+                }
+                return out.toString();
+        }
 }
@@ -0,0 +1,108 @@
+package org.techbd.service.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.techbd.service.http.Interactions.RequestEncountered;
+import org.techbd.service.http.Interactions.RequestResponseEncountered;
+import org.techbd.service.http.Interactions.ResponseEncountered;
+import org.techbd.service.http.Interactions.Tenant;
+
+class InteractionHistoryTest {
+
+    private static RequestResponseEncountered interaction(final String uri, final String requestBody,
+            final String responseBody) {
+        final var request = new RequestEncountered(UUID.randomUUID(), new Tenant("tenant-a"), "POST", uri, uri, uri,
+                "127.0.0.1", "test", Instant.now(), List.of(), Map.of(), "application/json", null, "HTTP/1.1", null,
+                List.of(), requestBody.getBytes(StandardCharsets.UTF_8));
+        final var response = new ResponseEncountered(request.requestId(), UUID.randomUUID(), 200, Instant.now(),
+                List.of(), responseBody.getBytes(StandardCharsets.UTF_8));
+        return new RequestResponseEncountered(request, response);
+    }
+
+    @Test
+    void testOldestEntriesAreOverwrittenOnceFull() {
+        final var history = new InteractionHistory(4, 16, 1024);
+
+        for (int i = 0; i < 10; i++) {
+            history.add(interaction("/interactions/" + i, "{}", "{}"));
+        }
+
+        assertThat(history.snapshot()).extracting(InteractionHistory.Entry::requestUri)
+                .containsExactly("/interactions/6", "/interactions/7", "/interactions/8", "/interactions/9");
+    }
+
+    @Test
+    void testEntriesKeepSizeCappedPreviewsWithinTheByteBudget() {
+        final var history = new InteractionHistory(8, 4, 16);
+        final var body = "0123456789".repeat(100);
+
+        for (int i = 0; i < 4; i++) {
+            history.add(interaction("/Bundle", body, body));
+        }
+
+        final var entries = history.snapshot();
+        assertThat(entries.get(0).requestBytes()).isEqualTo(1000);
+        assertThat(entries.get(0).requestPreview()).isEqualTo("0123");
+        assertThat(entries.get(1).responsePreview()).isEqualTo("0123");
+        // the budget holds two entries' previews; later entries are summaries only
+        assertThat(entries.get(2).requestPreview()).isNull();
+        assertThat(entries.get(3).responsePreview()).isNull();
+        assertThat(history.retainedPreviewBytes()).isEqualTo(16);
+    }
+
+    @Test
+    void testOverwrittenPreviewsAreReleasedFromTheBudget() {
+        final var history = new InteractionHistory(2, 4, 8);
+
+        for (int i = 0; i < 5; i++) {
+            history.add(interaction("/Bundle", "abcdef", "abcdef"));
+        }
+
+        assertThat(history.retainedPreviewBytes()).isLessThanOrEqualTo(8);
+        assertThat(history.snapshot()).anyMatch(entry -> entry.requestPreview() != null);
+    }
+
+    @Test
+    void testSnapshotsStayOrderedUnderConcurrentWrites() throws Exception {
+        final var history = new InteractionHistory(64, 8, 1024);
+        final ExecutorService writers = Executors.newFixedThreadPool(4);
+        final var stop = new AtomicBoolean();
+        final var started = new CountDownLatch(4);
+        for (int w = 0; w < 4; w++) {
+            writers.submit(() -> {
+                started.countDown();
+                while (!stop.get()) {
+                    history.add(interaction("/interactions", "{}", "{}"));
+                }
+            });
+        }
+        started.await(10, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 1000; i++) {
+            long previous = -1;
+            int count = 0;
+            for (InteractionHistory.Entry entry : history) {
+                assertThat(entry.sequence()).isGreaterThan(previous);
+                previous = entry.sequence();
+                count++;
+            }
+            assertThat(count).isLessThanOrEqualTo(history.capacity());
+        }
+        stop.set(true);
+        writers.shutdown();
+        assertThat(writers.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(history.snapshot()).isNotEmpty().hasSizeLessThanOrEqualTo(64);
+    }
+}
@@ -0,0 +1,178 @@
+package org.techbd.service.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.techbd.service.InteractionService;
+import org.techbd.service.InteractionService.PendingInteraction;
+import org.techbd.service.http.Interactions.RequestEncountered;
+import org.techbd.service.http.Interactions.RequestResponseEncountered;
+import org.techbd.service.http.Interactions.ResponseEncountered;
+import org.techbd.service.http.Interactions.Tenant;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InteractionPersistenceQueueTest {
+
+    /** Interactions handed to the (mocked) service, in the batches it received them. */
+    private final List<List<PendingInteraction>> batches = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch releaseWrites = new CountDownLatch(0);
+
+    private InteractionService interactionService;
+    private InteractionPersistenceProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private InteractionPersistenceQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        interactionService = mock(InteractionService.class);
+        doAnswer(invocation -> {
+            releaseWrites.await(10, TimeUnit.SECONDS);
+            batches.add(List.copyOf(invocation.<List<PendingInteraction>>getArgument(0)));
+            return null;
+        }).when(interactionService).saveInteractionsToDatabase(anyList());
+        properties = new InteractionPersistenceProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        releaseWrites.countDown();
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    private static PendingInteraction pending(final String uri, final byte[] requestBody, final byte[] responseBody) {
+        final var request = new RequestEncountered(UUID.randomUUID(), new Tenant("tenant-a"), "GET", uri, uri, uri,
+                "127.0.0.1", "test", Instant.now(), List.of(), Map.of(), "application/json", null, "HTTP/1.1", null,
+                List.of(), requestBody);
+        final var response = new ResponseEncountered(request.requestId(), UUID.randomUUID(), 200, Instant.now(),
+                List.of(), responseBody);
+        return new PendingInteraction(new RequestResponseEncountered(request, response), uri, OffsetDateTime.now(),
+                "test", "tenant-a", null, null, null, null);
+    }
+
+    private static PendingInteraction pending(final String uri) {
+        return pending(uri, "{}".getBytes(StandardCharsets.UTF_8), "{}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private double interactions(final String outcome) {
+        final var counter = meterRegistry.find(InteractionPersistenceQueue.METRIC_INTERACTIONS).tag("outcome", outcome)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Test
+    void testQueuedInteractionsAreWrittenInBatchesAndFlushedOnShutdown() throws Exception {
+        releaseWrites = new CountDownLatch(1);
+        properties.setWriters(1);
+        properties.setBatchSize(10);
+        queue = new InteractionPersistenceQueue(interactionService, properties, meterRegistry);
+
+        for (int i = 0; i < 25; i++) {
+            queue.submit(pending("/interactions/" + i));
+        }
+        releaseWrites.countDown();
+        queue.shutdown();
+
+        assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(25);
+        assertThat(batches).allMatch(batch -> batch.size() <= 10);
+        assertThat(batches.size()).isLessThan(25);
+        assertThat(queue.queued()).isZero();
+        verify(interactionService, never()).saveInteractionToDatabase(any(PendingInteraction.class));
+    }
+
+    @Test
+    void testBodiesAreTruncatedBeforeQueueing() throws Exception {
+        properties.setMaxBodyBytes(8);
+        queue = new InteractionPersistenceQueue(interactionService, properties, meterRegistry);
+
+        queue.submit(pending("/interactions", "0123456789abcdef".getBytes(StandardCharsets.UTF_8),
+                "short".getBytes(StandardCharsets.UTF_8)));
+        queue.shutdown();
+
+        final var rre = batches.get(0).get(0).rre();
+        assertThat(new String(rre.request().requestBody(), StandardCharsets.UTF_8))
+                .isEqualTo("01234567 ... [truncated, 16 bytes]");
+        assertThat(new String(rre.response().responseBody(), StandardCharsets.UTF_8)).isEqualTo("short");
+        assertThat(meterRegistry.get(InteractionPersistenceQueue.METRIC_TRUNCATED).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testTruncationDoesNotSplitMultiByteCharacters() throws Exception {
+        properties.setMaxBodyBytes(8);
+        queue = new InteractionPersistenceQueue(interactionService, properties, meterRegistry);
+
+        // "é" is two bytes and "€" three, so byte 8 falls inside the "€"
+        queue.submit(pending("/interactions", "abcdé€xyz".getBytes(StandardCharsets.UTF_8),
+                "short".getBytes(StandardCharsets.UTF_8)));
+        queue.shutdown();
+
+        final var requestBody = batches.get(0).get(0).rre().request().requestBody();
+        assertThat(new String(requestBody, StandardCharsets.UTF_8)).isEqualTo("abcdé ... [truncated, 12 bytes]");
+    }
+
+    @Test
+    void testSamplingRulesApplyPerPath() {
+        final var uxRule = new InteractionPersistenceProperties.SamplingRule();
+        uxRule.setPattern("^/api/ux/");
+        uxRule.setRate(0);
+        properties.setSampling(List.of(uxRule));
+        queue = new InteractionPersistenceQueue(interactionService, properties, meterRegistry);
+
+        assertThat(queue.sampled("/api/ux/tabular/jooq")).isFalse();
+        assertThat(queue.sampled("/interactions")).isTrue();
+        assertThat(interactions("sampled_out")).isEqualTo(1);
+    }
+
+    @Test
+    void testOverflowIsCountedAndDroppedOrRunByCaller() {
+        releaseWrites = new CountDownLatch(1);
+        properties.setWriters(1);
+        properties.setBatchSize(1);
+        properties.setQueueCapacity(1);
+        properties.setOverflowPolicy(InteractionPersistenceProperties.OverflowPolicy.DROP);
+        queue = new InteractionPersistenceQueue(interactionService, properties, meterRegistry);
+
+        // one interaction is held by the writer and one waits in the queue
+        for (int i = 0; i < 10; i++) {
+            queue.submit(pending("/interactions/" + i));
+        }
+        assertThat(interactions("overflow")).isGreaterThanOrEqualTo(8);
+        verify(interactionService, never()).saveInteractionToDatabase(any(PendingInteraction.class));
+
+        properties.setOverflowPolicy(InteractionPersistenceProperties.OverflowPolicy.CALLER_RUNS);
+        queue.submit(pending("/interactions/caller"));
+        verify(interactionService).saveInteractionToDatabase(any(PendingInteraction.class));
+    }
+
+    @Test
+    void testDisabledQueueRegistersOnCallingThread() {
+        properties.setEnabled(false);
+        queue = new InteractionPersistenceQueue(interactionService, properties, meterRegistry);
+
+        queue.submit(pending("/interactions"));
+
+        verify(interactionService).saveInteractionToDatabase(any(PendingInteraction.class));
+        assertThat(interactions("direct")).isEqualTo(1);
+    }
+}
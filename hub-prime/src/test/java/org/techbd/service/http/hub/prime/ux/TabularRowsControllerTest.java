@@ -39,7 +39,7 @@ class TabularRowsControllerTest {
 
         // Assert that an IllegalArgumentException is thrown for an invalid schema name
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, ()
-                -> tabularRowsController.tabularRows(invalidSchemaName, validTableName, payload, false, true));
+                -> tabularRowsController.tabularRows(invalidSchemaName, validTableName, payload, false, true, null));
         assertEquals("Invalid schema or table name.", exception.getMessage());
     }
 
@@ -56,7 +56,7 @@ class TabularRowsControllerTest {
 
         // Assert that an IllegalArgumentException is thrown for an invalid table name
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, ()
-                -> tabularRowsController.tabularRows(validSchemaName, invalidTableName, payload, false, true));
+                -> tabularRowsController.tabularRows(validSchemaName, invalidTableName, payload, false, true, null));
         assertEquals("Invalid schema or table name.", exception.getMessage());
     }
 
@@ -28,6 +28,25 @@ public class CoreAppConfig {
     private String dataLedgerApiUrl;  
     private String validationSeverityLevel;
     private String dataLedgerApiKeySecretName;
+    private DataLedgerClientConfig dataLedgerClient = new DataLedgerClientConfig();
+
+    /**
+     * Queueing, batching and connection settings for DataLedger event
+     * submission.
+     */
+    @Getter
+    @Setter
+    public static class DataLedgerClientConfig {
+        private int queueCapacity = 10000;
+        private int batchSize = 50;
+        private long lingerMs = 50;
+        private int maxConcurrentRequests = 16;
+        private String batchApiUrl;
+        private long requestTimeoutSeconds = 30;
+        private long apiKeyTtlSeconds = 300;
+        private long shutdownTimeoutSeconds = 10;
+    }
+
     @Getter
     @Setter
     public static class FhirV4Config {
@@ -21,6 +21,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.techbd.corelib.config.CoreAppConfig;
 import org.techbd.corelib.service.dataledger.DataLedgerApiClient;
 import org.techbd.corelib.service.dataledger.DataLedgerApiClient.Action;
@@ -30,6 +31,8 @@ import org.techbd.corelib.util.AWSUtil;
 import org.techbd.corelib.util.AppLogger;
 import org.techbd.corelib.util.TemplateLogger;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 class DataLedgerApiClientTest {
 
     @Mock
@@ -68,7 +71,8 @@ class DataLedgerApiClientTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        coreDataLedgerApiClient = new DataLedgerApiClient(appConfig,dslContext,appLogger);
+        coreDataLedgerApiClient = new DataLedgerApiClient(appConfig, dslContext,
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class), appLogger);
         when(mock(org.jooq.DSLContext.class).configuration()).thenReturn(mock(org.jooq.Configuration.class));
     }
 
@@ -0,0 +1,79 @@
+"""
+Long-lived worker around validate-nyher-fhir-ig-equivalent.py.
+
+The csv-service keeps a few of these running so that validating a CSV group
+does not pay for interpreter startup and the frictionless import each time.
+The script is imported once and requests are read from stdin, one JSON
+object per line:
+
+    {"id": 7, "op": "validate", "files": [qe_admin, screening_profile, screening_observation, pt_info]}
+    {"id": 8, "op": "ping"}
+
+Every request gets exactly one JSON line back on stdout with the same id.
+For "validate" the response carries, as "output", exactly what the script
+prints for the same arguments. A {"id": 0, "ready": true} line is written
+once the script is imported. Anything else printed by the script or its
+libraries goes to stderr so stdout only ever carries response lines.
+
+Usage:
+    python3 validate-nyher-fhir-ig-equivalent-worker.py <script_path> <spec_path>
+"""
+import contextlib
+import gc
+import importlib.util
+import io
+import json
+import sys
+import traceback
+
+
+def load_script(script_path):
+    spec = importlib.util.spec_from_file_location("validate_nyher_fhir_ig_equivalent", script_path)
+    module = importlib.util.module_from_spec(spec)
+    spec.loader.exec_module(module)
+    return module
+
+
+def respond(out, frame):
+    out.write(json.dumps(frame))
+    out.write("\n")
+    out.flush()
+
+
+def main():
+    if len(sys.argv) != 3:
+        print("Usage: validate-nyher-fhir-ig-equivalent-worker.py <script_path> <spec_path>", file=sys.stderr)
+        sys.exit(2)
+
+    script_path, spec_path = sys.argv[1], sys.argv[2]
+    out = sys.stdout
+    sys.stdout = sys.stderr
+    module = load_script(script_path)
+    respond(out, {"id": 0, "ok": True, "ready": True})
+
+    for line in sys.stdin:
+        line = line.strip()
+        if not line:
+            continue
+        request_id = None
+        try:
+            request = json.loads(line)
+            request_id = request.get("id")
+            op = request.get("op")
+            if op == "ping":
+                respond(out, {"id": request_id, "ok": True})
+            elif op == "validate":
+                file1, file2, file3, file4 = request["files"]
+                captured = io.StringIO()
+                with contextlib.redirect_stdout(captured):
+                    module.validate_package(spec_path, file1, file2, file3, file4, None)
+                respond(out, {"id": request_id, "ok": True, "output": captured.getvalue()})
+                gc.collect()
+            else:
+                respond(out, {"id": request_id, "ok": False, "error": f"Unknown op: {op}"})
+        except Exception:
+            respond(out, {"id": request_id, "ok": False, "error": traceback.format_exc()})
+
+
+if __name__ == "__main__":
+    main()
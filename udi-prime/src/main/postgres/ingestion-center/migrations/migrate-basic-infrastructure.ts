@@ -728,6 +728,29 @@ const fhirReplayDetails = SQLa.tableDefinition("fhir_replay_details", {
     error_message:textNullable(),
     elaboration:jsonbNullable(),
     nyec_error_message: textNullable(),
+    claimed_by: textNullable(),
+    claimed_at: dateTimeNullable(),
+    ...dvts.housekeeping.columns
+  }, {
+  isIdempotent: true,
+  sqlNS: ingressSchema
+});
+
+// Durable queue for asynchronous /Bundle submissions, claimed by workers with SKIP LOCKED
+const fhirBundleJob = SQLa.tableDefinition("fhir_bundle_job", {
+    interaction_id: primaryKey(),
+    tenant_id: text(),
+    payload: text(),
+    request_parameters: jsonB,
+    job_status: text().default("QUEUED"),
+    attempts: integer().default(0),
+    max_attempts: integer().default(3),
+    result: jsonbNullable(),
+    error_message: textNullable(),
+    claimed_by: textNullable(),
+    claimed_at: dateTimeNullable(),
+    completed_at: dateTimeNullable(),
+    updated_at: dateTimeNullable(),
     ...dvts.housekeeping.columns
   }, {
   isIdempotent: true,
@@ -975,12 +998,18 @@ const dependencies = [
   "../007_idempotent_interaction.psql",
   "../008_idempotent_idp_functions.psql",
   "../009_idempotent_mco_functions.psql",
+  "../010_idempotent_fhir_bundle_job.psql",
+  "../012_idempotent_fhir_submission_rollup.psql",
+  "../013_idempotent_fhir_replay.psql",
 ] as const;
 
 const testMigrateDependencies = [
   "../../../../test/postgres/ingestion-center/001-idempotent-interaction-unit-test.psql",
   "../../../../test/postgres/ingestion-center/003-idempotent-interaction-view-explain-plan.psql",
   "../../../../test/postgres/ingestion-center/004-idempotent-migrate-unit-test.psql",
+  "../../../../test/postgres/ingestion-center/010-idempotent-fhir-bundle-job-unit-test.psql",
+  "../../../../test/postgres/ingestion-center/012-idempotent-fhir-submission-rollup-unit-test.psql",
+  "../../../../test/postgres/ingestion-center/013-idempotent-fhir-replay-unit-test.psql",
   "../../../../test/postgres/ingestion-center/fixtures.sql",
 ] as const;
 
@@ -1687,6 +1716,18 @@ const migrateSP = pgSQLa.storedProcedure(
               ADD CONSTRAINT fhir_replay_details_unique_combo_key
               UNIQUE (bundle_id, hub_interaction_id, replay_master_id);
       END IF;      
+
+      -- Claim of a bundle by a replay worker (claim_fhir_replay_bundles in 013_idempotent_fhir_replay.psql)
+      ALTER TABLE techbd_udi_ingress.fhir_replay_details ADD COLUMN IF NOT EXISTS claimed_by TEXT;
+      ALTER TABLE techbd_udi_ingress.fhir_replay_details ADD COLUMN IF NOT EXISTS claimed_at TIMESTAMP WITH TIME ZONE;
+
+      -- Partial index used by claim_fhir_replay_bundles; only bundles not yet replayed are scanned
+      CREATE INDEX IF NOT EXISTS idx_fhir_replay_details_open
+      ON techbd_udi_ingress.fhir_replay_details(created_at)
+      WHERE replay_status IS NULL OR replay_status = 'In Progress';
+
+      CREATE INDEX IF NOT EXISTS idx_fhir_replay_details_replay_master_id
+      ON techbd_udi_ingress.fhir_replay_details(replay_master_id);
       
       ${ccdaValidationErrorsSat}    
       ${hl7ValidationErrorsSat}        
@@ -1931,6 +1972,83 @@ const migrateSP = pgSQLa.storedProcedure(
             ALTER TABLE techbd_udi_ingress.user_sessions ADD COLUMN IF NOT EXISTS fusion_auth_response jsonb;
       END IF;
 
+      ${fhirBundleJob}
+      IF NOT EXISTS (
+          SELECT 1
+          FROM pg_constraint
+          WHERE conname = 'fhir_bundle_job_status_check'
+            AND conrelid = 'techbd_udi_ingress.fhir_bundle_job'::regclass
+      ) THEN
+          ALTER TABLE techbd_udi_ingress.fhir_bundle_job
+          ADD CONSTRAINT fhir_bundle_job_status_check
+          CHECK (job_status IN ('QUEUED', 'PROCESSING', 'COMPLETED', 'FAILED'));
+      END IF;
+
+      -- Partial index used by claim_fhir_bundle_jobs; only open jobs are scanned
+      CREATE INDEX IF NOT EXISTS idx_fhir_bundle_job_open
+      ON techbd_udi_ingress.fhir_bundle_job(created_at)
+      WHERE job_status IN ('QUEUED', 'PROCESSING');
+
+      -- Hourly per-tenant FHIR submission counts read by the needs-attention and tenant stats
+      -- dashboards; maintained by refresh_fhir_submission_rollup (012_idempotent_fhir_submission_rollup.psql).
+      CREATE TABLE IF NOT EXISTS techbd_udi_ingress.fhir_submission_rollup (
+          bucket_hour timestamptz NOT NULL,
+          tenant_id_lower text,
+          tenant_named boolean NOT NULL,
+          uri text NOT NULL,
+          row_count bigint NOT NULL,
+          submission_count bigint NOT NULL,
+          forwarded_count bigint NOT NULL,
+          forwarded_error_count bigint NOT NULL,
+          last_row_created_at timestamptz,
+          processed_count bigint NOT NULL,
+          complete_count bigint NOT NULL,
+          discard_count bigint NOT NULL,
+          last_activity_at timestamptz,
+          refreshed_at timestamptz NOT NULL DEFAULT CURRENT_TIMESTAMP
+      );
+
+      CREATE UNIQUE INDEX IF NOT EXISTS idx_fhir_submission_rollup_bucket
+      ON techbd_udi_ingress.fhir_submission_rollup(bucket_hour, uri, tenant_named, tenant_id_lower) NULLS NOT DISTINCT;
+
+      -- What each interaction adds to the rollup buckets; lets a refresh replace one interaction's share
+      CREATE TABLE IF NOT EXISTS techbd_udi_ingress.fhir_submission_rollup_contribution (
+          hub_interaction_id text NOT NULL,
+          bucket_hour timestamptz NOT NULL,
+          tenant_id_lower text,
+          tenant_named boolean NOT NULL,
+          uri text NOT NULL,
+          row_count bigint NOT NULL,
+          submission_count bigint NOT NULL,
+          forwarded_count bigint NOT NULL,
+          forwarded_error_count bigint NOT NULL,
+          last_row_created_at timestamptz,
+          processed_count bigint NOT NULL,
+          complete_count bigint NOT NULL,
+          discard_count bigint NOT NULL,
+          last_activity_at timestamptz
+      );
+
+      CREATE INDEX IF NOT EXISTS idx_fhir_submission_rollup_contribution_interaction
+      ON techbd_udi_ingress.fhir_submission_rollup_contribution(hub_interaction_id);
+
+      CREATE INDEX IF NOT EXISTS idx_fhir_submission_rollup_contribution_bucket
+      ON techbd_udi_ingress.fhir_submission_rollup_contribution(bucket_hour, uri, tenant_named, tenant_id_lower);
+
+      -- Interactions whose sat_interaction_fhir_request rows changed since the last refresh
+      CREATE TABLE IF NOT EXISTS techbd_udi_ingress.fhir_submission_rollup_queue (
+          queue_id bigserial PRIMARY KEY,
+          hub_interaction_id text NOT NULL,
+          queued_at timestamptz NOT NULL DEFAULT CURRENT_TIMESTAMP
+      );
+
+      CREATE TABLE IF NOT EXISTS techbd_udi_ingress.fhir_submission_rollup_state (
+          singleton boolean PRIMARY KEY DEFAULT true CHECK (singleton),
+          rebuilt_at timestamptz,
+          refreshed_at timestamptz,
+          last_result jsonb
+      );
+
       ${idpRoles}
           IF NOT EXISTS (
               SELECT 1
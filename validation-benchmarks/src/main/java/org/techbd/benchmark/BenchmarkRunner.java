@@ -0,0 +1,47 @@
+package org.techbd.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Runs every benchmark in this package
+ * with the GC profiler (allocation/op) and writes machine-readable JSON results
+ * that can be diffed between releases:
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar [jmh options]
+ * java -Dtechbd.benchmark.result=results/0.2056.0.json -jar target/benchmarks.jar
+ * </pre>
+ *
+ * Any standard JMH command line option (e.g. {@code -p entries=1000} or a
+ * benchmark regex) overrides the defaults. Unless {@code -p igPackage=...} is
+ * given, the validation benchmarks run for every SHIN-NY package configured
+ * in hub-core-lib's {@code application.yml}.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        final Path result = Path.of(System.getProperty("techbd.benchmark.result", "target/jmh-result.json"));
+        if (result.getParent() != null) {
+            Files.createDirectories(result.getParent());
+        }
+        final var commandLine = new CommandLineOptions(args);
+        final var options = new OptionsBuilder()
+                .parent(commandLine)
+                .include(BenchmarkRunner.class.getPackageName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString());
+        if (!commandLine.getParameter("igPackage").hasValue()) {
+            // every SHIN-NY IG version configured in application.yml, not just the annotation defaults
+            options.param("igPackage", ValidationFixtures.configuredShinnyPackages().keySet().toArray(String[]::new));
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,68 @@
+package org.techbd.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.techbd.service.fhir.engine.OrchestrationEngine;
+
+/**
+ * Time from engine construction to the first completed validation, i.e. what a
+ * freshly deployed pod pays before it can serve a request. Each measurement
+ * runs in its own fork so class loading and JIT state are genuinely cold.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 5, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+public class ColdValidationBenchmark {
+
+    /**
+     * SHIN-NY package of {@code application.yml}; {@link BenchmarkRunner}
+     * replaces these defaults with every configured package.
+     */
+    @Param({ "shinny-v1-9-4", "test-shinny-v1-9-4" })
+    public String igPackage;
+
+    /**
+     * {@code none}: the engine runs without the snapshot cache and generates
+     * snapshots lazily; {@code precompiled}: artifacts generated beforehand.
+     */
+    @Param({ "none", "precompiled" })
+    public String snapshots;
+
+    private Path snapshotCache;
+    private String igVersion;
+    private String payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        igVersion = ValidationFixtures.igVersion(igPackage);
+        payload = ValidationFixtures.loadBundle(ValidationFixtures.IG_EXAMPLES
+                + ValidationFixtures.examplesDirectory(igPackage) + "/Bundle-AHCHRSNScreeningResponseExample.json", 0);
+        if ("precompiled".equals(snapshots)) {
+            snapshotCache = Files.createTempDirectory("techbd-ig-snapshots");
+            ValidationFixtures.newEngine(snapshotCache);
+        }
+    }
+
+    @Benchmark
+    public OrchestrationEngine.ValidationResult firstValidation() {
+        return ValidationFixtures.validate(ValidationFixtures.newEngine(snapshotCache), payload, igVersion);
+    }
+}
@@ -0,0 +1,157 @@
+package org.techbd.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.techbd.benchmark.InteractionBulkLoader.StagedFhirRequest;
+import org.techbd.config.Configuration;
+import org.techbd.config.CoreAppConfig;
+import org.techbd.util.AppLogger;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Registering FHIR interactions with one
+ * {@code register_interaction_fhir_request} round-trip per row versus
+ * {@link InteractionBulkLoader}'s COPY into the staging table plus one merge.
+ * Runs against a throwaway PostgreSQL container (Docker required) with the
+ * merge function and the stand-ins InteractionBulkLoaderTest uses;
+ * reports time per row, so lower is better.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class InteractionBulkLoadBenchmark {
+
+    private static final int INTERACTIONS = 1000;
+    /** Two requests (original payload and forward) per interaction. */
+    private static final int ROWS = 2 * INTERACTIONS;
+
+    static final String MERGE_FUNCTION = "interaction-bulk-load.psql";
+    static final String STAND_INS = "interaction-bulk-load-stand-ins.sql";
+
+    private PostgreSQLContainer<?> postgres;
+    private HikariDataSource dataSource;
+    private DSLContext dsl;
+    private InteractionBulkLoader loader;
+    private List<StagedFhirRequest> rows;
+
+    @Setup(Level.Trial)
+    public void startDatabase() throws IOException, SQLException {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        final var hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(postgres.getJdbcUrl());
+        hikariConfig.setUsername(postgres.getUsername());
+        hikariConfig.setPassword(postgres.getPassword());
+        dataSource = new HikariDataSource(hikariConfig);
+        dsl = DSL.using(dataSource, SQLDialect.POSTGRES);
+        execute(script(STAND_INS));
+        execute(script(MERGE_FUNCTION));
+        final var appConfig = new CoreAppConfig();
+        appConfig.setVersion("benchmark");
+        loader = new InteractionBulkLoader(dsl, new SimpleMeterRegistry(), new AppLogger(appConfig));
+    }
+
+    /** SQL script packaged next to this class. */
+    static String script(final String name) throws IOException {
+        try (var in = InteractionBulkLoadBenchmark.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IOException("Missing SQL script " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /** Runs DDL as a plain JDBC statement, bypassing jOOQ's bind-variable and template parsing. */
+    private void execute(final String sql) throws SQLException {
+        try (var connection = dataSource.getConnection(); var statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    /** Every invocation registers new interactions into tables of the same size. */
+    @Setup(Level.Invocation)
+    public void newInteractions() {
+        dsl.execute("""
+                truncate techbd_udi_ingress.hub_interaction, techbd_udi_ingress.sat_interaction_http_request,
+                    techbd_udi_ingress.sat_interaction_fhir_request, techbd_udi_ingress.issue,
+                    techbd_udi_ingress.stg_interaction_fhir_request, techbd_udi_ingress.interaction_bulk_load_batch
+                """);
+        rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < INTERACTIONS; i++) {
+            final var interactionId = UUID.randomUUID().toString();
+            rows.add(request(interactionId, "Original FHIR Payload", "ACCEPT_FHIR_BUNDLE"));
+            rows.add(request(interactionId, "Forward HTTP Request", "FORWARD"));
+        }
+    }
+
+    private static StagedFhirRequest request(final String interactionId, final String nature, final String toState) {
+        return StagedFhirRequest.builder()
+                .interactionId(interactionId)
+                .interactionKey("/Bundle")
+                .nature(Configuration.objectMapper.createObjectNode().put("nature", nature).put("tenant_id", "tenant-a"))
+                .payload(Configuration.objectMapper.createObjectNode().put("resourceType", "Bundle")
+                        .put("id", interactionId))
+                .payloadText("{\"resourceType\":\"Bundle\"}")
+                .toState(toState)
+                .createdAt(OffsetDateTime.now())
+                .provenance("benchmark")
+                .build();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int perRowRegistration() {
+        int registered = 0;
+        for (StagedFhirRequest row : rows) {
+            dsl.fetchValue("select techbd_udi_ingress.register_interaction_fhir_request(?, ?, ?::jsonb, ?::jsonb, ?, ?)",
+                    row.interactionId(), row.interactionKey(), row.nature().toString(), row.payload().toString(),
+                    row.toState(), row.provenance());
+            registered++;
+        }
+        return registered;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public JsonNode copyAndMerge() {
+        return loader.load(UUID.randomUUID().toString(), rows, "benchmark", "benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDatabase() {
+        dataSource.close();
+        postgres.stop();
+    }
+}
@@ -0,0 +1,203 @@
+package org.techbd.benchmark;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.jooq.DSLContext;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.techbd.config.Configuration;
+import org.techbd.util.AppLogger;
+import org.techbd.util.TemplateLogger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Builder;
+
+/**
+ * Bulk alternative to calling {@code register_interaction_fhir_request} once per
+ * row. Rows are streamed into the unlogged
+ * {@code techbd_udi_ingress.stg_interaction_fhir_request} table with
+ * {@code COPY ... FROM STDIN (FORMAT binary)} and then merged into the hub and
+ * satellite tables by {@code merge_staged_interaction_fhir_requests}, all in
+ * one transaction.
+ * <p>
+ * The batch id is the idempotency key: loading a batch id that has already
+ * been merged replaces whatever was staged for it and returns the recorded
+ * outcome without registering the rows again, so a loader may safely retry a
+ * batch whose outcome it did not see.
+ * <p>
+ * Nothing in the hub registers interactions this way yet, so the loader, the
+ * merge function ({@code interaction-bulk-load.psql}) and the staging tables
+ * live here, next to {@link InteractionBulkLoadBenchmark}, rather than in
+ * hub-core-lib and the udi-prime migrations.
+ */
+public class InteractionBulkLoader {
+
+    static final String METRIC_ROWS = "techbd.interaction_bulk_load.rows";
+    static final String METRIC_DURATION = "techbd.interaction_bulk_load.duration";
+
+    static final String COPY_SQL = """
+            COPY techbd_udi_ingress.stg_interaction_fhir_request (
+                batch_id, seq, interaction_id, interaction_key, nature, payload, payload_text, rule_namespace,
+                elaboration, content_type, from_state, to_state, state_transition_reason, user_id, user_name,
+                user_session, user_role, created_by, created_at, provenance, source_type,
+                source_hub_interaction_id, group_hub_interaction_id, request_source, additional_details,
+                techbd_version_number
+            ) FROM STDIN (FORMAT binary)""";
+    private static final short COPY_COLUMNS = 26;
+    private static final byte[] COPY_SIGNATURE = { 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0 };
+    private static final byte JSONB_VERSION = 1;
+    private static final Instant POSTGRES_EPOCH = Instant.parse("2000-01-01T00:00:00Z");
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final DSLContext primaryDslContext;
+    private final MeterRegistry meterRegistry;
+    private final TemplateLogger LOG;
+
+    /**
+     * One {@code register_interaction_fhir_request} call worth of arguments;
+     * field names follow the routine's parameters.
+     */
+    @Builder
+    public record StagedFhirRequest(String interactionId, String interactionKey, JsonNode nature, JsonNode payload,
+            String payloadText, String ruleNamespace, JsonNode elaboration, String contentType, String fromState,
+            String toState, String stateTransitionReason, String userId, String userName, String userSession,
+            String userRole, String createdBy, OffsetDateTime createdAt, String provenance, String sourceType,
+            String sourceHubInteractionId, String groupHubInteractionId, String requestSource,
+            JsonNode additionalDetails, String techbdVersionNumber) {
+    }
+
+    public InteractionBulkLoader(final DSLContext primaryDslContext, final MeterRegistry meterRegistry,
+            final AppLogger appLogger) {
+        this.primaryDslContext = primaryDslContext;
+        this.meterRegistry = meterRegistry;
+        this.LOG = appLogger.getLogger(InteractionBulkLoader.class);
+    }
+
+    /**
+     * Stages {@code rows} under {@code batchId} and merges them. Returns the
+     * merge outcome: the {@code staged}, {@code accepted}, {@code rejected} and
+     * {@code failed} row counts plus an {@code errors} array with the
+     * {@code seq} (position in {@code rows}), interaction id and error of each
+     * row that was not registered.
+     */
+    public JsonNode load(final String batchId, final List<StagedFhirRequest> rows, final String createdBy,
+            final String provenance) {
+        final var sample = Timer.start(meterRegistry);
+        final String result = primaryDslContext.transactionResult(trx -> {
+            final var dsl = trx.dsl();
+            // a retried batch replaces what an earlier, unmerged attempt left behind
+            dsl.execute("DELETE FROM techbd_udi_ingress.stg_interaction_fhir_request WHERE batch_id = ?", batchId);
+            final long copied = dsl.connectionResult(connection -> copy(connection, batchId, rows));
+            LOG.debug("InteractionBulkLoader:: copied {} rows for batch {}", copied, batchId);
+            return dsl.fetchValue(
+                    "SELECT techbd_udi_ingress.merge_staged_interaction_fhir_requests(?, ?, ?)::text",
+                    batchId, createdBy, provenance).toString();
+        });
+        sample.stop(meterRegistry.timer(METRIC_DURATION));
+        try {
+            final JsonNode outcome = Configuration.objectMapper.readTree(result);
+            for (String outcomeField : List.of("accepted", "rejected", "failed")) {
+                meterRegistry.counter(METRIC_ROWS, "outcome", outcomeField).increment(outcome.path(outcomeField).asInt());
+            }
+            LOG.info("InteractionBulkLoader:: merged batch {}: staged {}, accepted {}, rejected {}, failed {}{}", batchId,
+                    outcome.path("staged").asInt(), outcome.path("accepted").asInt(),
+                    outcome.path("rejected").asInt(), outcome.path("failed").asInt(),
+                    outcome.path("already_merged").asBoolean() ? " (already merged)" : "");
+            return outcome;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable merge result for batch " + batchId + ": " + result, e);
+        }
+    }
+
+    private long copy(final Connection connection, final String batchId, final List<StagedFhirRequest> rows)
+            throws Exception {
+        final var copyStream = new PGCopyOutputStream(connection.unwrap(PGConnection.class), COPY_SQL,
+                COPY_BUFFER_SIZE);
+        // not try-with-resources: closing the stream would end, not cancel, a failed COPY
+        final var out = new DataOutputStream(copyStream);
+        try {
+            out.write(COPY_SIGNATURE);
+            out.writeInt(0); // flags
+            out.writeInt(0); // header extension length
+            long seq = 0;
+            for (StagedFhirRequest row : rows) {
+                out.writeShort(COPY_COLUMNS);
+                writeText(out, batchId);
+                out.writeInt(Long.BYTES);
+                out.writeLong(++seq);
+                writeText(out, row.interactionId());
+                writeText(out, row.interactionKey());
+                writeJsonb(out, row.nature());
+                writeJsonb(out, row.payload());
+                writeText(out, row.payloadText());
+                writeText(out, row.ruleNamespace());
+                writeJsonb(out, row.elaboration());
+                writeText(out, row.contentType());
+                writeText(out, row.fromState());
+                writeText(out, row.toState());
+                writeText(out, row.stateTransitionReason());
+                writeText(out, row.userId());
+                writeText(out, row.userName());
+                writeText(out, row.userSession());
+                writeText(out, row.userRole());
+                writeText(out, row.createdBy());
+                writeTimestamptz(out, row.createdAt());
+                writeText(out, row.provenance());
+                writeText(out, row.sourceType());
+                writeText(out, row.sourceHubInteractionId());
+                writeText(out, row.groupHubInteractionId());
+                writeText(out, row.requestSource());
+                writeJsonb(out, row.additionalDetails());
+                writeText(out, row.techbdVersionNumber());
+            }
+            out.writeShort(-1); // trailer
+            out.flush();
+            return copyStream.endCopy();
+        } catch (Exception e) {
+            if (copyStream.isActive()) {
+                copyStream.cancelCopy();
+            }
+            throw e;
+        }
+    }
+
+    private static void writeText(final DataOutputStream out, final String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeJsonb(final DataOutputStream out, final JsonNode value) throws IOException {
+        if (value == null || value.isNull()) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = Configuration.objectMapper.writeValueAsBytes(value);
+        out.writeInt(bytes.length + 1);
+        out.writeByte(JSONB_VERSION);
+        out.write(bytes);
+    }
+
+    private static void writeTimestamptz(final DataOutputStream out, final OffsetDateTime value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(Long.BYTES);
+        out.writeLong(ChronoUnit.MICROS.between(POSTGRES_EPOCH, value.toInstant()));
+    }
+}
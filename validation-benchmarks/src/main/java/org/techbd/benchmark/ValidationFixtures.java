@@ -0,0 +1,179 @@
+package org.techbd.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.techbd.config.Configuration;
+import org.techbd.config.CoreAppConfig;
+import org.techbd.config.CoreAppConfig.FhirV4Config;
+import org.techbd.service.fhir.engine.OrchestrationEngine;
+import org.techbd.util.AppLogger;
+import org.techbd.util.fhir.CoreFHIRUtil;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+
+import ca.uhn.fhir.context.FhirContext;
+
+/**
+ * Shared setup for the validation benchmarks: builds an
+ * {@link OrchestrationEngine} with the IG packages configured in
+ * hub-core-lib's {@code application.yml}, so every configured SHIN-NY IG
+ * version is benchmarked, and loads bundle fixtures from the repository.
+ * Only the FHIR bundles under {@link #IG_EXAMPLES} are used; CSV and CCDA
+ * fixtures are converted to FHIR before validation and are not benchmarked
+ * here (see the module README).
+ * <p>
+ * Fixture paths are resolved against {@code -Dtechbd.repo.root} (defaults to
+ * the parent of the working directory, i.e. the repository root when run from
+ * {@code validation-benchmarks}).
+ */
+public final class ValidationFixtures {
+
+    public static final String IG_EXAMPLES = "hub-core-lib/src/test/resources/org/techbd/ig-examples/";
+    private static final String APPLICATION_YML = "nexus-core-lib/application.yml";
+
+    private ValidationFixtures() {
+    }
+
+    public static Path repoRoot() {
+        return Path.of(System.getProperty("techbd.repo.root", "..")).toAbsolutePath().normalize();
+    }
+
+    /**
+     * @param snapshotCachePath directory for precompiled IG snapshots, or
+     *                          {@code null} to run without the snapshot cache
+     */
+    public static OrchestrationEngine newEngine(final Path snapshotCachePath) {
+        final var appConfig = new CoreAppConfig();
+        appConfig.setVersion("benchmark");
+        appConfig.setIgPackages(igPackages(snapshotCachePath));
+        appConfig.setStructureDefinitionsUrls(Map.of("bundle", "/StructureDefinition/SHINNYBundleProfile"));
+        appConfig.setBaseFHIRURL("http://shinny.org/us/ny/hrsn");
+        new CoreFHIRUtil(appConfig);
+        return new OrchestrationEngine(appConfig, new AppLogger(appConfig), FhirContext.forR4Cached());
+    }
+
+    /**
+     * The {@code shinny-packages} of {@code application.yml} by name (e.g.
+     * {@code shinny-v1-9-4}), each with its {@code profile-base-url},
+     * {@code package-path} and {@code ig-version}.
+     */
+    public static Map<String, Map<String, String>> configuredShinnyPackages() {
+        return configuredPackages("shinny-packages", new TypeReference<>() {
+        });
+    }
+
+    /** Examples directory under {@link #IG_EXAMPLES} for a configured SHIN-NY package. */
+    public static String examplesDirectory(final String shinnyPackage) {
+        return shinnyPackage.startsWith("test-") ? "test-shinny-examples" : "shinny-examples";
+    }
+
+    /** IG version of a configured SHIN-NY package. */
+    public static String igVersion(final String shinnyPackage) {
+        final var configured = configuredShinnyPackages();
+        final var config = configured.get(shinnyPackage);
+        if (config == null) {
+            throw new IllegalArgumentException(shinnyPackage + " is not configured in " + APPLICATION_YML
+                    + ", configured: " + configured.keySet());
+        }
+        return config.get("ig-version");
+    }
+
+    public static OrchestrationEngine.ValidationResult validate(final OrchestrationEngine engine,
+            final String payload) {
+        return validate(engine, payload, null);
+    }
+
+    /**
+     * Validates {@code payload} against {@code igVersion} of the IG its profile
+     * belongs to, or the latest configured version when {@code null}.
+     */
+    public static OrchestrationEngine.ValidationResult validate(final OrchestrationEngine engine,
+            final String payload, final String igVersion) {
+        final var session = engine.session()
+                .withPayloads(List.of(payload))
+                .withRequestedIgVersion(igVersion)
+                .withSessionId(UUID.randomUUID().toString())
+                .withInteractionId(UUID.randomUUID().toString())
+                .addHapiValidationEngine()
+                .build();
+        try {
+            engine.orchestrate(session);
+            return session.getValidationResults().get(0);
+        } finally {
+            engine.clear(session);
+        }
+    }
+
+    /**
+     * Loads {@code fixture} (relative to the repository root) and, when
+     * {@code entries} is positive, grows its {@code entry} array to that size by
+     * cloning existing entries with fresh ids so that large bundles can be
+     * measured from the same IG examples.
+     */
+    public static String loadBundle(final String fixture, final int entries) {
+        try {
+            final String payload = Files.readString(repoRoot().resolve(fixture));
+            if (entries <= 0) {
+                return payload;
+            }
+            final ObjectNode bundle = (ObjectNode) Configuration.objectMapper.readTree(payload);
+            final ArrayNode entry = (ArrayNode) bundle.get("entry");
+            final List<JsonNode> templates = new ArrayList<>();
+            entry.forEach(templates::add);
+            int i = 0;
+            while (entry.size() < entries) {
+                final ObjectNode copy = templates.get(i++ % templates.size()).deepCopy();
+                final String id = UUID.randomUUID().toString();
+                final JsonNode resource = copy.get("resource");
+                if (resource instanceof ObjectNode resourceNode) {
+                    resourceNode.put("id", id);
+                    copy.put("fullUrl", "http://shinny.org/us/ny/hrsn/"
+                            + resourceNode.path("resourceType").asText() + "/" + id);
+                }
+                entry.add(copy);
+            }
+            return Configuration.objectMapper.writeValueAsString(bundle);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, FhirV4Config> igPackages(final Path snapshotCachePath) {
+        final var fhirV4Config = new FhirV4Config();
+        fhirV4Config.setBasePackages(configuredPackages("base-packages", new TypeReference<>() {
+        }));
+        fhirV4Config.setShinnyPackages(configuredShinnyPackages());
+        if (snapshotCachePath == null) {
+            fhirV4Config.setSnapshotCacheEnabled(false);
+        } else {
+            fhirV4Config.setSnapshotCachePath(snapshotCachePath.toString());
+        }
+        return Map.of("fhir-v4", fhirV4Config);
+    }
+
+    private static <T> T configuredPackages(final String name, final TypeReference<T> type) {
+        try (InputStream yml = ValidationFixtures.class.getClassLoader().getResourceAsStream(APPLICATION_YML)) {
+            if (yml == null) {
+                throw new IllegalStateException(APPLICATION_YML + " is not on the classpath");
+            }
+            final var mapper = new YAMLMapper();
+            final JsonNode packages = mapper.readTree(yml)
+                    .path("org").path("techbd").path("ig-packages").path("fhir-v4").path(name);
+            return mapper.convertValue(packages, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
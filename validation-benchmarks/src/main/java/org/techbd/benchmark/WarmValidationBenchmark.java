@@ -0,0 +1,68 @@
+package org.techbd.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.techbd.service.fhir.engine.OrchestrationEngine;
+
+/**
+ * Steady-state validation of a bundle against an already initialized engine.
+ * Reports ops/sec ({@code thrpt}) and the latency distribution including p99
+ * ({@code sample}); allocation/op comes from the GC profiler enabled in
+ * {@link BenchmarkRunner}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+public class WarmValidationBenchmark {
+
+    /**
+     * SHIN-NY package of {@code application.yml} the payload is validated
+     * against; {@link BenchmarkRunner} replaces these defaults with every
+     * configured package.
+     */
+    @Param({ "shinny-v1-9-4", "test-shinny-v1-9-4" })
+    public String igPackage;
+
+    @Param({ "Bundle-AHCHRSNScreeningResponseExample.json", "Bundle-NYScreeningResponseExample.json" })
+    public String fixture;
+
+    /** 0 keeps the fixture as is; otherwise the bundle is grown to this many entries. */
+    @Param({ "0", "1000" })
+    public int entries;
+
+    private OrchestrationEngine engine;
+    private String igVersion;
+    private String payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        final Path snapshotCache = Files.createTempDirectory("techbd-ig-snapshots");
+        engine = ValidationFixtures.newEngine(snapshotCache);
+        igVersion = ValidationFixtures.igVersion(igPackage);
+        payload = ValidationFixtures.loadBundle(ValidationFixtures.IG_EXAMPLES
+                + ValidationFixtures.examplesDirectory(igPackage) + "/" + fixture, entries);
+        ValidationFixtures.validate(engine, payload, igVersion);
+    }
+
+    @Benchmark
+    public OrchestrationEngine.ValidationResult validate() {
+        return ValidationFixtures.validate(engine, payload, igVersion);
+    }
+}
@@ -0,0 +1,103 @@
+-- Stand-ins for the udi-prime tables and routines the interaction bulk-load merge function depends on,
+-- plus its staging and batch tables. Used by InteractionBulkLoaderTest and InteractionBulkLoadBenchmark.
+
+create schema techbd_udi_ingress;
+create table techbd_udi_ingress.tenants (tenant_id uuid primary key, tenant_name text unique);
+create table techbd_udi_ingress.hub_interaction (hub_interaction_id text primary key, key text,
+    created_at timestamptz, created_by text, provenance text);
+create table techbd_udi_ingress.sat_interaction_http_request (
+    sat_interaction_http_request_id text primary key, hub_interaction_id text, nature jsonb,
+    content_type text, payload jsonb, payload_text text, from_state text, to_state text,
+    state_transition_reason text, elaboration jsonb, created_at timestamptz, created_by text,
+    provenance text, nature_denorm text, tenant_id_denorm text, request_source text,
+    techbd_version_number text, tenant_name text, tenant_id text);
+create table techbd_udi_ingress.sat_interaction_fhir_request (hub_interaction_id text, to_state text,
+    payload jsonb);
+create table techbd_udi_ingress.issue (hub_interaction_id text, message text);
+create unlogged table techbd_udi_ingress.stg_interaction_fhir_request (
+    batch_id text not null, seq bigint not null, interaction_id text, interaction_key text,
+    nature jsonb, payload jsonb, payload_text text, rule_namespace text, elaboration jsonb,
+    content_type text, from_state text, to_state text, state_transition_reason text, user_id text,
+    user_name text, user_session text, user_role text, created_by text, created_at timestamptz,
+    provenance text, source_type text, source_hub_interaction_id text,
+    group_hub_interaction_id text, request_source text, additional_details jsonb,
+    techbd_version_number text);
+create table techbd_udi_ingress.interaction_bulk_load_batch (batch_id text primary key,
+    staged_rows integer not null, accepted_rows integer not null, rejected_rows integer not null,
+    failed_rows integer not null, result jsonb, created_at timestamptz not null,
+    created_by text not null, provenance text);
+
+create function techbd_udi_ingress.get_tenant_details(p_tenant_name text, p_created_by text,
+    p_created_at timestamptz, p_provenance text) returns json language plpgsql as $$
+declare v_tenant_id uuid;
+begin
+    select tenant_id into v_tenant_id from techbd_udi_ingress.tenants where tenant_name = p_tenant_name;
+    if v_tenant_id is null then
+        v_tenant_id := gen_random_uuid();
+        insert into techbd_udi_ingress.tenants values (v_tenant_id, p_tenant_name);
+    end if;
+    return json_build_object('tenant_id', v_tenant_id);
+end $$;
+create function techbd_udi_ingress.sat_interaction_user_upserted(p_hub_interaction_id text,
+    p_hub_interaction_key text, p_nature text, p_payload jsonb, p_user_id text, p_user_name text,
+    p_user_session text, p_user_role text, p_tenant_id text, p_elaboration jsonb,
+    p_created_at timestamptz, p_created_by text, p_provenance text, p_additional_details jsonb)
+    returns void language plpgsql as $$ begin null; end $$;
+create function techbd_udi_ingress.process_json_action_rules(p_payload jsonb, p_namespace text,
+    p_key text) returns jsonb language sql as $$ select p_payload $$;
+create function techbd_udi_ingress.sat_interaction_fhir_request_upserted(p_hub_interaction_id text,
+    p_tenant_id text, p_tenant_name text, p_uri text, p_nature text, p_from_state text,
+    p_to_state text, p_payload jsonb, p_state_transition_reason text, p_created_at timestamptz,
+    p_created_by text, p_provenance text, p_elaboration jsonb, p_source_type text,
+    p_source_hub_interaction_id text, p_group_hub_interaction_id text, p_additional_details jsonb,
+    p_techbd_version_number text) returns void language plpgsql as $$
+begin
+    if p_to_state = 'BAD' then
+        raise exception 'cannot upsert %', p_hub_interaction_id;
+    end if;
+    insert into techbd_udi_ingress.sat_interaction_fhir_request
+        values (p_hub_interaction_id, p_to_state, p_payload);
+end $$;
+create function techbd_udi_ingress.upsert_dashboard_widget_metadata(p_source text, p_tenant_name text,
+    p_tenant_id text, p_created_at timestamptz, p_created_by text) returns void language plpgsql
+    as $$ begin null; end $$;
+create function techbd_udi_ingress.register_issue(p_id text, p_key text, p_message text,
+    p_type text, p_sqlstate text, p_detail text, p_hint text, p_context text, p_created_by text,
+    p_provenance text, p_elaboration jsonb, p_tenant_name text, p_tenant_id text,
+    p_hub_interaction_id text) returns text language plpgsql as $$
+begin
+    insert into techbd_udi_ingress.issue values (p_hub_interaction_id, p_message);
+    return p_id;
+end $$;
+create procedure techbd_udi_ingress.register_diagnostic_log(diagnostic_id text, key text,
+    created_by text, provenance text, diagnostic_log_level text, diagnostic_log_message text,
+    user_id text, status text, parent_diagnostic_log_id text, hierarchy_level int, elaboration jsonb,
+    p_tenant_name text, p_tenant_id text, p_hub_interaction_id text) language plpgsql
+    as $$ begin null; end $$;
+
+-- per-row baseline: the same writes as the merge, one call and round-trip per row
+create function techbd_udi_ingress.register_interaction_fhir_request(p_interaction_id text,
+    p_interaction_key text, p_nature jsonb, p_payload jsonb, p_to_state text, p_provenance text)
+    returns jsonb language plpgsql as $$
+declare
+    v_tenant_name text := p_nature->>'tenant_id';
+    v_tenant_id text := techbd_udi_ingress.get_tenant_details(v_tenant_name, current_user,
+        current_timestamp, 'register_interaction_fhir_request') ->> 'tenant_id';
+begin
+    insert into techbd_udi_ingress.hub_interaction
+        values (p_interaction_id, p_interaction_key, current_timestamp, current_user, p_provenance)
+        on conflict (hub_interaction_id) do nothing;
+    insert into techbd_udi_ingress.sat_interaction_http_request (sat_interaction_http_request_id,
+        hub_interaction_id, nature, payload, to_state, created_at, created_by, provenance,
+        nature_denorm, tenant_id_denorm, tenant_name, tenant_id)
+        values (gen_random_uuid()::text, p_interaction_id, p_nature, p_payload, p_to_state,
+            current_timestamp, current_user, p_provenance, p_nature->>'nature', v_tenant_name,
+            v_tenant_name, v_tenant_id);
+    perform techbd_udi_ingress.sat_interaction_fhir_request_upserted(p_interaction_id, v_tenant_id,
+        v_tenant_name, p_interaction_key, p_nature->>'nature', null, p_to_state, p_payload, null,
+        current_timestamp, current_user, p_provenance, null, null, null, null, null, null);
+    call techbd_udi_ingress.register_diagnostic_log(gen_random_uuid()::text, p_interaction_key,
+        current_user, p_provenance, 'info', 'register_interaction_fhir_request Logs', current_user,
+        'success', null, 0, null, v_tenant_name, v_tenant_id, p_interaction_id);
+    return jsonb_build_object('interaction_id', p_interaction_id);
+end $$;
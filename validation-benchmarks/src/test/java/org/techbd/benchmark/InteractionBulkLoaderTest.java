@@ -0,0 +1,183 @@
+package org.techbd.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.techbd.benchmark.InteractionBulkLoader.StagedFhirRequest;
+import org.techbd.config.Configuration;
+import org.techbd.util.AppLogger;
+import org.techbd.util.TemplateLogger;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs the merge function against stand-ins for the udi-prime tables and
+ * routines it depends on. Its throughput against one
+ * {@code register_interaction_fhir_request} round-trip per row is measured by
+ * {@link InteractionBulkLoadBenchmark}.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class InteractionBulkLoaderTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static HikariDataSource dataSource;
+    private static DSLContext dsl;
+
+    private InteractionBulkLoader loader;
+
+    @BeforeAll
+    static void createSchema() throws Exception {
+        final var hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(POSTGRES.getJdbcUrl());
+        hikariConfig.setUsername(POSTGRES.getUsername());
+        hikariConfig.setPassword(POSTGRES.getPassword());
+        dataSource = new HikariDataSource(hikariConfig);
+        dsl = DSL.using(dataSource, SQLDialect.POSTGRES);
+        execute(InteractionBulkLoadBenchmark.script(InteractionBulkLoadBenchmark.STAND_INS));
+        execute(InteractionBulkLoadBenchmark.script(InteractionBulkLoadBenchmark.MERGE_FUNCTION));
+    }
+
+    /** Runs DDL as a plain JDBC statement, bypassing jOOQ's bind-variable and template parsing. */
+    private static void execute(final String sql) throws SQLException {
+        try (var connection = dataSource.getConnection(); var statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    @AfterAll
+    static void closeDataSource() {
+        dataSource.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        dsl.execute("""
+                truncate techbd_udi_ingress.hub_interaction, techbd_udi_ingress.sat_interaction_http_request,
+                    techbd_udi_ingress.sat_interaction_fhir_request, techbd_udi_ingress.issue,
+                    techbd_udi_ingress.stg_interaction_fhir_request, techbd_udi_ingress.interaction_bulk_load_batch
+                """);
+        final var appLogger = mock(AppLogger.class);
+        when(appLogger.getLogger(InteractionBulkLoader.class)).thenReturn(mock(TemplateLogger.class));
+        loader = new InteractionBulkLoader(dsl, new SimpleMeterRegistry(), appLogger);
+    }
+
+    private static StagedFhirRequest request(final String interactionId, final String nature, final String toState) {
+        return StagedFhirRequest.builder()
+                .interactionId(interactionId)
+                .interactionKey("/Bundle")
+                .nature(Configuration.objectMapper.createObjectNode().put("nature", nature).put("tenant_id", "tenant-a"))
+                .payload(Configuration.objectMapper.createObjectNode().put("resourceType", "Bundle")
+                        .put("id", interactionId))
+                .payloadText("{\"resourceType\":\"Bundle\"}")
+                .toState(toState)
+                .createdAt(OffsetDateTime.parse("2026-01-02T03:04:05.123456Z"))
+                .provenance("bulk-test")
+                .build();
+    }
+
+    private static List<StagedFhirRequest> requests(final int interactions) {
+        final List<StagedFhirRequest> rows = new ArrayList<>();
+        for (int i = 0; i < interactions; i++) {
+            final var interactionId = UUID.randomUUID().toString();
+            rows.add(request(interactionId, "Original FHIR Payload", "ACCEPT_FHIR_BUNDLE"));
+            rows.add(request(interactionId, "Forward HTTP Request", "FORWARD"));
+        }
+        return rows;
+    }
+
+    private int count(final String table) {
+        return dsl.fetchCount(DSL.table(DSL.name("techbd_udi_ingress", table)));
+    }
+
+    @Test
+    void testCopiedRowsAreMergedIntoHubAndSatellites() {
+        final var rows = requests(10);
+
+        final JsonNode outcome = loader.load("batch-1", rows, "tester", "bulk-test");
+
+        assertThat(outcome.get("staged").asInt()).isEqualTo(20);
+        assertThat(outcome.get("accepted").asInt()).isEqualTo(20);
+        assertThat(count("hub_interaction")).isEqualTo(10);
+        assertThat(count("sat_interaction_http_request")).isEqualTo(20);
+        assertThat(count("sat_interaction_fhir_request")).isEqualTo(20);
+        assertThat(count("stg_interaction_fhir_request")).isZero();
+        final var stored = dsl.fetchOne("""
+                select payload ->> 'id', created_at, tenant_id is not null, nature_denorm
+                from techbd_udi_ingress.sat_interaction_http_request where hub_interaction_id = ? and to_state = ?
+                """, rows.get(0).interactionId(), "ACCEPT_FHIR_BUNDLE");
+        assertThat(stored.get(0, String.class)).isEqualTo(rows.get(0).interactionId());
+        assertThat(stored.get(1, OffsetDateTime.class).toInstant()).isEqualTo(rows.get(0).createdAt().toInstant());
+        assertThat(stored.get(2, Boolean.class)).isTrue();
+        assertThat(stored.get(3, String.class)).isEqualTo("Original FHIR Payload");
+    }
+
+    @Test
+    void testReloadingMergedBatchIsANoOp() {
+        final var rows = requests(5);
+        loader.load("batch-1", rows, "tester", "bulk-test");
+
+        final JsonNode outcome = loader.load("batch-1", rows, "tester", "bulk-test");
+
+        assertThat(outcome.get("already_merged").asBoolean()).isTrue();
+        assertThat(outcome.get("accepted").asInt()).isEqualTo(10);
+        assertThat(count("sat_interaction_http_request")).isEqualTo(10);
+        assertThat(count("stg_interaction_fhir_request")).isZero();
+    }
+
+    @Test
+    void testInvalidAndFailingRowsAreReportedWithoutLosingTheBatch() {
+        final var rows = new ArrayList<>(requests(2));
+        rows.add(request("interaction-bad-nature", "Not a nature", "FORWARD"));
+        rows.add(request("interaction-bad-upsert", "Forward HTTP Request", "BAD"));
+
+        final JsonNode outcome = loader.load("batch-1", rows, "tester", "bulk-test");
+
+        assertThat(outcome.get("accepted").asInt()).isEqualTo(4);
+        assertThat(outcome.get("rejected").asInt()).isEqualTo(1);
+        assertThat(outcome.get("failed").asInt()).isEqualTo(1);
+        assertThat(outcome.get("errors").get(0).get("error").asText()).isEqualTo("Not a valid FHIR nature");
+        assertThat(outcome.get("errors").get(0).get("seq").asInt()).isEqualTo(5);
+        // the failed row's request is rolled back but its hub stays, as with register_interaction_fhir_request
+        assertThat(count("sat_interaction_http_request")).isEqualTo(4);
+        assertThat(count("hub_interaction")).isEqualTo(3);
+        assertThat(count("issue")).isEqualTo(1);
+    }
+
+    @Test
+    void testCopyAndMergeWritesTheSameRowsAsPerRowRegistration() {
+        for (StagedFhirRequest row : requests(50)) {
+            dsl.fetchValue("select techbd_udi_ingress.register_interaction_fhir_request(?, ?, ?::jsonb, ?::jsonb, ?, ?)",
+                    row.interactionId(), row.interactionKey(), row.nature().toString(), row.payload().toString(),
+                    row.toState(), row.provenance());
+        }
+
+        loader.load("batch-1", requests(50), "tester", "bulk-test");
+
+        assertThat(count("hub_interaction")).isEqualTo(100);
+        assertThat(count("sat_interaction_http_request")).isEqualTo(200);
+        assertThat(count("sat_interaction_fhir_request")).isEqualTo(200);
+    }
+}